@@ -0,0 +1,369 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.common.account.banishment;
+
+import fr.quatrevieux.araknemu.data.living.entity.BanIp;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Immutable index of ban ip rules, for fast lookup of the rules matching an IP address
+ *
+ * Rules which represents a single prefix block (i.e. a single IP, a CIDR range, or a wildcard on the last segments)
+ * are stored into a path-compressed binary radix trie, one per IP version.
+ * So lookup is done in O(address bits), regardless of the number of rules.
+ * Other rules (like "1.2.3.1-5" or "*") are checked linearly using {@link IPAddressString#contains(IPAddressString)}.
+ *
+ * Modifications create a new index, sharing unmodified nodes with the original one,
+ * so the index can be read by any thread without lock, and updated incrementally.
+ */
+final class BanIpIndex {
+    private static final BanIp[] NO_ENTRIES = new BanIp[0];
+    private static final BanIpIndex EMPTY = new BanIpIndex(null, null, NO_ENTRIES);
+
+    private final @Nullable Node ipFourRoot;
+    private final @Nullable Node ipSixRoot;
+    private final BanIp[] others;
+
+    private BanIpIndex(@Nullable Node ipFourRoot, @Nullable Node ipSixRoot, BanIp[] others) {
+        this.ipFourRoot = ipFourRoot;
+        this.ipSixRoot = ipSixRoot;
+        this.others = others;
+    }
+
+    /**
+     * Add a rule to the index
+     *
+     * @param banIp Rule to add
+     *
+     * @return The new index
+     */
+    public BanIpIndex add(BanIp banIp) {
+        final IPAddress address = banIp.ipAddress().getAddress();
+        final Integer prefix = address != null ? address.getPrefixLengthForSingleBlock() : null;
+
+        if (address == null || prefix == null) {
+            return new BanIpIndex(ipFourRoot, ipSixRoot, with(others, banIp));
+        }
+
+        final byte[] key = address.getLower().getBytes();
+
+        if (address.isIPv4()) {
+            return new BanIpIndex(Node.insert(ipFourRoot, key, prefix, banIp), ipSixRoot, others);
+        }
+
+        return new BanIpIndex(ipFourRoot, Node.insert(ipSixRoot, key, prefix, banIp), others);
+    }
+
+    /**
+     * Remove a rule from the index
+     * The rule is identified by its id, or by its instance if the id is not defined
+     *
+     * @param banIp Rule to remove
+     *
+     * @return The new index
+     */
+    public BanIpIndex remove(BanIp banIp) {
+        final IPAddress address = banIp.ipAddress().getAddress();
+        final Integer prefix = address != null ? address.getPrefixLengthForSingleBlock() : null;
+
+        if (address == null || prefix == null) {
+            final BanIp[] newOthers = without(others, banIp);
+
+            return newOthers == others ? this : new BanIpIndex(ipFourRoot, ipSixRoot, newOthers);
+        }
+
+        final byte[] key = address.getLower().getBytes();
+
+        if (address.isIPv4()) {
+            return new BanIpIndex(Node.remove(ipFourRoot, key, prefix, banIp), ipSixRoot, others);
+        }
+
+        return new BanIpIndex(ipFourRoot, Node.remove(ipSixRoot, key, prefix, banIp), others);
+    }
+
+    /**
+     * Find an active rule matching the IP address
+     * If many rules matches, the most specific one (i.e. with the longest prefix) is returned
+     *
+     * Note: the IP address must be a single address. For ranges, the rules must be checked one by one
+     *
+     * @param ipAddress IP address to check
+     *
+     * @return The matching rule, or null if the IP is not banned
+     */
+    public @Nullable BanIp find(IPAddressString ipAddress) {
+        final IPAddress address = ipAddress.getAddress();
+
+        if (address != null) {
+            final BanIp found = Node.find(address.isIPv4() ? ipFourRoot : ipSixRoot, address.getBytes());
+
+            if (found != null) {
+                return found;
+            }
+        }
+
+        for (BanIp banIp : others) {
+            if (banIp.active() && banIp.ipAddress().contains(ipAddress)) {
+                return banIp;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Create the index from a list of rules
+     *
+     * @param banIps Rules to index
+     */
+    public static BanIpIndex of(Collection<BanIp> banIps) {
+        BanIpIndex index = EMPTY;
+
+        for (BanIp banIp : banIps) {
+            index = index.add(banIp);
+        }
+
+        return index;
+    }
+
+    /**
+     * Append a rule to an array
+     *
+     * @return The new array
+     */
+    private static BanIp[] with(BanIp[] entries, BanIp banIp) {
+        final BanIp[] newEntries = new BanIp[entries.length + 1];
+
+        System.arraycopy(entries, 0, newEntries, 0, entries.length);
+        newEntries[entries.length] = banIp;
+
+        return newEntries;
+    }
+
+    /**
+     * Remove a rule from an array
+     *
+     * @return The new array, or the same instance if the rule is not found
+     */
+    @SuppressWarnings("array.length.negative") // entries contains at least the removed rule
+    private static BanIp[] without(BanIp[] entries, BanIp banIp) {
+        for (int i = 0; i < entries.length; ++i) {
+            if (sameRule(entries[i], banIp)) {
+                final BanIp[] newEntries = new BanIp[entries.length - 1];
+
+                System.arraycopy(entries, 0, newEntries, 0, i);
+                System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+
+                return newEntries;
+            }
+        }
+
+        return entries;
+    }
+
+    private static boolean sameRule(BanIp entry, BanIp banIp) {
+        return entry == banIp || (banIp.id() != -1 && entry.id() == banIp.id());
+    }
+
+    /**
+     * Trie node
+     * Each node is a prefix of the IP address bits, and contains the rules on this exact prefix
+     */
+    private static final class Node {
+        private final byte[] key;
+        private final int length;
+        private final BanIp[] entries;
+        private final @Nullable Node zero;
+        private final @Nullable Node one;
+
+        private Node(byte[] key, int length, BanIp[] entries, @Nullable Node zero, @Nullable Node one) {
+            this.key = key;
+            this.length = length;
+            this.entries = entries;
+            this.zero = zero;
+            this.one = one;
+        }
+
+        private Node withEntries(BanIp[] newEntries) {
+            return new Node(key, length, newEntries, zero, one);
+        }
+
+        private Node withChild(boolean bit, @Nullable Node child) {
+            return bit ? new Node(key, length, entries, zero, child) : new Node(key, length, entries, child, one);
+        }
+
+        /**
+         * Insert the rule on the given prefix
+         *
+         * @return The new node
+         */
+        private static Node insert(@Nullable Node node, byte[] key, int length, BanIp banIp) {
+            if (node == null) {
+                return new Node(key, length, new BanIp[] {banIp}, null, null);
+            }
+
+            final int common = commonPrefix(node.key, key, Math.min(node.length, length));
+
+            // Same prefix : add the rule on the current node
+            if (common == node.length && common == length) {
+                return node.withEntries(with(node.entries, banIp));
+            }
+
+            // The current node is a prefix of the rule : insert on the child
+            if (common == node.length) {
+                final boolean bit = bit(key, node.length);
+
+                return node.withChild(bit, insert(bit ? node.one : node.zero, key, length, banIp));
+            }
+
+            // The rule is a prefix of the current node : the new node become the parent
+            if (common == length) {
+                return new Node(key, length, new BanIp[] {banIp}, null, null).withChild(bit(node.key, length), node);
+            }
+
+            // Prefixes diverge : split on the common prefix
+            final Node leaf = new Node(key, length, new BanIp[] {banIp}, null, null);
+
+            return bit(key, common)
+                ? new Node(key, common, NO_ENTRIES, node, leaf)
+                : new Node(key, common, NO_ENTRIES, leaf, node)
+            ;
+        }
+
+        /**
+         * Remove the rule on the given prefix
+         *
+         * @return The new node, or null if the node is empty
+         */
+        private static @Nullable Node remove(@Nullable Node node, byte[] key, int length, BanIp banIp) {
+            if (node == null || node.length > length || commonPrefix(node.key, key, node.length) < node.length) {
+                return node;
+            }
+
+            final Node newNode;
+
+            if (node.length == length) {
+                final BanIp[] newEntries = without(node.entries, banIp);
+
+                if (newEntries == node.entries) {
+                    return node;
+                }
+
+                newNode = node.withEntries(newEntries);
+            } else {
+                final boolean bit = bit(key, node.length);
+                final Node child = bit ? node.one : node.zero;
+                final Node newChild = remove(child, key, length, banIp);
+
+                if (newChild == child) {
+                    return node;
+                }
+
+                newNode = node.withChild(bit, newChild);
+            }
+
+            return compact(newNode);
+        }
+
+        /**
+         * Remove the node if it's an intermediate node without rules
+         *
+         * @return The node, its only child, or null if the node is empty
+         */
+        private static @Nullable Node compact(Node node) {
+            if (node.entries.length > 0) {
+                return node;
+            }
+
+            if (node.zero == null) {
+                return node.one;
+            }
+
+            if (node.one == null) {
+                return node.zero;
+            }
+
+            return node;
+        }
+
+        /**
+         * Find the most specific active rule matching the address
+         *
+         * @param node The root node
+         * @param address The address bytes
+         */
+        private static @Nullable BanIp find(@Nullable Node node, byte[] address) {
+            final int bits = address.length * 8;
+            BanIp found = null;
+
+            while (node != null && node.length <= bits && commonPrefix(node.key, address, node.length) == node.length) {
+                for (BanIp banIp : node.entries) {
+                    if (banIp.active()) {
+                        found = banIp;
+                        break;
+                    }
+                }
+
+                if (node.length == bits) {
+                    break;
+                }
+
+                node = bit(address, node.length) ? node.one : node.zero;
+            }
+
+            return found;
+        }
+
+        /**
+         * Get the bit value at the given index
+         */
+        @SuppressWarnings({"array.access.unsafe.low", "array.access.unsafe.high"}) // Index is always lower than the address bits count
+        private static boolean bit(byte[] key, int index) {
+            return (key[index >> 3] & (0x80 >> (index & 7))) != 0;
+        }
+
+        /**
+         * Compute the common prefix length of the two keys
+         *
+         * @param max The maximum number of bits to compare
+         */
+        @SuppressWarnings({"array.access.unsafe.low", "array.access.unsafe.high"}) // max is always lower or equal than the address bits count
+        private static int commonPrefix(byte[] a, byte[] b, int max) {
+            int bits = 0;
+
+            while (bits < max) {
+                final int index = bits >> 3;
+                final int diff = (a[index] ^ b[index]) & 0xFF;
+
+                if (diff != 0) {
+                    return Math.min(max, bits + Integer.numberOfLeadingZeros(diff) - 24);
+                }
+
+                bits += 8;
+            }
+
+            return max;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import fr.quatrevieux.araknemu.common.account.banishment.event.IpBanned;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
 import fr.quatrevieux.araknemu.data.living.entity.BanIp;
 import fr.quatrevieux.araknemu.data.living.repository.BanIpRepository;
+import inet.ipaddr.IPAddress;
 import inet.ipaddr.IPAddressString;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -46,6 +48,8 @@ public final class BanIpService<A extends LivingAccount> {
     private final Dispatcher dispatcher;
     private final Function<int[], Map<Integer, A>> loadAccountsByIds;
 
+    private final AtomicReference<BanIpIndex> index = new AtomicReference<>(BanIpIndex.of(Collections.emptyList()));
+
     private Collection<BanIp> banIps = new CopyOnWriteArrayList<>();
     private Instant lastUpdate = Instant.EPOCH;
 
@@ -66,6 +70,7 @@ public final class BanIpService<A extends LivingAccount> {
     public void load() {
         lastUpdate = Instant.now();
         banIps = repository.available();
+        index.set(BanIpIndex.of(banIps));
     }
 
     /**
@@ -118,7 +123,11 @@ public final class BanIpService<A extends LivingAccount> {
      */
     public void disable(IPAddressString ipAddress) {
         repository.disable(ipAddress);
+
+        final Collection<BanIp> disabled = banIps.stream().filter(banIp -> banIp.ipAddress().equals(ipAddress)).collect(Collectors.toList());
+
         banIps = banIps.stream().filter(banIp -> !banIp.ipAddress().equals(ipAddress)).collect(Collectors.toCollection(CopyOnWriteArrayList::new));
+        updateIndex(disabled, Collections.emptyList());
     }
 
     /**
@@ -132,23 +141,31 @@ public final class BanIpService<A extends LivingAccount> {
             Function.identity()
         ));
         final Collection<BanIp> added = new ArrayList<>();
+        final Collection<BanIp> removedFromIndex = banIps.stream().filter(banIp -> !banIp.active()).collect(Collectors.toList());
+        final Collection<BanIp> addedToIndex = new ArrayList<>();
 
         repository.updated(lastUpdate).forEach(banIp -> {
-            if (banIp.active()) {
-                final BanIp oldEntry = refreshed.get(banIp.id());
+            final BanIp oldEntry = refreshed.get(banIp.id());
+
+            if (oldEntry != null) {
+                removedFromIndex.add(oldEntry);
+            }
 
+            if (banIp.active()) {
                 // A new IP is banned
                 if (oldEntry == null || !oldEntry.active()) {
                     added.add(banIp);
                 }
 
                 refreshed.put(banIp.id(), banIp);
+                addedToIndex.add(banIp);
             } else {
                 refreshed.remove(banIp.id());
             }
         });
 
         banIps = new CopyOnWriteArrayList<>(refreshed.values());
+        updateIndex(removedFromIndex, addedToIndex);
         rules(added).stream().map(IpBanned::new).forEach(dispatcher::dispatch);
         lastUpdate = updateTime;
     }
@@ -157,6 +174,13 @@ public final class BanIpService<A extends LivingAccount> {
      * Find the first matching ban ip entry
      */
     private Optional<BanIp> findFirstEntry(IPAddressString ipAddress) {
+        final IPAddress address = ipAddress.getAddress();
+
+        if (address != null && !address.isMultiple()) {
+            return Optional.ofNullable(index.get().find(ipAddress));
+        }
+
+        // The index only supports single address lookup
         return banIps.stream()
             .filter(BanIp::active)
             .filter(banIp -> banIp.ipAddress().contains(ipAddress))
@@ -164,6 +188,26 @@ public final class BanIpService<A extends LivingAccount> {
         ;
     }
 
+    /**
+     * Apply changes on the ban ip index
+     *
+     * @param removed Rules to remove
+     * @param added Rules to add
+     */
+    private void updateIndex(Collection<BanIp> removed, Collection<BanIp> added) {
+        index.updateAndGet(current -> {
+            for (BanIp banIp : removed) {
+                current = current.remove(banIp);
+            }
+
+            for (BanIp banIp : added) {
+                current = current.add(banIp);
+            }
+
+            return current;
+        });
+    }
+
     /**
      * Convert ban ip entities to BanIpRule
      */
@@ -232,6 +276,7 @@ public final class BanIpService<A extends LivingAccount> {
             final BanIpRule<A> rule = new BanIpRule<>(entity, banisher);
 
             banIps.add(entity);
+            updateIndex(Collections.emptyList(), Collections.singleton(entity));
             dispatcher.dispatch(new IpBanned<>(rule));
 
             return rule;
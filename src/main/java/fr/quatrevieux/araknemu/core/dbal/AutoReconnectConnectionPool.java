@@ -22,6 +22,7 @@ package fr.quatrevieux.araknemu.core.dbal;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.SQLRecoverableException;
 
@@ -57,6 +58,16 @@ public final class AutoReconnectConnectionPool implements ConnectionPool {
         return pool.size();
     }
 
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        return pool.prepare(connection, sql, returnGeneratedKeys);
+    }
+
+    @Override
+    public void release(Connection connection, PreparedStatement statement) throws SQLException {
+        pool.release(connection, statement);
+    }
+
     @Override
     public <T> T execute(Task<T> task) throws SQLException {
         SQLException lastError = null;
@@ -0,0 +1,313 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.dbal;
+
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool with a hard limit on opened connections
+ *
+ * Unlike {@link SimpleConnectionPool}, a new connection is never opened when the limit is reached :
+ * the caller waits, in FIFO order, until a connection is released, or the acquire timeout is reached.
+ * Connections which are idle for a long time are validated before being returned, and invalid connections are replaced.
+ */
+public final class BoundedConnectionPool implements ConnectionPool {
+    /**
+     * Upper bounds, in microseconds, of the acquire latency histogram buckets
+     * The last bucket of the histogram contains all greater latencies
+     */
+    private static final long[] LATENCY_BUCKETS = new long[] {100, 1_000, 10_000, 100_000, 1_000_000};
+
+    /**
+     * Minimal idle time, in nanoseconds, of a connection to be validated on borrow
+     * Recently used connections are only checked for closing, to avoid a server round trip on each acquire
+     */
+    private static final long VALIDATION_IDLE_TIME = TimeUnit.SECONDS.toNanos(30);
+
+    private final Driver driver;
+    private final @Positive int maxSize;
+    private final Duration acquireTimeout;
+    private final boolean validateOnBorrow;
+    private final Logger logger;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder[] latencies = new LongAdder[LATENCY_BUCKETS.length + 1];
+    private final Metrics metrics = new Metrics();
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param driver The database driver
+     * @param maxSize Maximum number of opened connections
+     * @param acquireTimeout Maximum time to wait for a connection
+     * @param validateOnBorrow Check if a connection idle for a long time is valid before returning it
+     * @param logger Logger
+     */
+    public BoundedConnectionPool(Driver driver, @Positive int maxSize, Duration acquireTimeout, boolean validateOnBorrow, Logger logger) {
+        this.driver = driver;
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.validateOnBorrow = validateOnBorrow;
+        this.logger = logger;
+        this.permits = new Semaphore(maxSize, true);
+
+        for (int i = 0; i < latencies.length; ++i) {
+            latencies[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void initialize() throws SQLException {
+        int toInitialize = Math.min(maxSize, 8) - idleCount.get();
+
+        while (toInitialize-- > 0) {
+            pushIdle(driver.newConnection());
+        }
+    }
+
+    @Override
+    public Connection acquire() throws SQLException {
+        final long start = System.nanoTime();
+
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                logger.warn("Cannot acquire a connection after {} : all the {} connections are used. Consider increase poolSize value", acquireTimeout, maxSize);
+
+                throw new SQLException("Timeout while acquiring a connection from the pool");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrupted while acquiring a connection from the pool", e);
+        }
+
+        try {
+            final Connection connection = borrow();
+
+            activeCount.incrementAndGet();
+            recordLatency(System.nanoTime() - start);
+
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                close(connection);
+            } else {
+                pushIdle(connection);
+            }
+        } catch (SQLException e) {
+            close(connection);
+        }
+
+        activeCount.decrementAndGet();
+        permits.release();
+    }
+
+    @Override
+    public int size() {
+        return idleCount.get();
+    }
+
+    /**
+     * Get the pool metrics
+     */
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        logger.info("Closing database connections...");
+
+        closed = true;
+
+        for (IdleConnection connection = pollIdle(); connection != null; connection = pollIdle()) {
+            close(connection.connection);
+        }
+    }
+
+    /**
+     * Get a valid idle connection, or open a new one
+     * A permit must be acquired before calling this method
+     */
+    private Connection borrow() throws SQLException {
+        for (IdleConnection connection = pollIdle(); connection != null; connection = pollIdle()) {
+            if (isValid(connection)) {
+                return connection.connection;
+            }
+
+            logger.warn("Invalid connection detected : close it");
+            close(connection.connection);
+        }
+
+        return driver.newConnection();
+    }
+
+    private boolean isValid(IdleConnection idleConnection) {
+        final Connection connection = idleConnection.connection;
+
+        try {
+            if (validateOnBorrow && System.nanoTime() - idleConnection.since >= VALIDATION_IDLE_TIME) {
+                return connection.isValid((int) Math.max(acquireTimeout.getSeconds(), 1));
+            }
+
+            return !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void pushIdle(Connection connection) {
+        // Last released connection is reused first, so unused connections can be detected as idle by the server
+        idle.offerFirst(new IdleConnection(connection));
+        idleCount.incrementAndGet();
+    }
+
+    private @Nullable IdleConnection pollIdle() {
+        final IdleConnection connection = idle.pollFirst();
+
+        if (connection != null) {
+            idleCount.decrementAndGet();
+        }
+
+        return connection;
+    }
+
+    private void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Ignore: the failed connection is not kept here
+        }
+    }
+
+    @SuppressWarnings("array.access.unsafe.high") // latencies has one more bucket than LATENCY_BUCKETS
+    private void recordLatency(long nanos) {
+        final long micros = nanos / 1000;
+        int bucket = 0;
+
+        while (bucket < LATENCY_BUCKETS.length && micros > LATENCY_BUCKETS[bucket]) {
+            ++bucket;
+        }
+
+        latencies[bucket].increment();
+    }
+
+    /**
+     * Connection stored into the pool
+     */
+    private static final class IdleConnection {
+        private final Connection connection;
+
+        /**
+         * Release time of the connection, in nanoseconds
+         */
+        private final long since;
+
+        public IdleConnection(Connection connection) {
+            this.connection = connection;
+            this.since = System.nanoTime();
+        }
+    }
+
+    /**
+     * Usage metrics of the pool
+     */
+    public final class Metrics {
+        private Metrics() {
+        }
+
+        /**
+         * Number of borrowed connections
+         */
+        public @NonNegative int active() {
+            return Math.max(activeCount.get(), 0);
+        }
+
+        /**
+         * Number of opened connections waiting to be borrowed
+         */
+        public @NonNegative int idle() {
+            return Math.max(idleCount.get(), 0);
+        }
+
+        /**
+         * Estimated number of threads waiting for a connection
+         */
+        public @NonNegative int waiting() {
+            return Math.max(permits.getQueueLength(), 0);
+        }
+
+        /**
+         * Number of acquire which has failed due to timeout
+         */
+        public long timeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * Get the acquire latency histogram
+         * Each value is the number of acquires with latency lower than the corresponding bound of {@link Metrics#latencyBuckets()}
+         * The last value contains acquires with greater latencies
+         */
+        public long[] acquireLatency() {
+            final long[] histogram = new long[latencies.length];
+
+            for (int i = 0; i < histogram.length; ++i) {
+                histogram[i] = latencies[i].sum();
+            }
+
+            return histogram;
+        }
+
+        /**
+         * Get the upper bounds, in microseconds, of the latency histogram buckets
+         */
+        public long[] latencyBuckets() {
+            return LATENCY_BUCKETS.clone();
+        }
+    }
+}
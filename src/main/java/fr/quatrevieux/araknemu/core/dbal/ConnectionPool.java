@@ -20,7 +20,9 @@
 package fr.quatrevieux.araknemu.core.dbal;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * Handle pool of database connection for multi-threading optimisation
@@ -52,6 +54,33 @@ public interface ConnectionPool extends AutoCloseable {
      */
     public int size();
 
+    /**
+     * Create a prepared statement on a connection acquired from this pool
+     * The statement may be cached and reused by the pool, so it must not be closed :
+     * use {@link ConnectionPool#release(Connection, PreparedStatement)} instead
+     *
+     * @param connection The acquired connection
+     * @param sql The SQL query
+     * @param returnGeneratedKeys Does the statement should return generated keys
+     */
+    public default PreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        return connection.prepareStatement(
+            sql,
+            returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS
+        );
+    }
+
+    /**
+     * Release a statement created by {@link ConnectionPool#prepare(Connection, String, boolean)}
+     * The statement must not be used after this call
+     *
+     * @param connection The connection used to create the statement
+     * @param statement Statement to release
+     */
+    public default void release(Connection connection, PreparedStatement statement) throws SQLException {
+        statement.close();
+    }
+
     /**
      * Execute a connection pool task
      *
@@ -23,6 +23,8 @@ import fr.quatrevieux.araknemu.core.config.ConfigurationModule;
 import fr.quatrevieux.araknemu.core.config.Pool;
 import fr.quatrevieux.araknemu.core.config.PoolUtils;
 
+import java.time.Duration;
+
 /**
  * Configuration module for database system
  */
@@ -125,6 +127,40 @@ public final class DatabaseConfiguration {
             return pool.integer(name + ".poolSize", 16);
         }
 
+        /**
+         * Use a bounded pool : the number of opened connections will never exceed {@link Connection#maxPoolSize()}
+         * If false, new connections are opened when the pool is empty, and closed when released on a full pool
+         * Default to false
+         */
+        public boolean boundedPool() {
+            return pool.bool(name + ".boundedPool", false);
+        }
+
+        /**
+         * Maximum time to wait for a connection, when the bounded pool is exhausted
+         * Default to 10 seconds
+         */
+        public Duration acquireTimeout() {
+            return pool.duration(name + ".acquireTimeout", Duration.ofSeconds(10));
+        }
+
+        /**
+         * Check if a connection idle for more than 30 seconds is still valid before borrowing it from the bounded pool
+         * Default to true
+         */
+        public boolean validateOnBorrow() {
+            return pool.bool(name + ".validateOnBorrow", true);
+        }
+
+        /**
+         * Maximum number of prepared statements kept by each connection
+         * If the value is lower than 1, the cache will be disabled
+         * Default to 32
+         */
+        public int statementCacheSize() {
+            return pool.integer(name + ".statementCacheSize", 32);
+        }
+
         /**
          * Get the database file path (sqlite)
          * By default same as {@link Connection#dbname()} with .db extension
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +37,7 @@ public final class DefaultDatabaseHandler implements DatabaseHandler {
     private final Logger logger;
 
     private final Map<String, ConnectionPool> connections = new HashMap<>();
+    private final Map<String, BoundedConnectionPool.Metrics> metrics = new HashMap<>();
 
     public DefaultDatabaseHandler(DatabaseConfiguration configuration, Logger logger, Map<String, Driver.Factory> factories) {
         this.configuration = configuration;
@@ -66,11 +68,30 @@ public final class DefaultDatabaseHandler implements DatabaseHandler {
             throw new IllegalArgumentException("Invalid database driver " + config.type());
         }
 
-        pool = new SimpleConnectionPool(
-            factory.create(config),
-            config.maxPoolSize(),
-            logger
-        );
+        if (config.boundedPool()) {
+            final BoundedConnectionPool boundedPool = new BoundedConnectionPool(
+                factory.create(config),
+                Math.max(config.maxPoolSize(), 1),
+                config.acquireTimeout(),
+                config.validateOnBorrow(),
+                logger
+            );
+
+            metrics.put(name, boundedPool.metrics());
+            pool = boundedPool;
+        } else {
+            pool = new SimpleConnectionPool(
+                factory.create(config),
+                config.maxPoolSize(),
+                logger
+            );
+        }
+
+        final int statementCacheSize = config.statementCacheSize();
+
+        if (statementCacheSize > 0) {
+            pool = new StatementCacheConnectionPool(pool, statementCacheSize, logger);
+        }
 
         if (config.refreshPoolInterval() > 0) {
             pool = new RefreshConnectionPool(pool, config.refreshPoolInterval(), logger);
@@ -87,6 +108,14 @@ public final class DefaultDatabaseHandler implements DatabaseHandler {
         return pool;
     }
 
+    /**
+     * Get metrics of the bounded pools, indexed by the connection name
+     * Connections without bounded pool are not present
+     */
+    public Map<String, BoundedConnectionPool.Metrics> metrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
     /**
      * Register a new factory
      *
@@ -102,6 +131,7 @@ public final class DefaultDatabaseHandler implements DatabaseHandler {
         final Collection<ConnectionPool> pools = new ArrayList<>(connections.values());
 
         connections.clear();
+        metrics.clear();
 
         for (ConnectionPool pool : pools) {
             try {
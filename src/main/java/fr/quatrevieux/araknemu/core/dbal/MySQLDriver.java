@@ -48,6 +48,9 @@ public final class MySQLDriver implements Driver {
     }
 
     private String jdbcUrl() {
-        return "jdbc:mariadb://" + configuration.host() + "/" + configuration.dbname() + "?useLegacyDatetimeCode=false&serverTimezone=UTC&autoReconnect=true";
+        final String url = "jdbc:mariadb://" + configuration.host() + "/" + configuration.dbname() + "?useLegacyDatetimeCode=false&serverTimezone=UTC&autoReconnect=true";
+
+        // Statements are kept by the pool : prepare them on the server, so queries are parsed only once per connection
+        return configuration.statementCacheSize() > 0 ? url + "&useServerPrepStmts=true" : url;
     }
 }
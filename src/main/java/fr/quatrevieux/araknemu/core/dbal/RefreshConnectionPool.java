@@ -23,6 +23,7 @@ import fr.quatrevieux.araknemu.util.ExecutorFactory;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -67,6 +68,16 @@ public final class RefreshConnectionPool implements ConnectionPool {
         return pool.size();
     }
 
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        return pool.prepare(connection, sql, returnGeneratedKeys);
+    }
+
+    @Override
+    public void release(Connection connection, PreparedStatement statement) throws SQLException {
+        pool.release(connection, statement);
+    }
+
     @Override
     public <T> T execute(Task<T> task) throws SQLException {
         return pool.execute(task);
@@ -83,11 +94,17 @@ public final class RefreshConnectionPool implements ConnectionPool {
 
                 if (connection.isClosed()) {
                     logger.warn("Closed connection detected");
+                    // Release the closed connection to let the pool discard it and its resources
+                    release(connection);
                     continue;
                 }
 
                 try (Statement statement = connection.createStatement()) {
                     statement.execute("SELECT 1");
+                } catch (SQLException e) {
+                    logger.warn("Closed connection detected");
+                    closeQuietly(connection);
+                } finally {
                     release(connection);
                 }
             } catch (SQLException e) {
@@ -123,4 +140,12 @@ public final class RefreshConnectionPool implements ConnectionPool {
         executorService.shutdownNow();
         pool.close();
     }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Ignore: the connection is already broken
+        }
+    }
 }
@@ -0,0 +1,317 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.dbal;
+
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keep prepared statements of each connection, to reuse them instead of preparing the same query again
+ *
+ * Each connection has its own LRU cache, indexed by the SQL query and the generated keys flag.
+ * A cached statement is removed from the cache while it's used, so it's never shared.
+ * Statements are closed when they are evicted, or when their connection is closed.
+ */
+public final class StatementCacheConnectionPool implements ConnectionPool {
+    private final ConnectionPool pool;
+    private final @Positive int cacheSize;
+    private final Logger logger;
+
+    private final Map<Connection, StatementCache> caches = new IdentityHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param pool The inner pool
+     * @param cacheSize Maximum number of cached statements per connection
+     * @param logger Logger
+     */
+    public StatementCacheConnectionPool(ConnectionPool pool, @Positive int cacheSize, Logger logger) {
+        this.pool = pool;
+        this.cacheSize = cacheSize;
+        this.logger = logger;
+    }
+
+    @Override
+    public void initialize() throws SQLException {
+        pool.initialize();
+    }
+
+    @Override
+    public Connection acquire() throws SQLException {
+        return pool.acquire();
+    }
+
+    @Override
+    public void release(Connection connection) {
+        pool.release(connection);
+
+        // The connection has been discarded by the pool : statements cannot be used anymore
+        if (isClosed(connection)) {
+            final StatementCache cache;
+
+            synchronized (caches) {
+                cache = caches.remove(connection);
+            }
+
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return pool.size();
+    }
+
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        final StatementCache cache = cache(connection);
+        final PreparedStatement statement = cache.take(sql, returnGeneratedKeys);
+
+        if (statement != null) {
+            hits.increment();
+            return statement;
+        }
+
+        misses.increment();
+
+        return cache.borrowed(pool.prepare(connection, sql, returnGeneratedKeys), sql, returnGeneratedKeys);
+    }
+
+    @Override
+    public void release(Connection connection, PreparedStatement statement) throws SQLException {
+        final StatementCache cache;
+
+        synchronized (caches) {
+            cache = caches.get(connection);
+        }
+
+        if (cache == null) {
+            pool.release(connection, statement);
+            return;
+        }
+
+        cache.restore(statement);
+    }
+
+    /**
+     * Number of prepared statements reused from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of prepared statements created because they was not found in the cache
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the cache hit rate, between 0 and 1
+     * If no statement has been prepared, 0 is returned
+     */
+    public double hitRate() {
+        final long hitsCount = hits();
+        final long total = hitsCount + misses();
+
+        return total == 0 ? 0 : (double) hitsCount / total;
+    }
+
+    @Override
+    public void close() throws Exception {
+        logger.info("Prepared statement cache hit rate : {}% ({} hits, {} misses)", Math.round(hitRate() * 100), hits(), misses());
+
+        final Collection<StatementCache> toClose;
+
+        synchronized (caches) {
+            toClose = new ArrayList<>(caches.values());
+            caches.clear();
+        }
+
+        for (StatementCache cache : toClose) {
+            cache.close();
+        }
+
+        pool.close();
+    }
+
+    /**
+     * Get or create the statement cache of the connection
+     */
+    private StatementCache cache(Connection connection) {
+        synchronized (caches) {
+            StatementCache cache = caches.get(connection);
+
+            if (cache == null) {
+                // Connections closed outside the pool (e.g. invalid connection) are never released : remove them here
+                final Iterator<Map.Entry<Connection, StatementCache>> iterator = caches.entrySet().iterator();
+
+                while (iterator.hasNext()) {
+                    final Map.Entry<Connection, StatementCache> entry = iterator.next();
+
+                    if (isClosed(entry.getKey())) {
+                        entry.getValue().close();
+                        iterator.remove();
+                    }
+                }
+
+                cache = new StatementCache();
+                caches.put(connection, cache);
+            }
+
+            return cache;
+        }
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeStatement(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Ignore: the statement is not kept
+        }
+    }
+
+    private static String key(String sql, boolean returnGeneratedKeys) {
+        return returnGeneratedKeys ? "K:" + sql : "N:" + sql;
+    }
+
+    /**
+     * LRU cache of statements of a single connection
+     * A connection is used by a single thread at a time, but the cache may be closed by another thread,
+     * so all accesses are synchronized
+     */
+    private final class StatementCache {
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+
+                closeStatement(eldest.getValue());
+
+                return true;
+            }
+        };
+        private final Map<PreparedStatement, String> borrowed = new IdentityHashMap<>();
+        private boolean closed = false;
+
+        /**
+         * Take a statement from the cache
+         *
+         * @return The statement, or null if not cached
+         */
+        public synchronized @Nullable PreparedStatement take(String sql, boolean returnGeneratedKeys) {
+            final String key = key(sql, returnGeneratedKeys);
+            final PreparedStatement statement = statements.remove(key);
+
+            if (statement != null) {
+                borrowed.put(statement, key);
+            }
+
+            return statement;
+        }
+
+        /**
+         * Register a new statement as borrowed, so it will be cached on release
+         *
+         * @return The statement
+         */
+        public synchronized PreparedStatement borrowed(PreparedStatement statement, String sql, boolean returnGeneratedKeys) {
+            borrowed.put(statement, key(sql, returnGeneratedKeys));
+
+            return statement;
+        }
+
+        /**
+         * Reset the statement and put it back into the cache
+         * If the statement cannot be reset, or if another statement is already cached for the same query, it will be closed
+         */
+        public synchronized void restore(PreparedStatement statement) {
+            final String key = borrowed.remove(statement);
+
+            if (closed || key == null || statements.containsKey(key) || !reset(statement)) {
+                closeStatement(statement);
+                return;
+            }
+
+            statements.put(key, statement);
+        }
+
+        /**
+         * Close all cached statements
+         */
+        public synchronized void close() {
+            closed = true;
+
+            for (PreparedStatement statement : statements.values()) {
+                closeStatement(statement);
+            }
+
+            statements.clear();
+        }
+
+        private boolean reset(PreparedStatement statement) {
+            try {
+                if (statement.isClosed()) {
+                    return false;
+                }
+
+                final ResultSet resultSet = statement.getResultSet();
+
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+
+                statement.clearParameters();
+                statement.clearBatch();
+
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
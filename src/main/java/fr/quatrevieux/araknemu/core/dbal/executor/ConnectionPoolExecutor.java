@@ -56,16 +56,25 @@ public final class ConnectionPoolExecutor implements ConnectionPool, QueryExecut
         return pool.size();
     }
 
+    @Override
+    public PreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        return pool.prepare(connection, sql, returnGeneratedKeys);
+    }
+
+    @Override
+    public void release(Connection connection, PreparedStatement statement) throws SQLException {
+        pool.release(connection, statement);
+    }
+
     @Override
     public <T> T prepare(String sql, PreparedTask<T> task, boolean returnGeneratedKeys) throws SQLException {
         return execute(connection -> {
-            try (PreparedStatement stmt = connection.prepareStatement(
-                sql,
-                returnGeneratedKeys
-                    ? PreparedStatement.RETURN_GENERATED_KEYS
-                    : PreparedStatement.NO_GENERATED_KEYS
-            )) {
+            final PreparedStatement stmt = pool.prepare(connection, sql, returnGeneratedKeys);
+
+            try {
                 return task.execute(stmt);
+            } finally {
+                pool.release(connection, stmt);
             }
         });
     }
@@ -21,12 +21,16 @@ package fr.quatrevieux.araknemu.core.dbal.repository;
 
 import fr.quatrevieux.araknemu.core.dbal.executor.QueryExecutor;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Utility class for repository
@@ -34,6 +38,11 @@ import java.util.List;
  * @param <E> The entity class
  */
 public class RepositoryUtils<E> {
+    /**
+     * Maximum number of queries sent to the database in a single batch
+     */
+    public static final int BATCH_SIZE = 500;
+
     private final QueryExecutor executor;
     private final Loader<E> loader;
 
@@ -67,13 +76,13 @@ public class RepositoryUtils<E> {
                 statement -> {
                     binder.bind(statement);
 
-                    final ResultSet rs = statement.executeQuery();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new EntityNotFoundException();
+                        }
 
-                    if (!rs.next()) {
-                        throw new EntityNotFoundException();
+                        return loader.create(new Record(rs));
                     }
-
-                    return loader.create(new Record(rs));
                 }
             );
         } catch (SQLException e) {
@@ -105,15 +114,16 @@ public class RepositoryUtils<E> {
                 statement -> {
                     binder.bind(statement);
 
-                    final ResultSet rs = statement.executeQuery();
-                    final Record record = new Record(rs);
-                    final List<E> result = new ArrayList<>();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        final Record record = new Record(rs);
+                        final List<E> result = new ArrayList<>();
 
-                    while (rs.next()) {
-                        result.add(loader.create(record));
-                    }
+                        while (rs.next()) {
+                            result.add(loader.create(record));
+                        }
 
-                    return result;
+                        return result;
+                    }
                 }
             );
         } catch (SQLException e) {
@@ -139,6 +149,46 @@ public class RepositoryUtils<E> {
         return findAll(query, Binder.NOP_BINDER);
     }
 
+    /**
+     * Iterate over entities matching the query, without keeping them in memory
+     * Each entity is created and passed to the action as soon as the row is read
+     *
+     * util.forEach("SELECT * FROM MAPS", map -> process(map));
+     *
+     * @param query The find query
+     * @param action Action to perform on each entity
+     *
+     * @return The number of processed entities
+     *
+     * @throws RepositoryException When error occurs during query execution
+     *
+     * @see RepositoryUtils#findAll(String) For get all entities as list
+     */
+    public int forEach(String query, Consumer<? super E> action) throws RepositoryException {
+        try {
+            return executor.prepare(
+                query,
+                statement -> {
+                    statement.setFetchSize(BATCH_SIZE);
+
+                    try (ResultSet rs = statement.executeQuery()) {
+                        final Record record = new Record(rs);
+                        int count = 0;
+
+                        while (rs.next()) {
+                            action.accept(loader.create(record));
+                            ++count;
+                        }
+
+                        return count;
+                    }
+                }
+            );
+        } catch (SQLException e) {
+            throw new RepositoryException(e);
+        }
+    }
+
     /**
      * Execute aggregation function, like COUNT(*)
      * The aggregation function MUST be the first selected data
@@ -162,13 +212,13 @@ public class RepositoryUtils<E> {
                 statement -> {
                     binder.bind(statement);
 
-                    final ResultSet rs = statement.executeQuery();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new RepositoryException("Invalid aggregate query");
+                        }
 
-                    if (!rs.next()) {
-                        throw new RepositoryException("Invalid aggregate query");
+                        return rs.getInt(1);
                     }
-
-                    return rs.getInt(1);
                 }
             );
         } catch (SQLException e) {
@@ -235,13 +285,13 @@ public class RepositoryUtils<E> {
                     binder.bind(statement);
                     statement.execute();
 
-                    final ResultSet rs = statement.getGeneratedKeys();
+                    try (ResultSet rs = statement.getGeneratedKeys()) {
+                        if (!rs.next()) {
+                            throw new RepositoryException("No generated keys. Use RepositoryUtils#update(String, Binder) instead");
+                        }
 
-                    if (!rs.next()) {
-                        throw new RepositoryException("No generated keys. Use RepositoryUtils#update(String, Binder) instead");
+                        return loader.fillKeys(entity, rs);
                     }
-
-                    return loader.fillKeys(entity, rs);
                 },
                 true
             );
@@ -250,6 +300,184 @@ public class RepositoryUtils<E> {
         }
     }
 
+    /**
+     * Execute a query in batch mode, once per value
+     *
+     * All queries are executed inside a single transaction, in chunks of {@link RepositoryUtils#BATCH_SIZE} queries.
+     * If an error occurs, the transaction is rolled back.
+     *
+     * util.batch(
+     *     "UPDATE ACCOUNT SET PSEUDO = ? WHERE ACCOUNT_ID = ?",
+     *     accounts,
+     *     (rs, account) -> {
+     *         rs.setString(1, account.pseudo());
+     *         rs.setInt(2, account.id());
+     *     }
+     * );
+     *
+     * @param query The update query
+     * @param entities Values to bind to the query. Can be entities, or any value holding the query parameters
+     * @param binder The value binder
+     * @param <T> The bound value type
+     *
+     * @return Number of affected rows
+     *
+     * @throws RepositoryException When error occurs during query execution
+     */
+    public <T> int batch(String query, Collection<? extends T> entities, EntityBinder<? super T> binder) throws RepositoryException {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return executor.prepare(
+                query,
+                statement -> {
+                    final Connection connection = statement.getConnection();
+                    final boolean autoCommit = connection.getAutoCommit();
+
+                    connection.setAutoCommit(false);
+
+                    try {
+                        final int count = RepositoryUtils.<T>executeBatch(statement, entities, binder, false);
+
+                        connection.commit();
+
+                        return count;
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+            );
+        } catch (SQLException e) {
+            throw new RepositoryException(e);
+        }
+    }
+
+    /**
+     * Execute multiple batch queries inside a single transaction
+     *
+     * Queries are executed in the given order, using the same connection.
+     * If an error occurs, or if a query requiring a single row per value do not affect exactly one row,
+     * the whole transaction is rolled back.
+     *
+     * util.transaction(
+     *     new BatchQuery<>("DELETE FROM ITEM WHERE ITEM_ID = ?", deleted, (rs, item) -> rs.setInt(1, item.id()), true),
+     *     new BatchQuery<>("INSERT INTO ITEM (ITEM_ID, NAME) VALUES (?, ?)", added, this::bindInsert, false)
+     * );
+     *
+     * @param queries Queries to execute. Queries without values are ignored
+     *
+     * @return Number of affected rows
+     *
+     * @throws EntityNotFoundException When a query requiring a single row per value affect another number of rows
+     * @throws RepositoryException When error occurs during query execution
+     */
+    public int transaction(BatchQuery<?>... queries) throws RepositoryException {
+        final List<BatchQuery<?>> toExecute = new ArrayList<>();
+
+        for (BatchQuery<?> query : queries) {
+            if (!query.values.isEmpty()) {
+                toExecute.add(query);
+            }
+        }
+
+        if (toExecute.isEmpty()) {
+            return 0;
+        }
+
+        final Iterator<BatchQuery<?>> iterator = toExecute.iterator();
+        final BatchQuery<?> first = iterator.next();
+
+        try {
+            return executor.prepare(
+                first.query,
+                statement -> {
+                    final Connection connection = statement.getConnection();
+                    final boolean autoCommit = connection.getAutoCommit();
+
+                    connection.setAutoCommit(false);
+
+                    try {
+                        final int count = first.execute(statement) + executeQueries(connection, iterator);
+
+                        connection.commit();
+
+                        return count;
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+            );
+        } catch (SQLException e) {
+            throw new RepositoryException(e);
+        }
+    }
+
+    /**
+     * Execute the remaining queries of a transaction, on the same connection
+     *
+     * @return Number of affected rows
+     */
+    private static int executeQueries(Connection connection, Iterator<BatchQuery<?>> queries) throws SQLException {
+        int count = 0;
+
+        while (queries.hasNext()) {
+            final BatchQuery<?> query = queries.next();
+
+            try (PreparedStatement statement = connection.prepareStatement(query.query)) {
+                count += query.execute(statement);
+            }
+        }
+
+        return count;
+    }
+
+    private static <T> int executeBatch(PreparedStatement statement, Collection<? extends T> entities, EntityBinder<? super T> binder, boolean singleRow) throws SQLException {
+        int count = 0;
+        int pending = 0;
+
+        for (T entity : entities) {
+            binder.bind(statement, entity);
+            statement.addBatch();
+
+            if (++pending >= BATCH_SIZE) {
+                count += affectedRows(statement.executeBatch(), singleRow);
+                pending = 0;
+            }
+        }
+
+        if (pending > 0) {
+            count += affectedRows(statement.executeBatch(), singleRow);
+        }
+
+        return count;
+    }
+
+    private static int affectedRows(int[] results, boolean singleRow) {
+        int count = 0;
+
+        for (int result : results) {
+            // SUCCESS_NO_INFO is returned by some drivers when the batch is rewritten : the row count cannot be checked
+            if (singleRow && result != 1 && result != Statement.SUCCESS_NO_INFO) {
+                throw new EntityNotFoundException();
+            }
+
+            // Ignore SUCCESS_NO_INFO (-2) results
+            if (result > 0) {
+                count += result;
+            }
+        }
+
+        return count;
+    }
+
     public interface Loader<E> {
         /**
          * Create an entity from database data
@@ -287,4 +515,40 @@ public class RepositoryUtils<E> {
          */
         public void bind(PreparedStatement statement) throws SQLException;
     }
+
+    public interface EntityBinder<E> {
+        /**
+         * Bind entity data into PreparedStatement
+         */
+        public void bind(PreparedStatement statement, E entity) throws SQLException;
+    }
+
+    /**
+     * Query executed in batch mode by {@link RepositoryUtils#transaction(BatchQuery[])}
+     *
+     * @param <T> The bound value type
+     */
+    public static final class BatchQuery<T> {
+        private final String query;
+        private final Collection<? extends T> values;
+        private final EntityBinder<? super T> binder;
+        private final boolean singleRow;
+
+        /**
+         * @param query The update query
+         * @param values Values to bind to the query
+         * @param binder The value binder
+         * @param singleRow Require each value to affect exactly one row (e.g. update or delete by primary key)
+         */
+        public BatchQuery(String query, Collection<? extends T> values, EntityBinder<? super T> binder, boolean singleRow) {
+            this.query = query;
+            this.values = values;
+            this.binder = binder;
+            this.singleRow = singleRow;
+        }
+
+        private int execute(PreparedStatement statement) throws SQLException {
+            return RepositoryUtils.<T>executeBatch(statement, values, binder, singleRow);
+        }
+    }
 }
@@ -19,27 +19,34 @@
 
 package fr.quatrevieux.araknemu.core.event;
 
+import fr.quatrevieux.araknemu.util.Asserter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.EnsuresKeyForIf;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Default implementation for dispatcher, using maps
  *
- * Adding or removing listeners is not thread safe
+ * Listeners of an event are stored into an immutable array, which is replaced on each modification (i.e. copy-on-write).
+ * So dispatch do not require any lock, and adding or removing listeners during dispatch
+ * will only be taken in account by next dispatches (See: https://github.com/Arakne/Araknemu/issues/250)
+ *
+ * Dispatch can be done concurrently with modifications, but adding or removing listeners is not thread safe
  */
 public final class DefaultListenerAggregate implements ListenerAggregate {
     private static final Logger defaultLogger = LogManager.getLogger(DefaultListenerAggregate.class);
 
     private final Logger logger;
+    private final @Nullable EventDispatchProfiler profiler;
 
     /**
      * Store listeners instances by their class
@@ -48,42 +55,58 @@ public final class DefaultListenerAggregate implements ListenerAggregate {
     private final Map<Class<? extends Listener>, Listener> listeners = new HashMap<>();
 
     /**
-     * Store listeners containers by their handled event class
+     * Store listeners arrays by their handled event class
+     * Arrays must never be modified : a new array is created on each modification
      */
-    private final Map<Class, ListenersContainer<?>> containers = new HashMap<>();
+    private final ConcurrentMap<Class, Listener[]> containers = new ConcurrentHashMap<>();
 
     public DefaultListenerAggregate() {
         this(defaultLogger);
     }
 
     public DefaultListenerAggregate(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param profiler Collect dispatch count and time per event class. Use null to disable profiling
+     */
+    public DefaultListenerAggregate(@Nullable EventDispatchProfiler profiler) {
+        this(defaultLogger, profiler);
+    }
+
+    /**
+     * @param logger Logger used for listeners errors
+     * @param profiler Collect dispatch count and time per event class. Use null to disable profiling
+     */
+    public DefaultListenerAggregate(Logger logger, @Nullable EventDispatchProfiler profiler) {
         this.logger = logger;
+        this.profiler = profiler;
     }
 
     @Override
     public void dispatch(Object event) {
-        final ListenersContainer<?> container = containers.get(event.getClass());
+        final Listener[] eventListeners = containers.get(event.getClass());
 
-        if (container == null || container.isEmpty()) {
+        if (eventListeners == null) {
             return;
         }
 
-        final boolean lastUse = container.use();
+        final EventDispatchProfiler profiler = this.profiler;
+        final long start = profiler != null ? System.nanoTime() : 0;
 
-        try {
-            // @todo use generics on dipatch parameter
-            for (Listener listener : container) {
-                try {
-                    listener.on(event);
-                } catch (RuntimeException e) {
-                    logger.error("Error during execution of listener " + listener.getClass().getName(), e);
-                }
-            }
-        } finally {
-            if (!lastUse) {
-                container.release();
+        // @todo use generics on dipatch parameter
+        for (Listener listener : eventListeners) {
+            try {
+                listener.on(event);
+            } catch (RuntimeException e) {
+                logger.error("Error during execution of listener " + listener.getClass().getName(), e);
             }
         }
+
+        if (profiler != null) {
+            profiler.record(event.getClass(), System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -97,19 +120,19 @@ public final class DefaultListenerAggregate implements ListenerAggregate {
         }
 
         final Class eventClass = listener.event();
-        ListenersContainer<?> eventListeners = containers.get(eventClass);
+        final Listener[] eventListeners = containers.get(eventClass);
 
         if (eventListeners == null) {
-            eventListeners = new ListenersContainer<>();
-            containers.put(eventClass, eventListeners);
-        } else if (eventListeners.inUse()) {
-            // Current event is in use : duplicate container for ignore concurrent modification
-            // See: https://github.com/Arakne/Araknemu/issues/250
-            eventListeners = new ListenersContainer<>(eventListeners);
-            containers.put(eventClass, eventListeners);
+            containers.put(eventClass, new Listener[] {listener});
+            return;
         }
 
-        eventListeners.add(listener);
+        final Listener[] newListeners = new Listener[eventListeners.length + 1];
+
+        System.arraycopy(eventListeners, 0, newListeners, 0, eventListeners.length);
+        newListeners[Asserter.assertIndexFor(newListeners, eventListeners.length)] = listener;
+
+        containers.put(eventClass, newListeners);
     }
 
     @Override
@@ -136,108 +159,24 @@ public final class DefaultListenerAggregate implements ListenerAggregate {
     /**
      * Remove a listener instance from container
      */
-    private <E> void remove(Listener<E> listener) {
-        final Class<E> eventClass = listener.event();
-        ListenersContainer<E> container = (ListenersContainer<E>) containers.get(eventClass);
+    private void remove(Listener<?> listener) {
+        final Class eventClass = listener.event();
+        final Listener[] eventListeners = containers.get(eventClass);
 
-        if (container == null) {
+        if (eventListeners == null) {
             return;
         }
 
         // Only requested listener is registered : simply remove the container
-        if (container.isSingleton()) {
+        if (eventListeners.length == 1 && eventListeners[0].equals(listener)) {
             containers.remove(eventClass);
             return;
         }
 
-        // Requested listener is in use : duplicate container for ignore concurrent modification
-        // See: https://github.com/Arakne/Araknemu/issues/250
-        if (container.inUse()) {
-            container = new ListenersContainer<>(container);
-            containers.put(eventClass, container);
-        }
-
-        container.remove(listener);
-    }
-
-    /**
-     * Contains listeners instances and "inUse" flag for handle concurrent modification
-     *
-     * See: https://github.com/Arakne/Araknemu/issues/250
-     *
-     * @param <E> Handled event class
-     */
-    private static class ListenersContainer<E> implements Iterable<Listener<E>> {
-        private final Collection<Listener<E>> listeners;
-        private final AtomicBoolean inUse = new AtomicBoolean(false);
-
-        public ListenersContainer(ListenersContainer<E> other) {
-            this.listeners = new ArrayList<>(other.listeners);
-        }
-
-        public ListenersContainer() {
-            this.listeners = new ArrayList<>();
-        }
-
-        /**
-         * Add a new listener to the container
-         * Note: container must not be in use
-         */
-        public void add(Listener<E> listener) {
-            assert !inUse();
-            listeners.add(listener);
-        }
-
-        /**
-         * Remove listener from the container
-         * Note: container must not be in use
-         */
-        public void remove(Listener<E> listener) {
-            assert !inUse();
-            listeners.remove(listener);
-        }
-
-        /**
-         * Does the container is empty ? (i.e. do not have any listeners)
-         */
-        public boolean isEmpty() {
-            return listeners.isEmpty();
-        }
-
-        /**
-         * Does the container has only one listener ?
-         */
-        public boolean isSingleton() {
-            return listeners.size() == 1;
-        }
-
-        /**
-         * Set the flag "inUse" to true
-         *
-         * @return The last state of "inUse" flag
-         */
-        public boolean use() {
-            return inUse.getAndSet(true);
-        }
-
-        /**
-         * Check if the "inUse" flag value
-         * If this value is true, modification of listeners is disallowed
-         */
-        public boolean inUse() {
-            return inUse.get();
-        }
-
-        /**
-         * Set the flag "inUse" to false
-         */
-        public void release() {
-            inUse.set(false);
-        }
+        final List<Listener> newListeners = new ArrayList<>(Arrays.asList(eventListeners));
 
-        @Override
-        public Iterator<Listener<E>> iterator() {
-            return listeners.iterator();
+        if (newListeners.remove(listener)) {
+            containers.put(eventClass, newListeners.toArray(new Listener[0]));
         }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.event;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collect dispatch count and time per event class
+ * The same profiler can be shared by multiple {@link DefaultListenerAggregate}
+ *
+ * @see DefaultListenerAggregate#DefaultListenerAggregate(org.apache.logging.log4j.Logger, EventDispatchProfiler)
+ */
+public final class EventDispatchProfiler {
+    private final ConcurrentMap<Class<?>, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Record a dispatch of an event
+     *
+     * @param eventClass The dispatched event class
+     * @param duration Time spent executing all listeners, in nanoseconds
+     */
+    public void record(Class<?> eventClass, long duration) {
+        Stats eventStats = stats.get(eventClass);
+
+        if (eventStats == null) {
+            eventStats = stats.computeIfAbsent(eventClass, key -> new Stats());
+        }
+
+        eventStats.count.increment();
+        eventStats.time.add(duration);
+    }
+
+    /**
+     * Get statistics of the given event class
+     *
+     * @return The stats, or null if the event has never been dispatched
+     */
+    public @Nullable Stats get(Class<?> eventClass) {
+        return stats.get(eventClass);
+    }
+
+    /**
+     * Get statistics of all dispatched events
+     */
+    public Map<Class<?>, Stats> all() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Clear all statistics
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Dispatch statistics of a single event class
+     */
+    public static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+        /**
+         * Number of dispatches of the event which have at least one listener
+         */
+        public long count() {
+            return count.sum();
+        }
+
+        /**
+         * Total time spent executing listeners, in microseconds
+         */
+        public long totalTime() {
+            return TimeUnit.NANOSECONDS.toMicros(time.sum());
+        }
+
+        /**
+         * Average time of a dispatch, in microseconds
+         */
+        public long averageTime() {
+            final long count = this.count.sum();
+
+            return count > 0 ? TimeUnit.NANOSECONDS.toMicros(time.sum() / count) : 0;
+        }
+    }
+}
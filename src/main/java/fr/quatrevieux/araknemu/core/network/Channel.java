@@ -37,6 +37,12 @@ public interface Channel {
      */
     public void write(Object message);
 
+    /**
+     * Send all pending messages to the client
+     * Messages written inside a {@link WriteBatch} are only sent on flush
+     */
+    public void flush();
+
     /**
      * Close the channel
      */
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Packet formatted and encoded once, which can be written to many channels
+ *
+ * The encoded buffer is reference counted : each write retains a duplicate of the buffer,
+ * so the packet must be released by its creator once all channels are written.
+ *
+ * Usage:
+ * <code>
+ *     try (EncodedPacket packet = EncodedPacket.encode(new MyPacket())) {
+ *         sessions.forEach(session -> session.send(packet));
+ *     }
+ * </code>
+ */
+public final class EncodedPacket implements AutoCloseable {
+    private final String packet;
+    private final ByteBuf buffer;
+
+    private EncodedPacket(String packet, ByteBuf buffer) {
+        this.packet = packet;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Get a duplicate of the encoded buffer, with its own indexes
+     * The reference count is incremented, and must be released by the writer (this is done by netty once written)
+     */
+    public ByteBuf retainedBuffer() {
+        return buffer.retainedDuplicate();
+    }
+
+    /**
+     * Release the encoded buffer
+     * The packet must not be sent after this call
+     */
+    @Override
+    public void close() {
+        buffer.release();
+    }
+
+    @Override
+    public String toString() {
+        return packet;
+    }
+
+    /**
+     * Format and encode the packet
+     * The encoded buffer contains the packet in UTF-8, followed by the packet end byte
+     *
+     * @param packet Packet to encode
+     */
+    public static EncodedPacket encode(Object packet) {
+        final String value = packet.toString();
+        final ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(ByteBufUtil.utf8MaxBytes(value) + 1);
+
+        ByteBufUtil.writeUtf8(buffer, value);
+        buffer.writeByte(0);
+
+        return new EncodedPacket(value, buffer);
+    }
+}
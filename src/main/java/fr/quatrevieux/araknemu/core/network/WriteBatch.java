@@ -0,0 +1,106 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Buffer packets sent by the current thread, and flush the channels once at the end of the batch
+ *
+ * Usage:
+ * <code>
+ *     try (WriteBatch batch = WriteBatch.open()) {
+ *         session.send(packet1);
+ *         session.send(packet2);
+ *     } // Packets are flushed here
+ * </code>
+ *
+ * Batches can be nested : channels are only flushed when the outermost batch is closed.
+ * Packets sent outside a batch are flushed immediately.
+ */
+public final class WriteBatch implements AutoCloseable {
+    private static final ThreadLocal<@Nullable WriteBatch> CURRENT = new ThreadLocal<>();
+
+    private final Set<Channel> channels = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int depth = 0;
+
+    private WriteBatch() {
+    }
+
+    /**
+     * Register the channel to flush at the end of the current batch
+     *
+     * @param channel The written channel
+     *
+     * @return true if a batch is open on the current thread (i.e. the channel must not be flushed now), or false if the channel should be flushed immediately
+     */
+    public static boolean defer(Channel channel) {
+        final WriteBatch batch = CURRENT.get();
+
+        if (batch == null) {
+            return false;
+        }
+
+        batch.channels.add(channel);
+
+        return true;
+    }
+
+    /**
+     * Open a batch on the current thread
+     * If a batch is already open, it will be reused
+     *
+     * @return The batch. Must be closed to flush channels
+     */
+    public static WriteBatch open() {
+        WriteBatch batch = CURRENT.get();
+
+        if (batch == null) {
+            batch = new WriteBatch();
+            CURRENT.set(batch);
+        }
+
+        ++batch.depth;
+
+        return batch;
+    }
+
+    /**
+     * Close the batch, and flush all written channels if it's the outermost batch
+     */
+    @Override
+    public void close() {
+        if (--depth > 0) {
+            return;
+        }
+
+        CURRENT.remove();
+
+        for (Channel channel : channels) {
+            channel.flush();
+        }
+
+        channels.clear();
+    }
+}
@@ -20,6 +20,8 @@
 package fr.quatrevieux.araknemu.core.network.netty;
 
 import fr.quatrevieux.araknemu.core.network.Channel;
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
+import fr.quatrevieux.araknemu.core.network.WriteBatch;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.net.InetSocketAddress;
@@ -41,11 +43,29 @@ public final class ChannelAdapter implements Channel {
 
     @Override
     public void write(Object message) {
-        channel.writeAndFlush(message.toString());
+        if (message instanceof EncodedPacket) {
+            // Already encoded : share the buffer content instead of encoding it again
+            channel.write(((EncodedPacket) message).retainedBuffer());
+        } else {
+            // Convert the message on the current thread, because the packet may be modified after
+            channel.write(message.toString());
+        }
+
+        // Inside a batch, the channel will be flushed when the batch is closed
+        if (!WriteBatch.defer(this)) {
+            channel.flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        channel.flush();
     }
 
     @Override
     public void close() {
+        // Packets written inside a batch are not yet flushed, and would be discarded by close
+        channel.flush();
         channel.close();
     }
 
@@ -23,7 +23,10 @@ import fr.quatrevieux.araknemu.core.network.Server;
 import fr.quatrevieux.araknemu.core.network.SessionIdle;
 import fr.quatrevieux.araknemu.core.network.session.Session;
 import fr.quatrevieux.araknemu.core.network.session.SessionFactory;
+import fr.quatrevieux.araknemu.core.network.session.extension.PacketExecutor;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
@@ -33,18 +36,17 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.MessageToByteEncoder;
 import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.CharsetUtil;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,15 +56,27 @@ public final class NettyServer<S extends Session> implements Server<S> {
     private final SessionFactory<S> factory;
     private final int port;
     private final Duration readTimeout;
+    private final @Nullable PacketExecutor executor;
 
     private @MonotonicNonNull Channel serverChannel;
     private @MonotonicNonNull EventLoopGroup loopGroup;
     private @MonotonicNonNull SessionHandlerAdapter<S> handlerAdapter;
 
-    public NettyServer(SessionFactory<S> factory, int port, Duration readTimeout) {
+    /**
+     * @param factory The session factory
+     * @param port The listened port
+     * @param readTimeout Inactivity time before sending {@link SessionIdle}
+     * @param executor Executor used to handle packets, which will be stopped with the server. Can be null if packets are handled by network threads.
+     */
+    public NettyServer(SessionFactory<S> factory, int port, Duration readTimeout, @Nullable PacketExecutor executor) {
         this.factory = factory;
         this.port = port;
         this.readTimeout = readTimeout;
+        this.executor = executor;
+    }
+
+    public NettyServer(SessionFactory<S> factory, int port, Duration readTimeout) {
+        this(factory, port, readTimeout, null);
     }
 
     @Override
@@ -72,8 +86,7 @@ public final class NettyServer<S extends Session> implements Server<S> {
         handlerAdapter = new SessionHandlerAdapter<>(factory);
 
         final StringDecoder decoder = new StringDecoder(CharsetUtil.UTF_8);
-        final StringEncoder encoder = new StringEncoder(CharsetUtil.UTF_8);
-        final MessageToMessageEncoder<Object> messageEncoder = new MessageEndEncoder();
+        final MessageEndEncoder encoder = new MessageEndEncoder();
 
         bootstrap
             .group(loopGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors()))
@@ -85,7 +98,6 @@ public final class NettyServer<S extends Session> implements Server<S> {
                         .addLast(new DelimiterBasedFrameDecoder(4096, Unpooled.wrappedBuffer(new byte[]{10, 0})))
                         .addLast(encoder)
                         .addLast(decoder)
-                        .addLast(messageEncoder)
                         .addLast(new IdleStateHandler(readTimeout.toMillis(), 0, 0, TimeUnit.MILLISECONDS) {
                             @Override
                             protected void channelIdle(ChannelHandlerContext ctx, IdleStateEvent evt) throws Exception {
@@ -113,6 +125,11 @@ public final class NettyServer<S extends Session> implements Server<S> {
 
         loopGroup.shutdownGracefully().sync();
         serverChannel.closeFuture().sync();
+
+        // Stop the executor after network threads, to ensure that all received packets are handled
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     @Override
@@ -120,11 +137,23 @@ public final class NettyServer<S extends Session> implements Server<S> {
         return handlerAdapter != null ? handlerAdapter.sessions() : Collections.emptyList();
     }
 
+    /**
+     * Encode the message to UTF-8 followed by the end of message character "\0"
+     * The message is directly written into the output buffer, without intermediate copies
+     */
     @ChannelHandler.Sharable
-    public static final class MessageEndEncoder extends MessageToMessageEncoder<Object> {
+    public static final class MessageEndEncoder extends MessageToByteEncoder<CharSequence> {
+        @Override
+        protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, CharSequence msg, boolean preferDirect) {
+            final int size = ByteBufUtil.utf8MaxBytes(msg) + 1;
+
+            return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
+        }
+
         @Override
-        protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) {
-            out.add(msg + "\000");
+        protected void encode(ChannelHandlerContext ctx, CharSequence msg, ByteBuf out) {
+            ByteBufUtil.writeUtf8(out, msg);
+            out.writeByte(0);
         }
     }
 }
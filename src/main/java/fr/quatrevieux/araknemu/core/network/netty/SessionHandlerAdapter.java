@@ -21,6 +21,7 @@ package fr.quatrevieux.araknemu.core.network.netty;
 
 import fr.quatrevieux.araknemu.core.network.SessionClosed;
 import fr.quatrevieux.araknemu.core.network.SessionCreated;
+import fr.quatrevieux.araknemu.core.network.WriteBatch;
 import fr.quatrevieux.araknemu.core.network.session.Session;
 import fr.quatrevieux.araknemu.core.network.session.SessionFactory;
 import io.netty.channel.ChannelHandler;
@@ -72,7 +73,10 @@ public final class SessionHandlerAdapter<S extends Session> extends ChannelInbou
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
-        ctx.channel().attr(sessionAttribute).get().receive(msg);
+        // Packets sent during the packet handling are flushed at the end
+        try (WriteBatch batch = WriteBatch.open()) {
+            ctx.channel().attr(sessionAttribute).get().receive(msg);
+        }
     }
 
     @Override
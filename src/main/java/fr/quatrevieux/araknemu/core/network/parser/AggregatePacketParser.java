@@ -19,21 +19,32 @@
 
 package fr.quatrevieux.araknemu.core.network.parser;
 
-import org.checkerframework.checker.index.qual.Positive;
+import fr.quatrevieux.araknemu.util.Asserter;
+import org.checkerframework.checker.index.qual.IndexOrHigh;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Base packet parser
  * Will aggregate multiple {@link SinglePacketParser} for parse the incoming packet
+ *
+ * The parsers are indexed by a prefix tree on their code,
+ * so the parser is found by reading the packet chars one by one, without creating any string
  */
 public final class AggregatePacketParser implements PacketParser {
-    private final ConcurrentMap<String, SinglePacketParser> parsers = new ConcurrentHashMap<>();
+    private final Map<String, SinglePacketParser> parsers = new HashMap<>();
 
-    private @Positive int minCodeLength = 2;
-    private @Positive int maxCodeLength = 2;
+    /**
+     * Root node of the prefix tree
+     * The tree is immutable, and fully rebuilt when a parser is registered
+     */
+    private volatile Node root = new Node(null, (char) 0, new Node[0]);
 
     public AggregatePacketParser(SinglePacketParser[] parsers) {
         for (SinglePacketParser parser : parsers) {
@@ -49,18 +60,29 @@ public final class AggregatePacketParser implements PacketParser {
 
     @Override
     public Packet parse(String input) throws ParsePacketException {
-        for (int len = Math.min(maxCodeLength, input.length()); len >= minCodeLength; --len) {
-            final String header = input.substring(0, len);
-
-            if (parsers.containsKey(header)) {
-                return parsers
-                    .get(header)
-                    .parse(input.substring(len))
-                ;
+        @Nullable Node node = root;
+        SinglePacketParser parser = null;
+        @IndexOrHigh("input") int codeLength = 0;
+
+        // Find the longest registered code matching with the packet
+        for (int i = 0; i < input.length(); ++i) {
+            node = node.child(input.charAt(i));
+
+            if (node == null) {
+                break;
+            }
+
+            if (node.parser != null) {
+                parser = node.parser;
+                codeLength = i + 1;
             }
         }
 
-        throw new UndefinedPacketException(input);
+        if (parser == null) {
+            throw new UndefinedPacketException(input);
+        }
+
+        return parser.parse(input.substring(codeLength));
     }
 
     /**
@@ -68,15 +90,93 @@ public final class AggregatePacketParser implements PacketParser {
      * If a parse with the same code is already registered, it will be override
      * @param parser New parser
      */
-    public void register(SinglePacketParser parser) {
+    public synchronized void register(SinglePacketParser parser) {
         parsers.put(parser.code(), parser);
+        root = createNode(parsers.values(), 0);
+    }
 
-        if (parser.code().length() < minCodeLength) {
-            minCodeLength = parser.code().length();
+    /**
+     * Create the prefix tree node
+     *
+     * @param parsers Parsers with code starting with the node prefix
+     * @param depth The node depth, i.e. the prefix length
+     */
+    private static Node createNode(Collection<SinglePacketParser> parsers, @NonNegative int depth) {
+        final Map<Character, List<SinglePacketParser>> parsersByChar = new HashMap<>();
+        SinglePacketParser current = null;
+        char first = Character.MAX_VALUE;
+        char last = Character.MIN_VALUE;
+
+        for (SinglePacketParser parser : parsers) {
+            final String code = parser.code();
+
+            if (code.length() <= depth) {
+                current = parser;
+                continue;
+            }
+
+            final char c = code.charAt(depth);
+
+            first = (char) Math.min(first, c);
+            last = (char) Math.max(last, c);
+            parsersByChar.computeIfAbsent(c, key -> new ArrayList<>()).add(parser);
         }
 
-        if (parser.code().length() > maxCodeLength) {
-            maxCodeLength = parser.code().length();
+        if (parsersByChar.isEmpty()) {
+            return new Node(current, (char) 0, new Node[0]);
+        }
+
+        final @Nullable Node[] children = new Node[Asserter.castPositive(last - first + 1)];
+
+        for (Map.Entry<Character, List<SinglePacketParser>> entry : parsersByChar.entrySet()) {
+            final int index = entry.getKey() - first;
+
+            if (index >= 0 && index < children.length) {
+                children[index] = createNode(entry.getValue(), depth + 1);
+            }
+        }
+
+        return new Node(current, first, children);
+    }
+
+    /**
+     * Node of the prefix tree
+     */
+    private static final class Node {
+        /**
+         * The parser of the code corresponding to the node prefix
+         */
+        private final @Nullable SinglePacketParser parser;
+
+        /**
+         * The char of the first child
+         */
+        private final char first;
+
+        /**
+         * Children nodes, indexed by the next char minus the first char
+         */
+        private final @Nullable Node[] children;
+
+        public Node(@Nullable SinglePacketParser parser, char first, @Nullable Node[] children) {
+            this.parser = parser;
+            this.first = first;
+            this.children = children;
+        }
+
+        /**
+         * Get the child node for the given char
+         *
+         * @return The node, or null if there is no codes starting with the prefix followed by the char
+         */
+        public @Nullable Node child(char c) {
+            final int index = c - first;
+
+            if (index < 0 || index >= children.length) {
+                return null;
+            }
+
+            return children[index];
         }
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network.session.extension;
+
+import fr.quatrevieux.araknemu.core.network.WriteBatch;
+import fr.quatrevieux.araknemu.core.network.session.ConfigurableSession;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Handle received packets on a worker pool instead of the network threads
+ *
+ * Each session has its own serial queue : packets of a single session are handled one at a time, and in the reception order,
+ * but packets of different sessions can be handled in parallel.
+ * If the worker pool is stopped, packets are handled by the calling thread.
+ *
+ * The queue time and the handling time are measured for each packet type.
+ */
+public final class PacketExecutor {
+    /**
+     * Maximum number of packets handled by a session queue before releasing the worker thread
+     */
+    public static final int MAX_BATCH = 32;
+
+    private final ExecutorService workers;
+    private final Logger logger;
+    private final ConcurrentMap<Class<?>, Metrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * @param workers The worker pool
+     * @param logger Logger used to log unhandled errors
+     */
+    public PacketExecutor(ExecutorService workers, Logger logger) {
+        this.workers = workers;
+        this.logger = logger;
+    }
+
+    /**
+     * Create the executor with its own worker pool
+     *
+     * @param threads Maximum number of worker threads. Ignored if virtual threads are supported
+     * @param logger Logger used to log unhandled errors
+     *
+     * @see ExecutorFactory#createWorkers(int)
+     */
+    public PacketExecutor(int threads, Logger logger) {
+        this(ExecutorFactory.createWorkers(threads), logger);
+    }
+
+    /**
+     * Create the receive middleware for a new session
+     * All following middlewares will be called on the worker pool
+     */
+    public ConfigurableSession.ReceivePacketMiddleware middleware() {
+        return new SessionQueue();
+    }
+
+    /**
+     * Get the execution metrics, indexed by the packet class
+     */
+    public Map<Class<?>, Metrics> metrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Stop the worker pool
+     * Already queued packets will be handled before the threads stop
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Execution metrics of a packet type
+     */
+    public static final class Metrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder queueTime = new LongAdder();
+        private final LongAdder handleTime = new LongAdder();
+        private final LongAccumulator maxHandleTime = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Number of handled packets
+         */
+        public long count() {
+            return count.sum();
+        }
+
+        /**
+         * Average time spent by the packet in the session queue, before its handling
+         */
+        public Duration averageQueueTime() {
+            return average(queueTime);
+        }
+
+        /**
+         * Average handling time of the packet
+         */
+        public Duration averageHandleTime() {
+            return average(handleTime);
+        }
+
+        /**
+         * The longest handling time of the packet
+         */
+        public Duration maxHandleTime() {
+            return Duration.ofNanos(maxHandleTime.get());
+        }
+
+        private void record(long queueNanos, long handleNanos) {
+            count.increment();
+            queueTime.add(queueNanos);
+            handleTime.add(handleNanos);
+            maxHandleTime.accumulate(handleNanos);
+        }
+
+        private Duration average(LongAdder total) {
+            final long packets = count.sum();
+
+            return packets == 0 ? Duration.ZERO : Duration.ofNanos(total.sum() / packets);
+        }
+    }
+
+    /**
+     * Serial queue of a single session
+     *
+     * The "running" flag ensures that only one thread handles the session packets at a time
+     */
+    private final class SessionQueue implements ConfigurableSession.ReceivePacketMiddleware, Runnable {
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        @Override
+        public void handlePacket(Object packet, Consumer<Object> next) {
+            tasks.add(new Task(packet, next));
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < MAX_BATCH; ++i) {
+                    final Task task = tasks.poll();
+
+                    if (task == null) {
+                        break;
+                    }
+
+                    task.run();
+                }
+            } finally {
+                running.set(false);
+            }
+
+            // Packets have been pushed after the last poll, or the batch limit is reached
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                workers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Worker pool is stopped : handle on the current thread
+                run();
+            }
+        }
+    }
+
+    private final class Task {
+        private final Object packet;
+        private final Consumer<Object> next;
+        private final long queuedAt = System.nanoTime();
+
+        private Task(Object packet, Consumer<Object> next) {
+            this.packet = packet;
+            this.next = next;
+        }
+
+        private void run() {
+            final long start = System.nanoTime();
+
+            try (WriteBatch batch = WriteBatch.open()) {
+                next.accept(packet);
+            } catch (RuntimeException e) {
+                logger.error("Error during handling packet {}", packet, e);
+            } finally {
+                metrics
+                    .computeIfAbsent(packet.getClass(), type -> new Metrics())
+                    .record(start - queuedAt, System.nanoTime() - start)
+                ;
+            }
+        }
+    }
+}
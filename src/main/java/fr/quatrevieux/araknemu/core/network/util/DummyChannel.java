@@ -53,6 +53,11 @@ public final class DummyChannel implements Channel {
         messages.push(message);
     }
 
+    @Override
+    public void flush() {
+        // Messages are not buffered
+    }
+
     @Override
     public void close() {
         isAlive = false;
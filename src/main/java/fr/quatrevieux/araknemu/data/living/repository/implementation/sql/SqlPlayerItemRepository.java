@@ -34,6 +34,7 @@ import fr.quatrevieux.araknemu.game.player.inventory.slot.InventorySlots;
 import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.common.value.qual.IntRange;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -45,6 +46,10 @@ import java.util.stream.Collectors;
  * SQL implementation for {@link PlayerItem} repository
  */
 final class SqlPlayerItemRepository implements PlayerItemRepository {
+    private static final String INSERT_QUERY = "INSERT INTO PLAYER_ITEM (PLAYER_ID, ITEM_ENTRY_ID, ITEM_TEMPLATE_ID, ITEM_EFFECTS, QUANTITY, POSITION) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_QUERY = "UPDATE PLAYER_ITEM SET QUANTITY = ?, POSITION = ? WHERE PLAYER_ID = ? AND ITEM_ENTRY_ID = ?";
+    private static final String DELETE_QUERY = "DELETE FROM PLAYER_ITEM WHERE PLAYER_ID = ? AND ITEM_ENTRY_ID = ?";
+
     private final QueryExecutor executor;
     private final RepositoryUtils<PlayerItem> utils;
     private final Transformer<List<ItemTemplateEffectEntry>> effectsTransformer;
@@ -93,15 +98,7 @@ final class SqlPlayerItemRepository implements PlayerItemRepository {
 
     @Override
     public void update(PlayerItem item) {
-        final int count = utils.update(
-            "UPDATE PLAYER_ITEM SET QUANTITY = ?, POSITION = ? WHERE PLAYER_ID = ? AND ITEM_ENTRY_ID = ?",
-            stmt -> {
-                stmt.setInt(1, item.quantity());
-                stmt.setInt(2, item.position());
-                stmt.setInt(3, item.playerId());
-                stmt.setInt(4, item.entryId());
-            }
-        );
+        final int count = utils.update(UPDATE_QUERY, stmt -> bindUpdate(stmt, item));
 
         if (count != 1) {
             throw new EntityNotFoundException();
@@ -110,13 +107,7 @@ final class SqlPlayerItemRepository implements PlayerItemRepository {
 
     @Override
     public void delete(PlayerItem item) {
-        final int count = utils.update(
-            "DELETE FROM PLAYER_ITEM WHERE PLAYER_ID = ? AND ITEM_ENTRY_ID = ?",
-            stmt -> {
-                stmt.setInt(1, item.playerId());
-                stmt.setInt(2, item.entryId());
-            }
-        );
+        final int count = utils.update(DELETE_QUERY, stmt -> bindDelete(stmt, item));
 
         if (count != 1) {
             throw new EntityNotFoundException();
@@ -125,21 +116,20 @@ final class SqlPlayerItemRepository implements PlayerItemRepository {
 
     @Override
     public PlayerItem add(PlayerItem entity) throws RepositoryException {
-        utils.update(
-            "INSERT INTO PLAYER_ITEM (PLAYER_ID, ITEM_ENTRY_ID, ITEM_TEMPLATE_ID, ITEM_EFFECTS, QUANTITY, POSITION) VALUES (?, ?, ?, ?, ?, ?)",
-            stmt -> {
-                stmt.setInt(1,    entity.playerId());
-                stmt.setInt(2,    entity.entryId());
-                stmt.setInt(3,    entity.itemTemplateId());
-                stmt.setString(4, effectsTransformer.serialize(entity.effects()));
-                stmt.setInt(5,    entity.quantity());
-                stmt.setInt(6,    entity.position());
-            }
-        );
+        utils.update(INSERT_QUERY, stmt -> bindInsert(stmt, entity));
 
         return entity;
     }
 
+    @Override
+    public void saveChanges(Collection<PlayerItem> deleted, Collection<PlayerItem> added, Collection<PlayerItem> updated) {
+        utils.transaction(
+            new RepositoryUtils.BatchQuery<>(DELETE_QUERY, deleted, this::bindDelete, true),
+            new RepositoryUtils.BatchQuery<>(INSERT_QUERY, added, this::bindInsert, false),
+            new RepositoryUtils.BatchQuery<>(UPDATE_QUERY, updated, this::bindUpdate, true)
+        );
+    }
+
     @Override
     public PlayerItem get(PlayerItem entity) throws RepositoryException {
         return utils.findOne(
@@ -185,6 +175,27 @@ final class SqlPlayerItemRepository implements PlayerItemRepository {
         ;
     }
 
+    private void bindInsert(PreparedStatement stmt, PlayerItem entity) throws SQLException {
+        stmt.setInt(1,    entity.playerId());
+        stmt.setInt(2,    entity.entryId());
+        stmt.setInt(3,    entity.itemTemplateId());
+        stmt.setString(4, effectsTransformer.serialize(entity.effects()));
+        stmt.setInt(5,    entity.quantity());
+        stmt.setInt(6,    entity.position());
+    }
+
+    private void bindUpdate(PreparedStatement stmt, PlayerItem item) throws SQLException {
+        stmt.setInt(1, item.quantity());
+        stmt.setInt(2, item.position());
+        stmt.setInt(3, item.playerId());
+        stmt.setInt(4, item.entryId());
+    }
+
+    private void bindDelete(PreparedStatement stmt, PlayerItem item) throws SQLException {
+        stmt.setInt(1, item.playerId());
+        stmt.setInt(2, item.entryId());
+    }
+
     private class Loader implements RepositoryUtils.Loader<PlayerItem> {
         @Override
         public PlayerItem create(Record record) throws SQLException {
@@ -34,20 +34,39 @@ import fr.quatrevieux.araknemu.data.value.Position;
 import fr.quatrevieux.araknemu.data.value.ServerCharacters;
 import fr.quatrevieux.araknemu.game.chat.ChannelType;
 import fr.quatrevieux.araknemu.game.world.creature.characteristics.MutableCharacteristics;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.MinLen;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 final class SqlPlayerRepository implements PlayerRepository {
+    private static final String SAVE_QUERY =
+        "UPDATE PLAYER SET " +
+            "PLAYER_LEVEL = ?, PLAYER_STATS = ?, MAP_ID = ?, CELL_ID = ?, CHANNELS = ?, BOOST_POINTS = ?, SPELL_POINTS = ?, LIFE_POINTS = ?, PLAYER_EXPERIENCE = ?, SAVED_MAP_ID = ?, SAVED_CELL_ID = ?, PLAYER_KAMAS = ? " +
+            "WHERE PLAYER_ID = ?"
+    ;
+
     private final QueryExecutor executor;
     private final Transformer<MutableCharacteristics> characteristicsTransformer;
     private final Transformer<Set<ChannelType>> channelsTransformer;
 
     private final RepositoryUtils<Player> utils;
 
+    /**
+     * Last persisted state of players, indexed by player id
+     * Used to skip unchanged players on {@link SqlPlayerRepository#saveAll(Collection)}
+     */
+    private final ConcurrentMap<Integer, SavedState> savedStates = new ConcurrentHashMap<>();
+
     public SqlPlayerRepository(QueryExecutor executor, Transformer<MutableCharacteristics> characteristicsTransformer, Transformer<Set<ChannelType>> channelsTransformer) {
         this.executor = executor;
         this.characteristicsTransformer = characteristicsTransformer;
@@ -95,6 +114,7 @@ final class SqlPlayerRepository implements PlayerRepository {
     public void destroy() throws RepositoryException {
         try {
             executor.query("DROP TABLE PLAYER");
+            savedStates.clear();
         } catch (SQLException e) {
             throw new RepositoryException(e);
         }
@@ -137,6 +157,8 @@ final class SqlPlayerRepository implements PlayerRepository {
         if (utils.update("DELETE FROM PLAYER WHERE PLAYER_ID = ?", rs -> rs.setInt(1, entity.id())) < 1) {
             throw new EntityNotFoundException();
         }
+
+        savedStates.remove(entity.id());
     }
 
     @Override
@@ -243,7 +265,7 @@ final class SqlPlayerRepository implements PlayerRepository {
 
     @Override
     public Player getForGame(Player player) {
-        return utils.findOne(
+        final Player loaded = utils.findOne(
             "SELECT * FROM PLAYER WHERE PLAYER_ID = ? AND ACCOUNT_ID = ? AND SERVER_ID = ?",
             stmt -> {
                 stmt.setInt(1, player.id());
@@ -251,34 +273,48 @@ final class SqlPlayerRepository implements PlayerRepository {
                 stmt.setInt(3, player.serverId());
             }
         );
+
+        savedStates.put(loaded.id(), new SavedState(loaded));
+
+        return loaded;
     }
 
     @Override
     public void save(Player player) {
-        final int rows = utils.update(
-            "UPDATE PLAYER SET " +
-                "PLAYER_LEVEL = ?, PLAYER_STATS = ?, MAP_ID = ?, CELL_ID = ?, CHANNELS = ?, BOOST_POINTS = ?, SPELL_POINTS = ?, LIFE_POINTS = ?, PLAYER_EXPERIENCE = ?, SAVED_MAP_ID = ?, SAVED_CELL_ID = ?, PLAYER_KAMAS = ? " +
-                "WHERE PLAYER_ID = ?",
-            stmt -> {
-                stmt.setInt(1,    player.level());
-                stmt.setString(2, characteristicsTransformer.serialize(player.stats()));
-                stmt.setInt(3,    player.position().map());
-                stmt.setInt(4,    player.position().cell());
-                stmt.setString(5, channelsTransformer.serialize(player.channels()));
-                stmt.setInt(6,    player.boostPoints());
-                stmt.setInt(7,    player.spellPoints());
-                stmt.setInt(8,    player.life());
-                stmt.setLong(9,   player.experience());
-                stmt.setInt(10,   player.savedPosition().map());
-                stmt.setInt(11,   player.savedPosition().cell());
-                stmt.setLong(12,  player.kamas());
-                stmt.setInt(13,   player.id());
-            }
-        );
+        final SavedState state = new SavedState(player);
+        final int rows = utils.update(SAVE_QUERY, state::bind);
 
         if (rows != 1) {
             throw new EntityNotFoundException();
         }
+
+        savedStates.put(state.id, state);
+    }
+
+    @Override
+    public int saveAll(Collection<Player> players) {
+        final List<SavedState> changed = new ArrayList<>();
+
+        for (Player player : players) {
+            final SavedState state = new SavedState(player);
+
+            if (!state.equals(savedStates.get(state.id))) {
+                changed.add(state);
+            }
+        }
+
+        final int rows = utils.batch(SAVE_QUERY, changed, (stmt, state) -> state.bind(stmt));
+
+        for (SavedState state : changed) {
+            savedStates.put(state.id, state);
+        }
+
+        return rows;
+    }
+
+    @Override
+    public void unload(Player player) {
+        savedStates.remove(player.id());
     }
 
     private class Loader implements RepositoryUtils.Loader<Player> {
@@ -327,4 +363,74 @@ final class SqlPlayerRepository implements PlayerRepository {
             );
         }
     }
+
+    /**
+     * Snapshot of the saved columns of a player
+     *
+     * Numeric columns are packed into a single array, in the order of the save query
+     */
+    private final class SavedState {
+        private final int id;
+        private final String stats;
+        private final String channels;
+        private final long @MinLen(10) [] values;
+
+        private SavedState(Player player) {
+            this.id = player.id();
+            this.stats = characteristicsTransformer.serialize(player.stats());
+            this.channels = channelsTransformer.serialize(player.channels());
+            this.values = new long[] {
+                player.level(),
+                player.position().map(),
+                player.position().cell(),
+                player.boostPoints(),
+                player.spellPoints(),
+                player.life(),
+                player.experience(),
+                player.savedPosition().map(),
+                player.savedPosition().cell(),
+                player.kamas(),
+            };
+        }
+
+        private void bind(PreparedStatement stmt) throws SQLException {
+            stmt.setInt(1,    (int) values[0]);
+            stmt.setString(2, stats);
+            stmt.setInt(3,    (int) values[1]);
+            stmt.setInt(4,    (int) values[2]);
+            stmt.setString(5, channels);
+            stmt.setInt(6,    (int) values[3]);
+            stmt.setInt(7,    (int) values[4]);
+            stmt.setInt(8,    (int) values[5]);
+            stmt.setLong(9,   values[6]);
+            stmt.setInt(10,   (int) values[7]);
+            stmt.setInt(11,   (int) values[8]);
+            stmt.setLong(12,  values[9]);
+            stmt.setInt(13,   id);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof SavedState)) {
+                return false;
+            }
+
+            final SavedState other = (SavedState) o;
+
+            return id == other.id
+                && Arrays.equals(values, other.values)
+                && stats.equals(other.stats)
+                && channels.equals(other.channels)
+            ;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
 }
@@ -68,4 +68,17 @@ public interface PlayerItemRepository extends MutableRepository<PlayerItem> {
      * @throws EntityNotFoundException When cannot found entity to delete
      */
     public void delete(PlayerItem item);
+
+    /**
+     * Write multiple changes in a single transaction, using batch queries
+     * Deletions are performed first, then insertions, and finally updates
+     * If an error occurs, none of the changes are written
+     *
+     * @param deleted Items to delete
+     * @param added Items to insert
+     * @param updated Items to update. Only quantity and position are saved
+     *
+     * @throws EntityNotFoundException When an item to update or delete cannot be found
+     */
+    public void saveChanges(Collection<PlayerItem> deleted, Collection<PlayerItem> added, Collection<PlayerItem> updated);
 }
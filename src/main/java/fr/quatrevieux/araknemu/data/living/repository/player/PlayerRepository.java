@@ -84,4 +84,24 @@ public interface PlayerRepository extends MutableRepository<Player> {
      * @throws fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException When the entity cannot be updated
      */
     public void save(Player player) throws RepositoryException;
+
+    /**
+     * Save multiple player entities in a single transaction
+     *
+     * Unlike {@link PlayerRepository#save(Player)}, players which are not changed since their last save or load are skipped,
+     * and missing players are ignored
+     *
+     * @param players Players to save
+     *
+     * @return Number of written rows
+     */
+    public int saveAll(Collection<Player> players) throws RepositoryException;
+
+    /**
+     * Release the resources kept for the player since its last save or load (i.e. the tracked state used by {@link PlayerRepository#saveAll(Collection)})
+     * Should be called when the player leaves the game
+     *
+     * @param player The unloaded player
+     */
+    public void unload(Player player);
 }
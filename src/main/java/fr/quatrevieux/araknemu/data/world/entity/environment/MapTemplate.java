@@ -21,18 +21,30 @@ package fr.quatrevieux.araknemu.data.world.entity.environment;
 
 import fr.arakne.utils.maps.serializer.CellData;
 import fr.arakne.utils.value.Dimensions;
+import fr.quatrevieux.araknemu.data.transformer.Transformer;
 import fr.quatrevieux.araknemu.data.value.Geolocation;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Entity for Dofus map
+ *
+ * Cells can be kept in their encoded form, and decoded on the first call to {@link MapTemplate#cells()}
  */
 public final class MapTemplate {
+    /**
+     * Number of characters used to encode a single cell
+     */
+    public static final int ENCODED_CELL_LENGTH = 10;
+
     private final @NonNegative int id;
     private final String date;
     private final Dimensions dimensions;
     private final String key;
-    private final CellData[] cells;
+    private volatile CellData @MonotonicNonNull[] cells;
+    private @Nullable String encodedCells;
+    private final @Nullable Transformer<CellData[]> cellsTransformer;
     private final @NonNegative int[][] fightPlaces;
     private final Geolocation geolocation;
     private final int subAreaId;
@@ -44,6 +56,26 @@ public final class MapTemplate {
         this.dimensions = dimensions;
         this.key = key;
         this.cells = cells;
+        this.cellsTransformer = null;
+        this.fightPlaces = fightPlaces;
+        this.geolocation = geolocation;
+        this.subAreaId = subAreaId;
+        this.indoor = indoor;
+    }
+
+    /**
+     * Create the map template with lazy decoding of cells
+     *
+     * @param encodedCells The cells data, as stored into database
+     * @param cellsTransformer Transformer used to decode the cells on first use
+     */
+    public MapTemplate(@NonNegative int id, String date, Dimensions dimensions, String key, String encodedCells, Transformer<CellData[]> cellsTransformer, @NonNegative int[][] fightPlaces, Geolocation geolocation, int subAreaId, boolean indoor) {
+        this.id = id;
+        this.date = date;
+        this.dimensions = dimensions;
+        this.key = key;
+        this.encodedCells = encodedCells;
+        this.cellsTransformer = cellsTransformer;
         this.fightPlaces = fightPlaces;
         this.geolocation = geolocation;
         this.subAreaId = subAreaId;
@@ -66,8 +98,39 @@ public final class MapTemplate {
         return key;
     }
 
+    /**
+     * Get the map cells data
+     * If cells are not yet decoded, they will be decoded on this call, and the encoded data will be released
+     */
     public CellData[] cells() {
-        return cells;
+        final CellData[] current = cells;
+
+        if (current != null) {
+            return current;
+        }
+
+        return decodeCells();
+    }
+
+    /**
+     * Get the number of cells of the map
+     * Unlike {@link MapTemplate#cells()}, this method will not decode the cells
+     */
+    public @NonNegative int cellsCount() {
+        final CellData[] current = cells;
+
+        if (current != null) {
+            return current.length;
+        }
+
+        return encodedCellsCount();
+    }
+
+    /**
+     * Check if the cells are already decoded
+     */
+    public boolean cellsDecoded() {
+        return cells != null;
     }
 
     /**
@@ -103,4 +166,37 @@ public final class MapTemplate {
     public boolean indoor() {
         return indoor;
     }
+
+    private synchronized @NonNegative int encodedCellsCount() {
+        final CellData[] current = cells;
+        final String encoded = encodedCells;
+
+        if (current != null || encoded == null) {
+            return cells().length;
+        }
+
+        return encoded.length() / ENCODED_CELL_LENGTH;
+    }
+
+    private synchronized CellData[] decodeCells() {
+        final CellData[] current = cells;
+
+        if (current != null) {
+            return current;
+        }
+
+        final String encoded = encodedCells;
+        final Transformer<CellData[]> transformer = cellsTransformer;
+
+        if (encoded == null || transformer == null) {
+            throw new IllegalStateException("Cells of map " + id + " are not available");
+        }
+
+        final CellData[] decoded = transformer.unserialize(encoded);
+
+        cells = decoded;
+        encodedCells = null;
+
+        return decoded;
+    }
 }
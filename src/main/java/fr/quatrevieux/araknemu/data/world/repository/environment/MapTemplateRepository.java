@@ -25,6 +25,7 @@ import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
 import org.checkerframework.checker.index.qual.NonNegative;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * Repository for load maps
@@ -45,4 +46,14 @@ public interface MapTemplateRepository extends Repository<MapTemplate> {
      * Get all map templates
      */
     public Collection<MapTemplate> all();
+
+    /**
+     * Iterate over all map templates, without keeping them in memory
+     * Cells are not decoded by the repository: they are decoded on the first call to {@link MapTemplate#cells()}
+     *
+     * @param action Action to perform on each map template
+     *
+     * @return The number of loaded maps
+     */
+    public int forEach(Consumer<MapTemplate> action);
 }
@@ -34,6 +34,7 @@ import org.checkerframework.checker.index.qual.NonNegative;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * Map repository implementation for SQL database
@@ -121,6 +122,11 @@ final class SqlMapTemplateRepository implements MapTemplateRepository {
         return utils.findAll("SELECT * FROM maps");
     }
 
+    @Override
+    public int forEach(Consumer<MapTemplate> action) {
+        return utils.forEach("SELECT * FROM maps", action);
+    }
+
     private class Loader implements RepositoryUtils.Loader<MapTemplate> {
         @Override
         public MapTemplate create(Record record) throws SQLException {
@@ -132,7 +138,8 @@ final class SqlMapTemplateRepository implements MapTemplateRepository {
                     record.getPositiveInt("height")
                 ),
                 record.getString("key"),
-                record.unserialize("mapData", cellsTransformer),
+                record.getString("mapData"),
+                cellsTransformer,
                 record.unserialize("places", fightPlacesTransformer),
                 new Geolocation(
                     record.getInt("MAP_X"),
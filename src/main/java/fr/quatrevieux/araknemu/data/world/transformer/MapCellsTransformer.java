@@ -23,23 +23,26 @@ import fr.arakne.utils.maps.serializer.CellData;
 import fr.arakne.utils.maps.serializer.DefaultMapDataSerializer;
 import fr.arakne.utils.maps.serializer.MapDataSerializer;
 import fr.quatrevieux.araknemu.data.transformer.Transformer;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
+import org.checkerframework.checker.nullness.util.NullnessUtil;
 
 /**
  * Transformer for map cell
  *
+ * The serializer cache is not thread safe, so each thread uses its own serializer.
+ * This allows decoding maps in parallel (e.g. on preload), but cell data are only shared between maps decoded by the same thread.
+ *
  * https://github.com/Emudofus/Dofus/blob/1.29/ank/battlefield/utils/Compressor.as#L54
  */
 public final class MapCellsTransformer implements Transformer<CellData[]> {
-    private final MapDataSerializer serializer;
-
-    public MapCellsTransformer() {
+    private final ThreadLocal<@Nullable MapDataSerializer> serializers = ThreadLocal.withInitial(() -> {
         final DefaultMapDataSerializer serializer = new DefaultMapDataSerializer();
 
         serializer.enableCache();
 
-        this.serializer = serializer;
-    }
+        return serializer;
+    });
 
     @Override
     public @PolyNull String serialize(CellData @PolyNull[] value) {
@@ -48,6 +51,6 @@ public final class MapCellsTransformer implements Transformer<CellData[]> {
 
     @Override
     public CellData @PolyNull[] unserialize(@PolyNull String serialize) {
-        return serialize == null ? null : serializer.deserialize(serialize);
+        return serialize == null ? null : NullnessUtil.castNonNull(serializers.get()).deserialize(serialize);
     }
 }
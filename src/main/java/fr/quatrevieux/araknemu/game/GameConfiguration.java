@@ -98,6 +98,15 @@ public final class GameConfiguration {
         return pool.integer("packetRateLimit", 100);
     }
 
+    /**
+     * Number of worker threads used to handle received packets
+     * If the value is 0, packets are handled directly by the network threads
+     * If virtual threads are supported by the JVM, they are used instead of a fixed pool, and this value only enables the worker mode
+     */
+    public @NonNegative int packetWorkers() {
+        return pool.nonNegativeInteger("packetWorkers", 0);
+    }
+
     /**
      * Get the shutdown reminder delays, in minutes
      * The values are integer separated by a comma ","
@@ -162,6 +171,38 @@ public final class GameConfiguration {
         return pool.bool(key, true);
     }
 
+    /**
+     * Number of threads used to preload services on boot
+     * Services which do not depend on each other are preloaded in parallel
+     * If the value is 1, services are preloaded one by one
+     * Default: 4
+     *
+     * @see PreloadableService#dependencies()
+     */
+    public @Positive int preloadThreads() {
+        return pool.positiveInteger("preloadThreads", 4);
+    }
+
+    /**
+     * Maximum number of shared item instances
+     * Items loaded from inventories or banks with the same template and effects will use the same instance
+     * If the value is 0, items are not shared
+     * Default: 50000
+     */
+    public @NonNegative int itemInternSize() {
+        return pool.nonNegativeInteger("item.internSize", 50000);
+    }
+
+    /**
+     * Enable collecting dispatch count and time per event type, on players, exploration maps and fights dispatchers
+     * The statistics can be displayed using the "events" command on server context
+     * Profiling add a small overhead on each dispatch, so it should be disabled on production
+     * Default: false
+     */
+    public boolean eventProfiling() {
+        return pool.bool("eventProfiling", false);
+    }
+
     /**
      * Get player configuration
      */
@@ -282,6 +323,17 @@ public final class GameConfiguration {
         public boolean restoreLifeOnLevelUp() {
             return pool.bool("player.restoreLifeOnLevelUp", true);
         }
+
+        /**
+         * Number of threads used to fetch the player data (i.e. items and spells) when entering game
+         * The player data are fetched concurrently with the player entity
+         * If the value is 0, all data are fetched sequentially by the current thread
+         * If virtual threads are supported by the JVM, they are used instead of a fixed pool, and this value only enables the concurrent loading
+         * Default: 4
+         */
+        public @NonNegative int loadThreads() {
+            return pool.nonNegativeInteger("player.loadThreads", 4);
+        }
     }
 
     public final class ChatConfiguration {
@@ -377,11 +429,12 @@ public final class GameConfiguration {
     public final class FightConfiguration {
         /**
          * The threads count for run fight actions and AI
+         * Each thread handles its own set of fights, and a fight is always executed by the same thread
          * This value should be greater than 2. A good value may be around 1 thread per 100 fights
          * By default, 4
          */
-        public int threadsCount() {
-            return pool.integer("fight.threadsCount", 4);
+        public @Positive int threadsCount() {
+            return pool.positiveInteger("fight.threadsCount", 4);
         }
 
         /**
@@ -393,6 +446,26 @@ public final class GameConfiguration {
             return pool.duration("fight.turnDuration", Duration.ofSeconds(30));
         }
 
+        /**
+         * Number of threads used to compute AI actions
+         * If the value is 0, the AI is computed directly on the fight threads
+         * By default, 0
+         */
+        public @NonNegative int aiThreadsCount() {
+            return pool.nonNegativeInteger("fight.ai.threadsCount", 0);
+        }
+
+        /**
+         * The maximum time spent computing AI actions during a single turn
+         * When this time is reached, the AI turn is stopped, but already performed actions are kept
+         * This value is only used if fight.ai.threadsCount is greater than 0
+         * The value should be a duration string like 0.5s, 2s
+         * Default value : 2s
+         */
+        public Duration aiTimeBudget() {
+            return pool.duration("fight.ai.timeBudget", Duration.ofSeconds(2));
+        }
+
         /**
          * The placement duration for a PVM fight
          * The value should be a duration string like 30s, 1m10s
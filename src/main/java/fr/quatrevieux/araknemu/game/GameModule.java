@@ -24,9 +24,11 @@ import fr.quatrevieux.araknemu.common.account.banishment.BanIpService;
 import fr.quatrevieux.araknemu.common.account.banishment.BanishmentService;
 import fr.quatrevieux.araknemu.common.account.banishment.network.BanIpCheck;
 import fr.quatrevieux.araknemu.common.session.SessionLogService;
+import fr.quatrevieux.araknemu.core.di.Container;
 import fr.quatrevieux.araknemu.core.di.ContainerConfigurator;
 import fr.quatrevieux.araknemu.core.di.ContainerModule;
 import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.core.network.Server;
 import fr.quatrevieux.araknemu.core.network.netty.NettyServer;
@@ -38,6 +40,7 @@ import fr.quatrevieux.araknemu.core.network.parser.PacketParser;
 import fr.quatrevieux.araknemu.core.network.parser.ParserLoader;
 import fr.quatrevieux.araknemu.core.network.session.SessionConfigurator;
 import fr.quatrevieux.araknemu.core.network.session.SessionFactory;
+import fr.quatrevieux.araknemu.core.network.session.extension.PacketExecutor;
 import fr.quatrevieux.araknemu.core.network.session.extension.RateLimiter;
 import fr.quatrevieux.araknemu.core.network.session.extension.SessionLogger;
 import fr.quatrevieux.araknemu.data.constant.Characteristic;
@@ -71,6 +74,7 @@ import fr.quatrevieux.araknemu.data.world.repository.monster.MonsterGroupPositio
 import fr.quatrevieux.araknemu.data.world.repository.monster.MonsterRewardItemRepository;
 import fr.quatrevieux.araknemu.data.world.repository.monster.MonsterRewardRepository;
 import fr.quatrevieux.araknemu.data.world.repository.monster.MonsterTemplateRepository;
+import fr.quatrevieux.araknemu.data.world.transformer.ItemEffectsTransformer;
 import fr.quatrevieux.araknemu.game.account.AccountService;
 import fr.quatrevieux.araknemu.game.account.CharactersService;
 import fr.quatrevieux.araknemu.game.account.TokenService;
@@ -131,6 +135,7 @@ import fr.quatrevieux.araknemu.game.exploration.npc.exchange.NpcExchangeService;
 import fr.quatrevieux.araknemu.game.exploration.npc.store.NpcStoreService;
 import fr.quatrevieux.araknemu.game.fight.Fight;
 import fr.quatrevieux.araknemu.game.fight.FightService;
+import fr.quatrevieux.araknemu.game.fight.ai.AiPlanner;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.AiFactory;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.ChainAiFactory;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.DoubleAiFactory;
@@ -207,6 +212,7 @@ import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToSpecialMapping;
 import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToUseMapping;
 import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToWeaponMapping;
 import fr.quatrevieux.araknemu.game.item.factory.DefaultItemFactory;
+import fr.quatrevieux.araknemu.game.item.factory.InternedItemFactory;
 import fr.quatrevieux.araknemu.game.item.factory.ItemFactory;
 import fr.quatrevieux.araknemu.game.item.factory.ResourceFactory;
 import fr.quatrevieux.araknemu.game.item.factory.UsableFactory;
@@ -222,6 +228,7 @@ import fr.quatrevieux.araknemu.game.monster.reward.MonsterRewardService;
 import fr.quatrevieux.araknemu.game.player.PlayerService;
 import fr.quatrevieux.araknemu.game.player.experience.PlayerExperienceService;
 import fr.quatrevieux.araknemu.game.player.inventory.InventoryService;
+import fr.quatrevieux.araknemu.game.player.inventory.WriteBehindPlayerItemRepository;
 import fr.quatrevieux.araknemu.game.player.race.PlayerRaceService;
 import fr.quatrevieux.araknemu.game.player.spell.SpellBookService;
 import fr.quatrevieux.araknemu.game.spell.SpellService;
@@ -233,6 +240,7 @@ import fr.quatrevieux.araknemu.network.game.in.GameParserLoader;
 import fr.quatrevieux.araknemu.network.in.CommonParserLoader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
 
@@ -278,6 +286,7 @@ public final class GameModule implements ContainerModule {
                     container.get(AreaService.class),
                     container.get(MapTriggerService.class),
                     container.get(ExplorationMapService.class),
+                    container.get(GeolocationService.class),
 
                     container.get(PlayerRaceService.class),
                     container.get(PlayerExperienceService.class),
@@ -296,6 +305,7 @@ public final class GameModule implements ContainerModule {
                     container.get(SpellBookService.class),
                     container.get(PlayerExperienceService.class),
                     container.get(FightService.class),
+                    container.get(AiPlanner.class),
                     container.get(ExplorationService.class),
                     container.get(NpcService.class),
                     container.get(MonsterEnvironmentService.class),
@@ -305,7 +315,8 @@ public final class GameModule implements ContainerModule {
                     container.get(AccountService.class),
                     container.get(ShutdownService.class),
                     container.get(GameBanIpSynchronizer.class),
-                    container.get(SavingService.class)
+                    container.get(SavingService.class),
+                    container.get(WriteBehindPlayerItemRepository.class)
                 )
             )
         );
@@ -320,7 +331,8 @@ public final class GameModule implements ContainerModule {
             container -> new NettyServer(
                 container.get(SessionFactory.class),
                 container.get(GameConfiguration.class).port(),
-                container.get(GameConfiguration.class).inactivityTime()
+                container.get(GameConfiguration.class).inactivityTime(),
+                packetExecutor(container)
             )
         );
 
@@ -333,10 +345,19 @@ public final class GameModule implements ContainerModule {
                 .add(new GameExceptionConfigurator(container.get(Logger.class)))
                 .add(new GamePacketConfigurator(
                     container.get(Dispatcher.class),
-                    container.get(PacketParser.class)
+                    container.get(PacketParser.class),
+                    packetExecutor(container)
                 ))
         );
 
+        configurator.persist(
+            PacketExecutor.class,
+            container -> new PacketExecutor(
+                container.get(GameConfiguration.class).packetWorkers(),
+                container.get(Logger.class)
+            )
+        );
+
         configurator.factory(
             Dispatcher.class,
             container -> new DefaultDispatcher(
@@ -404,7 +425,7 @@ public final class GameModule implements ContainerModule {
                 container.get(PlayerConstraints.class),
                 container.get(PlayerRaceRepository.class),
                 container.get(fr.quatrevieux.araknemu.core.event.Dispatcher.class),
-                container.get(PlayerItemRepository.class)
+                container.get(WriteBehindPlayerItemRepository.class)
             )
         );
 
@@ -417,7 +438,9 @@ public final class GameModule implements ContainerModule {
                 container.get(InventoryService.class),
                 container.get(PlayerRaceService.class),
                 container.get(SpellBookService.class),
-                container.get(PlayerExperienceService.class)
+                container.get(PlayerExperienceService.class),
+                container.get(Logger.class),
+                eventProfiler(container)
             )
         );
 
@@ -438,7 +461,9 @@ public final class GameModule implements ContainerModule {
                 container.get(AreaService.class),
                 container.get(fr.quatrevieux.araknemu.core.event.Dispatcher.class),
                 // Use proxy to fix circular reference between ExplorationMapService and MapTriggerService
-                (map, cells) -> container.get(CellLoader.class).load(map, cells)
+                (map, cells) -> container.get(CellLoader.class).load(map, cells),
+                container.get(GameConfiguration.class),
+                eventProfiler(container)
             )
         );
 
@@ -531,11 +556,24 @@ public final class GameModule implements ContainerModule {
         configurator.persist(
             InventoryService.class,
             container -> new InventoryService(
-                container.get(PlayerItemRepository.class),
+                container.get(WriteBehindPlayerItemRepository.class),
                 container.get(ItemService.class)
             )
         );
 
+        configurator.persist(
+            WriteBehindPlayerItemRepository.class,
+            container -> new WriteBehindPlayerItemRepository(
+                container.get(PlayerItemRepository.class),
+                container.get(Logger.class)
+            )
+        );
+
+        configurator.persist(
+            EventDispatchProfiler.class,
+            container -> new EventDispatchProfiler()
+        );
+
         configurator.persist(
             ListenerAggregate.class,
             container -> new DefaultListenerAggregate(container.get(Logger.class))
@@ -643,7 +681,8 @@ public final class GameModule implements ContainerModule {
                 statesFlow,
                 container.get(Logger.class), // @todo fight logger
                 executor,
-                container.get(ActionsFactory.Factory.class)
+                container.get(ActionsFactory.Factory.class),
+                new DefaultListenerAggregate(container.get(Logger.class), eventProfiler(container))
             )
         );
 
@@ -667,7 +706,7 @@ public final class GameModule implements ContainerModule {
                     StatesModule::new,
                     RaulebaqueModule::new,
                     LaunchedSpellsModule::new,
-                    fight -> new AiModule(container.get(AiFactory.class)),
+                    fight -> new AiModule(container.get(AiFactory.class), container.get(AiPlanner.class)),
                     fight -> new MonsterInvocationModule(container.get(MonsterService.class), container.get(FighterFactory.class), fight),
                     SpiritualLeashModule::new,
                     CarryingModule::new
@@ -829,7 +868,7 @@ public final class GameModule implements ContainerModule {
         ));
 
         configurator.persist(
-            ItemFactory.class,
+            DefaultItemFactory.class,
             container -> new DefaultItemFactory(
                 new ResourceFactory(container.get(EffectToSpecialMapping.class)),
                 new UsableFactory(
@@ -853,6 +892,8 @@ public final class GameModule implements ContainerModule {
             )
         );
 
+        configurator.persist(ItemFactory.class, GameModule::itemFactory);
+
         configurator.persist(CriticalityStrategy.class, container -> new BaseCriticalityStrategy());
 
         configurator.persist(
@@ -889,6 +930,11 @@ public final class GameModule implements ContainerModule {
             container -> new ChallengeType(container.get(GameConfiguration.class).fight())
         );
 
+        configurator.persist(
+            AiPlanner.class,
+            container -> new AiPlanner(container.get(GameConfiguration.class).fight(), container.get(Logger.class))
+        );
+
         configurator.persist(
             AiFactory.class,
             container -> new ChainAiFactory(
@@ -1014,4 +1060,40 @@ public final class GameModule implements ContainerModule {
             container.get(fr.quatrevieux.araknemu.core.event.Dispatcher.class)
         ));
     }
+
+    /**
+     * Get the item factory, with interning of retrieved items if enabled by the configuration
+     */
+    private static ItemFactory itemFactory(Container container) {
+        final ItemFactory factory = container.get(DefaultItemFactory.class);
+        final int internSize = container.get(GameConfiguration.class).itemInternSize();
+
+        if (internSize == 0) {
+            return factory;
+        }
+
+        return new InternedItemFactory(factory, container.get(ItemEffectsTransformer.class), internSize);
+    }
+
+    /**
+     * Get the packet executor, if enabled by the configuration
+     */
+    private static @Nullable PacketExecutor packetExecutor(Container container) {
+        if (container.get(GameConfiguration.class).packetWorkers() == 0) {
+            return null;
+        }
+
+        return container.get(PacketExecutor.class);
+    }
+
+    /**
+     * Get the profiler of players, maps and fights dispatchers, if enabled by the configuration
+     */
+    private static @Nullable EventDispatchProfiler eventProfiler(Container container) {
+        if (!container.get(GameConfiguration.class).eventProfiling()) {
+            return null;
+        }
+
+        return container.get(EventDispatchProfiler.class);
+    }
 }
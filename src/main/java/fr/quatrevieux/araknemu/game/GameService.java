@@ -71,13 +71,7 @@ public final class GameService implements Service, EventsSubscriber {
 
         subscribe();
 
-        for (PreloadableService service : preloadables) {
-            service.init(logger);
-
-            if (configuration.preload(service.name())) {
-                service.preload(logger);
-            }
-        }
+        new PreloadScheduler(configuration, logger).run(preloadables);
 
         try {
             server.start();
@@ -149,6 +143,7 @@ public final class GameService implements Service, EventsSubscriber {
             new Listener<GameSaved>() {
                 @Override
                 public void on(GameSaved event) {
+                    logger.info("World saved: {} players written in {}ms", event.rows(), event.duration().toMillis());
                     updateState(GameHost.State.ONLINE, true);
                 }
 
@@ -0,0 +1,288 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game;
+
+import fr.quatrevieux.araknemu.core.BootException;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Initialize and preload services on boot, following their declared dependencies
+ *
+ * Each service is executed once all its dependencies are done,
+ * so independent services are preloaded concurrently on a fork-join pool.
+ * A timing report with the critical path is logged at the end.
+ *
+ * @see PreloadableService#dependencies()
+ * @see GameConfiguration#preloadThreads()
+ */
+public final class PreloadScheduler {
+    private final GameConfiguration configuration;
+    private final Logger logger;
+
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+    public PreloadScheduler(GameConfiguration configuration, Logger logger) {
+        this.configuration = configuration;
+        this.logger = logger;
+    }
+
+    /**
+     * Initialize and preload all given services
+     * This method blocks until all services are loaded
+     *
+     * @param services Services to load
+     *
+     * @throws BootException When a dependency cycle is detected, or a service fails with a checked exception
+     * @throws RuntimeException Forwarded from a failed service
+     */
+    public void run(Collection<PreloadableService> services) throws BootException {
+        final long start = System.nanoTime();
+        final Map<String, PreloadableService> servicesByName = new LinkedHashMap<>();
+
+        for (PreloadableService service : services) {
+            servicesByName.put(service.name(), service);
+        }
+
+        final ExecutorService executor = ExecutorFactory.createForkJoinPool(configuration.preloadThreads());
+
+        try {
+            final Run run = new Run(servicesByName, executor, start);
+
+            for (PreloadableService service : servicesByName.values()) {
+                schedule(service, run);
+            }
+
+            CompletableFuture.allOf(run.scheduled.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new BootException(cause != null ? cause : e);
+        } finally {
+            executor.shutdown();
+        }
+
+        report(servicesByName, System.nanoTime() - start);
+    }
+
+    /**
+     * Get the timing of a loaded service
+     *
+     * @param name The service name
+     *
+     * @return The timing, or null if the service has not been loaded
+     */
+    public @Nullable Timing timing(String name) {
+        return timings.get(name);
+    }
+
+    private CompletableFuture<Void> schedule(PreloadableService service, Run run) throws BootException {
+        final String name = service.name();
+        final CompletableFuture<Void> existing = run.scheduled.get(name);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        if (!run.resolving.add(name)) {
+            throw new BootException("Circular dependency detected on preloadable service " + name);
+        }
+
+        final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+
+        for (String dependencyName : service.dependencies()) {
+            final PreloadableService dependency = run.services.get(dependencyName);
+
+            if (dependency != null) {
+                dependencies.add(schedule(dependency, run));
+            }
+        }
+
+        final CompletableFuture<Void> future = CompletableFuture
+            .allOf(dependencies.toArray(new CompletableFuture[0]))
+            .thenRunAsync(() -> load(service, run.start), run.executor)
+        ;
+
+        run.scheduled.put(name, future);
+        run.resolving.remove(name);
+
+        return future;
+    }
+
+    private void load(PreloadableService service, long start) {
+        final long serviceStart = System.nanoTime();
+
+        service.init(logger);
+
+        if (configuration.preload(service.name())) {
+            service.preload(logger);
+        }
+
+        timings.put(service.name(), new Timing(serviceStart - start, System.nanoTime() - start));
+    }
+
+    private void report(Map<String, PreloadableService> services, long duration) {
+        logger.info("{} services loaded in {}ms using {} threads", services.size(), duration / 1_000_000, configuration.preloadThreads());
+
+        final List<Map.Entry<String, Timing>> sortedTimings = new ArrayList<>(timings.entrySet());
+
+        sortedTimings.sort(Comparator.comparingLong((Map.Entry<String, Timing> entry) -> entry.getValue().duration()).reversed());
+
+        for (Map.Entry<String, Timing> entry : sortedTimings) {
+            logger.info("- {}: {}ms (started at {}ms)", entry.getKey(), entry.getValue().duration() / 1_000_000, entry.getValue().start() / 1_000_000);
+        }
+
+        final List<String> criticalPath = criticalPath(services);
+
+        if (!criticalPath.isEmpty()) {
+            logger.info("Preload critical path: {}", String.join(" > ", criticalPath));
+        }
+    }
+
+    /**
+     * Compute the chain of services which ends last
+     * Starting from the last finished service, the dependency which ends last is followed
+     */
+    private List<String> criticalPath(Map<String, PreloadableService> services) {
+        final LinkedList<String> path = new LinkedList<>();
+        @Nullable String current = lastFinished(services.keySet());
+
+        while (current != null) {
+            path.addFirst(current);
+
+            final PreloadableService service = services.get(current);
+
+            current = service != null ? lastFinished(service.dependencies()) : null;
+        }
+
+        return path;
+    }
+
+    private @Nullable String lastFinished(Collection<? extends String> names) {
+        @Nullable String last = null;
+        long lastEnd = -1;
+
+        for (String name : names) {
+            final Timing timing = timings.get(name);
+
+            if (timing != null && timing.end() > lastEnd) {
+                last = name;
+                lastEnd = timing.end();
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * State of a single scheduler run
+     */
+    private static final class Run {
+        /**
+         * All services to load, indexed by name
+         */
+        private final Map<String, PreloadableService> services;
+
+        /**
+         * Executor used to load the services
+         */
+        private final Executor executor;
+
+        /**
+         * Start time of the run, in nanoseconds
+         */
+        private final long start;
+
+        /**
+         * Load tasks of the already scheduled services, indexed by name
+         */
+        private final Map<String, CompletableFuture<Void>> scheduled = new LinkedHashMap<>();
+
+        /**
+         * Names of the services which are currently resolved. Used to detect dependency cycles
+         */
+        private final Set<String> resolving = new HashSet<>();
+
+        public Run(Map<String, PreloadableService> services, Executor executor, long start) {
+            this.services = services;
+            this.executor = executor;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Load timing of a single service
+     * All values are in nanoseconds, relative to the start of the scheduler
+     */
+    public static final class Timing {
+        private final long start;
+        private final long end;
+
+        public Timing(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Time when the service load has started
+         */
+        public long start() {
+            return start;
+        }
+
+        /**
+         * Time when the service load has ended
+         */
+        public long end() {
+            return end;
+        }
+
+        /**
+         * Load duration of the service (init and preload)
+         */
+        public long duration() {
+            return end - start;
+        }
+    }
+}
@@ -22,6 +22,9 @@ package fr.quatrevieux.araknemu.game;
 import fr.quatrevieux.araknemu.core.InitializableService;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Interface for service which can be preloaded on boot
  */
@@ -40,4 +43,17 @@ public interface PreloadableService extends InitializableService {
      * This name is used for enable or not the preloading
      */
     public String name();
+
+    /**
+     * Get the names of the services which must be initialized and preloaded before this one
+     * Services without dependencies between them may be preloaded in parallel
+     *
+     * Unknown services names are ignored
+     *
+     * @see PreloadableService#name() For the dependency name
+     * @see PreloadScheduler
+     */
+    public default Collection<String> dependencies() {
+        return Collections.emptyList();
+    }
 }
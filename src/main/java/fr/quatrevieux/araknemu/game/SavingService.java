@@ -25,7 +25,6 @@ import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.game.event.GameSaved;
 import fr.quatrevieux.araknemu.game.event.GameStopped;
 import fr.quatrevieux.araknemu.game.event.SavingGame;
-import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.game.player.PlayerService;
 import fr.quatrevieux.araknemu.util.ExecutorFactory;
 import org.apache.logging.log4j.Logger;
@@ -126,13 +125,16 @@ public final class SavingService implements EventsSubscriber, PreloadableService
      * Note: this method will not check the "inProgress" property : it must be checked before
      */
     private void runSave() {
+        final long start = System.nanoTime();
+        int rows = 0;
+
         dispatcher.dispatch(new SavingGame());
 
         try {
-            playerService.online().forEach(GamePlayer::save);
+            rows = playerService.saveOnline();
         } finally {
             inProgress.set(false);
-            dispatcher.dispatch(new GameSaved());
+            dispatcher.dispatch(new GameSaved(rows, Duration.ofNanos(System.nanoTime() - start)));
         }
     }
 }
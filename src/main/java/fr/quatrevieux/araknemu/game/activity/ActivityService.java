@@ -91,6 +91,22 @@ public final class ActivityService implements EventsSubscriber {
         );
     }
 
+    /**
+     * Execute a simple action as soon as possible on the activity pool
+     * This method is used for split a task into smaller parts which can be executed in parallel
+     *
+     * Unlike {@link ActivityService#execute(Task)}, the action is not logged, and will not be retried on failure
+     */
+    public void submit(Runnable action) {
+        executor.execute(() -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("Execution failed : " + e.getMessage(), e);
+            }
+        });
+    }
+
     @Override
     public Listener[] listeners() {
         return new Listener[] {
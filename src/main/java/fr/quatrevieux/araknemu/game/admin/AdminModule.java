@@ -25,6 +25,7 @@ import fr.quatrevieux.araknemu.common.account.banishment.BanishmentService;
 import fr.quatrevieux.araknemu.core.di.Container;
 import fr.quatrevieux.araknemu.core.di.ContainerConfigurator;
 import fr.quatrevieux.araknemu.core.di.ContainerModule;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.data.living.repository.account.AccountRepository;
 import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
 import fr.quatrevieux.araknemu.game.GameService;
@@ -63,6 +64,7 @@ import fr.quatrevieux.araknemu.game.admin.player.teleport.PlayerResolver;
 import fr.quatrevieux.araknemu.game.admin.player.teleport.PositionResolver;
 import fr.quatrevieux.araknemu.game.admin.script.ScriptLoaderContextConfigurator;
 import fr.quatrevieux.araknemu.game.admin.server.Banip;
+import fr.quatrevieux.araknemu.game.admin.server.Events;
 import fr.quatrevieux.araknemu.game.admin.server.Kick;
 import fr.quatrevieux.araknemu.game.admin.server.Message;
 import fr.quatrevieux.araknemu.game.admin.server.Online;
@@ -240,6 +242,7 @@ public final class AdminModule implements ContainerModule {
                         add(new Message(container.get(PlayerService.class)));
                         add(new Save(container.get(SavingService.class)));
                         add(new Kick(container.get(PlayerService.class)));
+                        add(new Events(container.get(EventDispatchProfiler.class)));
                     }
                 }),
                 ctx -> container,
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.admin.server;
+
+import fr.quatrevieux.araknemu.common.account.Permission;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
+import fr.quatrevieux.araknemu.game.admin.AbstractCommand;
+import fr.quatrevieux.araknemu.game.admin.AdminPerformer;
+import org.kohsuke.args4j.Option;
+
+import java.util.Map;
+
+/**
+ * Display dispatch statistics of events on players, exploration maps and fights
+ * Statistics are only collected if "eventProfiling" is enabled on game configuration
+ */
+public final class Events extends AbstractCommand<Events.Arguments> {
+    private final EventDispatchProfiler profiler;
+
+    public Events(EventDispatchProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void build(Builder builder) {
+        builder
+            .help(formatter -> formatter
+                .description("Display dispatch statistics of events")
+                .synopsis("events [--reset]")
+                .line("Note: The option eventProfiling must be enabled on game configuration to collect statistics.")
+                .example("*events", "Display events statistics, sorted by total time")
+                .example("*events --reset", "Clear events statistics")
+            )
+            .requires(Permission.SUPER_ADMIN)
+            .arguments(Arguments::new)
+        ;
+    }
+
+    @Override
+    public String name() {
+        return "events";
+    }
+
+    @Override
+    public void execute(AdminPerformer performer, Arguments arguments) {
+        if (arguments.reset) {
+            profiler.reset();
+            performer.success("Events statistics cleared");
+            return;
+        }
+
+        final Map<Class<?>, EventDispatchProfiler.Stats> stats = profiler.all();
+
+        if (stats.isEmpty()) {
+            performer.error("No events statistics. Check that eventProfiling is enabled on game configuration");
+            return;
+        }
+
+        performer.success("===== Events statistics =====");
+
+        stats.entrySet().stream()
+            .sorted((first, second) -> Long.compare(second.getValue().totalTime(), first.getValue().totalTime()))
+            .forEach(entry -> performer.info(
+                "{} : {} dispatches, total {}µs, average {}µs",
+                entry.getKey().getSimpleName(),
+                entry.getValue().count(),
+                entry.getValue().totalTime(),
+                entry.getValue().averageTime()
+            ))
+        ;
+    }
+
+    public static final class Arguments {
+        @Option(name = "--reset", usage = "Clear the statistics")
+        private boolean reset = false;
+    }
+}
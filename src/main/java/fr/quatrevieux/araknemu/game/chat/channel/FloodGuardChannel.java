@@ -37,6 +37,7 @@ public final class FloodGuardChannel implements Channel {
     private final GameConfiguration.ChatConfiguration configuration;
 
     private final ConcurrentMap<Integer, Long> lastSentTime = new ConcurrentHashMap<>();
+    private volatile long nextEviction = 0;
 
     public FloodGuardChannel(Channel channel, GameConfiguration.ChatConfiguration configuration) {
         this.channel = channel;
@@ -60,7 +61,39 @@ public final class FloodGuardChannel implements Channel {
         }
 
         channel.send(from, message);
-        lastSentTime.put(from.id(), System.currentTimeMillis());
+
+        if (configuration.floodTime() < 0) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+
+        lastSentTime.put(from.id(), now);
+        evictExpired(now);
+    }
+
+    /**
+     * Get the number of players with a flood timer
+     */
+    int size() {
+        return lastSentTime.size();
+    }
+
+    /**
+     * Remove expired flood timers, to keep only players who sent a message recently
+     * The eviction is performed at most once per flood time, so the cost is amortized over sent messages
+     *
+     * @param now The current time, in milliseconds
+     */
+    private void evictExpired(long now) {
+        if (now < nextEviction) {
+            return;
+        }
+
+        final long floodTime = configuration.floodTime() * 1000L;
+
+        nextEviction = now + floodTime;
+        lastSentTime.values().removeIf(last -> last + floodTime <= now);
     }
 
     /**
@@ -19,12 +19,14 @@
 
 package fr.quatrevieux.araknemu.game.chat.channel;
 
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
 import fr.quatrevieux.araknemu.game.chat.ChannelType;
 import fr.quatrevieux.araknemu.game.chat.ChatException;
 import fr.quatrevieux.araknemu.game.chat.event.BroadcastedMessage;
 import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.game.player.PlayerService;
 import fr.quatrevieux.araknemu.network.game.in.chat.Message;
+import fr.quatrevieux.araknemu.network.game.out.chat.MessageSent;
 
 import java.util.function.Predicate;
 
@@ -58,16 +60,21 @@ public final class GlobalChannel implements Channel {
 
     @Override
     public void send(GamePlayer from, Message message) throws ChatException {
-        final BroadcastedMessage event = new BroadcastedMessage(
-            type(),
-            from,
-            message.message(),
-            message.items()
-        );
+        // Format and encode the packet only once for all receivers
+        // Event dispatch is synchronous, so the packet can be released once all players are notified
+        try (EncodedPacket packet = EncodedPacket.encode(new MessageSent(from, type(), message.message(), message.items()))) {
+            final BroadcastedMessage event = new BroadcastedMessage(
+                type(),
+                from,
+                message.message(),
+                message.items(),
+                packet
+            );
 
-        service
-            .filter(filter)
-            .forEach(player -> player.dispatch(event))
-        ;
+            service
+                .filter(filter)
+                .forEach(player -> player.dispatch(event))
+            ;
+        }
     }
 }
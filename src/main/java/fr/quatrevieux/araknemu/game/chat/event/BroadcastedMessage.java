@@ -19,8 +19,11 @@
 
 package fr.quatrevieux.araknemu.game.chat.event;
 
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
 import fr.quatrevieux.araknemu.game.chat.ChannelType;
 import fr.quatrevieux.araknemu.game.player.GamePlayer;
+import fr.quatrevieux.araknemu.network.game.out.chat.MessageSent;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Event trigger on broadcasted message sent
@@ -30,12 +33,25 @@ public final class BroadcastedMessage {
     private final GamePlayer sender;
     private final String message;
     private final String extra;
+    private final @Nullable EncodedPacket packet;
 
-    public BroadcastedMessage(ChannelType channel, GamePlayer sender, String message, String extra) {
+    /**
+     * @param channel The channel where the message is sent
+     * @param sender The message sender
+     * @param message The message
+     * @param extra The message extra (i.e. items)
+     * @param packet The MessageSent packet, already encoded, shared between all receivers. Can be null to format the packet on each receiver
+     */
+    public BroadcastedMessage(ChannelType channel, GamePlayer sender, String message, String extra, @Nullable EncodedPacket packet) {
         this.channel = channel;
         this.sender = sender;
         this.message = message;
         this.extra = extra;
+        this.packet = packet;
+    }
+
+    public BroadcastedMessage(ChannelType channel, GamePlayer sender, String message, String extra) {
+        this(channel, sender, message, extra, null);
     }
 
     public ChannelType channel() {
@@ -53,4 +69,16 @@ public final class BroadcastedMessage {
     public String extra() {
         return extra;
     }
+
+    /**
+     * Get the packet to send to receivers
+     * If the packet is pre-encoded, the same instance is returned, so it's formatted only once
+     */
+    public Object packet() {
+        if (packet != null) {
+            return packet;
+        }
+
+        return new MessageSent(sender, channel, message, extra);
+    }
 }
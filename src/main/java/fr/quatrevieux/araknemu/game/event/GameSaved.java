@@ -19,8 +19,32 @@
 
 package fr.quatrevieux.araknemu.game.event;
 
+import java.time.Duration;
+
 /**
  * The game server saved is complete
  */
 public final class GameSaved {
+    private final int rows;
+    private final Duration duration;
+
+    public GameSaved(int rows, Duration duration) {
+        this.rows = rows;
+        this.duration = duration;
+    }
+
+    /**
+     * Number of players rows written to the database
+     * Unchanged players are not counted
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Duration of the save process
+     */
+    public Duration duration() {
+        return duration;
+    }
 }
@@ -81,11 +81,10 @@ public final class TeleportationTarget {
             return this;
         }
 
-        // @todo utility class for find valid cell ?
-        for (int cellId = 0; cellId < map.size(); ++cellId) {
-            if (map.get(cellId).walkable()) {
-                return new TeleportationTarget(map, cellId);
-            }
+        final int walkableCell = map.firstWalkableCell();
+
+        if (walkableCell != -1) {
+            return new TeleportationTarget(map, walkableCell);
         }
 
         throw new IllegalStateException("No walkable cell can be found on map " + map.id());
@@ -36,6 +36,8 @@ import fr.quatrevieux.araknemu.game.exploration.map.cell.ExplorationMapCell;
 import fr.quatrevieux.araknemu.game.exploration.map.event.NewSpriteOnMap;
 import fr.quatrevieux.araknemu.game.exploration.map.event.SpriteRemoveFromMap;
 import fr.quatrevieux.araknemu.game.world.creature.Sprite;
+import fr.quatrevieux.araknemu.network.game.out.game.AddSprites;
+import org.checkerframework.checker.index.qual.GTENegativeOne;
 import org.checkerframework.checker.index.qual.IndexFor;
 import org.checkerframework.checker.index.qual.LengthOf;
 import org.checkerframework.checker.index.qual.NonNegative;
@@ -43,15 +45,16 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.dataflow.qual.SideEffectFree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -61,20 +64,69 @@ public final class ExplorationMap implements DofusMap<ExplorationMapCell>, Dispa
     private final MapTemplate template;
     private final ExplorationSubArea subArea;
 
-    private final Map<@NonNegative Integer, ExplorationMapCell> cells;
+    private final ExplorationMapCell[] cells;
     private final ConcurrentMap<Integer, ExplorationCreature> creatures = new ConcurrentHashMap<>();
 
-    private final ListenerAggregate dispatcher = new DefaultListenerAggregate();
+    /**
+     * Cells which are free when there is no creatures on the map
+     * This bitset is never modified after the map creation
+     */
+    private final BitSet freeWhenEmpty = new BitSet();
+
+    /**
+     * Walkable cells of the map
+     * This bitset is never modified after the map creation
+     */
+    private final BitSet walkableCells = new BitSet();
+
+    /**
+     * Serialized sprites of the creatures, indexed by the creature id
+     * A sprite is serialized on the first call of {@link ExplorationMap#spritesPacket()} after it has been added or refreshed
+     */
+    private final ConcurrentMap<Integer, String> serializedSprites = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time a creature is added, removed or refreshed
+     * Used to invalidate the sprites packet and the creatures count per cell
+     */
+    private final AtomicInteger spritesVersion = new AtomicInteger();
+    private volatile @Nullable SpritesSnapshot spritesSnapshot;
+    private volatile @Nullable CellsSnapshot cellsSnapshot;
+
+    private final ListenerAggregate dispatcher;
 
-    @SuppressWarnings({"argument"})
     public ExplorationMap(MapTemplate template, CellLoader loader, ExplorationSubArea subArea) {
+        this(template, loader, subArea, new DefaultListenerAggregate());
+    }
+
+    /**
+     * @param dispatcher The map event dispatcher. Must be empty.
+     */
+    @SuppressWarnings({"argument", "array.access.unsafe.high"})
+    public ExplorationMap(MapTemplate template, CellLoader loader, ExplorationSubArea subArea, ListenerAggregate dispatcher) {
+        this.dispatcher = dispatcher;
         this.template = template;
         this.subArea = subArea;
+        this.cells = new ExplorationMapCell[template.cells().length];
 
-        this.cells = loader.load(this, template.cells())
-            .stream()
-            .collect(Collectors.toMap(ExplorationMapCell::id, Function.identity()))
-        ;
+        for (ExplorationMapCell cell : loader.load(this, template.cells())) {
+            cells[cell.id()] = cell;
+        }
+
+        // Other cells are basic cells, created once and shared by all callers of get()
+        for (int id = 0; id < cells.length; ++id) {
+            if (cells[id] == null) {
+                cells[id] = new BasicCell(id, template.cells()[id], this);
+            }
+
+            if (cells[id].walkable()) {
+                walkableCells.set(id);
+            }
+
+            if (cells[id].free()) {
+                freeWhenEmpty.set(id);
+            }
+        }
     }
 
     /**
@@ -132,13 +184,58 @@ public final class ExplorationMap implements DofusMap<ExplorationMapCell>, Dispa
     @SideEffectFree
     @SuppressWarnings("array.access.unsafe.high") // Cannot infer template.cells().length to be equals to this length
     public ExplorationMapCell get(@IndexFor("this") int id) {
-        final ExplorationMapCell cell = cells.get(id);
+        return cells[id];
+    }
+
+    /**
+     * Check if there is at least one creature on the given cell
+     *
+     * @param id The cell id
+     */
+    @SuppressWarnings("array.access.unsafe.high") // The counts array has the same length as cells
+    public boolean hasCreatureOn(@IndexFor("this") int id) {
+        return creaturesByCell()[id] > 0;
+    }
+
+    /**
+     * Check if the cell is free, i.e. a new sprite can be added on
+     * This method is equivalent to {@code map.get(id).free()}
+     *
+     * @param id The cell id
+     *
+     * @see ExplorationMapCell#free()
+     */
+    @SuppressWarnings("array.access.unsafe.high") // The counts array has the same length as cells
+    public boolean isFree(@IndexFor("this") int id) {
+        return freeWhenEmpty.get(id) && creaturesByCell()[id] == 0;
+    }
 
-        if (cell != null) {
-            return cell;
+    /**
+     * Get all free cells of the map
+     *
+     * @see ExplorationMapCell#free()
+     */
+    @SuppressWarnings("array.access.unsafe.high") // The counts array has the same length as cells
+    public List<ExplorationMapCell> freeCells() {
+        final List<ExplorationMapCell> free = new ArrayList<>();
+        final int[] creaturesByCell = creaturesByCell();
+
+        for (int id = freeWhenEmpty.nextSetBit(0); id >= 0 && id < cells.length; id = freeWhenEmpty.nextSetBit(id + 1)) {
+            if (creaturesByCell[id] == 0) {
+                free.add(cells[id]);
+            }
         }
 
-        return new BasicCell(id, template.cells()[id], this);
+        return free;
+    }
+
+    /**
+     * Get the first walkable cell of the map
+     *
+     * @return The cell id, or -1 if there is no walkable cell
+     */
+    public @GTENegativeOne int firstWalkableCell() {
+        return walkableCells.nextSetBit(0);
     }
 
     /**
@@ -150,6 +247,8 @@ public final class ExplorationMap implements DofusMap<ExplorationMapCell>, Dispa
         }
 
         creatures.put(creature.id(), creature);
+        serializedSprites.remove(creature.id());
+        spritesVersion.incrementAndGet();
 
         dispatch(new NewSpriteOnMap(creature.sprite()));
     }
@@ -163,9 +262,60 @@ public final class ExplorationMap implements DofusMap<ExplorationMapCell>, Dispa
         }
 
         creatures.remove(creature.id());
+        serializedSprites.remove(creature.id());
+        spritesVersion.incrementAndGet();
+
         dispatch(new SpriteRemoveFromMap(creature.sprite()));
     }
 
+    /**
+     * Update the serialized sprite of the creature
+     * This method must be called when a displayed property of the sprite has changed (like cell or orientation)
+     * It also invalidates the free cells index, so it must be called when the creature has moved
+     *
+     * If the creature is not on the map, this method will do nothing
+     *
+     * @see ExplorationMap#spritesPacket()
+     */
+    public void refreshSprite(ExplorationCreature creature) {
+        if (!creatures.containsKey(creature.id())) {
+            return;
+        }
+
+        serializedSprites.remove(creature.id());
+        spritesVersion.incrementAndGet();
+    }
+
+    /**
+     * Get the packet for display all sprites of the map
+     *
+     * Each sprite is serialized once after it's added or refreshed,
+     * and the packet is only rebuilt when a sprite has changed since the last call.
+     *
+     * @see AddSprites
+     * @see ExplorationMap#refreshSprite(ExplorationCreature)
+     */
+    public String spritesPacket() {
+        final int version = spritesVersion.get();
+        final SpritesSnapshot snapshot = spritesSnapshot;
+
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot.packet;
+        }
+
+        final List<String> sprites = new ArrayList<>(creatures.size());
+
+        for (ExplorationCreature creature : creatures.values()) {
+            sprites.add(serializedSprites.computeIfAbsent(creature.id(), id -> creature.sprite().toString()));
+        }
+
+        final String packet = AddSprites.serialized(sprites).toString();
+
+        spritesSnapshot = new SpritesSnapshot(version, packet);
+
+        return packet;
+    }
+
     /**
      * Get list of map sprites
      */
@@ -298,4 +448,54 @@ public final class ExplorationMap implements DofusMap<ExplorationMapCell>, Dispa
     public MapTemplate template() {
         return template;
     }
+
+    /**
+     * Get the number of creatures on each cell, indexed by the cell id
+     * The counts are only computed again when a creature has been added, removed or refreshed since the last call
+     */
+    @SuppressWarnings("array.access.unsafe.high") // The counts array has the same length as cells
+    private int[] creaturesByCell() {
+        final int version = spritesVersion.get();
+        final CellsSnapshot snapshot = cellsSnapshot;
+
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot.creaturesByCell;
+        }
+
+        final int[] creaturesByCell = new int[cells.length];
+
+        for (ExplorationCreature creature : creatures.values()) {
+            ++creaturesByCell[creature.cell().id()];
+        }
+
+        cellsSnapshot = new CellsSnapshot(version, creaturesByCell);
+
+        return creaturesByCell;
+    }
+
+    /**
+     * Serialized sprites packet, with the version of the sprites used to build it
+     */
+    private static final class SpritesSnapshot {
+        private final int version;
+        private final String packet;
+
+        public SpritesSnapshot(int version, String packet) {
+            this.version = version;
+            this.packet = packet;
+        }
+    }
+
+    /**
+     * Number of creatures per cell, with the version of the sprites used to compute it
+     */
+    private static final class CellsSnapshot {
+        private final int version;
+        private final int[] creaturesByCell;
+
+        public CellsSnapshot(int version, int[] creaturesByCell) {
+            this.version = version;
+            this.creaturesByCell = creaturesByCell;
+        }
+    }
 }
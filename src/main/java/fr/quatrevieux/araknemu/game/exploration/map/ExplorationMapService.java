@@ -20,11 +20,14 @@
 package fr.quatrevieux.araknemu.game.exploration.map;
 
 import fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException;
+import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
 import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
+import fr.quatrevieux.araknemu.game.GameConfiguration;
 import fr.quatrevieux.araknemu.game.PreloadableService;
 import fr.quatrevieux.araknemu.game.exploration.area.AreaService;
 import fr.quatrevieux.araknemu.game.exploration.event.ExplorationPlayerCreated;
@@ -45,30 +48,54 @@ import fr.quatrevieux.araknemu.game.listener.map.fight.SendTeamFighterAdded;
 import fr.quatrevieux.araknemu.game.listener.map.fight.SendTeamFighterRemoved;
 import fr.quatrevieux.araknemu.game.listener.map.fight.SendTeamOptionChanged;
 import fr.quatrevieux.araknemu.game.listener.player.SendMapData;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Service for handle exploration maps
  */
 public final class ExplorationMapService implements PreloadableService, EventsSubscriber {
+    /**
+     * Maximum number of templates decoded ahead of the map creation, per preload thread
+     */
+    private static final int DECODED_TEMPLATES_PER_THREAD = 64;
+
     private final MapTemplateRepository repository;
     private final FightService fightService;
     private final AreaService areaService;
     private final Dispatcher dispatcher;
     private final CellLoader loader;
+    private final GameConfiguration configuration;
+    private final @Nullable EventDispatchProfiler profiler;
 
     private final ConcurrentMap<@NonNegative Integer, ExplorationMap> maps = new ConcurrentHashMap<>();
 
-    public ExplorationMapService(MapTemplateRepository repository, FightService fightService, AreaService areaService, Dispatcher dispatcher, CellLoader loader) {
+    public ExplorationMapService(MapTemplateRepository repository, FightService fightService, AreaService areaService, Dispatcher dispatcher, CellLoader loader, GameConfiguration configuration) {
+        this(repository, fightService, areaService, dispatcher, loader, configuration, null);
+    }
+
+    /**
+     * @param profiler Profiler used by maps dispatchers. Use null to disable profiling
+     */
+    public ExplorationMapService(MapTemplateRepository repository, FightService fightService, AreaService areaService, Dispatcher dispatcher, CellLoader loader, GameConfiguration configuration, @Nullable EventDispatchProfiler profiler) {
         this.repository = repository;
         this.fightService = fightService;
         this.areaService = areaService;
         this.dispatcher = dispatcher;
         this.loader = loader;
+        this.configuration = configuration;
+        this.profiler = profiler;
     }
 
     /**
@@ -90,7 +117,27 @@ public final class ExplorationMapService implements PreloadableService, EventsSu
 
         final long start = System.currentTimeMillis();
 
-        repository.all().forEach(this::createMap);
+        // Cells are decoded in parallel while rows are read, but maps are created in order in the current thread
+        // Only a limited number of templates are decoded ahead, so the templates are not all kept in memory before map creation
+        final ExecutorService executor = ExecutorFactory.createForkJoinPool(configuration.preloadThreads());
+        final int maxPending = configuration.preloadThreads() * DECODED_TEMPLATES_PER_THREAD;
+        final Deque<CompletableFuture<MapTemplate>> pending = new ArrayDeque<>(maxPending);
+
+        try {
+            repository.forEach(template -> {
+                pending.add(CompletableFuture.supplyAsync(() -> decodeCells(template), executor));
+
+                if (pending.size() >= maxPending) {
+                    createMap(pending.remove().join());
+                }
+            });
+
+            while (!pending.isEmpty()) {
+                createMap(pending.remove().join());
+            }
+        } finally {
+            executor.shutdown();
+        }
 
         final long time = System.currentTimeMillis() - start;
 
@@ -102,6 +149,11 @@ public final class ExplorationMapService implements PreloadableService, EventsSu
         return "map";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Arrays.asList("map.area", "map.trigger", "npc", "monster.environment");
+    }
+
     @Override
     public Listener[] listeners() {
         return new Listener[] {
@@ -152,8 +204,14 @@ public final class ExplorationMapService implements PreloadableService, EventsSu
         return loadedMap;
     }
 
+    private static MapTemplate decodeCells(MapTemplate template) {
+        template.cells();
+
+        return template;
+    }
+
     private ExplorationMap createMap(MapTemplate template) {
-        final ExplorationMap map = new ExplorationMap(template, loader, areaService.get(template.subAreaId()));
+        final ExplorationMap map = new ExplorationMap(template, loader, areaService.get(template.subAreaId()), new DefaultListenerAggregate(profiler));
 
         maps.put(map.id(), map);
 
@@ -0,0 +1,190 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.exploration.map;
+
+import fr.quatrevieux.araknemu.util.Asserter;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Immutable index of maps by geolocation and super area
+ *
+ * Maps are stored into an open addressing hash table, so a lookup do not perform any allocation.
+ * Maps on the same position are sorted by size, starting with the bigger one.
+ */
+final class GeolocationIndex {
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] superAreas;
+    private final Entry[] @Nullable [] table;
+    private final int mask;
+    private final @NonNegative int size;
+
+    private GeolocationIndex(@Positive int capacity, @NonNegative int size) {
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.superAreas = new int[capacity];
+        this.table = new Entry[capacity][];
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    /**
+     * Get the maps at the given position
+     *
+     * @param x The map X coordinate
+     * @param y The map Y coordinate
+     * @param superArea The super area of the map
+     *
+     * @return Maps on the position, sorted by size. Null if there is no maps
+     */
+    @SuppressWarnings({"array.access.unsafe.low", "array.access.unsafe.high"}) // slot is masked by the table length
+    public Entry @Nullable [] get(int x, int y, int superArea) {
+        for (int slot = hash(x, y, superArea) & mask;; slot = (slot + 1) & mask) {
+            final Entry[] entries = table[slot];
+
+            if (entries == null) {
+                return null;
+            }
+
+            if (xs[slot] == x && ys[slot] == y && superAreas[slot] == superArea) {
+                return entries;
+            }
+        }
+    }
+
+    /**
+     * Number of indexed maps
+     */
+    public @NonNegative int size() {
+        return size;
+    }
+
+    /**
+     * Create the index from given maps
+     */
+    public static GeolocationIndex of(Collection<Entry> entries) {
+        @Positive int capacity = 16;
+
+        while (capacity < entries.size() * 2) {
+            capacity = Asserter.castPositive(capacity << 1);
+        }
+
+        final GeolocationIndex index = new GeolocationIndex(capacity, entries.size());
+
+        for (Entry entry : entries) {
+            index.add(entry);
+        }
+
+        for (Entry[] slotEntries : index.table) {
+            if (slotEntries != null) {
+                Arrays.sort(slotEntries, Comparator.comparingInt(Entry::cellsCount).reversed());
+            }
+        }
+
+        return index;
+    }
+
+    @SuppressWarnings({"array.access.unsafe.low", "array.access.unsafe.high"}) // slot is masked by the table length
+    private void add(Entry entry) {
+        for (int slot = hash(entry.x, entry.y, entry.superArea) & mask;; slot = (slot + 1) & mask) {
+            final Entry[] entries = table[slot];
+
+            if (entries == null) {
+                xs[slot] = entry.x;
+                ys[slot] = entry.y;
+                superAreas[slot] = entry.superArea;
+                table[slot] = new Entry[] {entry};
+                return;
+            }
+
+            if (xs[slot] == entry.x && ys[slot] == entry.y && superAreas[slot] == entry.superArea) {
+                final Entry[] newEntries = new Entry[entries.length + 1];
+
+                System.arraycopy(entries, 0, newEntries, 0, entries.length);
+                newEntries[entries.length] = entry;
+                table[slot] = newEntries;
+                return;
+            }
+        }
+    }
+
+    private static int hash(int x, int y, int superArea) {
+        final int hash = (x * 31 + y) * 31 + superArea;
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Lightweight descriptor of an indexed map
+     */
+    public static final class Entry {
+        private final @NonNegative int id;
+        private final int x;
+        private final int y;
+        private final int superArea;
+        private final int subArea;
+        private final boolean indoor;
+        private final @NonNegative int cellsCount;
+
+        public Entry(@NonNegative int id, int x, int y, int superArea, int subArea, boolean indoor, @NonNegative int cellsCount) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.superArea = superArea;
+            this.subArea = subArea;
+            this.indoor = indoor;
+            this.cellsCount = cellsCount;
+        }
+
+        /**
+         * The map id
+         */
+        public @NonNegative int id() {
+            return id;
+        }
+
+        /**
+         * The map sub area id
+         */
+        public int subArea() {
+            return subArea;
+        }
+
+        /**
+         * Does the map is an indoor map ?
+         */
+        public boolean indoor() {
+            return indoor;
+        }
+
+        /**
+         * Number of cells of the map
+         */
+        public @NonNegative int cellsCount() {
+            return cellsCount;
+        }
+    }
+}
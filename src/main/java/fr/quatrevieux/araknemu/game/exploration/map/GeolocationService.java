@@ -23,19 +23,31 @@ import fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException;
 import fr.quatrevieux.araknemu.data.value.Geolocation;
 import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
 import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
+import fr.quatrevieux.araknemu.game.PreloadableService;
 import fr.quatrevieux.araknemu.game.exploration.area.AreaService;
+import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Handle map geolocation
+ *
+ * When preloaded, maps are resolved using an in-memory index, without any database access.
+ * Otherwise, maps are searched from the database on each call.
  */
-public final class GeolocationService {
+public final class GeolocationService implements PreloadableService {
     private final ExplorationMapService mapService;
     private final AreaService areaService;
     private final MapTemplateRepository repository;
 
+    private volatile @Nullable GeolocationIndex index;
+
     public GeolocationService(ExplorationMapService mapService, AreaService areaService, MapTemplateRepository repository) {
         this.mapService = mapService;
         this.areaService = areaService;
@@ -57,6 +69,60 @@ public final class GeolocationService {
      * @throws EntityNotFoundException When the map cannot be found at the given geolocation
      */
     public ExplorationMap find(Geolocation geolocation, GeolocationContext context) {
+        final GeolocationIndex currentIndex = index;
+
+        if (currentIndex == null) {
+            return findFromDatabase(geolocation, context);
+        }
+
+        final GeolocationIndex.Entry[] candidates = currentIndex.get(geolocation.x(), geolocation.y(), context.superArea);
+
+        if (candidates == null) {
+            throw new EntityNotFoundException("map at position " + geolocation + "is not found");
+        }
+
+        return mapService.load(context.select(candidates).id());
+    }
+
+    @Override
+    public void preload(Logger logger) {
+        logger.info("Indexing maps geolocation...");
+
+        final List<GeolocationIndex.Entry> entries = new ArrayList<>();
+
+        repository.forEach(template -> {
+            try {
+                entries.add(new GeolocationIndex.Entry(
+                    template.id(),
+                    template.geolocation().x(),
+                    template.geolocation().y(),
+                    areaService.get(template.subAreaId()).area().superarea(),
+                    template.subAreaId(),
+                    template.indoor(),
+                    template.cellsCount()
+                ));
+            } catch (EntityNotFoundException e) {
+                logger.warn("Cannot index map {}: sub area {} not found", template.id(), template.subAreaId());
+            }
+        });
+
+        final GeolocationIndex newIndex = GeolocationIndex.of(entries);
+
+        index = newIndex;
+        logger.info("{} maps indexed", newIndex.size());
+    }
+
+    @Override
+    public String name() {
+        return "map.geolocation";
+    }
+
+    @Override
+    public Collection<String> dependencies() {
+        return Collections.singletonList("map.area");
+    }
+
+    private ExplorationMap findFromDatabase(Geolocation geolocation, GeolocationContext context) {
         return repository.byGeolocation(geolocation).stream()
             .filter(map -> areaService.get(map.subAreaId()).area().superarea() == context.superArea)
             .min(context.buildComparator())
@@ -104,6 +170,37 @@ public final class GeolocationService {
             return this;
         }
 
+        /**
+         * Select the most pertinent map from the index
+         * This method follows the same rules as the comparator
+         *
+         * @param candidates Maps on the searched position, sorted by size. Must not be empty
+         */
+        @SuppressWarnings("array.access.unsafe.high.constant") // candidates are never empty
+        private GeolocationIndex.Entry select(GeolocationIndex.Entry[] candidates) {
+            GeolocationIndex.Entry selected = candidates[0];
+            int selectedScore = -1;
+
+            for (GeolocationIndex.Entry candidate : candidates) {
+                int score = 0;
+
+                if (subArea != null && candidate.subArea() == subArea) {
+                    score += 2;
+                }
+
+                if (candidate.indoor() == indoor) {
+                    score += 1;
+                }
+
+                if (score > selectedScore) {
+                    selected = candidate;
+                    selectedScore = score;
+                }
+            }
+
+            return selected;
+        }
+
         /**
          * Build the map comparator
          */
@@ -22,7 +22,6 @@ package fr.quatrevieux.araknemu.game.exploration.map.cell;
 import fr.arakne.utils.maps.AbstractCellDataAdapter;
 import fr.arakne.utils.maps.serializer.CellData;
 import fr.quatrevieux.araknemu.game.exploration.map.ExplorationMap;
-import fr.quatrevieux.araknemu.game.world.creature.Creature;
 import org.checkerframework.checker.index.qual.NonNegative;
 
 /**
@@ -34,18 +33,9 @@ public final class BasicCell extends AbstractCellDataAdapter<ExplorationMap, Exp
     }
 
     @Override
+    @SuppressWarnings("argument") // cell id is valid for its map
     public boolean free() {
         // @todo check movement value
-        if (!walkable()) {
-            return false;
-        }
-
-        for (Creature<ExplorationMapCell> creature : map().creatures()) {
-            if (equals(creature.cell())) {
-                return false;
-            }
-        }
-
-        return true;
+        return walkable() && !map().hasCreatureOn(id());
     }
 }
@@ -30,6 +30,7 @@ import fr.quatrevieux.araknemu.game.exploration.map.event.MapLoaded;
 import fr.quatrevieux.araknemu.game.exploration.npc.dialog.DialogService;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -69,6 +70,11 @@ public final class NpcService implements EventsSubscriber, PreloadableService {
         return "npc";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Arrays.asList("npc.dialog", "npc.exchange");
+    }
+
     @Override
     public Listener[] listeners() {
         return new Listener[] {
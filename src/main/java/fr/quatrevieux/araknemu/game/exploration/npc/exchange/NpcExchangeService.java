@@ -33,6 +33,8 @@ import fr.quatrevieux.araknemu.game.item.ItemService;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.index.qual.Positive;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +78,11 @@ public final class NpcExchangeService implements PreloadableService, EventsSubsc
         return "npc.exchange";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Collections.singletonList("item");
+    }
+
     @Override
     public Listener[] listeners() {
         return new Listener[] {
@@ -22,6 +22,7 @@ package fr.quatrevieux.araknemu.game.fight;
 import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
+import fr.quatrevieux.araknemu.core.network.WriteBatch;
 import fr.quatrevieux.araknemu.game.fight.castable.effect.EffectsHandler;
 import fr.quatrevieux.araknemu.game.fight.event.FightCancelled;
 import fr.quatrevieux.araknemu.game.fight.event.FightLeaved;
@@ -54,8 +55,6 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -76,15 +75,21 @@ public final class Fight implements Dispatcher, Sender {
     private final ActionsFactory actions;
     private final FighterList fighters;
 
-    private final Lock executorLock = new ReentrantLock();
     private final EffectsHandler effects = new EffectsHandler();
     private @MonotonicNonNull FightTurnList turnList;
 
     private final StopWatch duration = new StopWatch();
     private volatile boolean alive = true;
 
-    @SuppressWarnings({"assignment", "argument"})
     public Fight(int id, FightType type, FightMap map, List<FightTeam.Factory> teams, StatesFlow statesFlow, Logger logger, ScheduledExecutorService executor, ActionsFactory.Factory actions) {
+        this(id, type, map, teams, statesFlow, logger, executor, actions, new DefaultListenerAggregate(logger));
+    }
+
+    /**
+     * @param dispatcher The fight event dispatcher. Must be empty.
+     */
+    @SuppressWarnings({"assignment", "argument"})
+    public Fight(int id, FightType type, FightMap map, List<FightTeam.Factory> teams, StatesFlow statesFlow, Logger logger, ScheduledExecutorService executor, ActionsFactory.Factory actions, ListenerAggregate dispatcher) {
         this.id = id;
         this.type = type;
         this.map = map;
@@ -92,7 +97,7 @@ public final class Fight implements Dispatcher, Sender {
         this.statesFlow = statesFlow;
         this.logger = logger;
         this.executor = executor;
-        this.dispatcher = new DefaultListenerAggregate(logger);
+        this.dispatcher = dispatcher;
         this.spectators = new Spectators(this);
         this.fighters = new FighterList(this);
         this.actions = actions.createForFight(this);
@@ -390,7 +395,10 @@ public final class Fight implements Dispatcher, Sender {
     }
 
     /**
-     * Wrap action to submit to executor to ensure that tasks are run sequentially (i.e. no task are run in parallel)
+     * Wrap action to submit to executor to ignore tasks of a dead fight, and log errors
+     *
+     * Tasks are run sequentially because the executor is single threaded (see {@link FightExecutors}),
+     * so no lock is required here
      */
     private final class Task implements Runnable {
         private final Runnable action;
@@ -401,9 +409,8 @@ public final class Fight implements Dispatcher, Sender {
 
         @Override
         public void run() {
-            try {
-                executorLock.lock();
-
+            // Packets sent by the task are flushed once at the end
+            try (WriteBatch batch = WriteBatch.open()) {
                 if (!alive) {
                     logger.warn("Cannot run task " + action.getClass().toString() + " on dead fight");
                     return;
@@ -412,8 +419,6 @@ public final class Fight implements Dispatcher, Sender {
                 action.run();
             } catch (Throwable e) {
                 logger.error("Error on fight executor : " + e.getMessage(), e);
-            } finally {
-                executorLock.unlock();
             }
         }
     }
@@ -0,0 +1,210 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight;
+
+import fr.quatrevieux.araknemu.util.Asserter;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sharded executors for fights
+ *
+ * Each shard is a single thread executor, and a fight is always pinned to the same shard, selected by its id.
+ * So tasks of a single fight are always executed sequentially, and a slow fight only delays fights of its own shard.
+ */
+public final class FightExecutors {
+    private final Shard[] shards;
+
+    /**
+     * @param count Number of shards (i.e. number of threads)
+     */
+    public FightExecutors(@Positive int count) {
+        shards = new Shard[count];
+
+        for (int i = 0; i < shards.length; ++i) {
+            shards[i] = new Shard(ExecutorFactory.createSingleThread());
+        }
+    }
+
+    /**
+     * Get the executor of the given fight
+     * The same executor is always returned for a given fight id
+     *
+     * @param fightId The fight id
+     */
+    public Shard forFight(int fightId) {
+        return shards[Asserter.assertIndexFor(shards, Math.floorMod(fightId, shards.length))];
+    }
+
+    /**
+     * Get all shards
+     */
+    public Shard[] shards() {
+        return shards.clone();
+    }
+
+    /**
+     * Shutdown all shards, and interrupt running tasks
+     */
+    public void shutdownNow() {
+        for (Shard shard : shards) {
+            shard.shutdownNow();
+        }
+    }
+
+    /**
+     * Single thread executor of a fight shard
+     * Measure the queue lag of tasks, i.e. the time between the expected start of a task and its actual start
+     */
+    public static final class Shard extends AbstractExecutorService implements ScheduledExecutorService {
+        private final ScheduledExecutorService inner;
+
+        private final AtomicInteger pending = new AtomicInteger();
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder totalLag = new LongAdder();
+        private final AtomicLong maxLag = new AtomicLong();
+        private final AtomicLong lastLag = new AtomicLong();
+
+        Shard(ScheduledExecutorService inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            final long expectedStart = System.nanoTime();
+
+            pending.incrementAndGet();
+            inner.execute(() -> run(command, expectedStart, true));
+        }
+
+        @Override
+        public ScheduledFuture<@Nullable ?> schedule(Runnable command, long delay, TimeUnit unit) {
+            final long expectedStart = System.nanoTime() + unit.toNanos(delay);
+
+            return inner.schedule(() -> run(command, expectedStart, false), delay, unit);
+        }
+
+        @Override
+        @SuppressWarnings({"override.return", "override.param"})
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            return inner.schedule(callable, delay, unit);
+        }
+
+        @Override
+        public ScheduledFuture<@Nullable ?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return inner.scheduleAtFixedRate(command, initialDelay, period, unit);
+        }
+
+        @Override
+        public ScheduledFuture<@Nullable ?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return inner.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            inner.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return inner.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return inner.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return inner.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return inner.awaitTermination(timeout, unit);
+        }
+
+        /**
+         * Number of submitted tasks waiting for execution
+         * Delayed tasks are not counted
+         */
+        public @NonNegative int pending() {
+            return Math.max(pending.get(), 0);
+        }
+
+        /**
+         * Number of executed tasks
+         */
+        public long executed() {
+            return executed.sum();
+        }
+
+        /**
+         * Average queue lag in microseconds
+         */
+        public long averageLag() {
+            final long count = executed.sum();
+
+            return count > 0 ? TimeUnit.NANOSECONDS.toMicros(totalLag.sum() / count) : 0;
+        }
+
+        /**
+         * Maximum queue lag in microseconds
+         */
+        public long maxLag() {
+            return TimeUnit.NANOSECONDS.toMicros(maxLag.get());
+        }
+
+        /**
+         * Queue lag of the last executed task, in microseconds
+         */
+        public long lastLag() {
+            return TimeUnit.NANOSECONDS.toMicros(lastLag.get());
+        }
+
+        private void run(Runnable command, long expectedStart, boolean immediate) {
+            final long lag = Math.max(System.nanoTime() - expectedStart, 0);
+
+            if (immediate) {
+                pending.decrementAndGet();
+            }
+
+            executed.increment();
+            totalLag.add(lag);
+            lastLag.set(lag);
+            maxLag.accumulateAndGet(lag, Math::max);
+
+            command.run();
+        }
+    }
+}
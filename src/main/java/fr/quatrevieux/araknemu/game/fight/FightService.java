@@ -22,6 +22,7 @@ package fr.quatrevieux.araknemu.game.fight;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
 import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
 import fr.quatrevieux.araknemu.core.event.Listener;
+import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
 import fr.quatrevieux.araknemu.game.GameConfiguration;
 import fr.quatrevieux.araknemu.game.event.GameStopped;
 import fr.quatrevieux.araknemu.game.exploration.event.ExplorationPlayerCreated;
@@ -30,6 +31,7 @@ import fr.quatrevieux.araknemu.game.fight.builder.FightBuilder;
 import fr.quatrevieux.araknemu.game.fight.builder.FightBuilderFactory;
 import fr.quatrevieux.araknemu.game.fight.event.FightCreated;
 import fr.quatrevieux.araknemu.game.fight.map.FightMap;
+import fr.quatrevieux.araknemu.game.fight.map.LineOfSightCache;
 import fr.quatrevieux.araknemu.game.fight.module.FightModule;
 import fr.quatrevieux.araknemu.game.fight.state.StatesFlow;
 import fr.quatrevieux.araknemu.game.fight.team.FightTeam;
@@ -37,7 +39,6 @@ import fr.quatrevieux.araknemu.game.fight.type.FightType;
 import fr.quatrevieux.araknemu.game.listener.player.exploration.LeaveExplorationForFight;
 import fr.quatrevieux.araknemu.game.listener.player.fight.AttachFighter;
 import fr.quatrevieux.araknemu.game.player.event.PlayerLoaded;
-import fr.quatrevieux.araknemu.util.ExecutorFactory;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -59,9 +60,10 @@ public final class FightService implements EventsSubscriber {
     private final FightFactory factory;
     private final Collection<FightModule.Factory> moduleFactories;
     private final GameConfiguration.FightConfiguration configuration;
-    private final ScheduledExecutorService executor;
+    private final FightExecutors executors;
 
     private final Map<Integer, Map<Integer, Fight>> fightsByMapId = new ConcurrentHashMap<>();
+    private final Map<Integer, LineOfSightCache> sightCacheByMapId = new ConcurrentHashMap<>();
     private final AtomicInteger lastFightId = new AtomicInteger();
 
     public FightService(Dispatcher dispatcher, Collection<? extends FightBuilderFactory> factories, Collection<FightModule.Factory> moduleFactories, FightFactory factory, GameConfiguration.FightConfiguration configuration) {
@@ -69,7 +71,7 @@ public final class FightService implements EventsSubscriber {
         this.moduleFactories = moduleFactories;
         this.configuration = configuration;
         this.factory = factory;
-        this.executor = ExecutorFactory.create(configuration.threadsCount());
+        this.executors = new FightExecutors(configuration.threadsCount());
 
         this.builderFactories = factories.stream().collect(
             Collectors.toMap(
@@ -113,7 +115,7 @@ public final class FightService implements EventsSubscriber {
                     ;
 
                     fightsByMapId.clear();
-                    executor.shutdownNow();
+                    executors.shutdownNow();
                 }
 
                 @Override
@@ -126,11 +128,14 @@ public final class FightService implements EventsSubscriber {
 
     /**
      * Create fight map
+     * The line of sight cache is shared between all fights of the same map
      *
      * @param map The base map
      */
     public FightMap map(ExplorationMap map) {
-        return new FightMap(map.template());
+        final MapTemplate template = map.template();
+
+        return new FightMap(template, sightCacheByMapId.computeIfAbsent(template.id(), id -> new LineOfSightCache(template)));
     }
 
     /**
@@ -197,7 +202,15 @@ public final class FightService implements EventsSubscriber {
      * Internal: must only be called by a {@link FightBuilder}
      */
     public Fight create(int id, FightType type, FightMap map, List<FightTeam.Factory> teams, StatesFlow statesFlow) {
-        return factory.create(id, type, map, teams, statesFlow, executor);
+        return factory.create(id, type, map, teams, statesFlow, executors.forFight(id));
+    }
+
+    /**
+     * Get the fights executors
+     * Can be used to monitor the load of each shard
+     */
+    public FightExecutors executors() {
+        return executors;
     }
 
     /**
@@ -250,6 +263,8 @@ public final class FightService implements EventsSubscriber {
         /**
          * Create a new fight instance
          * Should not be used directly, but by a {@link FightBuilder}
+         *
+         * The executor is a single thread executor shared with other fights of the same shard
          */
         public Fight create(int id, FightType type, FightMap map, List<FightTeam.Factory> teams, StatesFlow statesFlow, ScheduledExecutorService executor);
     }
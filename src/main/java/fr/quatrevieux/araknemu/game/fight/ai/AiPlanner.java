@@ -0,0 +1,184 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai;
+
+import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
+import fr.quatrevieux.araknemu.core.event.Listener;
+import fr.quatrevieux.araknemu.game.GameConfiguration;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
+import fr.quatrevieux.araknemu.game.fight.fighter.FighterData;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compute AI actions outside the fight executor
+ *
+ * When enabled, the AI computes its next action on a dedicated thread pool, so the fight executor is not blocked
+ * (turn timers, spectators, other fights...) during the computation. Only the chosen action is performed on the fight executor.
+ * The time spent computing actions of a single turn is limited by {@link AiPlanner#budget()}.
+ *
+ * @see FighterAI#start(fr.quatrevieux.araknemu.game.fight.turn.FightTurn, AiPlanner)
+ */
+public final class AiPlanner implements EventsSubscriber {
+    private final @Nullable ExecutorService executor;
+    private final Duration budget;
+    private final Logger logger;
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * @param executor The executor used to compute AI actions. If null, actions are computed on the fight executor
+     * @param budget The maximum computation time for a single turn
+     * @param logger Logger used to report skipped turns
+     */
+    public AiPlanner(@Nullable ExecutorService executor, Duration budget, Logger logger) {
+        this.executor = executor;
+        this.budget = budget;
+        this.logger = logger;
+    }
+
+    public AiPlanner(GameConfiguration.FightConfiguration configuration, Logger logger) {
+        this(
+            configuration.aiThreadsCount() > 0 ? ExecutorFactory.create(configuration.aiThreadsCount()) : null,
+            configuration.aiTimeBudget(),
+            logger
+        );
+    }
+
+    @Override
+    public Listener[] listeners() {
+        return new Listener[] {
+            new Listener<GameStopped>() {
+                @Override
+                public void on(GameStopped event) {
+                    if (executor != null) {
+                        executor.shutdownNow();
+                    }
+                }
+
+                @Override
+                public Class<GameStopped> event() {
+                    return GameStopped.class;
+                }
+            },
+        };
+    }
+
+    /**
+     * Check if the AI should be computed outside the fight executor
+     */
+    public boolean enabled() {
+        return executor != null;
+    }
+
+    /**
+     * The maximum computation time of AI actions for a single turn
+     */
+    public Duration budget() {
+        return budget;
+    }
+
+    /**
+     * Get the computation time metrics
+     */
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Submit the action computation task
+     *
+     * @throws java.util.concurrent.RejectedExecutionException When the executor is stopped
+     * @throws IllegalStateException When the planner is not enabled
+     */
+    void submit(Runnable task) {
+        if (executor == null) {
+            throw new IllegalStateException("The AI planner is not enabled");
+        }
+
+        executor.execute(task);
+    }
+
+    /**
+     * Record the computation time of a terminated turn
+     */
+    void record(long nanos) {
+        metrics.record(nanos);
+    }
+
+    /**
+     * The turn of the fighter is skipped, because the computation of a previous turn is still running
+     */
+    void skipped(FighterData fighter) {
+        metrics.skippedTurns.increment();
+        logger.warn("The AI computation of a previous turn of fighter {} is still running : the turn is skipped", fighter.id());
+    }
+
+    /**
+     * AI computation time metrics
+     */
+    public static final class Metrics {
+        private final LongAdder turns = new LongAdder();
+        private final LongAdder time = new LongAdder();
+        private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+        private final LongAdder skippedTurns = new LongAdder();
+
+        /**
+         * Number of terminated turns
+         */
+        public long turns() {
+            return turns.sum();
+        }
+
+        /**
+         * Average computation time of a turn
+         */
+        public Duration averageTime() {
+            final long count = turns.sum();
+
+            return count == 0 ? Duration.ZERO : Duration.ofNanos(time.sum() / count);
+        }
+
+        /**
+         * The longest computation time of a turn
+         */
+        public Duration maxTime() {
+            return Duration.ofNanos(maxTime.get());
+        }
+
+        /**
+         * Number of turns skipped because the computation of a previous turn was still running
+         */
+        public long skippedTurns() {
+            return skippedTurns.sum();
+        }
+
+        private void record(long nanos) {
+            turns.increment();
+            time.add(nanos);
+            maxTime.accumulate(nanos);
+        }
+    }
+}
@@ -22,18 +22,20 @@ package fr.quatrevieux.araknemu.game.fight.ai;
 import fr.quatrevieux.araknemu.game.fight.Fight;
 import fr.quatrevieux.araknemu.game.fight.ai.action.ActionGenerator;
 import fr.quatrevieux.araknemu.game.fight.ai.action.FightAiActionFactoryAdapter;
+import fr.quatrevieux.araknemu.game.fight.ai.proxy.SnapshotAI;
 import fr.quatrevieux.araknemu.game.fight.ai.util.AIHelper;
 import fr.quatrevieux.araknemu.game.fight.fighter.FighterData;
 import fr.quatrevieux.araknemu.game.fight.fighter.PlayableFighter;
 import fr.quatrevieux.araknemu.game.fight.map.BattlefieldMap;
 import fr.quatrevieux.araknemu.game.fight.turn.FightTurn;
-import fr.quatrevieux.araknemu.game.fight.turn.Turn;
 import fr.quatrevieux.araknemu.game.fight.turn.action.FightAction;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Stream;
 
 /**
@@ -42,6 +44,9 @@ import java.util.stream.Stream;
  * Note: The AI execution is deferred, each action is executed by the fight executor,
  *       and the next action is scheduled after the last one.
  *       So the AI execution is not blocking, and executed in parallel of the turn timer.
+ *
+ *       If an {@link AiPlanner} is enabled, actions are computed on the planner threads from a {@link SnapshotAI},
+ *       and only the chosen action is performed on the fight executor.
  */
 public final class FighterAI implements Runnable, AI {
     private final PlayableFighter fighter;
@@ -49,7 +54,15 @@ public final class FighterAI implements Runnable, AI {
     private final ActionGenerator generator;
     private final AIHelper helper;
 
-    private @Nullable FightTurn turn;
+    private volatile @Nullable FightTurn turn;
+    private @Nullable AiPlanner planner;
+
+    // Planner state : the computation flag is shared with the planner thread, other fields are only used on the fight executor
+    private volatile boolean computing = false;
+    private int lastComputation = 0;
+    private int pendingComputation = 0;
+    private long computationTime = 0;
+    private @Nullable ScheduledFuture<?> timeout;
 
     /**
      * Creates the AI
@@ -72,42 +85,51 @@ public final class FighterAI implements Runnable, AI {
      * @param turn The current turn
      */
     public void start(FightTurn turn) {
+        start(turn, null);
+    }
+
+    /**
+     * Start the AI, and compute actions using the given planner
+     * The AI will be pushed into the fight to be executed
+     *
+     * Note: if the computation of a previous turn is still running (i.e. it's stuck after its timeout),
+     *       the generator is still in use, so it's not initialized and the turn is skipped. A warning is logged by the planner.
+     *
+     * @param turn The current turn
+     * @param planner The planner. If null or disabled, actions are computed on the fight executor
+     */
+    public void start(FightTurn turn, @Nullable AiPlanner planner) {
         this.turn = turn;
+        this.planner = planner != null && planner.enabled() ? planner : null;
+        this.computationTime = 0;
+
+        if (!computing) {
+            generator.initialize(this);
+        }
 
-        generator.initialize(this);
         fight.execute(this);
     }
 
     @Override
     public void run() {
-        if (turn == null) {
+        final FightTurn currentTurn = turn;
+
+        if (currentTurn == null) {
             throw new IllegalStateException("AI#start() must be called before run()");
         }
 
-        final Turn<FightAction> currentTurn = turn;
-
         if (!currentTurn.active()) {
-            turn = null;
+            terminate();
             return;
         }
 
-        final Optional<FightAction> action = generator.generate(
-            this,
-            new FightAiActionFactoryAdapter(
-                fighter,
-                fight,
-                fight.actions()
-            )
-        );
+        final AiPlanner currentPlanner = planner;
 
-        if (action.isPresent()) {
-            currentTurn.perform(action.get());
-            currentTurn.later(() -> fight.schedule(this, Duration.ofMillis(800)));
-            return;
+        if (currentPlanner == null) {
+            perform(currentTurn, generate());
+        } else {
+            plan(currentTurn, currentPlanner);
         }
-
-        turn = null;
-        currentTurn.stop();
     }
 
     @Override
@@ -145,4 +167,193 @@ public final class FighterAI implements Runnable, AI {
     public AIHelper helper() {
         return helper;
     }
+
+    /**
+     * Compute the next action
+     */
+    private Optional<FightAction> generate() {
+        // Simulations are shared between generators, until the action is performed
+        return helper.memoize(() -> generator.generate(this, actionFactory()));
+    }
+
+    /**
+     * Compute the next action from a snapshot of the fight, with a time limit
+     *
+     * @param snapshot The AI snapshot, created on the fight executor
+     * @param deadline The computation deadline, as {@link System#nanoTime()} value
+     */
+    private Optional<FightAction> generate(AI snapshot, long deadline) {
+        return snapshot.helper().memoize(() -> generator.generate(snapshot, actionFactory()), deadline);
+    }
+
+    private FightAiActionFactoryAdapter actionFactory() {
+        return new FightAiActionFactoryAdapter(fighter, fight, fight.actions());
+    }
+
+    /**
+     * Perform the computed action, or stop the turn if there is no more actions
+     */
+    private void perform(FightTurn currentTurn, Optional<FightAction> action) {
+        if (action.isPresent()) {
+            currentTurn.perform(action.get());
+            currentTurn.later(() -> fight.schedule(this, Duration.ofMillis(800)));
+            return;
+        }
+
+        terminate();
+        currentTurn.stop();
+    }
+
+    /**
+     * Submit the action computation to the planner
+     *
+     * The computation is performed on a snapshot of the fight, and must end before the remaining time budget.
+     * When the deadline is reached, the best action found so far is selected.
+     * The turn is stopped if the time budget is exhausted
+     */
+    private void plan(FightTurn currentTurn, AiPlanner currentPlanner) {
+        final long remaining = currentPlanner.budget().toNanos() - computationTime;
+
+        // The computation of a previous turn is stuck : the generator cannot be used concurrently, so the turn is skipped
+        if (computing) {
+            currentPlanner.skipped(fighter);
+            terminate();
+            currentTurn.stop();
+            return;
+        }
+
+        // Budget exhausted : keep performed actions, and stop the turn
+        if (remaining <= 0) {
+            terminate();
+            currentTurn.stop();
+            return;
+        }
+
+        final int computation = ++lastComputation;
+        final AI snapshot = new SnapshotAI(this);
+        final long deadline = System.nanoTime() + remaining;
+
+        pendingComputation = computation;
+        computing = true;
+
+        // The computation should return shortly after the deadline : this timeout only handles stuck computations
+        timeout = fight.schedule(() -> onTimeout(currentTurn, computation, remaining * 2), Duration.ofNanos(remaining * 2));
+
+        try {
+            currentPlanner.submit(() -> compute(currentTurn, snapshot, computation, deadline));
+        } catch (RejectedExecutionException e) {
+            // The planner is stopped : compute on the fight executor
+            cancelTimeout();
+            pendingComputation = 0;
+            computing = false;
+            perform(currentTurn, generate());
+        }
+    }
+
+    /**
+     * Compute the action on the planner thread, and push the result to the fight executor
+     */
+    private void compute(FightTurn currentTurn, AI snapshot, int computation, long deadline) {
+        final long start = System.nanoTime();
+        final Runnable result = computeResult(currentTurn, snapshot, deadline);
+        final long duration = System.nanoTime() - start;
+
+        if (fight.alive()) {
+            fight.execute(() -> onComputed(currentTurn, computation, duration, result));
+        }
+    }
+
+    /**
+     * Compute the action, and create the task to execute on the fight executor
+     * On error, the turn is stopped, and the error is rethrown on the fight executor to be logged
+     */
+    private Runnable computeResult(FightTurn currentTurn, AI snapshot, long deadline) {
+        try {
+            final Optional<FightAction> action = generate(snapshot, deadline);
+
+            return () -> perform(currentTurn, action);
+        } catch (RuntimeException e) {
+            return () -> {
+                terminate();
+                currentTurn.stop();
+
+                throw e;
+            };
+        } finally {
+            computing = false;
+        }
+    }
+
+    /**
+     * The action is computed : perform it if the turn is still active
+     * The action is performed even if the time budget is exceeded, because it's the best action found before the deadline.
+     * In this case, the turn will be stopped on the next AI step
+     */
+    private void onComputed(FightTurn currentTurn, int computation, long duration, Runnable result) {
+        // Timeout reached : the turn is already stopped
+        if (pendingComputation != computation) {
+            return;
+        }
+
+        pendingComputation = 0;
+        computationTime += duration;
+        cancelTimeout();
+
+        if (turn != currentTurn) {
+            return;
+        }
+
+        if (!currentTurn.active()) {
+            terminate();
+            return;
+        }
+
+        result.run();
+    }
+
+    /**
+     * The computation is still running long after its deadline : stop the turn
+     * The computation result will be ignored
+     */
+    private void onTimeout(FightTurn currentTurn, int computation, long elapsed) {
+        if (pendingComputation != computation) {
+            return;
+        }
+
+        pendingComputation = 0;
+        computationTime += elapsed;
+        timeout = null;
+
+        if (turn != currentTurn) {
+            return;
+        }
+
+        terminate();
+
+        if (currentTurn.active()) {
+            currentTurn.stop();
+        }
+    }
+
+    private void cancelTimeout() {
+        final ScheduledFuture<?> currentTimeout = timeout;
+
+        if (currentTimeout != null) {
+            currentTimeout.cancel(false);
+            timeout = null;
+        }
+    }
+
+    /**
+     * Terminate the AI turn
+     */
+    private void terminate() {
+        final AiPlanner currentPlanner = planner;
+
+        turn = null;
+
+        if (currentPlanner != null) {
+            currentPlanner.record(computationTime);
+        }
+    }
 }
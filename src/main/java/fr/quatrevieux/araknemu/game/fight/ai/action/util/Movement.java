@@ -20,15 +20,20 @@
 package fr.quatrevieux.araknemu.game.fight.ai.action.util;
 
 import fr.arakne.utils.maps.CoordinateCell;
+import fr.arakne.utils.maps.DofusMap;
 import fr.arakne.utils.maps.path.Decoder;
 import fr.arakne.utils.maps.path.Path;
 import fr.arakne.utils.maps.path.PathException;
 import fr.arakne.utils.maps.path.Pathfinder;
+import fr.arakne.utils.value.Dimensions;
 import fr.quatrevieux.araknemu.game.fight.ai.AI;
 import fr.quatrevieux.araknemu.game.fight.ai.action.ActionGenerator;
 import fr.quatrevieux.araknemu.game.fight.ai.action.AiActionFactory;
 import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldMap;
 import fr.quatrevieux.araknemu.game.fight.turn.action.Action;
+import org.checkerframework.checker.index.qual.IndexFor;
+import org.checkerframework.checker.index.qual.LengthOf;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.util.NullnessUtil;
 
@@ -52,6 +57,7 @@ public final class Movement implements ActionGenerator {
     private final ToDoubleFunction<CoordinateCell<BattlefieldCell>> scoreFunction;
     private final Predicate<ScoredCell> filter;
 
+    private @MonotonicNonNull CurrentMap map;
     private @MonotonicNonNull Pathfinder<BattlefieldCell> pathfinder;
 
     /**
@@ -67,12 +73,13 @@ public final class Movement implements ActionGenerator {
 
     @Override
     public void initialize(AI ai) {
-        this.pathfinder = new Decoder<>(ai.map()).pathfinder();
+        this.map = new CurrentMap(ai.map());
+        this.pathfinder = new Decoder<>(map).pathfinder();
     }
 
     @Override
     public <A extends Action> Optional<A> generate(AI ai, AiActionFactory<A> actions) {
-        final Pathfinder<BattlefieldCell> pathfinder = NullnessUtil.castNonNull(this.pathfinder);
+        final Pathfinder<BattlefieldCell> pathfinder = pathfinder(ai.map());
         final int movementPoints = ai.turn().points().movementPoints();
         final List<ScoredCell> selectedCells = selectCells(ai, movementPoints);
 
@@ -108,6 +115,16 @@ public final class Movement implements ActionGenerator {
         return Optional.empty();
     }
 
+    /**
+     * Get the pathfinder for the given map
+     * The same pathfinder is used for all maps (e.g. snapshots of the fight map), by changing the map seen by the pathfinder
+     */
+    private Pathfinder<BattlefieldCell> pathfinder(BattlefieldMap map) {
+        NullnessUtil.castNonNull(this.map).map = map;
+
+        return NullnessUtil.castNonNull(pathfinder);
+    }
+
     /**
      * Select all reachable cells for movement
      */
@@ -161,4 +178,33 @@ public final class Movement implements ActionGenerator {
             return Double.compare(o.score, score);
         }
     }
+
+    /**
+     * Map used by the pathfinder, which forwards calls to the current AI map
+     * The current map and the fight map have the same cells and dimensions
+     */
+    private static final class CurrentMap implements DofusMap<BattlefieldCell> {
+        private BattlefieldMap map;
+
+        private CurrentMap(BattlefieldMap map) {
+            this.map = map;
+        }
+
+        @Override
+        @SuppressWarnings("return") // map and this have same length
+        public @LengthOf("this") int size() {
+            return map.size();
+        }
+
+        @Override
+        @SuppressWarnings("argument") // map and this have same length
+        public BattlefieldCell get(@IndexFor("this") int id) {
+            return map.get(id);
+        }
+
+        @Override
+        public Dimensions dimensions() {
+            return map.dimensions();
+        }
+    }
 }
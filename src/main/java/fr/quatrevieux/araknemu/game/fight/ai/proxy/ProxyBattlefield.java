@@ -24,6 +24,7 @@ import fr.arakne.utils.value.Dimensions;
 import fr.quatrevieux.araknemu.game.fight.fighter.FighterData;
 import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
 import fr.quatrevieux.araknemu.game.fight.map.BattlefieldMap;
+import fr.quatrevieux.araknemu.game.fight.map.LineOfSightCache;
 import org.checkerframework.checker.index.qual.IndexFor;
 import org.checkerframework.checker.index.qual.LengthOf;
 import org.checkerframework.checker.index.qual.NonNegative;
@@ -32,8 +33,10 @@ import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -45,6 +48,12 @@ public final class ProxyBattlefield implements BattlefieldMap {
     private final BattlefieldMap map;
     private final ProxyCell @Nullable @SameLen("this") [] cells;
 
+    /**
+     * Modified cells (i.e. with a fighter added or removed)
+     * Lazy loaded by {@link ProxyBattlefield#isFreeSight(BattlefieldCell, BattlefieldCell)}
+     */
+    private @MonotonicNonNull List<BattlefieldCell> modifiedCells;
+
     public ProxyBattlefield(BattlefieldMap map) {
         this.map = map;
         this.cells = null;
@@ -94,6 +103,23 @@ public final class ProxyBattlefield implements BattlefieldMap {
         return Arrays.<BattlefieldCell>asList(cells).iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * If no modified cells are between the source and the target, the line of sight is resolved by the base map
+     */
+    @Override
+    @SuppressWarnings("argument") // map and this have same length
+    public boolean isFreeSight(BattlefieldCell source, BattlefieldCell target) {
+        for (BattlefieldCell cell : modifiedCells()) {
+            if (cell.id() != source.id() && cell.id() != target.id() && LineOfSightCache.between(source, target, cell)) {
+                return source.sight().isFree(target);
+            }
+        }
+
+        return map.isFreeSight(map.get(source.id()), map.get(target.id()));
+    }
+
     /**
      * Modify the map objects
      *
@@ -116,6 +142,30 @@ public final class ProxyBattlefield implements BattlefieldMap {
         return modifier.map;
     }
 
+    /**
+     * Get cells modified by the proxy
+     * Note: the list is computed once, so the map must not be modified after
+     */
+    private List<BattlefieldCell> modifiedCells() {
+        if (modifiedCells != null) {
+            return modifiedCells;
+        }
+
+        final List<BattlefieldCell> modifiedCells = new ArrayList<>();
+
+        if (cells != null) {
+            for (ProxyCell cell : cells) {
+                if (cell.free || cell.fighter != null) {
+                    modifiedCells.add(cell);
+                }
+            }
+        }
+
+        this.modifiedCells = modifiedCells;
+
+        return modifiedCells;
+    }
+
     private final class ProxyCell implements BattlefieldCell {
         private final BattlefieldCell cell;
         private boolean free = false;
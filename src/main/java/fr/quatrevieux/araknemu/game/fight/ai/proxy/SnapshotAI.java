@@ -0,0 +1,485 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.arakne.utils.maps.constant.Direction;
+import fr.quatrevieux.araknemu.game.fight.ai.AI;
+import fr.quatrevieux.araknemu.game.fight.ai.util.AIHelper;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.buff.Buffs;
+import fr.quatrevieux.araknemu.game.fight.castable.spell.LaunchedSpells;
+import fr.quatrevieux.araknemu.game.fight.exception.FightException;
+import fr.quatrevieux.araknemu.game.fight.fighter.ActiveFighter;
+import fr.quatrevieux.araknemu.game.fight.fighter.FighterCharacteristics;
+import fr.quatrevieux.araknemu.game.fight.fighter.FighterData;
+import fr.quatrevieux.araknemu.game.fight.fighter.States;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldMap;
+import fr.quatrevieux.araknemu.game.fight.team.Team;
+import fr.quatrevieux.araknemu.game.fight.turn.Turn;
+import fr.quatrevieux.araknemu.game.fight.turn.TurnPoints;
+import fr.quatrevieux.araknemu.game.fight.turn.action.Action;
+import fr.quatrevieux.araknemu.game.spell.SpellList;
+import fr.quatrevieux.araknemu.game.world.creature.Life;
+import fr.quatrevieux.araknemu.game.world.creature.Sprite;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Copy of the AI state, used to compute actions outside the fight executor
+ *
+ * The fighters list, their positions, life, dead state, characteristics, buffs and states, the map occupancy,
+ * the turn points, and the spells and launched spells of the active fighter are copied when the snapshot is created.
+ * So changes on the fight (like a leaving fighter, or the start of the next turn if the computation is abandoned)
+ * are not visible during the computation, and the snapshot can be read from another thread.
+ *
+ * Static properties (sprite, level, team, invoker...) and other attachments of the active fighter
+ * are still read from the real fighters. Buffs themselves are shared : only the buff lists are copied.
+ * The active state of the turn is also read from the real turn, so a computation can check if it's still useful.
+ *
+ * Note: the snapshot must be created on the fight executor, and it's immutable
+ *
+ * @see fr.quatrevieux.araknemu.game.fight.ai.FighterAI
+ */
+public final class SnapshotAI implements AI {
+    private final ActiveFighter fighter;
+    private final BattlefieldMap map;
+    private final Turn<Action> turn;
+    private final List<FighterData> fighters = new ArrayList<>();
+    private final AIHelper helper;
+
+    /**
+     * @param ai The real AI to copy
+     */
+    @SuppressWarnings({"argument", "assignment"})
+    public SnapshotAI(AI ai) {
+        final ActiveFighter current = ai.fighter();
+        final SnapshotActiveFighter[] activeFighter = new SnapshotActiveFighter[1];
+
+        this.map = new ProxyBattlefield(ai.map()).modify(modifier -> {
+            ai.fighters().forEach(other -> {
+                final BattlefieldCell cell = modifier.get(other.cell().id());
+                final FighterData snapshot;
+
+                if (other.id() == current.id()) {
+                    snapshot = activeFighter[0] = new SnapshotActiveFighter(current, cell);
+                } else {
+                    snapshot = new SnapshotFighter(other, cell);
+                }
+
+                fighters.add(snapshot);
+                modifier.setFighter(cell.id(), snapshot);
+            });
+        });
+
+        this.fighter = activeFighter[0] != null ? activeFighter[0] : new SnapshotActiveFighter(current, current.cell());
+        this.turn = new SnapshotTurn(ai.turn(), fighter);
+        this.helper = new AIHelper(this);
+    }
+
+    @Override
+    public ActiveFighter fighter() {
+        return fighter;
+    }
+
+    @Override
+    public BattlefieldMap map() {
+        return map;
+    }
+
+    @Override
+    public Turn<?> turn() {
+        return turn;
+    }
+
+    @Override
+    public Stream<? extends FighterData> fighters() {
+        return fighters.stream();
+    }
+
+    @Override
+    public Optional<? extends FighterData> enemy() {
+        return helper.enemies().nearest();
+    }
+
+    @Override
+    public AIHelper helper() {
+        return helper;
+    }
+
+    /**
+     * Copy of other fighters
+     * The cell is resolved on the snapshot map
+     */
+    private static final class SnapshotFighter implements FighterData {
+        private final FighterData fighter;
+        private final BattlefieldCell cell;
+        private final Life life;
+        private final boolean dead;
+        private final boolean hidden;
+        private final Buffs buffs;
+        private final States states;
+        private final FighterCharacteristics characteristics;
+
+        private SnapshotFighter(FighterData fighter, BattlefieldCell cell) {
+            this.fighter = fighter;
+            this.cell = cell;
+            this.life = new SnapshotLife(fighter.life().current(), fighter.life().max());
+            this.dead = fighter.dead();
+            this.hidden = fighter.hidden();
+            this.buffs = new SnapshotBuffs(fighter.buffs());
+            this.states = new SnapshotStates(fighter.states());
+            this.characteristics = new SnapshotCharacteristics(fighter.characteristics());
+        }
+
+        @Override
+        public int id() {
+            return fighter.id();
+        }
+
+        @Override
+        public BattlefieldCell cell() {
+            return cell;
+        }
+
+        @Override
+        public Sprite sprite() {
+            return fighter.sprite();
+        }
+
+        @Override
+        public Direction orientation() {
+            return fighter.orientation();
+        }
+
+        @Override
+        public Life life() {
+            return life;
+        }
+
+        @Override
+        public Buffs buffs() {
+            return buffs;
+        }
+
+        @Override
+        public States states() {
+            return states;
+        }
+
+        @Override
+        public @Positive int level() {
+            return fighter.level();
+        }
+
+        @Override
+        public FighterCharacteristics characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Team<? extends FighterData> team() {
+            return fighter.team();
+        }
+
+        @Override
+        public boolean dead() {
+            return dead;
+        }
+
+        @Override
+        public boolean hidden() {
+            return hidden;
+        }
+
+        @Override
+        public @Nullable FighterData invoker() {
+            return fighter.invoker();
+        }
+
+        @Override
+        public boolean invoked() {
+            return fighter.invoked();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof FighterData)) {
+                return false;
+            }
+
+            final FighterData that = (FighterData) o;
+
+            return id() == that.id();
+        }
+
+        @Override
+        public int hashCode() {
+            return fighter.hashCode();
+        }
+    }
+
+    /**
+     * Copy of the active fighter
+     * Only the launched spells attachment is copied : other attachments are read from the real fighter
+     */
+    private static final class SnapshotActiveFighter implements ActiveFighter {
+        private final ActiveFighter fighter;
+        private final SnapshotFighter data;
+        private final SpellList spells;
+        private final @Nullable LaunchedSpells launchedSpells;
+
+        private SnapshotActiveFighter(ActiveFighter fighter, BattlefieldCell cell) {
+            final LaunchedSpells launchedSpells = fighter.attachment(LaunchedSpells.class);
+
+            this.fighter = fighter;
+            this.data = new SnapshotFighter(fighter, cell);
+            this.spells = new SnapshotSpellList(fighter.spells());
+            this.launchedSpells = launchedSpells != null ? launchedSpells.copy() : null;
+        }
+
+        @Override
+        public SpellList spells() {
+            return spells;
+        }
+
+        @Override
+        public @Nullable Object attachment(Object key) {
+            if (key == LaunchedSpells.class) {
+                return launchedSpells;
+            }
+
+            return fighter.attachment(key);
+        }
+
+        @Override
+        public int id() {
+            return data.id();
+        }
+
+        @Override
+        public BattlefieldCell cell() {
+            return data.cell();
+        }
+
+        @Override
+        public Sprite sprite() {
+            return data.sprite();
+        }
+
+        @Override
+        public Direction orientation() {
+            return data.orientation();
+        }
+
+        @Override
+        public Life life() {
+            return data.life();
+        }
+
+        @Override
+        public Buffs buffs() {
+            return data.buffs();
+        }
+
+        @Override
+        public States states() {
+            return data.states();
+        }
+
+        @Override
+        public @Positive int level() {
+            return data.level();
+        }
+
+        @Override
+        public FighterCharacteristics characteristics() {
+            return data.characteristics();
+        }
+
+        @Override
+        public Team<? extends FighterData> team() {
+            return data.team();
+        }
+
+        @Override
+        public boolean dead() {
+            return data.dead();
+        }
+
+        @Override
+        public boolean hidden() {
+            return data.hidden();
+        }
+
+        @Override
+        public @Nullable FighterData invoker() {
+            return data.invoker();
+        }
+
+        @Override
+        public boolean invoked() {
+            return data.invoked();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof FighterData)) {
+                return false;
+            }
+
+            final FighterData that = (FighterData) o;
+
+            return id() == that.id();
+        }
+
+        @Override
+        public int hashCode() {
+            return fighter.hashCode();
+        }
+    }
+
+    private static final class SnapshotLife implements Life {
+        private final @NonNegative int current;
+        private final @NonNegative int max;
+
+        private SnapshotLife(@NonNegative int current, @NonNegative int max) {
+            this.current = current;
+            this.max = max;
+        }
+
+        @Override
+        public @NonNegative int max() {
+            return max;
+        }
+
+        @Override
+        public @NonNegative int current() {
+            return current;
+        }
+    }
+
+    /**
+     * Copy of the turn points
+     * Only the active state is read from the real turn, so a computation can check if it's still useful
+     */
+    private static final class SnapshotTurn implements Turn<Action>, TurnPoints {
+        private final Turn<?> turn;
+        private final ActiveFighter fighter;
+        private final @NonNegative int movementPoints;
+        private final @NonNegative int actionPoints;
+        private final @NonNegative int usedMovementPoints;
+        private final @NonNegative int usedActionPoints;
+
+        private SnapshotTurn(Turn<?> turn, ActiveFighter fighter) {
+            final TurnPoints points = turn.points();
+
+            this.turn = turn;
+            this.fighter = fighter;
+            this.movementPoints = points.movementPoints();
+            this.actionPoints = points.actionPoints();
+            this.usedMovementPoints = points.usedMovementPoints();
+            this.usedActionPoints = points.usedActionPoints();
+        }
+
+        @Override
+        public ActiveFighter fighter() {
+            return fighter;
+        }
+
+        @Override
+        public boolean active() {
+            return turn.active();
+        }
+
+        @Override
+        public void perform(Action action) throws FightException {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public void later(Runnable nextAction) {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public TurnPoints points() {
+            return this;
+        }
+
+        @Override
+        public void stop() {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public @NonNegative int movementPoints() {
+            return movementPoints;
+        }
+
+        @Override
+        public void addMovementPoints(@NonNegative int value) {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public @NonNegative int removeMovementPoints(@NonNegative int value) {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public @NonNegative int actionPoints() {
+            return actionPoints;
+        }
+
+        @Override
+        public void addActionPoints(@NonNegative int value) {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public @NonNegative int removeActionPoints(@NonNegative int value) {
+            throw new UnsupportedOperationException("This is a snapshot turn");
+        }
+
+        @Override
+        public @NonNegative int usedActionPoints() {
+            return usedActionPoints;
+        }
+
+        @Override
+        public @NonNegative int usedMovementPoints() {
+            return usedMovementPoints;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.quatrevieux.araknemu.game.fight.castable.FightCastScope;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.EffectValue;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.buff.Buff;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.buff.Buffs;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.handler.damage.Damage;
+import fr.quatrevieux.araknemu.game.fight.castable.effect.handler.damage.ReflectedDamage;
+import fr.quatrevieux.araknemu.game.fight.fighter.Fighter;
+import fr.quatrevieux.araknemu.game.fight.turn.Turn;
+import org.checkerframework.checker.index.qual.Positive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Copy of the buff list of a fighter
+ * Only the list is copied : buffs themselves are shared with the real fighter
+ *
+ * Effect value hooks are applied, because they are used to simulate casts,
+ * and they only modify the given effect value.
+ *
+ * Note: this object is immutable, so other hooks will throw {@link UnsupportedOperationException}
+ *
+ * @see SnapshotAI
+ */
+final class SnapshotBuffs implements Buffs {
+    private final List<Buff> buffs;
+
+    /**
+     * @param buffs Buffs to copy
+     */
+    SnapshotBuffs(Buffs buffs) {
+        final List<Buff> copy = new ArrayList<>();
+
+        for (Buff buff : buffs) {
+            copy.add(buff);
+        }
+
+        this.buffs = Collections.unmodifiableList(copy);
+    }
+
+    @Override
+    public Iterator<Buff> iterator() {
+        return buffs.iterator();
+    }
+
+    @Override
+    public void add(Buff buff) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onCast(FightCastScope cast) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public boolean onCastTarget(FightCastScope cast) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onDirectDamage(Fighter caster, Damage value) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onIndirectDamage(Fighter caster, Damage value) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onBuffDamage(Buff poison, Damage value) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onDirectDamageApplied(Fighter caster, @Positive int value) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onLifeAltered(int value) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onReflectedDamage(ReflectedDamage damage) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public boolean onStartTurn() {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onEndTurn(Turn turn) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onCastDamage(Damage damage, Fighter target) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public void onEffectValueCast(EffectValue value) {
+        for (Buff buff : buffs) {
+            buff.hook().onEffectValueCast(buff, value);
+        }
+    }
+
+    @Override
+    public void onEffectValueTarget(EffectValue value) {
+        for (Buff buff : buffs) {
+            buff.hook().onEffectValueTarget(buff, value);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public boolean removeAll() {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+
+    @Override
+    public boolean removeByCaster(Fighter caster) {
+        throw new UnsupportedOperationException("This is a snapshot buff list");
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.quatrevieux.araknemu.data.constant.Characteristic;
+import fr.quatrevieux.araknemu.game.fight.fighter.FighterCharacteristics;
+import fr.quatrevieux.araknemu.game.world.creature.characteristics.Characteristics;
+import fr.quatrevieux.araknemu.game.world.creature.characteristics.DefaultCharacteristics;
+
+/**
+ * Copy of the characteristics of a fighter, including its buffs
+ *
+ * Note: this object is immutable, so {@link SnapshotCharacteristics#alter(Characteristic, int)} will throw {@link UnsupportedOperationException}
+ *
+ * @see SnapshotAI
+ */
+final class SnapshotCharacteristics implements FighterCharacteristics {
+    private final DefaultCharacteristics current;
+    private final DefaultCharacteristics initial;
+    private final int initiative;
+    private final int discernment;
+
+    /**
+     * @param characteristics Characteristics to copy
+     */
+    SnapshotCharacteristics(FighterCharacteristics characteristics) {
+        this.current = copy(characteristics);
+        this.initial = copy(characteristics.initial());
+        this.initiative = characteristics.initiative();
+        this.discernment = characteristics.discernment();
+    }
+
+    @Override
+    public int get(Characteristic characteristic) {
+        return current.get(characteristic);
+    }
+
+    @Override
+    public int initiative() {
+        return initiative;
+    }
+
+    @Override
+    public int discernment() {
+        return discernment;
+    }
+
+    @Override
+    public void alter(Characteristic characteristic, int value) {
+        throw new UnsupportedOperationException("This is a snapshot characteristics");
+    }
+
+    @Override
+    public Characteristics initial() {
+        // Return a copy to keep the snapshot immutable
+        return initial.copy();
+    }
+
+    private static DefaultCharacteristics copy(Characteristics characteristics) {
+        if (characteristics instanceof DefaultCharacteristics) {
+            return ((DefaultCharacteristics) characteristics).copy();
+        }
+
+        final DefaultCharacteristics copy = new DefaultCharacteristics();
+
+        copy.merge(characteristics);
+
+        return copy;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.quatrevieux.araknemu.game.spell.Spell;
+import fr.quatrevieux.araknemu.game.spell.SpellList;
+import org.checkerframework.checker.nullness.util.NullnessUtil;
+import org.checkerframework.dataflow.qual.Pure;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copy of the spell list of the active fighter
+ * Spells are resolved with their boosts when the snapshot is created
+ *
+ * @see SnapshotAI
+ */
+final class SnapshotSpellList implements SpellList {
+    private final Map<Integer, Spell> spells;
+
+    /**
+     * @param spells Spells to copy
+     */
+    SnapshotSpellList(SpellList spells) {
+        final Map<Integer, Spell> copy = new LinkedHashMap<>();
+
+        for (Spell spell : spells) {
+            copy.put(spell.id(), spell);
+        }
+
+        this.spells = Collections.unmodifiableMap(copy);
+    }
+
+    @Override
+    public Spell get(int spellId) {
+        return NullnessUtil.castNonNull(spells.get(spellId));
+    }
+
+    @Override
+    @Pure
+    public boolean has(int spellId) {
+        return spells.containsKey(spellId);
+    }
+
+    @Override
+    public Iterator<Spell> iterator() {
+        return spells.values().iterator();
+    }
+}
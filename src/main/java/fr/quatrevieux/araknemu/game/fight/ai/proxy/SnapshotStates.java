@@ -0,0 +1,90 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.quatrevieux.araknemu.game.fight.fighter.States;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Copy of the states of a fighter
+ *
+ * Note: this object is immutable, so modification methods will throw {@link UnsupportedOperationException}
+ *
+ * @see SnapshotAI
+ */
+final class SnapshotStates implements States {
+    private final Set<Integer> states;
+
+    /**
+     * @param states States to copy
+     */
+    SnapshotStates(States states) {
+        this.states = Collections.unmodifiableSet(states.all());
+    }
+
+    @Override
+    public void push(int state, int duration) {
+        throw new UnsupportedOperationException("This is a snapshot state list");
+    }
+
+    @Override
+    public void remove(int state) {
+        throw new UnsupportedOperationException("This is a snapshot state list");
+    }
+
+    @Override
+    public boolean has(int state) {
+        return states.contains(state);
+    }
+
+    @Override
+    public boolean hasAll(int[] states) {
+        for (int state : states) {
+            if (!has(state)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean hasOne(int[] states) {
+        for (int state : states) {
+            if (has(state)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Set<Integer> all() {
+        return states;
+    }
+
+    @Override
+    public void refresh() {
+        throw new UnsupportedOperationException("This is a snapshot state list");
+    }
+}
@@ -21,7 +21,12 @@ package fr.quatrevieux.araknemu.game.fight.ai.util;
 
 import fr.quatrevieux.araknemu.game.fight.ai.AI;
 import fr.quatrevieux.araknemu.game.fight.ai.proxy.ProxyAI;
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.CastSimulation;
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
 import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.spell.Spell;
+
+import java.util.function.Supplier;
 
 /**
  * Utility class for perform common AI operations on the current fighter
@@ -34,14 +39,22 @@ public final class AIHelper {
     private final SpellsHelper spells;
     private final FightersHelper enemies;
     private final FightersHelper allies;
+    private final SimulationCache simulations;
+    private final boolean positioned;
 
     public AIHelper(AI ai) {
         this(new ProxyAI(ai));
     }
 
-    @SuppressWarnings({"assignment", "argument"})
     public AIHelper(ProxyAI ai) {
+        this(ai, new SimulationCache(), false);
+    }
+
+    @SuppressWarnings({"assignment", "argument"})
+    private AIHelper(ProxyAI ai, SimulationCache simulations, boolean positioned) {
         this.ai = ai;
+        this.simulations = simulations;
+        this.positioned = positioned;
 
         this.cells = new CellsHelper(ai);
         this.spells = new SpellsHelper(this, ai);
@@ -143,6 +156,57 @@ public final class AIHelper {
      * @return The modified AI helper instance
      */
     public AIHelper withPosition(BattlefieldCell cell) {
-        return new AIHelper(ai.withPosition(cell.id()));
+        return new AIHelper(ai.withPosition(cell.id()), simulations, true);
+    }
+
+    /**
+     * Execute an AI step, memoizing cast simulations during its execution
+     *
+     * Simulations are shared between all generators, and helpers created using {@link AIHelper#withPosition(BattlefieldCell)},
+     * so a same cast will be simulated only once per step.
+     * The cache is cleared at the end of the task, so no action must be performed on the fight inside the task.
+     *
+     * <pre>{@code
+     * final Optional<FightAction> action = helper.memoize(() -> generator.generate(ai, actions));
+     * }</pre>
+     *
+     * @param task The AI step. Should only compute the next action
+     *
+     * @return The task result
+     */
+    public <T> T memoize(Supplier<T> task) {
+        return simulations.memoize(task);
+    }
+
+    /**
+     * Execute an AI step like {@link AIHelper#memoize(Supplier)}, with a time limit
+     *
+     * Once the deadline is reached, no more cast simulations are performed,
+     * so generators will select the best action found so far.
+     *
+     * @param task The AI step. Should only compute the next action
+     * @param deadline The deadline, as {@link System#nanoTime()} value
+     *
+     * @return The task result
+     */
+    public <T> T memoize(Supplier<T> task, long deadline) {
+        return simulations.memoize(task, deadline);
+    }
+
+    /**
+     * Check if the deadline of the current AI step is reached
+     *
+     * @see AIHelper#memoize(Supplier, long)
+     */
+    public boolean expired() {
+        return simulations.expired();
+    }
+
+    /**
+     * Simulate a spell cast from the current position
+     * The result may be shared if {@link AIHelper#memoize(Supplier)} is active
+     */
+    CastSimulation simulate(Simulator simulator, Spell spell, BattlefieldCell target) {
+        return simulations.simulate(simulator, spell, ai.fighter(), target, positioned);
     }
 }
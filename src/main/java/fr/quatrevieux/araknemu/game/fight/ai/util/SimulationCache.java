@@ -0,0 +1,184 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2021 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.util;
+
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.CastSimulation;
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
+import fr.quatrevieux.araknemu.game.fight.fighter.ActiveFighter;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.spell.Spell;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Memoize cast simulations during a single AI step
+ *
+ * Simulations are indexed by simulator, spell, caster cell and target cell.
+ * The cache is only enabled inside {@link SimulationCache#memoize(Supplier)}, and cleared at its end,
+ * because any performed action (move, cast...) will change the fight state, and invalidate the simulations.
+ *
+ * Simulations computed from a "virtual" position (i.e. using {@link AIHelper#withPosition(BattlefieldCell)})
+ * are stored separately, because they are related to proxy cells and fighters, and must not be used to create a real action.
+ */
+final class SimulationCache {
+    private final Map<Key, CastSimulation> simulations = new HashMap<>();
+    private boolean enabled = false;
+    private boolean limited = false;
+    private long deadline = 0;
+
+    /**
+     * Enable the cache during the execution of the task
+     * If the cache is already enabled, the task is simply executed
+     *
+     * @param task Task to execute
+     *
+     * @return The task result
+     */
+    public <T> T memoize(Supplier<T> task) {
+        if (enabled) {
+            return task.get();
+        }
+
+        enabled = true;
+
+        try {
+            return task.get();
+        } finally {
+            enabled = false;
+            simulations.clear();
+        }
+    }
+
+    /**
+     * Enable the cache during the execution of the task, and limit its simulation time
+     * Once the deadline is reached, {@link SimulationCache#expired()} will return true
+     * If the cache is already enabled, the task is simply executed
+     *
+     * @param task Task to execute
+     * @param deadline The deadline, as {@link System#nanoTime()} value
+     *
+     * @return The task result
+     */
+    public <T> T memoize(Supplier<T> task, long deadline) {
+        if (enabled) {
+            return task.get();
+        }
+
+        limited = true;
+        this.deadline = deadline;
+
+        try {
+            return memoize(task);
+        } finally {
+            limited = false;
+        }
+    }
+
+    /**
+     * Check if the deadline of the current task is reached
+     * Always return false if the task is not limited
+     *
+     * @see SimulationCache#memoize(Supplier, long)
+     */
+    public boolean expired() {
+        return limited && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Simulate the spell cast, or get the previous simulation result if available
+     *
+     * @param simulator The simulator to use
+     * @param spell The spell to cast
+     * @param caster The caster
+     * @param target The target cell
+     * @param positioned Does the caster position is virtual (i.e. comes from {@link AIHelper#withPosition(BattlefieldCell)}) ?
+     *
+     * @return The simulation result
+     *
+     * @see Simulator#simulate(Spell, ActiveFighter, BattlefieldCell)
+     */
+    public CastSimulation simulate(Simulator simulator, Spell spell, ActiveFighter caster, BattlefieldCell target, boolean positioned) {
+        if (!enabled) {
+            return simulator.simulate(spell, caster, target);
+        }
+
+        return simulations.computeIfAbsent(
+            new Key(simulator, spell, caster.cell().id(), target.id(), positioned),
+            key -> simulator.simulate(spell, caster, target)
+        );
+    }
+
+    /**
+     * Count memoized simulations
+     */
+    public int size() {
+        return simulations.size();
+    }
+
+    private static final class Key {
+        private final Simulator simulator;
+        private final Spell spell;
+        private final int caster;
+        private final int target;
+        private final boolean positioned;
+
+        private Key(Simulator simulator, Spell spell, int caster, int target, boolean positioned) {
+            this.simulator = simulator;
+            this.spell = spell;
+            this.caster = caster;
+            this.target = target;
+            this.positioned = positioned;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+
+            return simulator == key.simulator
+                && spell == key.spell
+                && caster == key.caster
+                && target == key.target
+                && positioned == key.positioned
+            ;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(spell);
+
+            result = 31 * result + caster;
+            result = 31 * result + target;
+            result = 31 * result + (positioned ? 1 : 0);
+
+            return result;
+        }
+    }
+}
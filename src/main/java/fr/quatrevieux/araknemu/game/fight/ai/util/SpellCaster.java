@@ -19,6 +19,9 @@
 
 package fr.quatrevieux.araknemu.game.fight.ai.util;
 
+import fr.arakne.utils.maps.CoordinateCell;
+import fr.arakne.utils.value.Interval;
+import fr.quatrevieux.araknemu.data.constant.Characteristic;
 import fr.quatrevieux.araknemu.game.fight.ai.AI;
 import fr.quatrevieux.araknemu.game.fight.ai.simulation.CastSimulation;
 import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
@@ -72,16 +75,43 @@ public final class SpellCaster {
      * ;
      * }</pre>
      *
+     * Note: once the deadline of the AI step is reached, no more simulations are performed
+     *
      * @param simulator The simulator to use
      *
      * @return Stream of performed simulations
+     *
+     * @see AIHelper#memoize(java.util.function.Supplier, long)
      */
     public Stream<CastSimulation> simulate(Simulator simulator) {
         final ActiveFighter fighter = ai.fighter();
+        final CoordinateCell<BattlefieldCell> casterCell = fighter.cell().coordinate();
+
+        return helper.spells().available().flatMap(spell -> {
+            final Interval range = range(spell, fighter);
+
+            return helper.cells().stream()
+                .filter(target -> range.contains(casterCell.distance(target))) // Fast pruning of out of range cells, before calling the full validation chain
+                .filter(target -> !helper.expired()) // Time budget reached : keep the simulations already performed
+                .filter(target -> validate(spell, target)) // Validate spell (LoS, cooldown, target type...)
+                .map(target -> helper.simulate(simulator, spell, target)) // Simulate cast
+            ;
+        });
+    }
+
+    /**
+     * Compute the effective range of the spell, taking in account the sight boost of the caster
+     * The range is computed once per spell, instead of once per cell by the validator
+     *
+     * @see fr.quatrevieux.araknemu.game.fight.castable.validator.RangeValidator
+     */
+    private static Interval range(Spell spell, ActiveFighter caster) {
+        final Interval range = spell.constraints().range();
+
+        if (spell.modifiableRange()) {
+            return range.modify(caster.characteristics().get(Characteristic.SIGHT_BOOST));
+        }
 
-        return helper.spells().available().flatMap(spell -> helper.cells().stream()
-            .filter(target -> validate(spell, target)) // Validate spell (LoS, cooldown, target type...)
-            .map(target -> simulator.simulate(spell, fighter, target)) // Simulate cast
-        );
+        return range;
     }
 }
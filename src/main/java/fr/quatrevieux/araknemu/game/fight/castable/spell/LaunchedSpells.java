@@ -65,6 +65,18 @@ public final class LaunchedSpells {
         }
     }
 
+    /**
+     * Create a copy of the launched spells
+     * The returned instance is independent : modifying it will not change the current instance
+     */
+    public LaunchedSpells copy() {
+        final LaunchedSpells copy = new LaunchedSpells();
+
+        spells.forEach((spellId, entry) -> copy.spells.put(spellId, new Entry(entry)));
+
+        return copy;
+    }
+
     /**
      * Check if the spell can be casted according to the launch constraints
      *
@@ -117,5 +129,11 @@ public final class LaunchedSpells {
                 countPerTarget.put(fighter, 1);
             }
         }
+
+        Entry(Entry other) {
+            cooldown = other.cooldown;
+            count = other.count;
+            countPerTarget.putAll(other.countPerTarget);
+        }
     }
 }
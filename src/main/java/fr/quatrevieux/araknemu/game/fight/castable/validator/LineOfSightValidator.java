@@ -31,7 +31,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public final class LineOfSightValidator implements CastConstraintValidator {
     @Override
     public boolean check(Turn turn, Castable castable, BattlefieldCell target) {
-        return !castable.constraints().lineOfSight() || turn.fighter().cell().sight().isFree(target);
+        if (!castable.constraints().lineOfSight()) {
+            return true;
+        }
+
+        final BattlefieldCell source = turn.fighter().cell();
+
+        return source.map().isFreeSight(source, target);
     }
 
     @Override
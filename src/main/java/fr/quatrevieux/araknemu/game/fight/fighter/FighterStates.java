@@ -24,7 +24,9 @@ import org.checkerframework.checker.nullness.util.NullnessUtil;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Handler fighter states
@@ -91,6 +93,11 @@ public final class FighterStates implements States {
         return false;
     }
 
+    @Override
+    public Set<Integer> all() {
+        return new HashSet<>(states.keySet());
+    }
+
     @Override
     public void refresh() {
         for (int state : new ArrayList<>(states.keySet())) {
@@ -19,6 +19,8 @@
 
 package fr.quatrevieux.araknemu.game.fight.fighter;
 
+import java.util.Set;
+
 /**
  * Handle fighter states
  *
@@ -71,6 +73,12 @@ public interface States {
      */
     public boolean hasOne(int[] states);
 
+    /**
+     * Get all current states of the fighter
+     * The returned set is a copy : it will not be modified by later changes of the fighter states
+     */
+    public Set<Integer> all();
+
     /**
      * Decrement remaining turns on states and remove expired states
      */
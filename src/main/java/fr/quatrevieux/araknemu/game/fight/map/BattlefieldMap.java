@@ -25,4 +25,15 @@ import fr.arakne.utils.maps.DofusMap;
  * Base type for dofus fight map
  */
 public interface BattlefieldMap extends DofusMap<BattlefieldCell>, Iterable<BattlefieldCell> {
+    /**
+     * Check if the line of sight between two cells of the map is free
+     *
+     * @param source The source cell (i.e. the caster cell)
+     * @param target The target cell
+     *
+     * @return true if the target can be seen from the source cell
+     */
+    public default boolean isFreeSight(BattlefieldCell source, BattlefieldCell target) {
+        return source.sight().isFree(target);
+    }
 }
@@ -35,6 +35,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Map for the fight
@@ -44,10 +46,25 @@ public final class FightMap implements BattlefieldMap {
     private final FightCell @SameLen("this") [] cells;
     private final Decoder<FightCell> decoder;
     private final BattlefieldObjects objects = new BattlefieldObjects();
+    private final LineOfSightCache sight;
+
+    /**
+     * Cells with a fighter
+     */
+    private final Set<FightCell> occupiedCells = ConcurrentHashMap.newKeySet();
 
-    @SuppressWarnings({"argument", "method.invocation"}) // Do not resolve SameLen from template.cells()
     public FightMap(MapTemplate template) {
+        this(template, new LineOfSightCache(template));
+    }
+
+    /**
+     * @param template The map template
+     * @param sight The line of sight cache. Can be shared with other fights on the same map.
+     */
+    @SuppressWarnings({"argument", "method.invocation"}) // Do not resolve SameLen from template.cells()
+    public FightMap(MapTemplate template, LineOfSightCache sight) {
         this.template = template;
+        this.sight = sight;
         this.cells = makeCells(this, template.cells());
         this.decoder = createDecoder();
     }
@@ -106,6 +123,16 @@ public final class FightMap implements BattlefieldMap {
         return Arrays.<BattlefieldCell>stream(cells).iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The line of sight is resolved from the cache if there is no fighter between the two cells
+     */
+    @Override
+    public boolean isFreeSight(BattlefieldCell source, BattlefieldCell target) {
+        return sight.isFree(source, target, occupiedCells);
+    }
+
     /**
      * Get related cell decoder
      */
@@ -146,6 +173,20 @@ public final class FightMap implements BattlefieldMap {
         });
     }
 
+    /**
+     * Update the occupied cells
+     * Must be called by the cell when a fighter is added or removed
+     *
+     * @param cell The modified cell
+     */
+    void fighterChanged(FightCell cell) {
+        if (cell.hasFighter()) {
+            occupiedCells.add(cell);
+        } else {
+            occupiedCells.remove(cell);
+        }
+    }
+
     private static FightCell @SameLen("#1") [] makeCells(FightMap map, CellData @SameLen("#1") [] template) {
         final FightCell[] cells = new FightCell[template.length];
 
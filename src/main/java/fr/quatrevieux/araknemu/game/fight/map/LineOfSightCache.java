@@ -0,0 +1,120 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.map;
+
+import fr.arakne.utils.maps.CoordinateCell;
+import fr.arakne.utils.maps.sight.CellSight;
+import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache the line of sight of a map, computed without fighters
+ * The cache depends only on the map template, so it can be shared by all fights of the same map
+ *
+ * The visibility is computed lazily, for all cells at once, when a source cell is requested for the first time.
+ * Each source cell uses a bitset of the map size, so the cache takes at most (map size)² bits.
+ *
+ * Cells whose sight blocking state differs from the template (i.e. cells with a fighter) must be provided when checking the sight.
+ * If one of these cells may be on the line of sight, the line is computed again instead of using the cache.
+ */
+public final class LineOfSightCache {
+    private final MapTemplate template;
+    private final AtomicReferenceArray<@Nullable BitSet> visibleCells;
+
+    public LineOfSightCache(MapTemplate template) {
+        this.template = template;
+        this.visibleCells = new AtomicReferenceArray<>(template.cells().length);
+    }
+
+    /**
+     * Check if the line of sight between the two cells is free
+     *
+     * @param source The source cell
+     * @param target The target cell
+     * @param changedCells Cells which do not have the same sight blocking state than the template (e.g. cells with a fighter)
+     *
+     * @return true if the target can be seen from the source cell
+     */
+    public boolean isFree(BattlefieldCell source, BattlefieldCell target, Iterable<? extends BattlefieldCell> changedCells) {
+        for (BattlefieldCell cell : changedCells) {
+            if (cell.id() != source.id() && cell.id() != target.id() && between(source, target, cell)) {
+                return source.sight().isFree(target);
+            }
+        }
+
+        return visibleCells(source.id()).get(target.id());
+    }
+
+    /**
+     * Check if the cell is inside the rectangle formed by source and target coordinates
+     * A cell outside this rectangle can't be on the line of sight between source and target
+     *
+     * @param source The source cell
+     * @param target The target cell
+     * @param cell The cell to check
+     */
+    public static boolean between(BattlefieldCell source, BattlefieldCell target, BattlefieldCell cell) {
+        final CoordinateCell<BattlefieldCell> sourceCoordinates = source.coordinate();
+        final CoordinateCell<BattlefieldCell> targetCoordinates = target.coordinate();
+        final CoordinateCell<BattlefieldCell> cellCoordinates = cell.coordinate();
+
+        return cellCoordinates.x() >= Math.min(sourceCoordinates.x(), targetCoordinates.x())
+            && cellCoordinates.x() <= Math.max(sourceCoordinates.x(), targetCoordinates.x())
+            && cellCoordinates.y() >= Math.min(sourceCoordinates.y(), targetCoordinates.y())
+            && cellCoordinates.y() <= Math.max(sourceCoordinates.y(), targetCoordinates.y())
+        ;
+    }
+
+    /**
+     * Get all visible cells from the given source cell, ignoring fighters
+     * If not yet computed, the cells are computed and stored
+     */
+    private BitSet visibleCells(@NonNegative int sourceId) {
+        BitSet cells = visibleCells.get(sourceId);
+
+        if (cells == null) {
+            // Concurrent computation may occur, but the result will be the same
+            cells = computeVisibleCells(sourceId);
+            visibleCells.set(sourceId, cells);
+        }
+
+        return cells;
+    }
+
+    @SuppressWarnings("argument") // sourceId is a valid cell id
+    private BitSet computeVisibleCells(@NonNegative int sourceId) {
+        // Use a new map without fighters
+        final FightMap map = new FightMap(template, this);
+        final CellSight<BattlefieldCell> sight = map.get(sourceId).sight();
+        final BitSet cells = new BitSet(map.size());
+
+        for (int cellId = 0; cellId < map.size(); ++cellId) {
+            if (sight.isFree(map.get(cellId))) {
+                cells.set(cellId);
+            }
+        }
+
+        return cells;
+    }
+}
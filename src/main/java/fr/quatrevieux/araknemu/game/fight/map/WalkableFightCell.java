@@ -87,6 +87,7 @@ public final class WalkableFightCell implements FightCell {
         }
 
         this.fighter = fighter;
+        map.fighterChanged(this);
     }
 
     @Override
@@ -96,12 +97,14 @@ public final class WalkableFightCell implements FightCell {
         }
 
         this.fighter = null;
+        map.fighterChanged(this);
     }
 
     @Override
     public void removeFighter(Fighter fighter) {
         if (fighter.equals(this.fighter)) {
             this.fighter = null;
+            map.fighterChanged(this);
         }
     }
 
@@ -20,6 +20,7 @@
 package fr.quatrevieux.araknemu.game.fight.module;
 
 import fr.quatrevieux.araknemu.core.event.Listener;
+import fr.quatrevieux.araknemu.game.fight.ai.AiPlanner;
 import fr.quatrevieux.araknemu.game.fight.ai.FighterAI;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.AiFactory;
 import fr.quatrevieux.araknemu.game.fight.fighter.Fighter;
@@ -27,15 +28,26 @@ import fr.quatrevieux.araknemu.game.fight.fighter.PlayableFighter;
 import fr.quatrevieux.araknemu.game.fight.fighter.event.FighterInitialized;
 import fr.quatrevieux.araknemu.game.fight.turn.FightTurn;
 import fr.quatrevieux.araknemu.game.fight.turn.event.TurnStarted;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Fight module for enable AI
  */
 public final class AiModule implements FightModule {
     private final AiFactory<PlayableFighter> factory;
+    private final @Nullable AiPlanner planner;
 
     public AiModule(AiFactory<PlayableFighter> factory) {
+        this(factory, null);
+    }
+
+    /**
+     * @param factory The AI factory
+     * @param planner The planner used to compute AI actions outside the fight executor. If null, actions are computed on the fight executor
+     */
+    public AiModule(AiFactory<PlayableFighter> factory, @Nullable AiPlanner planner) {
         this.factory = factory;
+        this.planner = planner;
     }
 
     @Override
@@ -84,7 +96,7 @@ public final class AiModule implements FightModule {
         final FighterAI ai = turn.fighter().attachment(FighterAI.class);
 
         if (ai != null) {
-            ai.start(turn);
+            ai.start(turn, planner);
         }
     }
 }
@@ -33,7 +33,6 @@ import fr.quatrevieux.araknemu.network.game.out.fight.FightOption;
 import fr.quatrevieux.araknemu.network.game.out.fight.exploration.AddTeamFighters;
 import fr.quatrevieux.araknemu.network.game.out.fight.exploration.FightsCount;
 import fr.quatrevieux.araknemu.network.game.out.fight.exploration.ShowFight;
-import fr.quatrevieux.araknemu.network.game.out.game.AddSprites;
 import fr.quatrevieux.araknemu.network.game.out.game.MapReady;
 import org.checkerframework.checker.nullness.util.NullnessUtil;
 
@@ -59,7 +58,7 @@ public final class LoadExtraInfo implements PacketHandler<GameSession, AskExtraI
             throw new CloseImmediately("A map should be loaded before get extra info");
         }
 
-        session.send(new AddSprites(map.sprites()));
+        session.send(map.spritesPacket());
 
         final Collection<Fight> fights = fightService.fightsByMap(map.id());
 
@@ -23,6 +23,8 @@ import fr.quatrevieux.araknemu.data.value.ItemTemplateEffectEntry;
 import fr.quatrevieux.araknemu.data.world.entity.item.ItemSet;
 import fr.quatrevieux.araknemu.game.item.effect.CharacteristicEffect;
 import fr.quatrevieux.araknemu.game.item.effect.SpecialEffect;
+import fr.quatrevieux.araknemu.game.world.creature.characteristics.Characteristics;
+import fr.quatrevieux.araknemu.game.world.creature.characteristics.DefaultCharacteristics;
 
 import java.util.Collections;
 import java.util.List;
@@ -72,11 +74,16 @@ public final class GameItemSet {
         private final List<ItemTemplateEffectEntry> effects;
         private final List<CharacteristicEffect> characteristics;
         private final List<SpecialEffect> specials;
+        private final DefaultCharacteristics boost = new DefaultCharacteristics();
 
         public Bonus(List<ItemTemplateEffectEntry> effects, List<CharacteristicEffect> characteristics, List<SpecialEffect> specials) {
             this.effects = effects;
             this.characteristics = characteristics;
             this.specials = specials;
+
+            for (CharacteristicEffect effect : characteristics) {
+                boost.add(effect.characteristic(), effect.boost());
+            }
         }
 
         public List<ItemTemplateEffectEntry> effects() {
@@ -90,5 +97,12 @@ public final class GameItemSet {
         public List<SpecialEffect> specials() {
             return specials;
         }
+
+        /**
+         * Get the sum of all characteristic effects of the bonus
+         */
+        public Characteristics boost() {
+            return boost;
+        }
     }
 }
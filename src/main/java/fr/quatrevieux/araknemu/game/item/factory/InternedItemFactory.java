@@ -0,0 +1,152 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.item.factory;
+
+import fr.quatrevieux.araknemu.data.transformer.Transformer;
+import fr.quatrevieux.araknemu.data.value.ItemTemplateEffectEntry;
+import fr.quatrevieux.araknemu.data.world.entity.item.ItemTemplate;
+import fr.quatrevieux.araknemu.data.world.entity.item.ItemType;
+import fr.quatrevieux.araknemu.game.item.GameItemSet;
+import fr.quatrevieux.araknemu.game.item.Item;
+import fr.quatrevieux.araknemu.game.item.SuperType;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Share retrieved items which have the same template and effects
+ *
+ * Items are immutable, so a single instance can be used by all inventories holding the same item.
+ * Items are kept using weak references, so an item which is no more used by any inventory can be garbage collected.
+ * The number of interned items is bounded : the least recently used item is removed when the limit is reached.
+ *
+ * Note: created items (i.e. with random stats) are not interned
+ */
+public final class InternedItemFactory implements ItemFactory {
+    private final ItemFactory factory;
+    private final Transformer<List<ItemTemplateEffectEntry>> effectsTransformer;
+    private final ReferenceQueue<Item> collected = new ReferenceQueue<>();
+    private final Map<String, InternedItem> items;
+
+    /**
+     * @param factory The factory used to create items which are not yet interned
+     * @param effectsTransformer Transformer used to compute the item key
+     * @param maxSize The maximum number of interned items
+     */
+    public InternedItemFactory(ItemFactory factory, Transformer<List<ItemTemplateEffectEntry>> effectsTransformer, @Positive int maxSize) {
+        this.factory = factory;
+        this.effectsTransformer = effectsTransformer;
+        this.items = new LinkedHashMap<String, InternedItem>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InternedItem> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public Item create(ItemTemplate template, ItemType type, @Nullable GameItemSet set, boolean maximize) {
+        return factory.create(template, type, set, maximize);
+    }
+
+    @Override
+    public Item retrieve(ItemTemplate template, ItemType type, @Nullable GameItemSet set, List<ItemTemplateEffectEntry> effects) {
+        final String key = template.id() + ":" + effectsTransformer.serialize(effects);
+        final Item interned = get(key);
+
+        if (interned != null) {
+            return interned;
+        }
+
+        // The item is created outside the lock, so two threads may create the same item
+        // In this case, the first interned one is kept
+        return intern(key, factory.retrieve(template, type, set, effects));
+    }
+
+    @Override
+    public SuperType type() {
+        return factory.type();
+    }
+
+    /**
+     * Get the current number of interned items
+     * Items which are garbage collected are not counted
+     */
+    public int size() {
+        synchronized (items) {
+            removeCollected();
+
+            return items.size();
+        }
+    }
+
+    private @Nullable Item get(String key) {
+        synchronized (items) {
+            removeCollected();
+
+            final InternedItem reference = items.get(key);
+
+            return reference != null ? reference.get() : null;
+        }
+    }
+
+    private Item intern(String key, Item item) {
+        synchronized (items) {
+            final InternedItem reference = items.get(key);
+            final Item interned = reference != null ? reference.get() : null;
+
+            if (interned != null) {
+                return interned;
+            }
+
+            items.put(key, new InternedItem(key, item, collected));
+
+            return item;
+        }
+    }
+
+    /**
+     * Remove entries of garbage collected items
+     * Must be called while holding the lock on items
+     */
+    private void removeCollected() {
+        for (Reference<? extends Item> reference = collected.poll(); reference != null; reference = collected.poll()) {
+            final InternedItem interned = (InternedItem) reference;
+
+            items.remove(interned.key, interned);
+        }
+    }
+
+    private static final class InternedItem extends WeakReference<Item> {
+        private final String key;
+
+        public InternedItem(String key, Item item, ReferenceQueue<Item> queue) {
+            super(item, queue);
+
+            this.key = key;
+        }
+    }
+}
@@ -22,7 +22,6 @@ package fr.quatrevieux.araknemu.game.listener.player.chat;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.game.chat.event.BroadcastedMessage;
 import fr.quatrevieux.araknemu.game.player.GamePlayer;
-import fr.quatrevieux.araknemu.network.game.out.chat.MessageSent;
 
 /**
  * Listen broadcasted messages
@@ -43,14 +42,7 @@ public final class MessageReceived implements Listener<BroadcastedMessage> {
             return;
         }
 
-        player.send(
-            new MessageSent(
-                event.sender(),
-                event.channel(),
-                event.message(),
-                event.extra()
-            )
-        );
+        player.send(event.packet());
     }
 
     @Override
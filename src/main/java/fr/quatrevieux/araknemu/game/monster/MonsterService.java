@@ -30,6 +30,8 @@ import org.checkerframework.checker.index.qual.IndexFor;
 import org.checkerframework.checker.index.qual.Positive;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,6 +71,11 @@ public final class MonsterService implements PreloadableService {
         return "monster";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Arrays.asList("spell", "monster.reward");
+    }
+
     /**
      * Load monster grades
      *
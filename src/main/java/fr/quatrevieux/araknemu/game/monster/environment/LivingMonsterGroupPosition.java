@@ -30,6 +30,7 @@ import fr.quatrevieux.araknemu.game.fight.builder.PvmBuilder;
 import fr.quatrevieux.araknemu.game.monster.group.MonsterGroup;
 import fr.quatrevieux.araknemu.game.monster.group.MonsterGroupFactory;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.RequiresNonNull;
 import org.checkerframework.checker.nullness.util.NullnessUtil;
 
@@ -105,6 +106,15 @@ public final class LivingMonsterGroupPosition {
         }
     }
 
+    /**
+     * Get the map where groups are spawned
+     *
+     * @return The map, or null if the position is not yet populated
+     */
+    public @Nullable ExplorationMap map() {
+        return map;
+    }
+
     /**
      * Get list of available monster groups on the map
      */
@@ -104,6 +104,7 @@ public final class MonsterEnvironmentService implements EventsSubscriber, Preloa
         activityService.periodic(
             new MoveMonsters(
                 this,
+                activityService,
                 Duration.ofSeconds(configuration.monsterMoveInterval()),
                 configuration.monsterMovePercent(),
                 configuration.monsterMoveDistance()
@@ -116,6 +117,11 @@ public final class MonsterEnvironmentService implements EventsSubscriber, Preloa
         return "monster.environment";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Collections.singletonList("monster");
+    }
+
     @Override
     public Listener[] listeners() {
         return new Listener[] {
@@ -182,6 +188,14 @@ public final class MonsterEnvironmentService implements EventsSubscriber, Preloa
         return groupsByMap.values().stream().flatMap(Collection::stream);
     }
 
+    /**
+     * Get all loaded groups, grouped by map
+     * Each element contains all group positions of a single map
+     */
+    Collection<Collection<LivingMonsterGroupPosition>> groupsByMap() {
+        return groupsByMap.values();
+    }
+
     private LivingMonsterGroupPosition createByPosition(MonsterGroupPosition position) {
         return new LivingMonsterGroupPosition(
             factory,
@@ -25,42 +25,80 @@ import fr.arakne.utils.maps.path.PathException;
 import fr.arakne.utils.value.helper.RandomUtil;
 import fr.quatrevieux.araknemu.game.activity.ActivityService;
 import fr.quatrevieux.araknemu.game.activity.Task;
+import fr.quatrevieux.araknemu.game.exploration.ExplorationPlayer;
+import fr.quatrevieux.araknemu.game.exploration.creature.ExplorationCreature;
 import fr.quatrevieux.araknemu.game.exploration.map.ExplorationMap;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.ExplorationMapCell;
 import fr.quatrevieux.araknemu.game.monster.group.MonsterGroup;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.value.qual.IntRange;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Task for random move monsters on exploration maps
  *
  * At most one group move per map per execution.
  * The move is performed if its randomly selected with moveChange and if the path is not too complex
+ *
+ * The work is split by map, and each map is processed as a separated action on the activity pool.
+ * Maps without players are ignored, because nobody can see the monsters moving.
  */
 public final class MoveMonsters implements Task {
     private final MonsterEnvironmentService service;
+    private final ActivityService activityService;
     private final Duration delay;
     private final @IntRange(from = 0, to = 100) int moveChance;
     private final @Positive int maxDistance;
 
     private final RandomUtil random = new RandomUtil();
 
+    /**
+     * Path decoders, indexed by map id
+     * A map is processed by only one thread at a time, so the decoder can be reused between executions
+     */
+    private final ConcurrentMap<Integer, Decoder<ExplorationMapCell>> decoders = new ConcurrentHashMap<>();
+
+    /**
+     * Is an execution in progress ?
+     * Used to skip an execution if the previous one is not yet terminated
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder movedGroups = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder skippedExecutions = new LongAdder();
+    private final AtomicInteger lastMovedGroups = new AtomicInteger();
+    private final AtomicInteger lastProcessedMaps = new AtomicInteger();
+    private final AtomicLong lastDuration = new AtomicLong();
+    private final Metrics metrics = new Metrics();
+
     /**
      * Initialise the move task
      *
      * @param service The environment server
+     * @param activityService The activity service, used to execute moves of each map in parallel
      * @param delay  The period delay
      * @param moveChance Move chance for each groups, in percent
      * @param maxDistance The maximum move distance in cell count
      */
-    public MoveMonsters(MonsterEnvironmentService service, Duration delay, @IntRange(from = 0, to = 100) int moveChance, @Positive int maxDistance) {
+    public MoveMonsters(MonsterEnvironmentService service, ActivityService activityService, Duration delay, @IntRange(from = 0, to = 100) int moveChance, @Positive int maxDistance) {
         this.service = service;
+        this.activityService = activityService;
         this.delay = delay;
         this.moveChance = moveChance;
         this.maxDistance = maxDistance;
@@ -68,12 +106,29 @@ public final class MoveMonsters implements Task {
 
     @Override
     public void execute(Logger logger) {
-        service.groups()
-            .filter(position -> !position.available().isEmpty())
-            .filter(position -> !position.fixed())
-            .filter(position -> random.bool(moveChance))
-            .forEach(this::move)
-        ;
+        if (!running.compareAndSet(false, true)) {
+            skippedExecutions.increment();
+            logger.warn("Previous execution of {} is not terminated : skip", this);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        final List<Collection<LivingMonsterGroupPosition>> partitions;
+
+        try {
+            partitions = partitions();
+        } catch (RuntimeException e) {
+            // The task must be released, otherwise all next executions will be skipped
+            running.set(false);
+            throw e;
+        }
+
+        if (partitions.isEmpty()) {
+            terminate(logger, startTime, 0, 0);
+            return;
+        }
+
+        submit(logger, startTime, partitions);
     }
 
     @Override
@@ -92,26 +147,120 @@ public final class MoveMonsters implements Task {
     }
 
     /**
-     * Try to move a group from the given position
+     * Get the task metrics
+     */
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Get group positions to process, grouped by map
+     * Only maps with at least one player are returned
      */
-    private void move(LivingMonsterGroupPosition position) {
-        final MonsterGroup group = random.of(position.available());
-
-        targetCell(group.cell())
-            .map(target -> {
-                try {
-                    return new Decoder<>(target.map())
-                        .pathfinder()
-                        .exploredCellLimit(50)
-                        .findPath(group.cell(), target)
-                    ;
-                } catch (PathException e) {
-                    // Ignore exception
-                    return null;
+    private List<Collection<LivingMonsterGroupPosition>> partitions() {
+        final List<Collection<LivingMonsterGroupPosition>> partitions = new ArrayList<>();
+
+        for (Collection<LivingMonsterGroupPosition> positions : service.groupsByMap()) {
+            final ExplorationMap map = map(positions);
+
+            if (map != null && hasPlayers(map)) {
+                partitions.add(positions);
+            }
+        }
+
+        return partitions;
+    }
+
+    /**
+     * Submit the move of each map on the activity pool
+     * The last terminated partition will terminate the execution
+     *
+     * If the activity pool rejects a partition, the next ones are not submitted,
+     * and the execution is terminated by the last partition already submitted (or immediately if there is none)
+     */
+    private void submit(Logger logger, long startTime, List<Collection<LivingMonsterGroupPosition>> partitions) {
+        final AtomicInteger remaining = new AtomicInteger(partitions.size());
+        final AtomicInteger moved = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger(partitions.size());
+
+        for (int i = 0; i < partitions.size(); ++i) {
+            final Collection<LivingMonsterGroupPosition> positions = partitions.get(i);
+
+            try {
+                activityService.submit(() -> {
+                    try {
+                        moved.addAndGet(moveOnMap(positions));
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            terminate(logger, startTime, processed.get(), moved.get());
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                logger.error("Cannot submit monster moves to the activity pool : " + e.getMessage(), e);
+
+                // Remaining partitions are not submitted : the processed count must be set before releasing them
+                processed.set(i);
+
+                if (remaining.addAndGet(i - partitions.size()) == 0) {
+                    terminate(logger, startTime, processed.get(), moved.get());
                 }
-            })
-            .ifPresent(group::move)
-        ;
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move groups of a single map
+     *
+     * @param positions All group positions of the map
+     *
+     * @return Number of moved groups
+     */
+    private int moveOnMap(Collection<LivingMonsterGroupPosition> positions) {
+        int moved = 0;
+
+        for (LivingMonsterGroupPosition position : positions) {
+            if (position.fixed() || !random.bool(moveChance)) {
+                continue;
+            }
+
+            final List<MonsterGroup> available = position.available();
+
+            if (!available.isEmpty() && move(random.of(available))) {
+                ++moved;
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Try to move the given group
+     *
+     * @return true if the group has moved
+     */
+    private boolean move(MonsterGroup group) {
+        final ExplorationMapCell target = targetCell(group.cell()).orElse(null);
+
+        if (target == null) {
+            return false;
+        }
+
+        try {
+            group.move(
+                decoders.computeIfAbsent(target.map().id(), id -> new Decoder<>(target.map()))
+                    .pathfinder()
+                    .exploredCellLimit(50)
+                    .findPath(group.cell(), target)
+            );
+
+            return true;
+        } catch (PathException e) {
+            // Ignore exception
+            return false;
+        }
     }
 
     /**
@@ -123,17 +272,108 @@ public final class MoveMonsters implements Task {
      */
     private Optional<ExplorationMapCell> targetCell(ExplorationMapCell currentCell) {
         final CoordinateCell<ExplorationMapCell> currentCoordinates = currentCell.coordinate();
-        final List<ExplorationMapCell> cells = new ArrayList<>();
-        final ExplorationMap map = currentCell.map();
+        final List<ExplorationMapCell> cells = currentCell.map().freeCells();
 
-        for (int id = 0; id < map.size(); ++id) {
-            final ExplorationMapCell cell = map.get(id);
+        cells.removeIf(cell -> currentCoordinates.distance(cell) > maxDistance);
+
+        return cells.isEmpty() ? Optional.empty() : Optional.of(random.of(cells));
+    }
 
-            if (cell.free() && currentCoordinates.distance(cell) <= maxDistance) {
-                cells.add(cell);
+    /**
+     * Save metrics of the terminated execution, and release the task for the next execution
+     */
+    private void terminate(Logger logger, long startTime, int processedMaps, int moved) {
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        movedGroups.add(moved);
+        executions.increment();
+        lastMovedGroups.set(moved);
+        lastProcessedMaps.set(processedMaps);
+        lastDuration.set(duration);
+        running.set(false);
+
+        logger.debug("{} : {} groups moved on {} maps in {}ms", this, moved, processedMaps, duration);
+    }
+
+    /**
+     * Get the map of the group positions
+     * All positions are on the same map
+     *
+     * @return The map, or null if the map is not loaded
+     */
+    private static @Nullable ExplorationMap map(Collection<LivingMonsterGroupPosition> positions) {
+        for (LivingMonsterGroupPosition position : positions) {
+            final ExplorationMap map = position.map();
+
+            if (map != null) {
+                return map;
             }
         }
 
-        return cells.isEmpty() ? Optional.empty() : Optional.of(random.of(cells));
+        return null;
+    }
+
+    /**
+     * Check if there is at least one player on the map
+     */
+    private static boolean hasPlayers(ExplorationMap map) {
+        for (ExplorationCreature creature : map.creatures()) {
+            if (creature instanceof ExplorationPlayer) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Execution metrics of the task
+     */
+    public final class Metrics {
+        private Metrics() {
+        }
+
+        /**
+         * Total number of moved groups since the server start
+         */
+        public long movedGroups() {
+            return movedGroups.sum();
+        }
+
+        /**
+         * Number of terminated executions
+         */
+        public long executions() {
+            return executions.sum();
+        }
+
+        /**
+         * Number of executions skipped because the previous one was not terminated
+         */
+        public long skippedExecutions() {
+            return skippedExecutions.sum();
+        }
+
+        /**
+         * Number of moved groups during the last execution
+         */
+        public int lastMovedGroups() {
+            return lastMovedGroups.get();
+        }
+
+        /**
+         * Number of processed maps (i.e. maps with players) during the last execution
+         */
+        public int lastProcessedMaps() {
+            return lastProcessedMaps.get();
+        }
+
+        /**
+         * Duration of the last execution, in milliseconds
+         * The duration includes the wait time of the parallel actions on the activity pool
+         */
+        public long lastDuration() {
+            return lastDuration.get();
+        }
     }
 }
@@ -77,10 +77,8 @@ public final class RandomCellSelector implements SpawnCellSelector {
         for (int i = 0; i < availableCells.length; ++i) {
             final int cellId = availableCells[(i + offset) % availableCells.length];
 
-            final ExplorationMapCell cell = map.get(cellId);
-
-            if (cell.free()) {
-                return cell;
+            if (map.isFree(cellId)) {
+                return map.get(cellId);
             }
         }
 
@@ -123,6 +123,7 @@ public final class MonsterGroup implements ExplorationCreature {
      */
     public void move(Path<ExplorationMapCell> path) {
         cell = path.target();
+        cell.map().refreshSprite(this);
         cell.map().dispatch(new CreatureMoving(this, path));
     }
 
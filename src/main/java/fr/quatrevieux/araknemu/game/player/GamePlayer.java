@@ -57,12 +57,20 @@ public final class GamePlayer implements PlayerSessionScope {
     private final PlayerData data;
     private final Restrictions restrictions;
 
-    private final ListenerAggregate dispatcher = new DefaultListenerAggregate();
+    private final ListenerAggregate dispatcher;
 
     private PlayerSessionScope scope;
 
-    @SuppressWarnings({"assignment", "argument"})
     public GamePlayer(GameAccount account, Player entity, GamePlayerRace race, GameSession session, PlayerService service, LoadedInventory inventory, SpellBook spells, GamePlayerExperience experience) {
+        this(account, entity, race, session, service, inventory, spells, experience, new DefaultListenerAggregate());
+    }
+
+    /**
+     * @param dispatcher The player event dispatcher. Must be empty.
+     */
+    @SuppressWarnings({"assignment", "argument"})
+    public GamePlayer(GameAccount account, Player entity, GamePlayerRace race, GameSession session, PlayerService service, LoadedInventory inventory, SpellBook spells, GamePlayerExperience experience, ListenerAggregate dispatcher) {
+        this.dispatcher = dispatcher;
         this.account = account;
         this.entity = entity;
         this.race = race;
@@ -282,7 +290,6 @@ public final class GamePlayer implements PlayerSessionScope {
      * Save the player
      */
     public void save() {
-        properties().life().setLifeWithCurrentRegeneration();
         service.save(this);
     }
 
@@ -20,12 +20,17 @@
 package fr.quatrevieux.araknemu.game.player;
 
 import fr.quatrevieux.araknemu.core.dbal.repository.RepositoryException;
+import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.data.living.entity.player.Player;
+import fr.quatrevieux.araknemu.data.living.entity.player.PlayerSpell;
 import fr.quatrevieux.araknemu.data.living.repository.player.PlayerRepository;
 import fr.quatrevieux.araknemu.game.GameConfiguration;
+import fr.quatrevieux.araknemu.game.account.GameAccount;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
 import fr.quatrevieux.araknemu.game.handler.event.Disconnected;
 import fr.quatrevieux.araknemu.game.listener.player.ComputeLifePoints;
 import fr.quatrevieux.araknemu.game.listener.player.InitializeRestrictions;
@@ -41,18 +46,30 @@ import fr.quatrevieux.araknemu.game.listener.player.StartTutorial;
 import fr.quatrevieux.araknemu.game.player.event.PlayerLoaded;
 import fr.quatrevieux.araknemu.game.player.experience.PlayerExperienceService;
 import fr.quatrevieux.araknemu.game.player.inventory.InventoryService;
+import fr.quatrevieux.araknemu.game.player.inventory.LoadedInventory;
 import fr.quatrevieux.araknemu.game.player.race.PlayerRaceService;
 import fr.quatrevieux.araknemu.game.player.spell.SpellBookService;
 import fr.quatrevieux.araknemu.game.world.util.Sender;
 import fr.quatrevieux.araknemu.network.game.GameSession;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.RequiresNonNull;
 import org.checkerframework.checker.nullness.util.NullnessUtil;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -67,11 +84,21 @@ public final class PlayerService implements EventsSubscriber, Sender {
     private final PlayerRaceService playerRaceService;
     private final SpellBookService spellBookService;
     private final PlayerExperienceService experienceService;
+    private final Logger logger;
+    private final @Nullable ExecutorService loader;
+    private final @Nullable EventDispatchProfiler profiler;
 
     private final ConcurrentMap<Integer, GamePlayer> onlinePlayers = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, GamePlayer> playersByName  = new ConcurrentHashMap<>();
 
-    public PlayerService(PlayerRepository repository, GameConfiguration configuration, Dispatcher dispatcher, InventoryService inventoryService, PlayerRaceService playerRaceService, SpellBookService spellBookService, PlayerExperienceService experienceService) {
+    public PlayerService(PlayerRepository repository, GameConfiguration configuration, Dispatcher dispatcher, InventoryService inventoryService, PlayerRaceService playerRaceService, SpellBookService spellBookService, PlayerExperienceService experienceService, Logger logger) {
+        this(repository, configuration, dispatcher, inventoryService, playerRaceService, spellBookService, experienceService, logger, null);
+    }
+
+    /**
+     * @param profiler Profiler used by players dispatchers. Use null to disable profiling
+     */
+    public PlayerService(PlayerRepository repository, GameConfiguration configuration, Dispatcher dispatcher, InventoryService inventoryService, PlayerRaceService playerRaceService, SpellBookService spellBookService, PlayerExperienceService experienceService, Logger logger, @Nullable EventDispatchProfiler profiler) {
         this.repository = repository;
         this.configuration = configuration;
         this.playerConfiguration = configuration.player();
@@ -80,11 +107,20 @@ public final class PlayerService implements EventsSubscriber, Sender {
         this.playerRaceService = playerRaceService;
         this.spellBookService = spellBookService;
         this.experienceService = experienceService;
+        this.logger = logger;
+        this.profiler = profiler;
+        this.loader = playerConfiguration.loadThreads() > 0
+            ? ExecutorFactory.createWorkers(playerConfiguration.loadThreads())
+            : null
+        ;
     }
 
     /**
      * Load the player for entering game
      *
+     * The items and spells are fetched concurrently with the player entity, if enabled by the configuration.
+     * The time spent on each stage is logged with the debug level.
+     *
      * @param session The current session
      * @param id The player id
      *
@@ -97,26 +133,42 @@ public final class PlayerService implements EventsSubscriber, Sender {
             throw new IllegalStateException("The player is already loaded");
         }
 
-        final Player player = repository.getForGame(
-            Player.forGame(
-                id,
-                session.account().id(),
-                configuration.id()
-            )
-        );
+        final GameAccount account = NullnessUtil.castNonNull(session.account());
+        final long start = System.nanoTime();
+        final AtomicLong playerDuration = new AtomicLong();
+        final AtomicLong inventoryDuration = new AtomicLong();
+        final AtomicLong spellsDuration = new AtomicLong();
+        final Player criteria = Player.forGame(id, account.id(), configuration.id());
+        final Player player;
+        final CompletableFuture<LoadedInventory> inventory;
+        final CompletableFuture<Collection<PlayerSpell>> spells;
+
+        // Only the player id is used to fetch items and spells, so the criteria can be used
+        if (loader == null) {
+            // Sequential loading : check the player before fetching its items and spells
+            player = timed(() -> repository.getForGame(criteria), playerDuration);
+            inventory = fetch(() -> inventoryService.load(criteria), inventoryDuration);
+            spells = fetch(() -> spellBookService.fetch(criteria), spellsDuration);
+        } else {
+            inventory = fetch(() -> inventoryService.load(criteria), inventoryDuration);
+            spells = fetch(() -> spellBookService.fetch(criteria), spellsDuration);
+            player = fetchPlayer(criteria, playerDuration, inventory, spells);
+        }
 
         final GamePlayer gamePlayer = new GamePlayer(
-            NullnessUtil.castNonNull(session.account()),
+            account,
             player,
             playerRaceService.get(player.race()),
             session,
             this,
-            inventoryService.load(player),
-            spellBookService.load(session, player),
-            experienceService.load(session, player)
+            await(inventory).with(player),
+            spellBookService.load(session, player, await(spells)),
+            experienceService.load(session, player),
+            new DefaultListenerAggregate(profiler)
         );
 
-        gamePlayer.dispatcher().add(Disconnected.class, e -> logout(gamePlayer));
+        final long fetched = System.nanoTime();
+
         gamePlayer.dispatcher().add(new ComputeLifePoints(gamePlayer));
         gamePlayer.dispatcher().add(new SendLifeChanged(gamePlayer));
         gamePlayer.dispatcher().add(new SendStats(gamePlayer));
@@ -130,9 +182,20 @@ public final class PlayerService implements EventsSubscriber, Sender {
 
         this.dispatcher.dispatch(new PlayerLoaded(gamePlayer));
         gamePlayer.dispatcher().add(new SavePlayer(gamePlayer)); // After all events
+        gamePlayer.dispatcher().add(Disconnected.class, e -> logout(gamePlayer)); // After save, so the player is no longer tracked by the repository
 
         login(gamePlayer);
 
+        logger.debug(
+            "Player {} loaded in {}ms (player: {}ms, inventory: {}ms, spells: {}ms, initialization: {}ms)",
+            id,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            TimeUnit.NANOSECONDS.toMillis(playerDuration.get()),
+            TimeUnit.NANOSECONDS.toMillis(inventoryDuration.get()),
+            TimeUnit.NANOSECONDS.toMillis(spellsDuration.get()),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetched)
+        );
+
         return gamePlayer;
     }
 
@@ -195,7 +258,32 @@ public final class PlayerService implements EventsSubscriber, Sender {
      * Save the player
      */
     public void save(GamePlayer player) {
-        repository.save(player.entity());
+        repository.save(entityForSave(player));
+    }
+
+    /**
+     * Save all online players using a single batch
+     * Players which are not modified since the last save are skipped
+     *
+     * @return Number of saved players
+     */
+    public int saveOnline() {
+        final List<Player> entities = new ArrayList<>(onlinePlayers.size());
+
+        for (GamePlayer player : onlinePlayers.values()) {
+            entities.add(entityForSave(player));
+        }
+
+        final int rows = repository.saveAll(entities);
+
+        // Players logged out during the save are tracked again by the repository
+        for (Player entity : entities) {
+            if (!onlinePlayers.containsKey(entity.id())) {
+                repository.unload(entity);
+            }
+        }
+
+        return rows;
     }
 
     @Override
@@ -204,6 +292,19 @@ public final class PlayerService implements EventsSubscriber, Sender {
             new SendShutdownScheduled(this),
             new SendSaveInProgress(this),
             new SendSaveTerminated(this),
+            new Listener<GameStopped>() {
+                @Override
+                public void on(GameStopped event) {
+                    if (loader != null) {
+                        loader.shutdown();
+                    }
+                }
+
+                @Override
+                public Class<GameStopped> event() {
+                    return GameStopped.class;
+                }
+            },
         };
     }
 
@@ -215,5 +316,77 @@ public final class PlayerService implements EventsSubscriber, Sender {
     private void logout(GamePlayer player) {
         onlinePlayers.remove(player.id());
         playersByName.remove(player.name().toLowerCase());
+        repository.unload(player.entity());
+    }
+
+    /**
+     * Get the player entity for saving
+     * The entity is updated with the current player state (i.e. regenerated life points) before being returned
+     */
+    private static Player entityForSave(GamePlayer player) {
+        player.properties().life().setLifeWithCurrentRegeneration();
+
+        return player.entity();
+    }
+
+    /**
+     * Fetch the player entity, while its items and spells are fetched by the loader
+     * If the player cannot be loaded (i.e. not found, or not owned by the account), the pending fetches are cancelled and ignored
+     *
+     * @param criteria The player criteria
+     * @param duration Receive the execution time of the player query, in nanoseconds
+     * @param pending The pending fetches of the player data
+     */
+    private Player fetchPlayer(Player criteria, AtomicLong duration, CompletableFuture<?>... pending) {
+        try {
+            return timed(() -> repository.getForGame(criteria), duration);
+        } catch (RuntimeException e) {
+            for (CompletableFuture<?> future : pending) {
+                future.cancel(true);
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Fetch data using the loader executor
+     * If the loader is disabled, the data is fetched by the current thread
+     *
+     * @param task The fetch task
+     * @param duration Receive the execution time of the task, in nanoseconds
+     */
+    private <T> CompletableFuture<T> fetch(Supplier<T> task, AtomicLong duration) {
+        if (loader == null) {
+            return CompletableFuture.completedFuture(timed(task, duration));
+        }
+
+        return CompletableFuture.supplyAsync(() -> timed(task, duration), loader);
+    }
+
+    /**
+     * Wait for the fetched data
+     * Exceptions thrown by the fetch task are rethrown as is
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private static <T> T timed(Supplier<T> task, AtomicLong duration) {
+        final long start = System.nanoTime();
+
+        try {
+            return task.get();
+        } finally {
+            duration.set(System.nanoTime() - start);
+        }
     }
 }
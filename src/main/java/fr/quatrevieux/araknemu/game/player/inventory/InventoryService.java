@@ -99,6 +99,9 @@ public final class InventoryService implements EventsSubscriber {
     /**
      * Load the inventory for the player
      *
+     * Only the player id is used to fetch the items, so a criteria entity can be used,
+     * and the loaded entity can be set later using {@link LoadedInventory#with(Player)}
+     *
      * @param player Player to load
      */
     public LoadedInventory load(Player player) {
@@ -36,6 +36,16 @@ public final class LoadedInventory {
         this.items = items;
     }
 
+    /**
+     * Get a copy of the inventory for the given player entity
+     * Used when items are loaded concurrently with the player entity
+     *
+     * @param player The loaded player entity
+     */
+    public LoadedInventory with(Player player) {
+        return new LoadedInventory(player, items);
+    }
+
     /**
      * Attach the inventory to its owner
      */
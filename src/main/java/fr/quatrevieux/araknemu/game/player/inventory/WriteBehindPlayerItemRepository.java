@@ -0,0 +1,482 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.player.inventory;
+
+import fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException;
+import fr.quatrevieux.araknemu.core.dbal.repository.RepositoryException;
+import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
+import fr.quatrevieux.araknemu.core.event.Listener;
+import fr.quatrevieux.araknemu.data.living.entity.player.Player;
+import fr.quatrevieux.araknemu.data.living.entity.player.PlayerItem;
+import fr.quatrevieux.araknemu.data.living.repository.player.PlayerItemRepository;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
+import fr.quatrevieux.araknemu.game.event.SavingGame;
+import fr.quatrevieux.araknemu.game.listener.player.inventory.FlushInventoryChanges;
+import fr.quatrevieux.araknemu.game.player.event.PlayerLoaded;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+
+/**
+ * Write-behind layer for {@link PlayerItemRepository}
+ *
+ * Write operations are not executed immediately, but pushed into a queue which is flushed by a background thread
+ * using batch queries. Consecutive operations on the same item (i.e. same player id and entry id) are merged,
+ * so only the last state of the item is written.
+ *
+ * To keep read operations consistent, pending writes of the requested player are flushed before any read.
+ * The queue is also flushed on logout, on world save, and when the server stops.
+ *
+ * All operations of a flush are written in a single transaction. If this transaction fails, operations are written
+ * one by one, and failed operations are pushed back into the queue. A retry flush is scheduled, with a delay doubled on each attempt.
+ * An operation on a missing item, or which fails {@link WriteBehindPlayerItemRepository#MAX_ATTEMPTS} times, is discarded.
+ */
+public final class WriteBehindPlayerItemRepository implements PlayerItemRepository, EventsSubscriber {
+    /**
+     * Maximum number of write attempts of a single operation
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * Delay before the first retry of a failed operation, in milliseconds
+     * The delay is doubled on each attempt
+     */
+    public static final long RETRY_DELAY = 1000;
+
+    private final PlayerItemRepository repository;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    private final ConcurrentMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private volatile Duration lastFlushDuration = Duration.ZERO;
+    private volatile int lastFlushSize = 0;
+
+    /**
+     * @param repository The real repository
+     * @param executor Executor used to perform flush in background
+     * @param logger Logger used to log write errors
+     */
+    public WriteBehindPlayerItemRepository(PlayerItemRepository repository, ScheduledExecutorService executor, Logger logger) {
+        this.repository = repository;
+        this.executor = executor;
+        this.logger = logger;
+    }
+
+    /**
+     * Create the repository with its own flush thread
+     *
+     * @param repository The real repository
+     * @param logger Logger used to log write errors
+     */
+    public WriteBehindPlayerItemRepository(PlayerItemRepository repository, Logger logger) {
+        this(repository, ExecutorFactory.createSingleThread(), logger);
+    }
+
+    @Override
+    public void initialize() throws RepositoryException {
+        repository.initialize();
+    }
+
+    @Override
+    public void destroy() throws RepositoryException {
+        pending.clear();
+        repository.destroy();
+    }
+
+    @Override
+    public PlayerItem add(PlayerItem entity) throws RepositoryException {
+        push(new PendingWrite(Operation.INSERT, entity));
+
+        return entity;
+    }
+
+    @Override
+    public void update(PlayerItem item) {
+        push(new PendingWrite(Operation.UPDATE, item));
+    }
+
+    @Override
+    public void delete(PlayerItem item) {
+        push(new PendingWrite(Operation.DELETE, item));
+    }
+
+    @Override
+    public void saveChanges(Collection<PlayerItem> deleted, Collection<PlayerItem> added, Collection<PlayerItem> updated) {
+        deleted.forEach(this::delete);
+        added.forEach(this::add);
+        updated.forEach(this::update);
+    }
+
+    @Override
+    public PlayerItem get(PlayerItem entity) throws RepositoryException {
+        flush(entity.playerId());
+
+        return repository.get(entity);
+    }
+
+    @Override
+    public boolean has(PlayerItem entity) throws RepositoryException {
+        flush(entity.playerId());
+
+        return repository.has(entity);
+    }
+
+    @Override
+    public Collection<PlayerItem> byPlayer(Player player) {
+        flush(player.id());
+
+        return repository.byPlayer(player);
+    }
+
+    @Override
+    public Map<Integer, List<PlayerItem>> forCharacterList(int serverId, int accountId, int[] positions) {
+        flush();
+
+        return repository.forCharacterList(serverId, accountId, positions);
+    }
+
+    /**
+     * Write all pending operations to the database
+     * This method is blocking
+     */
+    public void flush() {
+        flush(key -> true);
+    }
+
+    /**
+     * Write all pending operations of the given player to the database
+     * This method is blocking
+     *
+     * @param playerId The player id
+     */
+    public void flush(int playerId) {
+        flush(key -> (int) (key >> 32) == playerId);
+    }
+
+    /**
+     * Request an asynchronous flush of the queue
+     * If a flush is already scheduled, this method will do nothing
+     * If the executor is stopped, the flush is performed synchronously
+     */
+    public void scheduleFlush() {
+        if (executor.isShutdown()) {
+            flush();
+            return;
+        }
+
+        if (flushScheduled.getAndSet(true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // The executor is stopped : perform the flush synchronously
+            flushScheduled.set(false);
+            flush();
+        }
+    }
+
+    /**
+     * Get the number of pending write operations
+     */
+    public int queueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Get the duration of the last flush
+     */
+    public Duration lastFlushDuration() {
+        return lastFlushDuration;
+    }
+
+    /**
+     * Get the number of operations written by the last flush
+     */
+    public int lastFlushSize() {
+        return lastFlushSize;
+    }
+
+    @Override
+    public Listener[] listeners() {
+        return new Listener[] {
+            new Listener<PlayerLoaded>() {
+                @Override
+                public void on(PlayerLoaded event) {
+                    event.player().dispatcher().add(new FlushInventoryChanges(WriteBehindPlayerItemRepository.this));
+                }
+
+                @Override
+                public Class<PlayerLoaded> event() {
+                    return PlayerLoaded.class;
+                }
+            },
+            new Listener<SavingGame>() {
+                @Override
+                public void on(SavingGame event) {
+                    flush();
+                }
+
+                @Override
+                public Class<SavingGame> event() {
+                    return SavingGame.class;
+                }
+            },
+            new Listener<GameStopped>() {
+                @Override
+                public void on(GameStopped event) {
+                    executor.shutdown();
+                    flush();
+                }
+
+                @Override
+                public Class<GameStopped> event() {
+                    return GameStopped.class;
+                }
+            },
+        };
+    }
+
+    /**
+     * Push the operation to the queue, merging it with the pending operation of the same item
+     */
+    @SuppressWarnings("methodref.return") // A null merge result removes the entry, which is supported by Map#merge()
+    private void push(PendingWrite write) {
+        final PlayerItem item = write.item;
+
+        pending.merge(((long) item.playerId() << 32) | (item.entryId() & 0xFFFFFFFFL), write, PendingWrite::merge);
+        scheduleFlush();
+    }
+
+    /**
+     * Push back a failed operation to the queue
+     * Operations pushed since the extraction of the failed one are newer, so they are merged after it
+     */
+    @SuppressWarnings("return") // A null merge result removes the entry, which is supported by Map#merge()
+    private void retry(long key, PendingWrite write) {
+        if (write.attempts >= MAX_ATTEMPTS) {
+            logger.error("Cannot write inventory change of item " + write.item.entryId() + " of player " + write.item.playerId() + " after " + write.attempts + " attempts. The change is lost");
+            return;
+        }
+
+        pending.merge(key, write, (newer, failed) -> failed.merge(newer));
+        scheduleRetry(write.attempts);
+    }
+
+    /**
+     * Schedule a flush for retrying failed operations
+     * If the executor is stopped, nothing is done : the queue is flushed when the server stops
+     *
+     * @param attempts Number of failed attempts. Used to compute the delay
+     */
+    private void scheduleRetry(int attempts) {
+        if (executor.isShutdown()) {
+            return;
+        }
+
+        try {
+            executor.schedule(this::scheduleFlush, RETRY_DELAY << (attempts - 1), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The executor is stopped
+        }
+    }
+
+    /**
+     * Extract matching operations from the queue, and write them using batch queries
+     *
+     * This method is synchronized to ensure that operations on the same item are written in order
+     */
+    private synchronized void flush(LongPredicate filter) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final Map<Long, PendingWrite> writes = new HashMap<>();
+        final List<PlayerItem> inserts = new ArrayList<>();
+        final List<PlayerItem> updates = new ArrayList<>();
+        final List<PlayerItem> deletes = new ArrayList<>();
+
+        for (Long key : pending.keySet()) {
+            if (!filter.test(key)) {
+                continue;
+            }
+
+            final PendingWrite write = pending.remove(key);
+
+            if (write == null) {
+                continue;
+            }
+
+            writes.put(key, write.attempt());
+            write.appendTo(deletes, inserts, updates);
+        }
+
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        try {
+            repository.saveChanges(deletes, inserts, updates);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot write " + writes.size() + " inventory changes in a single transaction. Write them one by one", e);
+
+            writes.forEach(this::writeSingle);
+        }
+
+        lastFlushSize = writes.size();
+        lastFlushDuration = Duration.ofNanos(System.nanoTime() - start);
+
+        logger.debug(
+            "Inventory changes flushed : {} writes in {}ms ({} pending)",
+            lastFlushSize,
+            lastFlushDuration.toMillis(),
+            pending.size()
+        );
+    }
+
+    /**
+     * Write a single operation in its own transaction
+     * If the write fails, the operation is pushed back into the queue
+     */
+    private void writeSingle(long key, PendingWrite write) {
+        final List<PlayerItem> inserts = new ArrayList<>(1);
+        final List<PlayerItem> updates = new ArrayList<>(1);
+        final List<PlayerItem> deletes = new ArrayList<>(1);
+
+        write.appendTo(deletes, inserts, updates);
+
+        try {
+            repository.saveChanges(deletes, inserts, updates);
+        } catch (EntityNotFoundException e) {
+            // Retrying will not help : discard the operation
+            logger.error("Cannot write inventory change of item " + write.item.entryId() + " of player " + write.item.playerId() + " : the item is not found", e);
+        } catch (RuntimeException e) {
+            logger.error("Cannot write inventory change of item " + write.item.entryId() + " of player " + write.item.playerId() + ". It will be retried", e);
+            retry(key, write);
+        }
+    }
+
+    private enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE,
+
+        /**
+         * The item is deleted, and then inserted again
+         */
+        REPLACE,
+    }
+
+    private static final class PendingWrite {
+        private final Operation operation;
+        private final PlayerItem item;
+
+        /**
+         * Number of failed writes of this operation
+         */
+        private final int attempts;
+
+        public PendingWrite(Operation operation, PlayerItem item) {
+            this(operation, item, 0);
+        }
+
+        private PendingWrite(Operation operation, PlayerItem item, int attempts) {
+            this.operation = operation;
+            this.item = item;
+            this.attempts = attempts;
+        }
+
+        /**
+         * Create a new instance with an incremented number of attempts
+         */
+        public PendingWrite attempt() {
+            return new PendingWrite(operation, item, attempts + 1);
+        }
+
+        /**
+         * Add the item to the lists corresponding to the operation
+         */
+        public void appendTo(List<PlayerItem> deletes, List<PlayerItem> inserts, List<PlayerItem> updates) {
+            switch (operation) {
+                case INSERT:
+                    inserts.add(item);
+                    break;
+
+                case UPDATE:
+                    updates.add(item);
+                    break;
+
+                case REPLACE:
+                    deletes.add(item);
+                    inserts.add(item);
+                    break;
+
+                default:
+                    deletes.add(item);
+            }
+        }
+
+        /**
+         * Merge the pending operation with the next one
+         *
+         * @return The merged operation, or null if operations cancel each other
+         */
+        public @Nullable PendingWrite merge(PendingWrite next) {
+            // Keep the attempts count of the failed operation when it's pushed back into the queue
+            final int attempts = Math.max(this.attempts, next.attempts);
+
+            switch (operation) {
+                case INSERT:
+                    // The item is not yet stored : a deletion cancels the insert
+                    return next.operation == Operation.DELETE ? null : new PendingWrite(Operation.INSERT, next.item, attempts);
+
+                case DELETE:
+                    return next.operation == Operation.INSERT ? new PendingWrite(Operation.REPLACE, next.item, attempts) : new PendingWrite(operation, item, attempts);
+
+                case REPLACE:
+                    return next.operation == Operation.DELETE ? new PendingWrite(Operation.DELETE, next.item, attempts) : new PendingWrite(Operation.REPLACE, next.item, attempts);
+
+                default:
+                    return new PendingWrite(next.operation, next.item, attempts);
+            }
+        }
+    }
+}
@@ -21,7 +21,6 @@ package fr.quatrevieux.araknemu.game.player.inventory.itemset;
 
 import fr.quatrevieux.araknemu.data.world.entity.item.ItemTemplate;
 import fr.quatrevieux.araknemu.game.item.GameItemSet;
-import fr.quatrevieux.araknemu.game.item.effect.CharacteristicEffect;
 import fr.quatrevieux.araknemu.game.item.effect.SpecialEffect;
 import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.game.world.creature.characteristics.MutableCharacteristics;
@@ -77,9 +76,7 @@ public final class PlayerItemSet {
      * Apply item set effects to player characteristics
      */
     public void apply(MutableCharacteristics characteristics) {
-        for (CharacteristicEffect effect : bonus().characteristics()) {
-            characteristics.add(effect.characteristic(), effect.boost());
-        }
+        characteristics.merge(bonus().boost());
     }
 
     /**
@@ -27,6 +27,8 @@ import fr.quatrevieux.araknemu.game.spell.SpellService;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -61,6 +63,11 @@ public final class PlayerRaceService implements PreloadableService {
         return "player.race";
     }
 
+    @Override
+    public Collection<String> dependencies() {
+        return Collections.singletonList("spell");
+    }
+
     /**
      * Get a player race data
      */
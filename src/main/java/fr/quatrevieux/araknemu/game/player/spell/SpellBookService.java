@@ -39,6 +39,8 @@ import fr.quatrevieux.araknemu.game.player.race.PlayerRaceService;
 import fr.quatrevieux.araknemu.game.spell.SpellLevels;
 import fr.quatrevieux.araknemu.game.spell.SpellService;
 
+import java.util.Collection;
+
 /**
  * Service for handle player spells
  */
@@ -83,10 +85,23 @@ public final class SpellBookService implements EventsSubscriber {
      * Load the spell book
      */
     public SpellBook load(Dispatcher dispatcher, Player player) {
+        return load(dispatcher, player, fetch(player));
+    }
+
+    /**
+     * Load the spell book from already fetched spells
+     *
+     * @param dispatcher The event dispatcher
+     * @param player The player entity
+     * @param spells The player spells
+     *
+     * @see SpellBookService#fetch(Player) For fetch spells entities
+     */
+    public SpellBook load(Dispatcher dispatcher, Player player, Collection<PlayerSpell> spells) {
         final SpellBook spellBook = new SpellBook(dispatcher, player);
 
         // Add player spells
-        for (PlayerSpell spell : repository.byPlayer(player)) {
+        for (PlayerSpell spell : spells) {
             spellBook.addEntry(spell, service.get(spell.spellId()));
         }
 
@@ -102,4 +117,14 @@ public final class SpellBookService implements EventsSubscriber {
 
         return spellBook;
     }
+
+    /**
+     * Fetch the spells entities of the player from database
+     * Only the player id is used, so a criteria entity can be used
+     *
+     * @param player The player
+     */
+    public Collection<PlayerSpell> fetch(Player player) {
+        return repository.byPlayer(player);
+    }
 }
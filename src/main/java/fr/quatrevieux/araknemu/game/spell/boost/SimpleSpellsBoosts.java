@@ -91,7 +91,8 @@ public final class SimpleSpellsBoosts implements SpellsBoosts {
             return spell;
         }
 
-        return new BoostedSpell(spell, new MapSpellModifiers(spell.id(), modifiers));
+        // Copy the modifiers : the boosted spell must not change when the boosts are modified
+        return new BoostedSpell(spell, new MapSpellModifiers(spell.id(), new EnumMap<>(modifiers)));
     }
 
     @Override
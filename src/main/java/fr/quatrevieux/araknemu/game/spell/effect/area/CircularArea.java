@@ -25,34 +25,60 @@ import fr.arakne.utils.maps.MapCell;
 import fr.quatrevieux.araknemu.data.value.EffectArea;
 import org.checkerframework.checker.index.qual.NonNegative;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 /**
  * Area with circular form around center cell
+ *
+ * The relative coordinates of the area cells are computed once, on the constructor,
+ * so the resolution only iterates over cells of the area instead of all cells of the map
  */
 public final class CircularArea implements SpellEffectArea {
     private final EffectArea area;
-    private final Predicate<Integer> distanceChecker;
 
-    public CircularArea(EffectArea area, Predicate<Integer> distanceChecker) {
+    /**
+     * Relative coordinates of the area cells, from the center cell
+     * Each cell is represented by a pair of values : x offset followed by y offset
+     */
+    private final int[] offsets;
+
+    /**
+     * @param area The area
+     * @param distanceChecker Check if a cell at the given distance from the center is part of the area. Only distances lower or equal to the area size are checked.
+     */
+    public CircularArea(EffectArea area, IntPredicate distanceChecker) {
         this.area = area;
-        this.distanceChecker = distanceChecker;
+        this.offsets = computeOffsets(area.size(), distanceChecker);
     }
 
     @Override
     public <C extends MapCell> Set<C> resolve(C target, C source) {
-        final Set<C> cells = new HashSet<>();
+        final Set<C> cells = new HashSet<>(offsets.length);
         final DofusMap<C> map = target.map();
         final CoordinateCell<C> center = target.coordinate();
+        final int width = map.dimensions().width();
+        final int size = map.size();
 
-        for (int i = 0; i < map.size(); ++i) {
-            final CoordinateCell<C> cell = map.get(i).coordinate();
+        for (int i = 0; i < offsets.length - 1; i += 2) {
+            final int x = center.x() + offsets[i];
+            final int y = center.y() + offsets[i + 1];
+            final int cellId = x * width + y * (width - 1);
 
-            if (distanceChecker.test(center.distance(cell))) {
-                cells.add(cell.cell());
+            if (cellId < 0 || cellId >= size) {
+                continue;
             }
+
+            final CoordinateCell<C> cell = map.get(cellId).coordinate();
+
+            // The coordinates are out of the map, and the cell id is wrapped to another line
+            if (cell.x() != x || cell.y() != y) {
+                continue;
+            }
+
+            cells.add(cell.cell());
         }
 
         return cells;
@@ -67,4 +93,31 @@ public final class CircularArea implements SpellEffectArea {
     public @NonNegative int size() {
         return area.size();
     }
+
+    /**
+     * Compute the relative coordinates of all cells of the area
+     *
+     * @param radius The area size
+     * @param distanceChecker The distance predicate
+     *
+     * @return Pairs of x and y offsets
+     */
+    private static int[] computeOffsets(@NonNegative int radius, IntPredicate distanceChecker) {
+        final int[] offsets = new int[2 * (2 * radius * (radius + 1) + 1)];
+        int count = 0;
+
+        for (int dx = -radius; dx <= radius; ++dx) {
+            final int maxDy = radius - Math.abs(dx);
+
+            for (int dy = -maxDy; dy <= maxDy; ++dy) {
+                if (distanceChecker.test(Math.abs(dx) + Math.abs(dy)) && count < offsets.length - 1) {
+                    offsets[count] = dx;
+                    offsets[count + 1] = dy;
+                    count += 2;
+                }
+            }
+        }
+
+        return Arrays.copyOf(offsets, count);
+    }
 }
@@ -22,28 +22,64 @@ package fr.quatrevieux.araknemu.game.world.creature.characteristics;
 import fr.quatrevieux.araknemu.data.constant.Characteristic;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Simple implementation for characteristics map
+ *
+ * Values are stored into a primitive array indexed by the characteristic ordinal,
+ * so get and add operations do not perform any boxing or hash lookup
  */
+@SuppressWarnings("array.access.unsafe.high") // values has one element per characteristic
 public final class DefaultCharacteristics implements MutableCharacteristics {
-    private final Map<Characteristic, Integer> map = new EnumMap<>(Characteristic.class);
+    private static final Characteristic[] CHARACTERISTICS = Characteristic.values();
+
+    private final int[] values;
+
+    public DefaultCharacteristics() {
+        this(new int[CHARACTERISTICS.length]);
+    }
+
+    private DefaultCharacteristics(int[] values) {
+        this.values = values;
+    }
 
     @Override
     public int get(Characteristic characteristic) {
-        return map.getOrDefault(characteristic, 0);
+        return values[characteristic.ordinal()];
     }
 
     @Override
     public void set(Characteristic characteristic, int value) {
-        map.put(characteristic, value);
+        values[characteristic.ordinal()] = value;
     }
 
     @Override
     public void add(Characteristic characteristic, int value) {
-        map.put(characteristic, map.getOrDefault(characteristic, 0) + value);
+        values[characteristic.ordinal()] += value;
+    }
+
+    @Override
+    public void merge(Characteristics other) {
+        if (other instanceof DefaultCharacteristics) {
+            final int[] otherValues = ((DefaultCharacteristics) other).values;
+
+            for (int i = 0; i < values.length; ++i) {
+                values[i] += otherValues[i];
+            }
+
+            return;
+        }
+
+        MutableCharacteristics.super.merge(other);
+    }
+
+    /**
+     * Create a copy of the current characteristics
+     * The returned instance is independent : modifying it will not change the current instance
+     */
+    public DefaultCharacteristics copy() {
+        return new DefaultCharacteristics(values.clone());
     }
 
     @Override
@@ -65,7 +101,11 @@ public final class DefaultCharacteristics implements MutableCharacteristics {
      * Two characteristics map are equals if and only if all characteristic values are equals
      */
     public boolean equals(Characteristics other) {
-        for (Characteristic characteristic : Characteristic.values()) {
+        if (other instanceof DefaultCharacteristics) {
+            return Arrays.equals(values, ((DefaultCharacteristics) other).values);
+        }
+
+        for (Characteristic characteristic : CHARACTERISTICS) {
             if (get(characteristic) != other.get(characteristic)) {
                 return false;
             }
@@ -78,7 +118,7 @@ public final class DefaultCharacteristics implements MutableCharacteristics {
     public int hashCode() {
         int h = 0;
 
-        for (Characteristic characteristic : Characteristic.values()) {
+        for (Characteristic characteristic : CHARACTERISTICS) {
             final int value = get(characteristic);
 
             if (value != 0) {
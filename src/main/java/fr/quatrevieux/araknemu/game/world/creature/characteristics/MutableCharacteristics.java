@@ -37,4 +37,19 @@ public interface MutableCharacteristics extends Characteristics {
      * @param value The value to add
      */
     public void add(Characteristic characteristic, int value);
+
+    /**
+     * Add all characteristics values of the given characteristics map
+     *
+     * @param other Characteristics to add
+     */
+    public default void merge(Characteristics other) {
+        for (Characteristic characteristic : Characteristic.values()) {
+            final int value = other.get(characteristic);
+
+            if (value != 0) {
+                add(characteristic, value);
+            }
+        }
+    }
 }
@@ -24,6 +24,8 @@ import fr.quatrevieux.araknemu.core.network.parser.Packet;
 import fr.quatrevieux.araknemu.core.network.parser.PacketParser;
 import fr.quatrevieux.araknemu.core.network.session.ConfigurableSession;
 import fr.quatrevieux.araknemu.core.network.session.SessionConfigurator;
+import fr.quatrevieux.araknemu.core.network.session.extension.PacketExecutor;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Configure packets handling for game session
@@ -31,10 +33,21 @@ import fr.quatrevieux.araknemu.core.network.session.SessionConfigurator;
 public final class GamePacketConfigurator implements SessionConfigurator.Configurator<GameSession> {
     private final Dispatcher<GameSession> dispatcher;
     private final PacketParser parser;
+    private final @Nullable PacketExecutor executor;
 
-    public GamePacketConfigurator(Dispatcher<GameSession> dispatcher, PacketParser parser) {
+    /**
+     * @param dispatcher The packet dispatcher
+     * @param parser The packet parser
+     * @param executor Executor used to handle packets. If null, packets are handled on network threads.
+     */
+    public GamePacketConfigurator(Dispatcher<GameSession> dispatcher, PacketParser parser, @Nullable PacketExecutor executor) {
         this.dispatcher = dispatcher;
         this.parser = parser;
+        this.executor = executor;
+    }
+
+    public GamePacketConfigurator(Dispatcher<GameSession> dispatcher, PacketParser parser) {
+        this(dispatcher, parser, null);
     }
 
     @Override
@@ -47,6 +60,10 @@ public final class GamePacketConfigurator implements SessionConfigurator.Configu
             next.accept(packet);
         });
 
+        if (executor != null) {
+            inner.addReceiveMiddleware(executor.middleware());
+        }
+
         inner.addReceiveMiddleware((packet, next) -> dispatcher.dispatch(session, (Packet) packet));
     }
 }
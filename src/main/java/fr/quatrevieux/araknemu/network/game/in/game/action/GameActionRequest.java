@@ -22,9 +22,11 @@ package fr.quatrevieux.araknemu.network.game.in.game.action;
 import fr.quatrevieux.araknemu.core.network.parser.Packet;
 import fr.quatrevieux.araknemu.core.network.parser.ParsePacketException;
 import fr.quatrevieux.araknemu.core.network.parser.SinglePacketParser;
-import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.common.value.qual.MinLen;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Request for start a game action
  *
@@ -54,15 +56,57 @@ public final class GameActionRequest implements Packet {
                 throw new ParsePacketException(code() + input, "Invalid Game action packet");
             }
 
-            return new GameActionRequest(
-                Integer.parseInt(input.substring(0, 3)),
-                StringUtils.split(input.substring(3), ";")
-            );
+            return new GameActionRequest(parseType(input), parseArguments(input));
         }
 
         @Override
         public @MinLen(2) String code() {
             return "GA";
         }
+
+        /**
+         * Parse the action type from the 3 first chars of the packet, without creating a substring
+         */
+        private static int parseType(@MinLen(3) String input) {
+            int type = 0;
+
+            for (int i = 0; i < 3; ++i) {
+                final char c = input.charAt(i);
+
+                if (c < '0' || c > '9') {
+                    // Not a simple number : let parseInt handle it (i.e. sign, or error)
+                    return Integer.parseInt(input.substring(0, 3));
+                }
+
+                type = type * 10 + c - '0';
+            }
+
+            return type;
+        }
+
+        /**
+         * Split arguments following the action type
+         * Empty arguments are skipped
+         */
+        private static String[] parseArguments(@MinLen(3) String input) {
+            final List<String> arguments = new ArrayList<>();
+            int start = 3;
+
+            while (start < input.length()) {
+                int end = input.indexOf(';', start);
+
+                if (end == -1) {
+                    end = input.length();
+                }
+
+                if (end > start) {
+                    arguments.add(input.substring(start, end));
+                }
+
+                start = end + 1;
+            }
+
+            return arguments.toArray(new String[0]);
+        }
     }
 }
@@ -24,6 +24,7 @@ import fr.quatrevieux.araknemu.core.network.session.Session;
 import fr.quatrevieux.araknemu.network.AccountSession;
 import fr.quatrevieux.araknemu.realm.ConnectionKey;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationAccount;
+import fr.quatrevieux.araknemu.realm.authentication.AuthenticationQueue;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -36,6 +37,7 @@ public final class RealmSession extends AbstractDelegatedSession implements Acco
     private final ConnectionKey key;
 
     private @Nullable AuthenticationAccount account;
+    private AuthenticationQueue.@Nullable Ticket queueTicket;
 
     public RealmSession(Session session) {
         super(session);
@@ -50,6 +52,23 @@ public final class RealmSession extends AbstractDelegatedSession implements Acco
         return key;
     }
 
+    /**
+     * Define the authentication queue ticket of the current session
+     */
+    public void setQueueTicket(AuthenticationQueue.Ticket queueTicket) {
+        this.queueTicket = queueTicket;
+    }
+
+    /**
+     * Get the position of the session into the authentication queue
+     * If the session has not been queued, the position 1 is returned
+     */
+    public int queuePosition() {
+        final AuthenticationQueue.Ticket queueTicket = this.queueTicket;
+
+        return queueTicket == null ? 1 : queueTicket.position();
+    }
+
     @Override
     @EnsuresNonNull({"account()", "this.account"})
     @SuppressWarnings("contracts.postcondition")
@@ -29,6 +29,7 @@ public final class LoginError {
     public static final char U_DISCONNECT_ACCOUNT = 'd';
     public static final char KICKED = 'k';
     public static final char LOGIN_ERROR = 'f';
+    public static final char SERVER_FULL = 'w';
     
     private final char errorType;
 
@@ -88,6 +88,24 @@ public final class RealmConfiguration {
         return pool.duration("banip.refresh", Duration.ofSeconds(30));
     }
 
+    /**
+     * Get the number of worker threads used to process authentication requests
+     * Each worker can verify one password at a time, so this value should be adapted to the hash cost
+     * Default: 4
+     */
+    public int authenticationWorkers() {
+        return pool.integer("authentication.workers", 4);
+    }
+
+    /**
+     * Get the maximum number of authentication requests which can wait in the queue
+     * When the queue is full, new requests are rejected with a "server full" error
+     * Default: 1000
+     */
+    public int authenticationQueueSize() {
+        return pool.integer("authentication.queueSize", 1000);
+    }
+
     /**
      * Get list of enabled hash algorithms. The algorithms are separated by a coma.
      * Available algorithms : argon2, plain
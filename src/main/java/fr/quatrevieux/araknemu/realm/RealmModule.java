@@ -52,6 +52,7 @@ import fr.quatrevieux.araknemu.network.realm.RealmSessionConfigurator;
 import fr.quatrevieux.araknemu.network.realm.in.Credentials;
 import fr.quatrevieux.araknemu.network.realm.in.DofusVersion;
 import fr.quatrevieux.araknemu.network.realm.in.RealmParserLoader;
+import fr.quatrevieux.araknemu.realm.authentication.AuthenticationQueue;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationService;
 import fr.quatrevieux.araknemu.realm.authentication.password.Argon2Hash;
 import fr.quatrevieux.araknemu.realm.authentication.password.PasswordManager;
@@ -101,7 +102,8 @@ public final class RealmModule implements ContainerModule {
                 ),
                 Arrays.asList(
                     container.get(AuthBanIpSynchronizer.class),
-                    container.get(AuthenticationService.class)
+                    container.get(AuthenticationService.class),
+                    container.get(AuthenticationQueue.class)
                 )
             )
         );
@@ -181,7 +183,17 @@ public final class RealmModule implements ContainerModule {
                 container.get(AccountRepository.class),
                 container.get(HostService.class),
                 container.get(PasswordManager.class),
-                container.get(BanishmentService.class)
+                container.get(BanishmentService.class),
+                container.get(AuthenticationQueue.class)
+            )
+        );
+
+        configurator.persist(
+            AuthenticationQueue.class,
+            container -> new AuthenticationQueue(
+                container.get(RealmConfiguration.class).authenticationWorkers(),
+                container.get(RealmConfiguration.class).authenticationQueueSize(),
+                container.get(Logger.class)
             )
         );
 
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.realm.authentication;
+
+import fr.quatrevieux.araknemu.core.event.EventsSubscriber;
+import fr.quatrevieux.araknemu.core.event.Listener;
+import fr.quatrevieux.araknemu.realm.event.AuthStopped;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of authentication tasks
+ *
+ * Tasks are executed on a dedicated worker pool, so the network threads are not blocked by password verification.
+ * Tasks are started in FIFO order, which allows to compute the position of each request into the queue.
+ */
+public final class AuthenticationQueue implements EventsSubscriber {
+    private final ExecutorService executor;
+    private final int capacity;
+    private final Logger logger;
+
+    /**
+     * Number of pushed tasks. Used as ticket number generator
+     */
+    private final AtomicLong pushed = new AtomicLong();
+
+    /**
+     * Number of started tasks
+     */
+    private final AtomicLong started = new AtomicLong();
+
+    /**
+     * Number of tasks which are waiting or running
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param executor The executor used to run authentication tasks
+     * @param capacity Maximum number of pending tasks. If this size is reached, new tasks will be rejected
+     * @param logger Logger used to log tasks errors
+     */
+    public AuthenticationQueue(ExecutorService executor, int capacity, Logger logger) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.logger = logger;
+    }
+
+    /**
+     * Create the queue with its own worker pool
+     *
+     * @param workers Number of worker threads
+     * @param capacity Maximum number of pending tasks
+     * @param logger Logger used to log tasks errors
+     */
+    public AuthenticationQueue(int workers, int capacity, Logger logger) {
+        this(ExecutorFactory.create(workers), capacity, logger);
+    }
+
+    /**
+     * Push a new task to the queue
+     *
+     * @param task The authentication task to execute
+     *
+     * @return The queue ticket, or null if the queue is full
+     */
+    public @Nullable Ticket push(Runnable task) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return null;
+        }
+
+        final Ticket ticket = new Ticket(pushed.incrementAndGet());
+
+        try {
+            executor.execute(() -> {
+                started.incrementAndGet();
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Error during authentication process", e);
+                } finally {
+                    size.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            size.decrementAndGet();
+            return null;
+        }
+
+        return ticket;
+    }
+
+    /**
+     * Get the number of tasks which are waiting or running
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Stop the worker pool
+     * Pending tasks will be cancelled
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Listener[] listeners() {
+        return new Listener[] {
+            new Listener<AuthStopped>() {
+                @Override
+                public void on(AuthStopped event) {
+                    shutdown();
+                }
+
+                @Override
+                public Class<AuthStopped> event() {
+                    return AuthStopped.class;
+                }
+            },
+        };
+    }
+
+    /**
+     * Ticket of a queued task
+     */
+    public final class Ticket {
+        private final long number;
+
+        private Ticket(long number) {
+            this.number = number;
+        }
+
+        /**
+         * Get the current position of the task into the queue
+         * The position starts at 1, which means that the task will be executed soon, or is currently running
+         */
+        public int position() {
+            return (int) Math.max(number - started.get(), 1);
+        }
+
+        /**
+         * Check if the task has been started
+         */
+        public boolean started() {
+            return number <= started.get();
+        }
+    }
+}
@@ -57,4 +57,15 @@ public interface AuthenticationRequest {
      * Called when account is banned
      */
     public void banned();
+
+    /**
+     * Called when the request is pushed into the authentication queue
+     * The ticket can be used to get the position of the request into the queue
+     */
+    public void queued(AuthenticationQueue.Ticket ticket);
+
+    /**
+     * Called when the authentication queue is full
+     */
+    public void serverFull();
 }
@@ -30,9 +30,6 @@ import fr.quatrevieux.araknemu.realm.host.HostService;
 import fr.quatrevieux.araknemu.realm.listener.SendUpdatedHostList;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -45,11 +42,13 @@ public final class AuthenticationService implements EventsSubscriber {
     private final PasswordManager passwordManager;
     private final BanishmentService<AuthenticationAccount> banishmentService;
 
+    private final AuthenticationQueue queue;
+
     /**
-     * Set of accounts which wait for authentication process
+     * Accounts which wait for authentication process, indexed by account id
      * There are loaded, but not yet authenticated
      */
-    private final Set<AuthenticationAccount> pending = Collections.synchronizedSet(new HashSet<>());
+    private final ConcurrentMap<Integer, AuthenticationAccount> pending = new ConcurrentHashMap<>();
 
     /**
      * Map of authenticated accounts
@@ -57,60 +56,29 @@ public final class AuthenticationService implements EventsSubscriber {
      */
     private final ConcurrentMap<Integer, AuthenticationAccount> authenticated = new ConcurrentHashMap<>();
 
-    public AuthenticationService(AccountRepository repository, HostService hosts, PasswordManager passwordManager, BanishmentService<AuthenticationAccount> banishmentService) {
+    public AuthenticationService(AccountRepository repository, HostService hosts, PasswordManager passwordManager, BanishmentService<AuthenticationAccount> banishmentService, AuthenticationQueue queue) {
         this.repository = repository;
         this.hosts = hosts;
         this.passwordManager = passwordManager;
         this.banishmentService = banishmentService;
+        this.queue = queue;
     }
 
     /**
      * Perform authenticate request
      *
-     * This method is synchronized to ensure that two account are not requested login
-     * in the same time
+     * The request is pushed into the authentication queue, and processed asynchronously by a worker thread.
+     * Requests on different accounts are processed in parallel, but only one login process can be performed
+     * at the same time for a given account.
      */
-    public synchronized void authenticate(AuthenticationRequest request) {
-        final AuthenticationAccount account;
-
-        try {
-            account = getAccount(request.username());
-        } catch (EntityNotFoundException e) {
-            request.invalidCredentials();
-            return;
-        }
+    public void authenticate(AuthenticationRequest request) {
+        final AuthenticationQueue.Ticket ticket = queue.push(() -> process(request));
 
-        if (banishmentService.isBanned(account)) {
-            request.banned();
-            return;
+        if (ticket == null) {
+            request.serverFull();
+        } else {
+            request.queued(ticket);
         }
-
-        if (!account.password().check(request.password())) {
-            request.invalidCredentials();
-            return;
-        }
-
-        passwordManager.rehash(account.password(), request.password(), account::updatePassword);
-
-        if (
-            isAuthenticated(account)
-            || pending.contains(account)
-        ) {
-            request.alreadyConnected();
-            return;
-        }
-
-        pending.add(account);
-
-        hosts.checkLogin(account, response -> {
-            if (response) {
-                request.isPlaying();
-            } else {
-                request.success(account);
-            }
-
-            pending.remove(account);
-        });
     }
 
     /**
@@ -154,6 +122,62 @@ public final class AuthenticationService implements EventsSubscriber {
         repository.savePassword(account);
     }
 
+    /**
+     * Process the authentication request on the worker thread
+     */
+    private void process(AuthenticationRequest request) {
+        final AuthenticationAccount account;
+
+        try {
+            account = getAccount(request.username());
+        } catch (EntityNotFoundException e) {
+            request.invalidCredentials();
+            return;
+        }
+
+        // Credentials are checked before reserving the account, so an invalid request cannot lock the account
+        if (banishmentService.isBanned(account)) {
+            request.banned();
+            return;
+        }
+
+        if (!account.password().check(request.password())) {
+            request.invalidCredentials();
+            return;
+        }
+
+        // Reserve the account, so the login state is checked and updated by only one worker
+        if (pending.putIfAbsent(account.id(), account) != null) {
+            request.alreadyConnected();
+            return;
+        }
+
+        try {
+            if (isAuthenticated(account)) {
+                pending.remove(account.id());
+                request.alreadyConnected();
+                return;
+            }
+
+            passwordManager.rehash(account.password(), request.password(), account::updatePassword);
+
+            hosts.checkLogin(account, response -> {
+                if (response) {
+                    request.isPlaying();
+                } else {
+                    request.success(account);
+                }
+
+                pending.remove(account.id());
+            });
+        } catch (RuntimeException e) {
+            pending.remove(account.id());
+            request.invalidCredentials();
+
+            throw e;
+        }
+    }
+
     private AuthenticationAccount getAccount(String username) {
         final Account account = repository.findByUsername(username);
 
@@ -25,15 +25,12 @@ import fr.quatrevieux.araknemu.network.out.QueuePosition;
 import fr.quatrevieux.araknemu.network.realm.RealmSession;
 
 /**
- * Check the queue position (Af packet)
- * @todo to implements
- *
- * Empty class to not fail for not found handler
+ * Check the authentication queue position (Af packet)
  */
 public final class CheckQueuePosition implements PacketHandler<RealmSession, AskQueuePosition> {
     @Override
     public void handle(RealmSession session, AskQueuePosition packet) {
-        session.send(new QueuePosition(1));
+        session.send(new QueuePosition(session.queuePosition()));
     }
 
     @Override
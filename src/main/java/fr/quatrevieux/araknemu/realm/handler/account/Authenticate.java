@@ -30,6 +30,7 @@ import fr.quatrevieux.araknemu.network.realm.out.LoginError;
 import fr.quatrevieux.araknemu.network.realm.out.Pseudo;
 import fr.quatrevieux.araknemu.network.realm.out.Question;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationAccount;
+import fr.quatrevieux.araknemu.realm.authentication.AuthenticationQueue;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationRequest;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationService;
 import fr.quatrevieux.araknemu.realm.host.HostService;
@@ -113,5 +114,16 @@ public final class Authenticate implements PacketHandler<RealmSession, Credentia
             session.send(new LoginError(LoginError.BANNED));
             session.close();
         }
+
+        @Override
+        public void queued(AuthenticationQueue.Ticket ticket) {
+            session.setQueueTicket(ticket);
+        }
+
+        @Override
+        public void serverFull() {
+            session.send(new LoginError(LoginError.SERVER_FULL));
+            session.close();
+        }
     }
 }
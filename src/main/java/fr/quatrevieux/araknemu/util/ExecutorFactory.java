@@ -19,13 +19,17 @@
 
 package fr.quatrevieux.araknemu.util;
 
+import org.checkerframework.checker.index.qual.Positive;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.nullness.util.NullnessUtil;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +79,45 @@ public final class ExecutorFactory {
         return Executors.newScheduledThreadPool(corePoolSize);
     }
 
+    /**
+     * Create an executor service for short living tasks
+     *
+     * If the JVM supports virtual threads (i.e. Java 21 or higher), a new virtual thread is started for each task,
+     * otherwise a fixed thread pool is used.
+     * If testing mode is enabled, a TestingExecutor is returned
+     *
+     * @param maxThreads Number of threads of the pool. Ignored if virtual threads are supported
+     */
+    @SuppressWarnings("argument") // Static method call with reflection requires a null receiver
+    public static ExecutorService createWorkers(int maxThreads) {
+        if (testing) {
+            return createTestingExecutor();
+        }
+
+        try {
+            // Use reflection because the project targets Java 8
+            return (ExecutorService) NullnessUtil.castNonNull(Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxThreads);
+        }
+    }
+
+    /**
+     * Create a work-stealing pool for short computation tasks which may be executed in parallel
+     * If testing mode is enabled, a TestingExecutor is returned
+     *
+     * @param parallelism The number of worker threads
+     *
+     * @see ForkJoinPool#ForkJoinPool(int)
+     */
+    public static ExecutorService createForkJoinPool(@Positive int parallelism) {
+        if (testing) {
+            return createTestingExecutor();
+        }
+
+        return new ForkJoinPool(parallelism);
+    }
+
     /**
      * Enable testing mode
      *
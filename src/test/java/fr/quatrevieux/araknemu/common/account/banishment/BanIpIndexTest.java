@@ -0,0 +1,179 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2020 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.common.account.banishment;
+
+import fr.quatrevieux.araknemu.data.living.entity.BanIp;
+import inet.ipaddr.IPAddressString;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BanIpIndexTest {
+    private int lastId = 0;
+
+    @Test
+    void findEmpty() {
+        assertNull(BanIpIndex.of(Collections.emptyList()).find(new IPAddressString("1.2.3.4")));
+    }
+
+    @Test
+    void findSingleAddress() {
+        BanIp banIp = banIp("1.2.3.4");
+        BanIpIndex index = BanIpIndex.of(Collections.singleton(banIp));
+
+        assertSame(banIp, index.find(new IPAddressString("1.2.3.4")));
+        assertNull(index.find(new IPAddressString("1.2.3.5")));
+        assertNull(index.find(new IPAddressString("::1")));
+    }
+
+    @Test
+    void findRanges() {
+        BanIp cidr = banIp("10.0.0.0/8");
+        BanIp wildcard = banIp("192.168.1.*");
+        BanIp range = banIp("172.16.0.1-5");
+        BanIp ipv6 = banIp("2001:db8::/32");
+        BanIpIndex index = BanIpIndex.of(Arrays.asList(cidr, wildcard, range, ipv6));
+
+        assertSame(cidr, index.find(new IPAddressString("10.15.2.3")));
+        assertSame(wildcard, index.find(new IPAddressString("192.168.1.254")));
+        assertSame(range, index.find(new IPAddressString("172.16.0.3")));
+        assertSame(ipv6, index.find(new IPAddressString("2001:db8:1::5")));
+
+        assertNull(index.find(new IPAddressString("11.0.0.1")));
+        assertNull(index.find(new IPAddressString("192.168.2.1")));
+        assertNull(index.find(new IPAddressString("172.16.0.6")));
+        assertNull(index.find(new IPAddressString("2001:db9::1")));
+    }
+
+    @Test
+    void findShouldReturnMostSpecificRule() {
+        BanIp wide = banIp("10.0.0.0/8");
+        BanIp narrow = banIp("10.1.0.0/16");
+        BanIp single = banIp("10.1.2.3");
+        BanIpIndex index = BanIpIndex.of(Arrays.asList(single, wide, narrow));
+
+        assertSame(single, index.find(new IPAddressString("10.1.2.3")));
+        assertSame(narrow, index.find(new IPAddressString("10.1.2.4")));
+        assertSame(wide, index.find(new IPAddressString("10.2.2.4")));
+    }
+
+    @Test
+    void findShouldIgnoreExpiredRules() {
+        BanIp expired = new BanIp(++lastId, new IPAddressString("10.1.0.0/16"), Instant.now(), Instant.now().minus(1, ChronoUnit.HOURS), "", -1);
+        BanIp active = banIp("10.0.0.0/8");
+        BanIpIndex index = BanIpIndex.of(Arrays.asList(expired, active));
+
+        assertSame(active, index.find(new IPAddressString("10.1.2.3")));
+        assertNull(BanIpIndex.of(Collections.singleton(expired)).find(new IPAddressString("10.1.2.3")));
+    }
+
+    @Test
+    void addShouldNotModifyOriginalIndex() {
+        BanIpIndex index = BanIpIndex.of(Collections.singleton(banIp("10.0.0.0/8")));
+        BanIp banIp = banIp("12.0.0.0/8");
+        BanIpIndex newIndex = index.add(banIp);
+
+        assertNull(index.find(new IPAddressString("12.0.0.1")));
+        assertSame(banIp, newIndex.find(new IPAddressString("12.0.0.1")));
+    }
+
+    @Test
+    void remove() {
+        BanIp wide = banIp("10.0.0.0/8");
+        BanIp narrow = banIp("10.1.0.0/16");
+        BanIp other = banIp("10.128.0.0/16");
+        BanIp range = banIp("172.16.0.1-5");
+        BanIpIndex index = BanIpIndex.of(Arrays.asList(wide, narrow, other, range));
+
+        BanIpIndex newIndex = index.remove(wide).remove(range);
+
+        assertSame(narrow, newIndex.find(new IPAddressString("10.1.2.3")));
+        assertSame(other, newIndex.find(new IPAddressString("10.128.2.3")));
+        assertNull(newIndex.find(new IPAddressString("10.2.2.3")));
+        assertNull(newIndex.find(new IPAddressString("172.16.0.3")));
+
+        assertSame(wide, index.find(new IPAddressString("10.2.2.3")));
+        assertSame(range, index.find(new IPAddressString("172.16.0.3")));
+
+        newIndex = newIndex.remove(narrow);
+        assertSame(other, newIndex.find(new IPAddressString("10.128.2.3")));
+        assertNull(newIndex.find(new IPAddressString("10.1.2.3")));
+    }
+
+    @Test
+    void removeShouldUseRuleId() {
+        BanIp banIp = banIp("10.0.0.0/8");
+        BanIpIndex index = BanIpIndex.of(Collections.singleton(banIp));
+
+        assertNull(index.remove(new BanIp(banIp.id(), banIp.ipAddress(), Instant.now(), null, "updated", -1)).find(new IPAddressString("10.1.2.3")));
+        assertSame(banIp, index.remove(banIp("10.0.0.0/8")).find(new IPAddressString("10.1.2.3")));
+        assertSame(index, index.remove(banIp("1.2.3.4-6")));
+    }
+
+    @Test
+    void findShouldBeSameAsContainsOnManyRanges() {
+        Random random = new Random(42);
+        List<BanIp> rules = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; ++i) {
+            final int prefix = 8 + random.nextInt(25);
+            final int address = random.nextInt() & (prefix == 32 ? -1 : ~(-1 >>> prefix));
+
+            rules.add(banIp(ipv4(address) + "/" + prefix));
+        }
+
+        BanIpIndex index = BanIpIndex.of(rules);
+
+        for (int i = 0; i < 1000; ++i) {
+            // Pick an address inside a rule, or a random one
+            final IPAddressString address = new IPAddressString(
+                i % 2 == 0
+                    ? ipv4(random.nextInt())
+                    : ipv4(rules.get(random.nextInt(rules.size())).ipAddress().getAddress().getLower().getValue().intValue() + random.nextInt(256))
+            );
+            final BanIp found = index.find(address);
+
+            if (found == null) {
+                assertEquals(0, rules.stream().filter(banIp -> banIp.ipAddress().contains(address)).count(), "No rule should match " + address);
+            } else {
+                assertTrue(found.ipAddress().contains(address), found.ipAddress() + " should contain " + address);
+            }
+        }
+    }
+
+    private BanIp banIp(String ip) {
+        return new BanIp(++lastId, new IPAddressString(ip), Instant.now(), null, "", -1);
+    }
+
+    private String ipv4(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -139,6 +139,17 @@ class BanIpServiceTest extends GameBaseCase {
         assertTrue(service.isIpBanned(new IPAddressString("145.32.213.6")));
     }
 
+    @Test
+    void isIpBannedWithRanges() {
+        service.newRule(new IPAddressString("145.32.0.0/16")).apply();
+        service.newRule(new IPAddressString("12.0.0.1-5")).apply();
+
+        assertTrue(service.isIpBanned(new IPAddressString("145.32.213.*")));
+        assertFalse(service.isIpBanned(new IPAddressString("145.33.213.*")));
+        assertTrue(service.isIpBanned(new IPAddressString("12.0.0.3")));
+        assertFalse(service.isIpBanned(new IPAddressString("12.0.0.6")));
+    }
+
     @Test
     void matching() {
         Account account = dataSet.push(new Account(-1, "banisher", "", "banisher"));
@@ -0,0 +1,276 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2019 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.dbal;
+
+import fr.quatrevieux.araknemu.core.config.DefaultConfiguration;
+import fr.quatrevieux.araknemu.core.config.IniDriver;
+import org.apache.logging.log4j.LogManager;
+import org.ini4j.Ini;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedConnectionPoolTest {
+    private Driver driver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        driver = new SQLiteDriver(
+            new DefaultConfiguration(new IniDriver(new Ini(new File("src/test/test_config.ini"))))
+                .module(DatabaseConfiguration.MODULE)
+                .connection("realm")
+        );
+    }
+
+    @Test
+    void initialize() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 2, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        assertEquals(0, pool.size());
+
+        pool.initialize();
+
+        assertEquals(2, pool.size());
+        assertEquals(2, pool.metrics().idle());
+        assertEquals(0, pool.metrics().active());
+
+        pool.close();
+    }
+
+    @Test
+    void acquireAndRelease() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        Connection connection = pool.acquire();
+
+        assertEquals(1, pool.metrics().active());
+        assertEquals(0, pool.metrics().idle());
+
+        pool.release(connection);
+
+        assertEquals(0, pool.metrics().active());
+        assertEquals(1, pool.metrics().idle());
+        assertSame(connection, pool.acquire());
+
+        pool.release(connection);
+        pool.close();
+    }
+
+    @Test
+    void acquireShouldFailOnTimeoutWhenPoolIsExhausted() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 2, Duration.ofMillis(50), true, LogManager.getLogger());
+
+        Connection connection1 = pool.acquire();
+        Connection connection2 = pool.acquire();
+
+        assertNotSame(connection1, connection2);
+        assertThrows(SQLException.class, pool::acquire);
+        assertEquals(1, pool.metrics().timeouts());
+        assertEquals(2, pool.metrics().active());
+
+        pool.release(connection1);
+        assertSame(connection1, pool.acquire());
+
+        pool.release(connection1);
+        pool.release(connection2);
+        pool.close();
+    }
+
+    @Test
+    void acquireShouldWaitForReleasedConnection() throws Exception {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(5), true, LogManager.getLogger());
+        Connection connection = pool.acquire();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        while (pool.metrics().waiting() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertFalse(waiting.isDone());
+        pool.release(connection);
+
+        assertSame(connection, waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, pool.metrics().waiting());
+
+        pool.release(connection);
+        pool.close();
+    }
+
+    @Test
+    void acquireShouldReplaceInvalidConnection() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        pool.initialize();
+
+        Connection connection = pool.acquire();
+        pool.release(connection);
+        connection.close();
+
+        Connection newConnection = pool.acquire();
+
+        assertNotSame(connection, newConnection);
+        assertTrue(newConnection.isValid(1));
+        assertEquals(1, pool.metrics().active());
+
+        pool.release(newConnection);
+        pool.close();
+    }
+
+    @Test
+    void acquireShouldNotValidateRecentlyReleasedConnection() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), true, LogManager.getLogger());
+        Connection connection = Mockito.mock(Connection.class);
+
+        pool.release(connection);
+
+        assertSame(connection, pool.acquire());
+        Mockito.verify(connection, Mockito.never()).isValid(Mockito.anyInt());
+    }
+
+    @Test
+    void acquireShouldReleasePermitOnError() throws SQLException {
+        Driver failingDriver = new Driver() {
+            @Override
+            public Connection newConnection() throws SQLException {
+                throw new SQLException("Cannot connect");
+            }
+
+            @Override
+            public String type() {
+                return "failing";
+            }
+        };
+
+        BoundedConnectionPool pool = new BoundedConnectionPool(failingDriver, 1, Duration.ofMillis(50), true, LogManager.getLogger());
+
+        assertThrows(SQLException.class, pool::acquire, "Cannot connect");
+        assertThrows(SQLException.class, pool::acquire, "Cannot connect");
+        assertEquals(0, pool.metrics().timeouts());
+        assertEquals(0, pool.metrics().active());
+    }
+
+    @Test
+    void releaseClosedConnection() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), false, LogManager.getLogger());
+
+        Connection connection = pool.acquire();
+        connection.close();
+
+        pool.release(connection);
+
+        assertEquals(0, pool.size());
+        assertNotSame(connection, pool.acquire());
+    }
+
+    @Test
+    void execute() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        assertTrue(pool.execute((ConnectionPool.Task<Boolean>) connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("create table test_table (`value` text)");
+                stmt.executeUpdate("insert into test_table values ('FOO')");
+            }
+
+            return true;
+        }));
+
+        assertEquals("FOO", pool.execute(connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                ResultSet rs = stmt.executeQuery("select * from test_table");
+
+                rs.next();
+
+                return rs.getString("value");
+            }
+        }));
+
+        pool.execute(connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("drop table test_table");
+            }
+
+            return true;
+        });
+
+        assertEquals(0, pool.metrics().active());
+        assertEquals(1, pool.metrics().idle());
+        pool.close();
+    }
+
+    @Test
+    void acquireLatency() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 1, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        assertArrayEquals(new long[] {100, 1_000, 10_000, 100_000, 1_000_000}, pool.metrics().latencyBuckets());
+        assertArrayEquals(new long[6], pool.metrics().acquireLatency());
+
+        pool.release(pool.acquire());
+        pool.release(pool.acquire());
+
+        assertEquals(2, Arrays.stream(pool.metrics().acquireLatency()).sum());
+        pool.close();
+    }
+
+    @Test
+    void close() throws SQLException {
+        BoundedConnectionPool pool = new BoundedConnectionPool(driver, 2, Duration.ofSeconds(1), true, LogManager.getLogger());
+
+        Connection connection1 = pool.acquire();
+        Connection connection2 = pool.acquire();
+
+        pool.release(connection1);
+        pool.close();
+
+        assertEquals(0, pool.size());
+        assertTrue(connection1.isClosed());
+        assertFalse(connection2.isClosed());
+
+        pool.release(connection2);
+        assertTrue(connection2.isClosed());
+        assertEquals(0, pool.size());
+    }
+}
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -91,5 +92,19 @@ class DatabaseConfigurationTest {
 
         assertTrue(config.autoReconnect());
         assertEquals(3600, config.refreshPoolInterval());
+        assertFalse(config.boundedPool());
+        assertEquals(Duration.ofSeconds(10), config.acquireTimeout());
+        assertTrue(config.validateOnBorrow());
+        assertEquals(32, config.statementCacheSize());
+    }
+
+    @Test
+    void boundedPool() {
+        DatabaseConfiguration.Connection config = configuration.connection("test_bounded");
+
+        assertTrue(config.boundedPool());
+        assertEquals(2, config.maxPoolSize());
+        assertEquals(Duration.ofMillis(500), config.acquireTimeout());
+        assertFalse(config.validateOnBorrow());
     }
 }
\ No newline at end of file
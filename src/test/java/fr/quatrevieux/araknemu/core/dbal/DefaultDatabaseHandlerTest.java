@@ -29,15 +29,19 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DefaultDatabaseHandlerTest extends TestCase {
     private DefaultDatabaseHandler handler;
@@ -113,6 +117,36 @@ class DefaultDatabaseHandlerTest extends TestCase {
         handler.stop(); // Ensure that refresh task is stopped
     }
 
+    @Test
+    void getWithStatementCache() throws Exception {
+        ConnectionPool pool = handler.get("test_ar");
+
+        Connection connection = pool.acquire();
+        PreparedStatement statement = pool.prepare(connection, "select 1", false);
+        pool.release(connection, statement);
+
+        assertSame(statement, pool.prepare(connection, "select 1", false));
+        pool.release(connection);
+    }
+
+    @Test
+    void getWithBoundedPool() throws SQLException {
+        ConnectionPool pool = handler.get("test_bounded");
+
+        assertInstanceOf(AutoReconnectConnectionPool.class, pool);
+        assertEquals(2, pool.size());
+        assertEquals(2, handler.metrics().get("test_bounded").idle());
+        assertFalse(handler.metrics().containsKey("realm"));
+
+        Connection connection = pool.acquire();
+
+        assertEquals(1, handler.metrics().get("test_bounded").active());
+        pool.release(connection);
+
+        handler.stop();
+        assertTrue(handler.metrics().isEmpty());
+    }
+
     @Test
     void stop() throws SQLException {
         ConnectionPool pool = handler.get("realm");
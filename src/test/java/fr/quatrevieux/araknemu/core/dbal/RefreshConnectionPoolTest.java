@@ -92,6 +92,24 @@ class RefreshConnectionPoolTest {
         Mockito.verify(logger).warn("Closed connection detected");
     }
 
+    @RepeatedIfExceptionsTest
+    void refreshShouldReleaseClosedConnections() throws Exception {
+        ConnectionPool inner = Mockito.mock(ConnectionPool.class);
+        Connection connection = Mockito.mock(Connection.class);
+
+        Mockito.when(inner.size()).thenReturn(1);
+        Mockito.when(inner.acquire()).thenReturn(connection);
+        Mockito.when(connection.isClosed()).thenReturn(true);
+
+        RefreshConnectionPool pool = new RefreshConnectionPool(inner, 0, logger);
+        pool.initialize();
+
+        Thread.sleep(10);
+        pool.close();
+
+        Mockito.verify(inner, Mockito.atLeast(1)).release(connection);
+    }
+
     @RepeatedIfExceptionsTest
     void refreshWithEmptyPool() throws Exception {
         Connection connection1 = pool.acquire();
@@ -0,0 +1,198 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2019 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.dbal;
+
+import fr.quatrevieux.araknemu.core.config.DefaultConfiguration;
+import fr.quatrevieux.araknemu.core.config.IniDriver;
+import org.apache.logging.log4j.Logger;
+import org.ini4j.Ini;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheConnectionPoolTest {
+    private StatementCacheConnectionPool pool;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        SQLiteDriver driver = new SQLiteDriver(
+            new DefaultConfiguration(new IniDriver(new Ini(new File("src/test/test_config.ini"))))
+                .module(DatabaseConfiguration.MODULE)
+                .connection("realm")
+        );
+
+        logger = Mockito.mock(Logger.class);
+        pool = new StatementCacheConnectionPool(new SimpleConnectionPool(driver, 2, logger), 2, logger);
+        pool.initialize();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+    }
+
+    @Test
+    void prepareShouldReuseReleasedStatement() throws SQLException {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection, "select ?", false);
+        statement.setInt(1, 5);
+
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            assertEquals(5, rs.getInt(1));
+        }
+
+        pool.release(connection, statement);
+        assertFalse(statement.isClosed());
+
+        PreparedStatement reused = pool.prepare(connection, "select ?", false);
+        assertSame(statement, reused);
+
+        reused.setInt(1, 3);
+
+        try (ResultSet rs = reused.executeQuery()) {
+            rs.next();
+            assertEquals(3, rs.getInt(1));
+        }
+
+        pool.release(connection, reused);
+
+        assertEquals(1, pool.hits());
+        assertEquals(1, pool.misses());
+        assertEquals(0.5, pool.hitRate());
+
+        pool.release(connection);
+    }
+
+    @Test
+    void prepareShouldNotShareStatementInUse() throws SQLException {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection, "select 1", false);
+        PreparedStatement other = pool.prepare(connection, "select 1", false);
+
+        assertNotSame(statement, other);
+
+        pool.release(connection, statement);
+        pool.release(connection, other);
+
+        assertTrue(other.isClosed());
+        assertSame(statement, pool.prepare(connection, "select 1", false));
+
+        pool.release(connection);
+    }
+
+    @Test
+    void prepareShouldIndexByGeneratedKeysFlag() throws SQLException {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection, "select 1", false);
+        pool.release(connection, statement);
+
+        PreparedStatement withKeys = pool.prepare(connection, "select 1", true);
+        assertNotSame(statement, withKeys);
+        pool.release(connection, withKeys);
+
+        assertSame(withKeys, pool.prepare(connection, "select 1", true));
+        assertSame(statement, pool.prepare(connection, "select 1", false));
+
+        pool.release(connection);
+    }
+
+    @Test
+    void prepareShouldNotShareStatementsBetweenConnections() throws SQLException {
+        Connection connection1 = pool.acquire();
+        Connection connection2 = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection1, "select 1", false);
+        pool.release(connection1, statement);
+
+        assertNotSame(statement, pool.prepare(connection2, "select 1", false));
+        assertSame(statement, pool.prepare(connection1, "select 1", false));
+
+        pool.release(connection1);
+        pool.release(connection2);
+    }
+
+    @Test
+    void cacheShouldEvictLeastRecentlyUsedStatement() throws SQLException {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement1 = pool.prepare(connection, "select 1", false);
+        PreparedStatement statement2 = pool.prepare(connection, "select 2", false);
+        PreparedStatement statement3 = pool.prepare(connection, "select 3", false);
+
+        pool.release(connection, statement1);
+        pool.release(connection, statement2);
+        pool.release(connection, statement3);
+
+        assertTrue(statement1.isClosed());
+        assertFalse(statement2.isClosed());
+        assertFalse(statement3.isClosed());
+
+        assertSame(statement2, pool.prepare(connection, "select 2", false));
+        assertNotSame(statement1, pool.prepare(connection, "select 1", false));
+
+        pool.release(connection);
+    }
+
+    @Test
+    void releaseClosedConnectionShouldCloseStatements() throws SQLException {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection, "select 1", false);
+        pool.release(connection, statement);
+
+        connection.close();
+        pool.release(connection);
+
+        assertTrue(statement.isClosed());
+    }
+
+    @Test
+    void close() throws Exception {
+        Connection connection = pool.acquire();
+
+        PreparedStatement statement = pool.prepare(connection, "select 1", false);
+        pool.release(connection, statement);
+        pool.release(connection);
+
+        pool.close();
+
+        assertTrue(statement.isClosed());
+        Mockito.verify(logger).info("Prepared statement cache hit rate : {}% ({} hits, {} misses)", 0L, 0L, 1L);
+    }
+}
@@ -23,6 +23,9 @@ import fr.quatrevieux.araknemu.core.config.DefaultConfiguration;
 import fr.quatrevieux.araknemu.core.config.IniDriver;
 import fr.quatrevieux.araknemu.core.dbal.DatabaseConfiguration;
 import fr.quatrevieux.araknemu.core.dbal.DefaultDatabaseHandler;
+import fr.quatrevieux.araknemu.core.dbal.SQLiteDriver;
+import fr.quatrevieux.araknemu.core.dbal.SimpleConnectionPool;
+import fr.quatrevieux.araknemu.core.dbal.StatementCacheConnectionPool;
 import org.apache.logging.log4j.Logger;
 import org.ini4j.Ini;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,25 +35,31 @@ import org.mockito.Mockito;
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConnectionPoolExecutorTest {
     private ConnectionPoolExecutor utils;
+    private DatabaseConfiguration configuration;
 
     @BeforeEach
     void setUp() throws IOException, SQLException {
+        configuration = new DefaultConfiguration(
+            new IniDriver(
+                new Ini(new File("src/test/test_config.ini"))
+            )
+        ).module(DatabaseConfiguration.MODULE);
+
         utils = new ConnectionPoolExecutor(
             new DefaultDatabaseHandler(
-                new DefaultConfiguration(
-                    new IniDriver(
-                        new Ini(new File("src/test/test_config.ini"))
-                    )
-                ).module(DatabaseConfiguration.MODULE),
+                configuration,
                 Mockito.mock(Logger.class)
             ).get("realm")
         );
@@ -117,4 +126,21 @@ class ConnectionPoolExecutorTest {
 
         assertTrue(connection.isClosed());
     }
-}
\ No newline at end of file
+
+    @Test
+    void prepareShouldReuseCachedStatement() throws SQLException {
+        ConnectionPoolExecutor executor = new ConnectionPoolExecutor(
+            new StatementCacheConnectionPool(
+                new SimpleConnectionPool(new SQLiteDriver(configuration.connection("realm")), 1, Mockito.mock(Logger.class)),
+                4,
+                Mockito.mock(Logger.class)
+            )
+        );
+
+        PreparedStatement statement = executor.prepare("select 1", stmt -> stmt);
+        PreparedStatement other = executor.prepare("select 1", stmt -> stmt);
+
+        assertSame(statement, other);
+        assertFalse(statement.isClosed());
+    }
+}
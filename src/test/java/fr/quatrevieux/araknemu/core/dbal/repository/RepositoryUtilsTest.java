@@ -34,6 +34,9 @@ import java.io.File;
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -143,6 +146,22 @@ class RepositoryUtilsTest {
         );
     }
 
+    @Test
+    void forEach() throws RepositoryException {
+        List<String> names = new ArrayList<>();
+
+        assertEquals(3, utils.forEach("SELECT * FROM PERSON ORDER BY ID", person -> names.add(person.firstName)));
+        assertEquals(Arrays.asList("JOHN", "ALAN", "JEAN"), names);
+    }
+
+    @Test
+    void forEachBaqQuery() {
+        assertThrows(
+            RepositoryException.class,
+            () -> utils.forEach("bad sql", person -> {})
+        );
+    }
+
     @Test
     void aggregate() throws RepositoryException {
         assertEquals(2, utils.aggregate(
@@ -184,4 +203,147 @@ class RepositoryUtilsTest {
 
         assertEquals(4, p.id);
     }
-}
\ No newline at end of file
+
+    @Test
+    void batch() throws RepositoryException {
+        List<Person> people = utils.findAll("SELECT * FROM PERSON");
+        people.forEach(p -> p.age += 10);
+
+        assertEquals(3, utils.batch(
+            "UPDATE PERSON SET AGE = ? WHERE ID = ?",
+            people,
+            (rs, p) -> {
+                rs.setInt(1, p.age);
+                rs.setInt(2, p.id);
+            }
+        ));
+
+        assertEquals(33, utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 1)).age);
+        assertEquals(55, utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 2)).age);
+        assertEquals(42, utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 3)).age);
+    }
+
+    @Test
+    void batchEmpty() throws RepositoryException {
+        assertEquals(0, utils.batch("bad sql", Collections.emptyList(), (rs, p) -> {}));
+    }
+
+    @Test
+    void batchMoreThanBatchSize() throws RepositoryException {
+        List<Person> people = new ArrayList<>();
+
+        for (int i = 0; i < RepositoryUtils.BATCH_SIZE + 10; ++i) {
+            Person p = new Person();
+            p.id = 10 + i;
+            p.firstName = "F" + i;
+            p.lastName = "L" + i;
+            p.age = i;
+
+            people.add(p);
+        }
+
+        assertEquals(RepositoryUtils.BATCH_SIZE + 10, utils.batch(
+            "INSERT INTO PERSON (ID, FIRST_NAME, LAST_NAME, AGE) VALUES (?, ?, ?, ?)",
+            people,
+            (rs, p) -> {
+                rs.setInt(1, p.id);
+                rs.setString(2, p.firstName);
+                rs.setString(3, p.lastName);
+                rs.setInt(4, p.age);
+            }
+        ));
+
+        assertEquals(RepositoryUtils.BATCH_SIZE + 13, utils.aggregate("SELECT COUNT(*) FROM PERSON", rs -> {}));
+    }
+
+    @Test
+    void batchErrorShouldRollback() {
+        List<Person> people = new ArrayList<>();
+
+        for (int i = 0; i < RepositoryUtils.BATCH_SIZE; ++i) {
+            Person p = new Person();
+            p.id = 10 + i;
+            people.add(p);
+        }
+
+        // Duplicate primary key : the second chunk will fail
+        Person duplicate = new Person();
+        duplicate.id = 1;
+        people.add(duplicate);
+
+        assertThrows(RepositoryException.class, () -> utils.batch(
+            "INSERT INTO PERSON (ID, FIRST_NAME, LAST_NAME, AGE) VALUES (?, ?, ?, ?)",
+            people,
+            (rs, p) -> {
+                rs.setInt(1, p.id);
+                rs.setString(2, "FOO");
+                rs.setString(3, "BAR");
+                rs.setInt(4, 5);
+            }
+        ));
+
+        assertEquals(3, utils.aggregate("SELECT COUNT(*) FROM PERSON", rs -> {}));
+    }
+
+    @Test
+    void transaction() throws RepositoryException {
+        Person updated = utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 1));
+        Person added = new Person();
+        added.id = 10;
+        added.firstName = "FOO";
+        added.lastName = "BAR";
+        added.age = 5;
+
+        updated.age = 50;
+
+        assertEquals(3, utils.transaction(
+            new RepositoryUtils.BatchQuery<>("DELETE FROM PERSON WHERE ID = ?", Arrays.asList(2), (rs, id) -> rs.setInt(1, id), true),
+            new RepositoryUtils.BatchQuery<>("INSERT INTO PERSON (ID, FIRST_NAME, LAST_NAME, AGE) VALUES (?, ?, ?, ?)", Arrays.asList(added), (rs, p) -> {
+                rs.setInt(1, p.id);
+                rs.setString(2, p.firstName);
+                rs.setString(3, p.lastName);
+                rs.setInt(4, p.age);
+            }, false),
+            new RepositoryUtils.BatchQuery<>("UPDATE PERSON SET AGE = ? WHERE ID = ?", Arrays.asList(updated), (rs, p) -> {
+                rs.setInt(1, p.age);
+                rs.setInt(2, p.id);
+            }, true),
+            new RepositoryUtils.BatchQuery<>("bad sql", Collections.<Person>emptyList(), (rs, p) -> {}, true)
+        ));
+
+        assertEquals(3, utils.aggregate("SELECT COUNT(*) FROM PERSON", rs -> {}));
+        assertEquals(50, utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 1)).age);
+        assertEquals("FOO", utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 10)).firstName);
+        assertThrows(EntityNotFoundException.class, () -> utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 2)));
+    }
+
+    @Test
+    void transactionEmpty() throws RepositoryException {
+        assertEquals(0, utils.transaction());
+        assertEquals(0, utils.transaction(new RepositoryUtils.BatchQuery<>("bad sql", Collections.<Person>emptyList(), (rs, p) -> {}, false)));
+    }
+
+    @Test
+    void transactionRowNotFoundShouldRollback() {
+        assertThrows(EntityNotFoundException.class, () -> utils.transaction(
+            new RepositoryUtils.BatchQuery<>("DELETE FROM PERSON WHERE ID = ?", Arrays.asList(1), (rs, id) -> rs.setInt(1, id), true),
+            new RepositoryUtils.BatchQuery<>("UPDATE PERSON SET AGE = 0 WHERE ID = ?", Arrays.asList(2, 404), (rs, id) -> rs.setInt(1, id), true)
+        ));
+
+        assertEquals(3, utils.aggregate("SELECT COUNT(*) FROM PERSON", rs -> {}));
+        assertEquals(45, utils.findOne("SELECT * FROM PERSON WHERE ID = ?", rs -> rs.setInt(1, 2)).age);
+    }
+
+    @Test
+    void transactionErrorShouldRollback() {
+        Person duplicate = new Person();
+        duplicate.id = 3;
+
+        assertThrows(RepositoryException.class, () -> utils.transaction(
+            new RepositoryUtils.BatchQuery<>("DELETE FROM PERSON WHERE ID = ?", Arrays.asList(1), (rs, id) -> rs.setInt(1, id), true),
+            new RepositoryUtils.BatchQuery<>("INSERT INTO PERSON (ID) VALUES (?)", Arrays.asList(duplicate), (rs, p) -> rs.setInt(1, p.id), false)
+        ));
+
+        assertEquals(3, utils.aggregate("SELECT COUNT(*) FROM PERSON", rs -> {}));
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -378,4 +379,68 @@ class DefaultListenerAggregateTest {
         dispatcher.dispatch(new E(0));
         assertIterableEquals(Arrays.asList("L2-0", "L2-1"), listeners);
     }
+
+    @Test
+    void dispatchWithProfiler() {
+        EventDispatchProfiler profiler = new EventDispatchProfiler();
+        dispatcher = new DefaultListenerAggregate(Mockito.mock(Logger.class), profiler);
+
+        dispatcher.add(new ListenerA());
+
+        dispatcher.dispatch(new A());
+        dispatcher.dispatch(new A());
+        dispatcher.dispatch(new B());
+
+        assertEquals(2, profiler.get(A.class).count());
+        assertNull(profiler.get(B.class));
+    }
+
+    @Test
+    void addAndRemoveShouldKeepListenersOrder() {
+        final Collection<String> calls = new ArrayList<>();
+
+        class L1 extends ListenerA {
+            @Override
+            public void on(A event) {
+                calls.add("L1");
+            }
+        }
+
+        class L2 extends ListenerA {
+            @Override
+            public void on(A event) {
+                calls.add("L2");
+            }
+        }
+
+        class L3 extends ListenerA {
+            @Override
+            public void on(A event) {
+                calls.add("L3");
+            }
+        }
+
+        dispatcher.add(new L1());
+        dispatcher.add(new L2());
+        dispatcher.add(new L3());
+
+        dispatcher.dispatch(new A());
+        assertIterableEquals(Arrays.asList("L1", "L2", "L3"), calls);
+
+        calls.clear();
+        dispatcher.remove(L2.class);
+        dispatcher.dispatch(new A());
+        assertIterableEquals(Arrays.asList("L1", "L3"), calls);
+
+        calls.clear();
+        dispatcher.add(new L1());
+        dispatcher.dispatch(new A());
+        assertIterableEquals(Arrays.asList("L3", "L1"), calls);
+
+        calls.clear();
+        dispatcher.remove(L1.class);
+        dispatcher.remove(L3.class);
+        dispatcher.dispatch(new A());
+        assertTrue(calls.isEmpty());
+    }
 }
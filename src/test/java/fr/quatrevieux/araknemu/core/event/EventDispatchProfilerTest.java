@@ -0,0 +1,59 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDispatchProfilerTest {
+    @Test
+    void record() {
+        EventDispatchProfiler profiler = new EventDispatchProfiler();
+
+        assertNull(profiler.get(String.class));
+        assertTrue(profiler.all().isEmpty());
+
+        profiler.record(String.class, TimeUnit.MICROSECONDS.toNanos(10));
+        profiler.record(String.class, TimeUnit.MICROSECONDS.toNanos(30));
+        profiler.record(Integer.class, TimeUnit.MICROSECONDS.toNanos(5));
+
+        assertEquals(2, profiler.get(String.class).count());
+        assertEquals(40, profiler.get(String.class).totalTime());
+        assertEquals(20, profiler.get(String.class).averageTime());
+        assertEquals(1, profiler.get(Integer.class).count());
+        assertEquals(2, profiler.all().size());
+    }
+
+    @Test
+    void reset() {
+        EventDispatchProfiler profiler = new EventDispatchProfiler();
+
+        profiler.record(String.class, 100);
+        profiler.reset();
+
+        assertNull(profiler.get(String.class));
+        assertTrue(profiler.all().isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EncodedPacketTest {
+    @Test
+    void encode() {
+        EncodedPacket packet = EncodedPacket.encode(new StringBuilder("cMKé|foo"));
+
+        assertEquals("cMKé|foo", packet.toString());
+
+        ByteBuf buffer = packet.retainedBuffer();
+
+        assertEquals("cMKé|foo\0", buffer.toString(StandardCharsets.UTF_8));
+        buffer.release();
+        packet.close();
+    }
+
+    @Test
+    void retainedBufferShouldHaveIndependentIndexes() {
+        EncodedPacket packet = EncodedPacket.encode("foo");
+
+        ByteBuf first = packet.retainedBuffer();
+        ByteBuf second = packet.retainedBuffer();
+
+        first.skipBytes(2);
+
+        assertEquals(2, first.readableBytes());
+        assertEquals(4, second.readableBytes());
+
+        first.release();
+        second.release();
+        packet.close();
+
+        assertEquals(0, first.refCnt());
+    }
+
+    @Test
+    void closeShouldReleaseOnlyOwnReference() {
+        EncodedPacket packet = EncodedPacket.encode("foo");
+        ByteBuf buffer = packet.retainedBuffer();
+
+        packet.close();
+
+        assertEquals(1, buffer.refCnt());
+        assertEquals("foo\0", buffer.toString(StandardCharsets.UTF_8));
+
+        buffer.release();
+        assertEquals(0, buffer.refCnt());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBatchTest {
+    @Test
+    void deferWithoutBatch() {
+        assertFalse(WriteBatch.defer(Mockito.mock(Channel.class)));
+    }
+
+    @Test
+    void closeShouldFlushChannelsOnce() {
+        Channel channel1 = Mockito.mock(Channel.class);
+        Channel channel2 = Mockito.mock(Channel.class);
+
+        try (WriteBatch batch = WriteBatch.open()) {
+            assertTrue(WriteBatch.defer(channel1));
+            assertTrue(WriteBatch.defer(channel2));
+            assertTrue(WriteBatch.defer(channel1));
+
+            Mockito.verify(channel1, Mockito.never()).flush();
+        }
+
+        Mockito.verify(channel1).flush();
+        Mockito.verify(channel2).flush();
+        assertFalse(WriteBatch.defer(channel1));
+    }
+
+    @Test
+    void nested() {
+        Channel channel = Mockito.mock(Channel.class);
+
+        try (WriteBatch batch = WriteBatch.open()) {
+            try (WriteBatch inner = WriteBatch.open()) {
+                assertSame(batch, inner);
+                assertTrue(WriteBatch.defer(channel));
+            }
+
+            Mockito.verify(channel, Mockito.never()).flush();
+            assertTrue(WriteBatch.defer(channel));
+        }
+
+        Mockito.verify(channel).flush();
+    }
+
+    @Test
+    void batchShouldBeLocalToThread() throws InterruptedException {
+        AtomicBoolean deferred = new AtomicBoolean(true);
+
+        try (WriteBatch batch = WriteBatch.open()) {
+            Thread thread = new Thread(() -> deferred.set(WriteBatch.defer(Mockito.mock(Channel.class))));
+
+            thread.start();
+            thread.join();
+        }
+
+        assertFalse(deferred.get());
+    }
+}
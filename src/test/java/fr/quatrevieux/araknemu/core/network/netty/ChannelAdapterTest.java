@@ -0,0 +1,102 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network.netty;
+
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
+import fr.quatrevieux.araknemu.core.network.WriteBatch;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChannelAdapterTest {
+    private EmbeddedChannel channel;
+    private ChannelAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        adapter = new ChannelAdapter(channel.pipeline().firstContext());
+    }
+
+    @Test
+    void writeShouldFlush() {
+        adapter.write(new StringBuilder("foo"));
+
+        assertEquals("foo", channel.readOutbound());
+    }
+
+    @Test
+    void writeInsideBatch() {
+        try (WriteBatch batch = WriteBatch.open()) {
+            adapter.write("foo");
+            adapter.write("bar");
+
+            assertNull(channel.readOutbound());
+        }
+
+        assertEquals("foo", channel.readOutbound());
+        assertEquals("bar", channel.readOutbound());
+    }
+
+    @Test
+    void writeEncodedPacketShouldShareBuffer() {
+        EncodedPacket packet = EncodedPacket.encode("foo");
+
+        adapter.write(packet);
+        adapter.write(packet);
+        packet.close();
+
+        ByteBuf first = channel.readOutbound();
+        ByteBuf second = channel.readOutbound();
+
+        assertEquals("foo\0", first.toString(StandardCharsets.UTF_8));
+        assertEquals("foo\0", second.toString(StandardCharsets.UTF_8));
+
+        assertTrue(first.release());
+        assertTrue(second.release());
+    }
+
+    @Test
+    void isAlive() {
+        assertTrue(adapter.isAlive());
+        adapter.close();
+        assertFalse(adapter.isAlive());
+    }
+
+    @Test
+    void closeInsideBatchShouldFlushWrittenPackets() {
+        try (WriteBatch batch = WriteBatch.open()) {
+            adapter.write("foo");
+            adapter.close();
+        }
+
+        assertFalse(adapter.isAlive());
+        assertEquals("foo", channel.readOutbound());
+    }
+}
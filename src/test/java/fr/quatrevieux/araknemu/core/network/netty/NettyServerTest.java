@@ -0,0 +1,45 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NettyServerTest {
+    @Test
+    void messageEndEncoder() {
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyServer.MessageEndEncoder());
+
+        channel.writeOutbound("Hello", "éà");
+
+        ByteBuf buf = channel.readOutbound();
+        assertEquals("Hello\000", buf.toString(CharsetUtil.UTF_8));
+        buf.release();
+
+        buf = channel.readOutbound();
+        assertEquals("éà\000", buf.toString(CharsetUtil.UTF_8));
+        assertEquals(5, buf.readableBytes());
+        buf.release();
+    }
+}
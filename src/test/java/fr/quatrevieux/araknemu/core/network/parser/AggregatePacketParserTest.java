@@ -23,12 +23,22 @@ import fr.quatrevieux.araknemu.network.in.AskQueuePosition;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AggregatePacketParserTest {
     static public class ParserStub implements SinglePacketParser<Packet> {
         public String input;
+        private final String code;
+
+        public ParserStub() {
+            this("TEST");
+        }
+
+        public ParserStub(String code) {
+            this.code = code;
+        }
 
         @Override
         public Packet parse(String input) throws ParsePacketException {
@@ -39,7 +49,7 @@ class AggregatePacketParserTest {
 
         @Override
         public String code() {
-            return "TEST";
+            return code;
         }
     }
 
@@ -80,4 +90,46 @@ class AggregatePacketParserTest {
         parser.register(new AskQueuePosition.Parser());
         assertTrue(parser.parse("Af") instanceof AskQueuePosition);
     }
+
+    @Test
+    public void parseShouldUseLongestCode() {
+        ParserStub shortCode = new ParserStub("GA");
+        ParserStub longCode = new ParserStub("GAK");
+        ParserStub other = new ParserStub("GP");
+
+        AggregatePacketParser parser = new AggregatePacketParser(new SinglePacketParser[]{
+            shortCode, longCode, other
+        });
+
+        parser.parse("GAK123");
+        assertEquals("123", longCode.input);
+        assertNull(shortCode.input);
+
+        parser.parse("GA001");
+        assertEquals("001", shortCode.input);
+
+        parser.parse("GA");
+        assertEquals("", shortCode.input);
+
+        parser.parse("GPfoo");
+        assertEquals("foo", other.input);
+
+        assertThrows(UndefinedPacketException.class, () -> parser.parse("G"));
+        assertThrows(UndefinedPacketException.class, () -> parser.parse("GB"));
+        assertThrows(UndefinedPacketException.class, () -> parser.parse(""));
+    }
+
+    @Test
+    public void registerShouldOverrideParserWithSameCode() {
+        ParserStub first = new ParserStub("GA");
+        ParserStub second = new ParserStub("GA");
+
+        AggregatePacketParser parser = new AggregatePacketParser(new SinglePacketParser[]{first});
+        parser.register(second);
+
+        parser.parse("GA123");
+
+        assertNull(first.input);
+        assertEquals("123", second.input);
+    }
 }
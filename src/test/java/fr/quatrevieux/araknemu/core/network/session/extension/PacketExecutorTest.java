@@ -0,0 +1,291 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.core.network.session.extension;
+
+import fr.quatrevieux.araknemu.core.network.session.AbstractDelegatedSession;
+import fr.quatrevieux.araknemu.core.network.session.Session;
+import fr.quatrevieux.araknemu.core.network.session.SessionConfigurator;
+import fr.quatrevieux.araknemu.core.network.util.DummyChannel;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketExecutorTest {
+    class TestSession extends AbstractDelegatedSession {
+        public TestSession(Session session) {
+            super(session);
+        }
+    }
+
+    /**
+     * Executor which keeps tasks until {@link StackExecutor#runAll()} is called
+     */
+    class StackExecutor extends AbstractExecutorService {
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private boolean shutdown = false;
+
+        public void runAll() {
+            Runnable task;
+
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>(tasks);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+
+            tasks.add(command);
+        }
+    }
+
+    private StackExecutor workers;
+    private Logger logger;
+    private PacketExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        workers = new StackExecutor();
+        logger = Mockito.mock(Logger.class);
+        executor = new PacketExecutor(workers, logger);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void packetsShouldBeHandledOnWorkersInOrder() {
+        List<Object> received = new ArrayList<>();
+        TestSession session = createSession(received);
+
+        session.receive("foo");
+        session.receive("bar");
+        session.receive(42);
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, workers.tasks.size());
+
+        workers.runAll();
+
+        assertEquals(3, received.size());
+        assertEquals("foo", received.get(0));
+        assertEquals("bar", received.get(1));
+        assertEquals(42, received.get(2));
+    }
+
+    @Test
+    void sessionsShouldHaveTheirOwnQueue() {
+        List<Object> received1 = new ArrayList<>();
+        List<Object> received2 = new ArrayList<>();
+        TestSession session1 = createSession(received1);
+        TestSession session2 = createSession(received2);
+
+        session1.receive("foo");
+        session2.receive("bar");
+
+        assertEquals(2, workers.tasks.size());
+
+        workers.runAll();
+
+        assertEquals(Collections.singletonList("foo"), received1);
+        assertEquals(Collections.singletonList("bar"), received2);
+    }
+
+    @Test
+    void tooManyPacketsShouldReleaseTheWorker() {
+        List<Object> received = new ArrayList<>();
+        TestSession session = createSession(received);
+
+        for (int i = 0; i < PacketExecutor.MAX_BATCH + 5; ++i) {
+            session.receive(i);
+        }
+
+        workers.tasks.poll().run();
+        assertEquals(PacketExecutor.MAX_BATCH, received.size());
+        assertEquals(1, workers.tasks.size());
+
+        workers.runAll();
+        assertEquals(PacketExecutor.MAX_BATCH + 5, received.size());
+
+        for (int i = 0; i < received.size(); ++i) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void shouldHandleOnCurrentThreadWhenStopped() {
+        List<Object> received = new ArrayList<>();
+        TestSession session = createSession(received);
+
+        executor.shutdown();
+        session.receive("foo");
+
+        assertEquals(Collections.singletonList("foo"), received);
+    }
+
+    @Test
+    void errorShouldBeLogged() {
+        SessionConfigurator<TestSession> configurator = new SessionConfigurator<>(TestSession::new);
+
+        configurator.add((inner, session) -> inner.addReceiveMiddleware(executor.middleware()));
+        configurator.add((inner, session) -> inner.addReceiveMiddleware((packet, next) -> { throw new IllegalStateException("my error"); }));
+
+        TestSession session = configurator.create(new DummyChannel());
+
+        session.receive("foo");
+        session.receive("bar");
+        workers.runAll();
+
+        // Exception is not handled by the session : logged by the executor
+        Mockito.verify(logger).error(Mockito.eq("Error during handling packet {}"), Mockito.eq("foo"), Mockito.any(IllegalArgumentException.class));
+        Mockito.verify(logger).error(Mockito.eq("Error during handling packet {}"), Mockito.eq("bar"), Mockito.any(IllegalArgumentException.class));
+    }
+
+    @Test
+    void metrics() {
+        TestSession session = createSession(new ArrayList<>());
+
+        assertTrue(executor.metrics().isEmpty());
+
+        session.receive("foo");
+        session.receive("bar");
+        session.receive(42);
+        workers.runAll();
+
+        assertEquals(2, executor.metrics().size());
+        assertEquals(2, executor.metrics().get(String.class).count());
+        assertEquals(1, executor.metrics().get(Integer.class).count());
+
+        PacketExecutor.Metrics metrics = executor.metrics().get(String.class);
+
+        assertTrue(metrics.averageQueueTime().toNanos() > 0);
+        assertTrue(metrics.averageHandleTime().toNanos() > 0);
+        assertTrue(metrics.maxHandleTime().compareTo(metrics.averageHandleTime()) >= 0);
+    }
+
+    @Test
+    void functionalWithThreadPool() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        executor = new PacketExecutor(pool, logger);
+
+        List<List<Object>> received = new ArrayList<>();
+        List<TestSession> sessions = new ArrayList<>();
+        AtomicInteger concurrentHandling = new AtomicInteger();
+        AtomicInteger maxConcurrentHandling = new AtomicInteger();
+
+        for (int i = 0; i < 5; ++i) {
+            List<Object> sessionReceived = Collections.synchronizedList(new ArrayList<>());
+            SessionConfigurator<TestSession> configurator = new SessionConfigurator<>(TestSession::new);
+
+            configurator.add((inner, session) -> inner.addReceiveMiddleware(executor.middleware()));
+            configurator.add((inner, session) -> inner.addReceiveMiddleware((packet, next) -> {
+                maxConcurrentHandling.accumulateAndGet(concurrentHandling.incrementAndGet(), Math::max);
+                sessionReceived.add(packet);
+                concurrentHandling.decrementAndGet();
+            }));
+
+            received.add(sessionReceived);
+            sessions.add(configurator.create(new DummyChannel()));
+        }
+
+        for (int i = 0; i < 1000; ++i) {
+            for (TestSession session : sessions) {
+                session.receive(i);
+            }
+        }
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (List<Object> sessionReceived : received) {
+            assertEquals(1000, sessionReceived.size());
+
+            for (int i = 0; i < 1000; ++i) {
+                assertEquals(i, sessionReceived.get(i));
+            }
+        }
+
+        assertEquals(5000, executor.metrics().get(Integer.class).count());
+    }
+
+    @Test
+    void shutdown() {
+        assertFalse(workers.isShutdown());
+        executor.shutdown();
+        assertTrue(workers.isShutdown());
+    }
+
+    private TestSession createSession(List<Object> received) {
+        SessionConfigurator<TestSession> configurator = new SessionConfigurator<>(TestSession::new);
+
+        configurator.add((inner, session) -> inner.addReceiveMiddleware(executor.middleware()));
+        configurator.add((inner, session) -> inner.addReceiveMiddleware((packet, next) -> received.add(packet)));
+
+        return configurator.create(new DummyChannel());
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -268,4 +269,63 @@ class SqlPlayerItemRepositoryTest extends GameBaseCase {
         assertEquals(5, result.get(2).get(0).entryId());
         assertEquals(6, result.get(2).get(1).entryId());
     }
+
+    @Test
+    void saveChanges() {
+        PlayerItem updated = repository.add(new PlayerItem(1, 3, 39, new ArrayList<>(), 5, -1));
+        PlayerItem deleted = repository.add(new PlayerItem(1, 4, 40, new ArrayList<>(), 1, 1));
+        PlayerItem replaced = repository.add(new PlayerItem(1, 5, 40, new ArrayList<>(), 1, 1));
+        PlayerItem added = new PlayerItem(1, 6, 41, Arrays.asList(new ItemTemplateEffectEntry(Effect.ADD_INTELLIGENCE, 2, 0, 0, "")), 5, -1);
+        PlayerItem replacement = new PlayerItem(1, 5, 42, new ArrayList<>(), 3, 2);
+
+        updated.setQuantity(10);
+        updated.setPosition(1);
+
+        repository.saveChanges(
+            Arrays.asList(deleted, replaced),
+            Arrays.asList(added, replacement),
+            Arrays.asList(updated)
+        );
+
+        assertFalse(repository.has(deleted));
+        assertEquals(10, repository.get(updated).quantity());
+        assertEquals(1, repository.get(updated).position());
+        assertEquals(41, repository.get(added).itemTemplateId());
+        assertEquals(5, repository.get(added).quantity());
+        assertEquals(42, repository.get(replaced).itemTemplateId());
+        assertEquals(3, repository.get(replaced).quantity());
+    }
+
+    @Test
+    void saveChangesEmpty() {
+        repository.saveChanges(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Test
+    void saveChangesUpdateNotFoundShouldRollback() {
+        PlayerItem deleted = repository.add(new PlayerItem(1, 3, 39, new ArrayList<>(), 5, -1));
+        PlayerItem added = new PlayerItem(1, 4, 40, new ArrayList<>(), 1, 1);
+
+        assertThrows(EntityNotFoundException.class, () -> repository.saveChanges(
+            Arrays.asList(deleted),
+            Arrays.asList(added),
+            Arrays.asList(new PlayerItem(5, 5, 5, null, 1, 1))
+        ));
+
+        assertTrue(repository.has(deleted));
+        assertFalse(repository.has(added));
+    }
+
+    @Test
+    void saveChangesDeleteNotFoundShouldRollback() {
+        PlayerItem added = new PlayerItem(1, 4, 40, new ArrayList<>(), 1, 1);
+
+        assertThrows(EntityNotFoundException.class, () -> repository.saveChanges(
+            Arrays.asList(new PlayerItem(5, 5, 5, null, 1, 1)),
+            Arrays.asList(added),
+            Collections.emptyList()
+        ));
+
+        assertFalse(repository.has(added));
+    }
 }
@@ -41,7 +41,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -273,6 +275,76 @@ class SqlPlayerRepositoryTest extends DatabaseTestCase {
         assertEquals(new Position(4568, 123), savedPlayer.savedPosition());
     }
 
+    @Test
+    void saveAll() {
+        Player player1 = repository.add(Player.forCreation(1, 1, "bob", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+        Player player2 = repository.add(Player.forCreation(1, 1, "john", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+
+        player1.setPosition(new Position(1234, 56));
+        player1.stats().set(Characteristic.ACTION_POINT, 12);
+        player2.setKamas(4589);
+        player2.channels().add(ChannelType.INFO);
+
+        assertEquals(2, repository.saveAll(Arrays.asList(player1, player2)));
+
+        assertEquals(new Position(1234, 56), repository.get(player1).position());
+        assertEquals(12, repository.get(player1).stats().get(Characteristic.ACTION_POINT));
+        assertEquals(4589, repository.get(player2).kamas());
+        assertEquals(EnumSet.of(ChannelType.INFO), repository.get(player2).channels());
+    }
+
+    @Test
+    void saveAllShouldSkipUnchangedPlayers() {
+        Player player1 = repository.add(Player.forCreation(1, 1, "bob", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+        Player player2 = repository.add(Player.forCreation(1, 1, "john", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+
+        assertEquals(2, repository.saveAll(Arrays.asList(player1, player2)));
+        assertEquals(0, repository.saveAll(Arrays.asList(player1, player2)));
+
+        player2.stats().set(Characteristic.STRENGTH, 50);
+        assertEquals(1, repository.saveAll(Arrays.asList(player1, player2)));
+        assertEquals(50, repository.get(player2).stats().get(Characteristic.STRENGTH));
+
+        player1.setLife(10);
+        repository.save(player1);
+        assertEquals(0, repository.saveAll(Arrays.asList(player1, player2)));
+    }
+
+    @Test
+    void saveAllShouldSkipPlayerLoadedForGame() {
+        Player player = repository.add(Player.forCreation(1, 1, "bob", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+        Player loaded = repository.getForGame(Player.forGame(player.id(), 1, 1));
+
+        assertEquals(0, repository.saveAll(Collections.singleton(loaded)));
+
+        loaded.setExperience(1000);
+        assertEquals(1, repository.saveAll(Collections.singleton(loaded)));
+        assertEquals(1000, repository.get(player).experience());
+    }
+
+    @Test
+    void unload() {
+        Player player = repository.add(Player.forCreation(1, 1, "bob", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+        Player loaded = repository.getForGame(Player.forGame(player.id(), 1, 1));
+
+        assertEquals(0, repository.saveAll(Collections.singleton(loaded)));
+
+        repository.unload(loaded);
+        assertEquals(1, repository.saveAll(Collections.singleton(loaded)));
+    }
+
+    @Test
+    void saveAllShouldIgnoreMissingPlayers() {
+        Player player = repository.add(Player.forCreation(1, 1, "bob", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)));
+
+        assertEquals(1, repository.saveAll(Arrays.asList(player, Player.forCreation(5, 2, "john", Race.CRA, Gender.FEMALE, new Colors(-1, -1, -1)))));
+    }
+
+    @Test
+    void saveAllEmpty() {
+        assertEquals(0, repository.saveAll(Collections.emptyList()));
+    }
+
     @Test
     void serverCharactersCountByAccountPseudo() {
         AccountRepository accountRepository = new SqlAccountRepository(new ConnectionPoolExecutor(connection), new PermissionsTransformer());
@@ -38,6 +38,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -66,7 +67,10 @@ class SqlMapTemplateRepositoryTest extends GameBaseCase {
         assertEquals("662838776047515721434a62545f5478543541592532356f25324257716f6e28657d2a5d4471206273545f5e4a614a442c2c73432c35515a553b386f6525324274262f3a747b6b675440557f5260754d6a52343d433b52755e6e6c3b437d417e22514524216771304a6e7e553c32794646287f3e57544c48526a284e2158376b4a414039752c2a2f303d6a5e746f2e323031385e6f483e785929262435777c3141463f363a43784e73345f5e406d2e235d423248427767582c5e4a6a4d234e3f61506d32595e7a2c4a2532355a7f5b5c474e6f732532426062775824253235", map.key());
         assertEquals(new Dimensions(15, 17), map.dimensions());
         assertEquals("0802221747", map.date());
+        assertFalse(map.cellsDecoded());
         assertEquals(479, map.cells().length);
+        assertTrue(map.cellsDecoded());
+        assertSame(map.cells(), map.cells());
 
         assertEquals(CellMovement.DEFAULT, map.cells()[308].movement());
         assertTrue(map.cells()[308].lineOfSight());
@@ -142,4 +146,15 @@ class SqlMapTemplateRepositoryTest extends GameBaseCase {
     void all() {
         assertEquals(4, repository.all().size());
     }
+
+    @Test
+    void forEach() {
+        List<MapTemplate> maps = new ArrayList<>();
+
+        assertEquals(4, repository.forEach(maps::add));
+        assertEquals(4, maps.size());
+        assertEquals(10300, maps.get(0).id());
+        assertFalse(maps.get(0).cellsDecoded());
+        assertEquals(479, maps.get(0).cells().length);
+    }
 }
@@ -19,10 +19,18 @@
 
 package fr.quatrevieux.araknemu.data.world.transformer;
 
+import fr.arakne.utils.maps.serializer.CellData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -51,4 +59,34 @@ class MapCellsTransformerTest {
             transformer.unserialize("Hhaaeaaaaa")
         );
     }
+
+    @Test
+    void unserializeFromMultipleThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<CellData[]>> results = new ArrayList<>();
+
+            for (int i = 0; i < 100; ++i) {
+                results.add(executor.submit(() -> transformer.unserialize("HhaaeaaaaaHhaaeaaaaa")));
+            }
+
+            CellData[] expected = transformer.unserialize("HhaaeaaaaaHhaaeaaaaa");
+
+            // Cells are only shared by the same thread, so compare their values
+            for (Future<CellData[]> result : results) {
+                CellData[] cells = result.get();
+
+                assertEquals(expected.length, cells.length);
+
+                for (int i = 0; i < cells.length; ++i) {
+                    assertEquals(expected[i].lineOfSight(), cells[i].lineOfSight());
+                    assertEquals(expected[i].movement(), cells[i].movement());
+                    assertEquals(expected[i].active(), cells[i].active());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -47,8 +47,12 @@ class GameConfigurationTest extends GameBaseCase {
         assertEquals("10.0.0.5", configuration.ip());
         assertEquals(Duration.ofMinutes(15), configuration.inactivityTime());
         assertEquals(100, configuration.packetRateLimit());
+        assertEquals(0, configuration.packetWorkers());
         assertArrayEquals(new long[] {1, 10, 30, 60, 120}, configuration.shutdownReminderMinutes());
         assertEquals(Duration.ofMinutes(10), configuration.banIpRefresh());
+        assertEquals(4, configuration.preloadThreads());
+        assertEquals(50000, configuration.itemInternSize());
+        assertFalse(configuration.eventProfiling());
     }
 
     @Test
@@ -106,6 +110,14 @@ class GameConfigurationTest extends GameBaseCase {
         setConfigValue("fight.turnDuration", "1m30s");
         assertEquals(Duration.ofSeconds(90), configuration.fight().turnDuration());
 
+        assertEquals(0, configuration.fight().aiThreadsCount());
+        setConfigValue("fight.ai.threadsCount", "2");
+        assertEquals(2, configuration.fight().aiThreadsCount());
+
+        assertEquals(Duration.ofSeconds(2), configuration.fight().aiTimeBudget());
+        setConfigValue("fight.ai.timeBudget", "0.5s");
+        assertEquals(Duration.ofMillis(500), configuration.fight().aiTimeBudget());
+
         assertEquals(Duration.ofSeconds(45), configuration.fight().pvmPlacementDuration());
         setConfigValue("fight.pvm.placementDuration", "1m30s");
         assertEquals(Duration.ofSeconds(90), configuration.fight().pvmPlacementDuration());
@@ -126,6 +138,15 @@ class GameConfigurationTest extends GameBaseCase {
         assertEquals(Duration.ofSeconds(30), configuration.autosaveInterval());
     }
 
+    @Test
+    void eventProfiling() {
+        assertFalse(configuration.eventProfiling());
+
+        setConfigValue("eventProfiling", "true");
+
+        assertTrue(configuration.eventProfiling());
+    }
+
     @Test
     void timezone() {
         assertEquals("Europe/Paris", configuration.timezone().getId());
@@ -26,6 +26,7 @@ import fr.quatrevieux.araknemu.core.di.Container;
 import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.core.di.ItemPoolContainer;
 import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.core.network.Server;
 import fr.quatrevieux.araknemu.core.network.netty.NettyServer;
@@ -66,6 +67,7 @@ import fr.quatrevieux.araknemu.game.exploration.npc.dialog.parameter.ParametersR
 import fr.quatrevieux.araknemu.game.exploration.npc.exchange.NpcExchangeService;
 import fr.quatrevieux.araknemu.game.exploration.npc.store.NpcStoreService;
 import fr.quatrevieux.araknemu.game.fight.FightService;
+import fr.quatrevieux.araknemu.game.fight.ai.AiPlanner;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.AiFactory;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.ChainAiFactory;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.DoubleAiFactory;
@@ -90,6 +92,7 @@ import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToSpecialMapping;
 import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToUseMapping;
 import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToWeaponMapping;
 import fr.quatrevieux.araknemu.game.item.factory.DefaultItemFactory;
+import fr.quatrevieux.araknemu.game.item.factory.InternedItemFactory;
 import fr.quatrevieux.araknemu.game.item.factory.ItemFactory;
 import fr.quatrevieux.araknemu.game.monster.MonsterService;
 import fr.quatrevieux.araknemu.game.monster.environment.MonsterEnvironmentService;
@@ -133,6 +136,7 @@ class GameModuleTest extends GameBaseCase {
         assertInstanceOf(ExplorationMapService.class, container.get(ExplorationMapService.class));
         assertInstanceOf(ExplorationActionRegistry.class, container.get(ActionFactory.class));
         assertInstanceOf(DefaultListenerAggregate.class, container.get(ListenerAggregate.class));
+        assertInstanceOf(EventDispatchProfiler.class, container.get(EventDispatchProfiler.class));
         assertInstanceOf(ChatService.class, container.get(ChatService.class));
         assertInstanceOf(NameCheckerGenerator.class, container.get(NameGenerator.class));
         assertInstanceOf(AreaService.class, container.get(AreaService.class));
@@ -141,7 +145,8 @@ class GameModuleTest extends GameBaseCase {
         assertInstanceOf(EffectToWeaponMapping.class, container.get(EffectToWeaponMapping.class));
         assertInstanceOf(EffectToCharacteristicMapping.class, container.get(EffectToCharacteristicMapping.class));
         assertInstanceOf(EffectToUseMapping.class, container.get(EffectToUseMapping.class));
-        assertInstanceOf(DefaultItemFactory.class, container.get(ItemFactory.class));
+        assertInstanceOf(InternedItemFactory.class, container.get(ItemFactory.class));
+        assertInstanceOf(DefaultItemFactory.class, container.get(DefaultItemFactory.class));
         assertInstanceOf(InventoryService.class, container.get(InventoryService.class));
         assertInstanceOf(SpellService.class, container.get(SpellService.class));
         assertInstanceOf(SpellBookService.class, container.get(SpellBookService.class));
@@ -163,6 +168,7 @@ class GameModuleTest extends GameBaseCase {
         assertInstanceOf(PvmType.class, container.get(PvmType.class));
         assertInstanceOf(ChallengeType.class, container.get(ChallengeType.class));
         assertInstanceOf(ChainAiFactory.class, container.get(AiFactory.class));
+        assertInstanceOf(AiPlanner.class, container.get(AiPlanner.class));
         assertInstanceOf(MonsterAiFactory.class, container.get(MonsterAiFactory.class));
         assertInstanceOf(DoubleAiFactory.class, container.get(DoubleAiFactory.class));
         assertInstanceOf(ActivityService.class, container.get(ActivityService.class));
@@ -0,0 +1,201 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2022 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game;
+
+import fr.quatrevieux.araknemu.core.BootException;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreloadSchedulerTest extends GameBaseCase {
+    private Logger logger;
+    private PreloadScheduler scheduler;
+    private List<String> calls;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        logger = Mockito.mock(Logger.class);
+        scheduler = new PreloadScheduler(configuration, logger);
+        calls = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    void runShouldLoadDependenciesFirst() throws BootException {
+        scheduler.run(Arrays.asList(
+            new TestService("map", "npc", "area"),
+            new TestService("npc", "dialog"),
+            new TestService("dialog"),
+            new TestService("area")
+        ));
+
+        assertEquals(8, calls.size());
+        assertTrue(calls.indexOf("preload:dialog") < calls.indexOf("init:npc"));
+        assertTrue(calls.indexOf("preload:npc") < calls.indexOf("init:map"));
+        assertTrue(calls.indexOf("preload:area") < calls.indexOf("init:map"));
+        assertTrue(calls.indexOf("init:map") < calls.indexOf("preload:map"));
+    }
+
+    @Test
+    void runShouldOnlyInitWhenPreloadIsDisabled() throws BootException {
+        scheduler.run(Arrays.asList(new TestService("foo"), new TestService("bar", "foo")));
+
+        assertEquals(Arrays.asList("init:foo", "init:bar", "preload:bar"), calls);
+    }
+
+    @Test
+    void runShouldIgnoreUnknownDependencies() throws BootException {
+        scheduler.run(Collections.singletonList(new TestService("bar", "unknown")));
+
+        assertEquals(Arrays.asList("init:bar", "preload:bar"), calls);
+    }
+
+    @Test
+    void runWithCircularDependencyShouldThrowBootException() {
+        BootException e = assertThrows(BootException.class, () -> scheduler.run(Arrays.asList(
+            new TestService("a", "b"),
+            new TestService("b", "c"),
+            new TestService("c", "a")
+        )));
+
+        assertEquals("Circular dependency detected on preloadable service a", e.getMessage());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void runShouldForwardServiceException() {
+        PreloadableService failing = new TestService("failing") {
+            @Override
+            public void preload(Logger logger) {
+                throw new IllegalStateException("my error");
+            }
+        };
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> scheduler.run(Arrays.asList(
+            failing,
+            new TestService("bar", "failing")
+        )));
+
+        assertEquals("my error", e.getMessage());
+        assertEquals(Collections.singletonList("init:failing"), calls);
+    }
+
+    @Test
+    void runShouldLogTimingReport() throws BootException {
+        scheduler.run(Arrays.asList(
+            new TestService("map", "npc", "area"),
+            new TestService("npc"),
+            new TestService("area")
+        ));
+
+        assertNotNull(scheduler.timing("map"));
+        assertTrue(scheduler.timing("map").start() >= scheduler.timing("npc").end());
+        assertTrue(scheduler.timing("map").start() >= scheduler.timing("area").end());
+        assertTrue(scheduler.timing("map").duration() >= 0);
+        assertNull(scheduler.timing("not_found"));
+
+        Mockito.verify(logger).info(Mockito.eq("{} services loaded in {}ms using {} threads"), Mockito.eq(3), Mockito.anyLong(), Mockito.eq(4));
+        Mockito.verify(logger).info(Mockito.eq("- {}: {}ms (started at {}ms)"), Mockito.eq("map"), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(logger).info(Mockito.eq("- {}: {}ms (started at {}ms)"), Mockito.eq("npc"), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(logger).info(Mockito.eq("- {}: {}ms (started at {}ms)"), Mockito.eq("area"), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(logger).info(Mockito.eq("Preload critical path: {}"), Mockito.matches("(npc|area) > map"));
+    }
+
+    @Test
+    void runShouldPreloadIndependentServicesInParallel() throws BootException {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        class WaitingService extends TestService {
+            public WaitingService(String name) {
+                super(name);
+            }
+
+            @Override
+            public void preload(Logger logger) {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+
+                super.preload(logger);
+            }
+        }
+
+        ExecutorFactory.disableTestingMode();
+
+        try {
+            scheduler.run(Arrays.asList(new WaitingService("bar"), new WaitingService("baz"), new TestService("other", "bar", "baz")));
+        } finally {
+            ExecutorFactory.enableTestingMode();
+        }
+
+        assertEquals(6, calls.size());
+        assertEquals("preload:other", calls.get(5));
+    }
+
+    class TestService implements PreloadableService {
+        private final String name;
+        private final List<String> dependencies;
+
+        public TestService(String name, String... dependencies) {
+            this.name = name;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public void init(Logger logger) {
+            calls.add("init:" + name);
+        }
+
+        @Override
+        public void preload(Logger logger) {
+            calls.add("preload:" + name);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Collection<String> dependencies() {
+            return dependencies;
+        }
+    }
+}
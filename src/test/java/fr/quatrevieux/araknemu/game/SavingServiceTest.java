@@ -20,9 +20,12 @@
 package fr.quatrevieux.araknemu.game;
 
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
+import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.data.living.entity.player.Player;
 import fr.quatrevieux.araknemu.data.value.Position;
 import fr.quatrevieux.araknemu.game.connector.RealmConnector;
+import fr.quatrevieux.araknemu.game.event.GameSaved;
+import fr.quatrevieux.araknemu.game.event.SavingGame;
 import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.game.player.PlayerService;
 import fr.quatrevieux.araknemu.network.game.out.info.Error;
@@ -33,6 +36,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -44,6 +50,9 @@ class SavingServiceTest extends GameBaseCase {
         SavingService service = container.get(SavingService.class);
         RealmConnector connector = container.get(RealmConnector.class);
         GamePlayer player = gamePlayer(true);
+        AtomicReference<GameSaved> saved = new AtomicReference<>();
+
+        container.get(ListenerAggregate.class).add(GameSaved.class, saved::set);
 
         player.setPosition(new Position(123, 45));
         requestStack.clear();
@@ -56,6 +65,8 @@ class SavingServiceTest extends GameBaseCase {
         );
 
         assertEquals(new Position(123, 45), dataSet.refresh(new Player(player.id())).position());
+        assertEquals(1, saved.get().rows());
+        assertTrue(saved.get().duration().toNanos() > 0);
         Mockito.verify(connector).updateState(2, GameHost.State.SAVING, false);
         Mockito.verify(connector).updateState(2, GameHost.State.ONLINE, true);
     }
@@ -66,9 +77,20 @@ class SavingServiceTest extends GameBaseCase {
         gamePlayer(true);
         makeOtherPlayer(1);
         SavingService service = container.get(SavingService.class);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // Block the save until the second call, to ensure that the save is still in progress
+        container.get(ListenerAggregate.class).add(SavingGame.class, event -> {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
 
         assertTrue(service.execute());
         assertFalse(service.execute());
+        latch.countDown();
     }
 
     @Test
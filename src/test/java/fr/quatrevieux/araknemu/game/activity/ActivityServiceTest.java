@@ -92,6 +92,28 @@ class ActivityServiceTest extends GameBaseCase {
         Mockito.verify(logger, Mockito.times(3)).error("Execution failed : my error for task my task", exception);
     }
 
+    @RepeatedIfExceptionsTest
+    void submit() {
+        Runnable action = Mockito.mock(Runnable.class);
+
+        service.submit(action);
+
+        Mockito.verify(action).run();
+        Mockito.verify(logger, Mockito.never()).info(Mockito.anyString(), Mockito.any(Object.class));
+    }
+
+    @RepeatedIfExceptionsTest
+    void submitWithException() {
+        RuntimeException exception = new RuntimeException("my error");
+
+        Runnable action = Mockito.mock(Runnable.class);
+        Mockito.doThrow(exception).when(action).run();
+
+        service.submit(action);
+
+        Mockito.verify(logger).error("Execution failed : my error", exception);
+    }
+
     @RepeatedIfExceptionsTest
     void periodic() throws InterruptedException {
         Consumer<Logger> action = Mockito.mock(Consumer.class);
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.admin.server;
+
+import fr.quatrevieux.araknemu.common.account.Permission;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
+import fr.quatrevieux.araknemu.game.admin.CommandTestCase;
+import fr.quatrevieux.araknemu.game.admin.exception.AdminException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventsTest extends CommandTestCase {
+    private EventDispatchProfiler profiler;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        command = new Events(profiler = new EventDispatchProfiler());
+    }
+
+    @Test
+    void executeWithoutStatistics() throws SQLException, AdminException {
+        execute("events");
+
+        assertOutput("No events statistics. Check that eventProfiling is enabled on game configuration");
+    }
+
+    @Test
+    void execute() throws SQLException, AdminException {
+        profiler.record(String.class, 5_000);
+        profiler.record(String.class, 3_000);
+        profiler.record(Integer.class, 20_000);
+
+        execute("events");
+
+        assertOutput(
+            "===== Events statistics =====",
+            "Integer : 1 dispatches, total 20µs, average 20µs",
+            "String : 2 dispatches, total 8µs, average 4µs"
+        );
+    }
+
+    @Test
+    void executeReset() throws SQLException, AdminException {
+        profiler.record(String.class, 5_000);
+
+        execute("events", "--reset");
+
+        assertOutput("Events statistics cleared");
+        assertTrue(profiler.all().isEmpty());
+    }
+
+    @Test
+    void permissions() {
+        assertEquals(EnumSet.of(Permission.ACCESS, Permission.SUPER_ADMIN), command.permissions());
+    }
+
+    @Test
+    void help() {
+        assertHelp(
+            "events - Display dispatch statistics of events",
+            "========================================",
+            "SYNOPSIS",
+                "\tevents [--reset]",
+            "OPTIONS",
+                "\t--reset : Clear the statistics",
+            "Note: The option eventProfiling must be enabled on game configuration to collect statistics.",
+            "EXAMPLES",
+                "\t*events         - Display events statistics, sorted by total time",
+                "\t*events --reset - Clear events statistics",
+            "PERMISSIONS",
+                "\t[ACCESS, SUPER_ADMIN]"
+        );
+    }
+}
@@ -23,6 +23,7 @@ import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
 import fr.quatrevieux.araknemu.game.chat.ChannelType;
 import fr.quatrevieux.araknemu.game.chat.ChatException;
+import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.network.game.in.chat.Message;
 import fr.quatrevieux.araknemu.network.game.out.info.Information;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +32,7 @@ import org.mockito.Mockito;
 
 import java.sql.SQLException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FloodGuardChannelTest extends GameBaseCase {
@@ -93,4 +95,36 @@ class FloodGuardChannelTest extends GameBaseCase {
             || lastPacket.equals(Information.chatFlood(28).toString())
         );
     }
+
+    @Test
+    void sendShouldEvictExpiredTimers() throws Exception {
+        setConfigValue("chat.flood.time", "1");
+
+        Message message = new Message(ChannelType.TRADE, null, "Hello", "");
+
+        channel.send(gamePlayer(), message);
+        assertEquals(1, channel.size());
+
+        Thread.sleep(1100);
+
+        GamePlayer other = makeOtherPlayer();
+        channel.send(other, message);
+
+        assertEquals(1, channel.size());
+        Mockito.verify(inner).send(gamePlayer(), message);
+        Mockito.verify(inner).send(other, message);
+    }
+
+    @Test
+    void sendWithoutFloodTimeShouldNotTrackPlayers() throws Exception {
+        setConfigValue("chat.flood.time", "-1");
+
+        Message message = new Message(ChannelType.TRADE, null, "Hello", "");
+
+        channel.send(gamePlayer(), message);
+        channel.send(gamePlayer(), message);
+
+        assertEquals(0, channel.size());
+        Mockito.verify(inner, Mockito.times(2)).send(gamePlayer(), message);
+    }
 }
@@ -19,6 +19,7 @@
 
 package fr.quatrevieux.araknemu.game.chat.channel;
 
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
 import fr.quatrevieux.araknemu.core.network.session.SessionFactory;
 import fr.quatrevieux.araknemu.core.network.util.DummyChannel;
 import fr.quatrevieux.araknemu.data.living.entity.account.Account;
@@ -35,14 +36,19 @@ import fr.quatrevieux.araknemu.game.player.GamePlayer;
 import fr.quatrevieux.araknemu.game.player.PlayerService;
 import fr.quatrevieux.araknemu.network.game.GameSession;
 import fr.quatrevieux.araknemu.network.game.in.chat.Message;
+import fr.quatrevieux.araknemu.network.game.out.chat.MessageSent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -124,6 +130,23 @@ class GlobalChannelTest extends GameBaseCase {
         assertContains(gp5, receivers);
     }
 
+    @Test
+    void sendShouldShareEncodedPacket() throws ChatException {
+        List<Object> packets = new ArrayList<>();
+
+        gp1.dispatcher().add(BroadcastedMessage.class, e -> packets.add(e.packet()));
+        gp2.dispatcher().add(BroadcastedMessage.class, e -> packets.add(e.packet()));
+
+        GlobalChannel channel = new GlobalChannel(ChannelType.TRADE, service);
+
+        channel.send(gp1, new Message(ChannelType.TRADE, null, "My message", ""));
+
+        assertEquals(2, packets.size());
+        assertInstanceOf(EncodedPacket.class, packets.get(0));
+        assertSame(packets.get(0), packets.get(1));
+        assertEquals(new MessageSent(gp1, ChannelType.TRADE, "My message", "").toString(), packets.get(0).toString());
+    }
+
     @Test
     void authorized() {
         GlobalChannel channel = new GlobalChannel(ChannelType.TRADE, player -> false, service);
@@ -21,6 +21,7 @@ package fr.quatrevieux.araknemu.game.exploration.map;
 
 import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
@@ -58,6 +59,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -80,7 +82,8 @@ class ExplorationMapServiceTest extends FightBaseCase {
             container.get(FightService.class),
             container.get(AreaService.class),
             dispatcher = new DefaultListenerAggregate(),
-            container.get(CellLoader.class)
+            container.get(CellLoader.class),
+            configuration
         );
 
         dataSet
@@ -131,6 +134,28 @@ class ExplorationMapServiceTest extends FightBaseCase {
         assertSame(map, service.load(template));
     }
 
+    @Test
+    void loadWithEventProfiler() throws ContainerException {
+        EventDispatchProfiler profiler = new EventDispatchProfiler();
+
+        service = new ExplorationMapService(
+            container.get(MapTemplateRepository.class),
+            container.get(FightService.class),
+            container.get(AreaService.class),
+            dispatcher,
+            container.get(CellLoader.class),
+            configuration,
+            profiler
+        );
+
+        ExplorationMap map = service.load(10540);
+
+        map.dispatcher().add(String.class, event -> {});
+        map.dispatch("foo");
+
+        assertEquals(1, profiler.get(String.class).count());
+    }
+
     @Test
     void listeners() throws SQLException, ContainerException {
         ListenerAggregate dispatcher = new DefaultListenerAggregate();
@@ -189,8 +214,25 @@ class ExplorationMapServiceTest extends FightBaseCase {
         Mockito.verify(logger).info(Mockito.eq("{} maps successfully loaded in {}ms"), Mockito.eq(4), Mockito.any());
     }
 
+    @Test
+    void preloadShouldDecodeCells() throws ContainerException {
+        AtomicReference<MapLoaded> ref = new AtomicReference<>();
+        dispatcher.add(MapLoaded.class, ref::set);
+
+        Logger logger = Mockito.mock(Logger.class);
+        service.preload(logger);
+
+        assertTrue(ref.get().map().template().cellsDecoded());
+        assertSame(ref.get().map(), service.load(ref.get().map().id()));
+    }
+
     @Test
     void name() {
         assertEquals("map", service.name());
     }
+
+    @Test
+    void dependencies() {
+        assertEquals(Arrays.asList("map.area", "map.trigger", "npc", "monster.environment"), service.dependencies());
+    }
 }
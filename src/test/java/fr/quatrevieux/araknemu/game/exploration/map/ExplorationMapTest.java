@@ -19,6 +19,7 @@
 
 package fr.quatrevieux.araknemu.game.exploration.map;
 
+import fr.arakne.utils.maps.constant.Direction;
 import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.data.value.Geolocation;
@@ -31,12 +32,14 @@ import fr.quatrevieux.araknemu.game.exploration.creature.Operation;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.BasicCell;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.CellLoader;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.CellLoaderAggregate;
+import fr.quatrevieux.araknemu.game.exploration.map.cell.ExplorationMapCell;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.trigger.MapTriggerService;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.trigger.TriggerCell;
 import fr.quatrevieux.araknemu.game.exploration.map.cell.trigger.TriggerLoader;
 import fr.quatrevieux.araknemu.game.exploration.map.event.NewSpriteOnMap;
 import fr.quatrevieux.araknemu.game.exploration.npc.GameNpc;
 import fr.quatrevieux.araknemu.game.exploration.npc.NpcService;
+import fr.quatrevieux.araknemu.network.game.out.game.AddSprites;
 import fr.quatrevieux.araknemu.network.game.out.game.RemoveSprite;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,6 +48,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -52,7 +56,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -93,6 +96,57 @@ class ExplorationMapTest extends GameBaseCase {
         assertEquals(explorationPlayer().sprite().toString(), map.sprites().toArray()[0].toString());
     }
 
+    @Test
+    void spritesPacket() throws ContainerException, SQLException {
+        MapTemplate template = dataSet.refresh(new MapTemplate(10300, null, null, null, null, null, null, 0, false));
+
+        ExplorationMap map = new ExplorationMap(template, new CellLoaderAggregate(new CellLoader[0]), null);
+
+        assertEquals("GM", map.spritesPacket());
+
+        ExplorationPlayer player = explorationPlayer();
+        map.add(player);
+
+        String packet = map.spritesPacket();
+
+        assertEquals(new AddSprites(Collections.singleton(player.sprite())).toString(), packet);
+        assertSame(packet, map.spritesPacket());
+
+        map.remove(player);
+
+        assertEquals("GM", map.spritesPacket());
+    }
+
+    @Test
+    void refreshSprite() throws ContainerException, SQLException {
+        MapTemplate template = dataSet.refresh(new MapTemplate(10300, null, null, null, null, null, null, 0, false));
+
+        ExplorationMap map = new ExplorationMap(template, new CellLoaderAggregate(new CellLoader[0]), null);
+        ExplorationPlayer player = explorationPlayer();
+        map.add(player);
+
+        String packet = map.spritesPacket();
+
+        player.setOrientation(Direction.WEST);
+        assertSame(packet, map.spritesPacket());
+
+        map.refreshSprite(player);
+
+        assertNotEquals(packet, map.spritesPacket());
+        assertEquals(new AddSprites(Collections.singleton(player.sprite())).toString(), map.spritesPacket());
+    }
+
+    @Test
+    void refreshSpriteNotOnMap() throws ContainerException, SQLException {
+        MapTemplate template = dataSet.refresh(new MapTemplate(10300, null, null, null, null, null, null, 0, false));
+
+        ExplorationMap map = new ExplorationMap(template, new CellLoaderAggregate(new CellLoader[0]), null);
+
+        map.refreshSprite(explorationPlayer());
+
+        assertEquals("GM", map.spritesPacket());
+    }
+
     @Test
     void addPlayerWillDispatchEvent() throws Exception {
         AtomicReference<NewSpriteOnMap> ref = new AtomicReference<>();
@@ -280,18 +334,99 @@ class ExplorationMapTest extends GameBaseCase {
     }
 
     @Test
-    void getBasicCellWillBeReinstantiated() throws ContainerException, SQLException {
+    void getBasicCellWillKeepInstance() throws ContainerException, SQLException {
         MapTemplate template = dataSet.refresh(new MapTemplate(10300, null, null, null, null, null, null, 0, false));
 
         ExplorationMap map = new ExplorationMap(template, new CellLoaderAggregate(new CellLoader[0]), null);
 
         assertInstanceOf(BasicCell.class, map.get(456));
-        assertNotSame(map.get(456), map.get(456));
+        assertSame(map.get(456), map.get(456));
         assertEquals(map.get(456), map.get(456));
         assertEquals(456, map.get(456).id());
         assertSame(map, map.get(456).map());
     }
 
+    @Test
+    void isFreeAndHasCreatureOn() throws Exception {
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+        ExplorationPlayer player = makeOtherExplorationPlayer();
+
+        assertTrue(map.isFree(185));
+        assertFalse(map.hasCreatureOn(185));
+        assertFalse(map.isFree(209));
+        assertFalse(map.hasCreatureOn(209));
+
+        player.changeMap(map, 185);
+
+        assertFalse(map.isFree(185));
+        assertTrue(map.hasCreatureOn(185));
+        assertFalse(map.get(185).free());
+
+        player.changeCell(186);
+
+        assertTrue(map.isFree(185));
+        assertFalse(map.hasCreatureOn(185));
+        assertFalse(map.isFree(186));
+        assertTrue(map.hasCreatureOn(186));
+
+        player.leave();
+
+        assertTrue(map.isFree(186));
+        assertFalse(map.hasCreatureOn(186));
+    }
+
+    @Test
+    void isFreeShouldBeSameAsCellFree() throws Exception {
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+        makeOtherExplorationPlayer().changeMap(map, 185);
+
+        for (int cellId = 0; cellId < map.size(); ++cellId) {
+            assertEquals(map.get(cellId).free(), map.isFree(cellId), "Cell " + cellId);
+        }
+    }
+
+    @Test
+    void freeCells() throws Exception {
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+        ExplorationPlayer player = makeOtherExplorationPlayer();
+
+        assertTrue(map.freeCells().contains(map.get(185)));
+        assertFalse(map.freeCells().contains(map.get(209)));
+
+        player.changeMap(map, 185);
+        assertFalse(map.freeCells().contains(map.get(185)));
+
+        for (ExplorationMapCell cell : map.freeCells()) {
+            assertTrue(cell.free());
+        }
+
+        int freeCount = 0;
+
+        for (int cellId = 0; cellId < map.size(); ++cellId) {
+            if (map.get(cellId).free()) {
+                ++freeCount;
+            }
+        }
+
+        assertEquals(freeCount, map.freeCells().size());
+    }
+
+    @Test
+    void firstWalkableCell() throws Exception {
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+        int expected = -1;
+
+        for (int cellId = 0; cellId < map.size(); ++cellId) {
+            if (map.get(cellId).walkable()) {
+                expected = cellId;
+                break;
+            }
+        }
+
+        assertNotEquals(-1, expected);
+        assertEquals(expected, map.firstWalkableCell());
+    }
+
     @Test
     void apply() throws Exception {
         dataSet.pushNpcs();
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2019 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.exploration.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeolocationIndexTest {
+    @Test
+    void empty() {
+        GeolocationIndex index = GeolocationIndex.of(Collections.emptyList());
+
+        assertEquals(0, index.size());
+        assertNull(index.get(0, 0, 0));
+    }
+
+    @Test
+    void getShouldSortBySize() {
+        GeolocationIndex.Entry small = new GeolocationIndex.Entry(1, 3, 5, 0, 1, false, 100);
+        GeolocationIndex.Entry big = new GeolocationIndex.Entry(2, 3, 5, 0, 1, false, 400);
+        GeolocationIndex.Entry medium = new GeolocationIndex.Entry(3, 3, 5, 0, 1, false, 200);
+        GeolocationIndex.Entry other = new GeolocationIndex.Entry(4, 3, 5, 3, 1, false, 200);
+
+        GeolocationIndex index = GeolocationIndex.of(Arrays.asList(small, big, medium, other));
+
+        assertEquals(4, index.size());
+        assertArrayEquals(new GeolocationIndex.Entry[] {big, medium, small}, index.get(3, 5, 0));
+        assertArrayEquals(new GeolocationIndex.Entry[] {other}, index.get(3, 5, 3));
+        assertNull(index.get(5, 3, 0));
+        assertNull(index.get(3, 5, 1));
+    }
+
+    @Test
+    void getWithManyPositions() {
+        List<GeolocationIndex.Entry> entries = new ArrayList<>();
+        int id = 0;
+
+        for (int x = -50; x <= 50; ++x) {
+            for (int y = -50; y <= 50; ++y) {
+                entries.add(new GeolocationIndex.Entry(id++, x, y, 0, 1, false, 479));
+                entries.add(new GeolocationIndex.Entry(id++, x, y, 3, 1, true, 479));
+            }
+        }
+
+        GeolocationIndex index = GeolocationIndex.of(entries);
+
+        assertEquals(entries.size(), index.size());
+
+        for (GeolocationIndex.Entry entry : entries) {
+            int x = (entry.id() / 2) / 101 - 50;
+            int y = (entry.id() / 2) % 101 - 50;
+
+            assertArrayEquals(new GeolocationIndex.Entry[] {entry}, index.get(x, y, entry.indoor() ? 3 : 0));
+        }
+
+        assertNull(index.get(51, 0, 0));
+    }
+}
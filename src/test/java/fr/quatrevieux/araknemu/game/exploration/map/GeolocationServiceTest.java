@@ -24,10 +24,14 @@ import fr.quatrevieux.araknemu.data.value.Geolocation;
 import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
 import fr.quatrevieux.araknemu.game.exploration.area.AreaService;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
 
 import java.sql.SQLException;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -110,6 +114,69 @@ class GeolocationServiceTest extends GameBaseCase {
         assertEquals(99001, service.find(new Geolocation(42, 24), new GeolocationService.GeolocationContext().indoor(true)).id());
     }
 
+    @Test
+    void findWithIndex() {
+        service.preload(Mockito.mock(Logger.class));
+
+        ExplorationMap map = service.find(new Geolocation(3, 6), new GeolocationService.GeolocationContext().superArea(3));
+
+        assertEquals(10340, map.id());
+        assertThrows(EntityNotFoundException.class, () -> service.find(new Geolocation(40, 4), new GeolocationService.GeolocationContext()));
+        assertThrows(EntityNotFoundException.class, () -> service.find(new Geolocation(3, 6), new GeolocationService.GeolocationContext().superArea(5)));
+    }
+
+    @Test
+    void findWithIndexShouldFollowContextRules() throws SQLException {
+        pushMapsOnSameGeoposition();
+        dataSet
+            .pushMap(99004, "", 1, 1, "", "Hhaaeaaaaa", "", new Geolocation(43, 24), 1, true)
+            .pushMap(99005, "", 1, 1, "", "HhaaeaaaaaHhaaeaaaaa", "", new Geolocation(43, 24), 1, false)
+        ;
+
+        service.preload(Mockito.mock(Logger.class));
+
+        assertEquals(99003, service.find(new Geolocation(42, 24), new GeolocationService.GeolocationContext().subArea(4)).id());
+        assertEquals(99002, service.find(new Geolocation(42, 24), new GeolocationService.GeolocationContext().subArea(1)).id());
+        assertEquals(99002, service.find(new Geolocation(42, 24), new GeolocationService.GeolocationContext().superArea(0)).id());
+        assertEquals(99001, service.find(new Geolocation(42, 24), new GeolocationService.GeolocationContext().superArea(3)).id());
+        assertEquals(99005, service.find(new Geolocation(43, 24), new GeolocationService.GeolocationContext()).id());
+        assertEquals(99004, service.find(new Geolocation(43, 24), new GeolocationService.GeolocationContext().indoor(true)).id());
+    }
+
+    @Test
+    void findWithIndexShouldNotQueryDatabase() {
+        MapTemplateRepository repository = Mockito.mock(MapTemplateRepository.class, AdditionalAnswers.delegatesTo(container.get(MapTemplateRepository.class)));
+
+        service = new GeolocationService(
+            container.get(ExplorationMapService.class),
+            container.get(AreaService.class),
+            repository
+        );
+
+        service.preload(Mockito.mock(Logger.class));
+        service.find(new Geolocation(3, 6), new GeolocationService.GeolocationContext().superArea(3));
+
+        Mockito.verify(repository, Mockito.never()).byGeolocation(Mockito.any());
+    }
+
+    @Test
+    void preload() throws SQLException {
+        dataSet.pushMap(99001, "", 1, 1, "", "Hhaaeaaaaa", "", new Geolocation(42, 24), 99999, false);
+
+        Logger logger = Mockito.mock(Logger.class);
+        service.preload(logger);
+
+        Mockito.verify(logger).info("Indexing maps geolocation...");
+        Mockito.verify(logger).warn("Cannot index map {}: sub area {} not found", 99001, 99999);
+        Mockito.verify(logger).info("{} maps indexed", 4);
+    }
+
+    @Test
+    void nameAndDependencies() {
+        assertEquals("map.geolocation", service.name());
+        assertEquals(Collections.singletonList("map.area"), service.dependencies());
+    }
+
     private void pushMapsOnSameGeoposition() throws SQLException {
         dataSet
             .pushMap(99001, "", 1, 1, "", "", "", new Geolocation(42, 24), 440, false)
@@ -0,0 +1,125 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight;
+
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import io.github.artsok.RepeatedIfExceptionsTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FightExecutorsTest extends GameBaseCase {
+    private FightExecutors executors;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        executors = new FightExecutors(3);
+    }
+
+    @Test
+    void forFight() {
+        assertEquals(3, executors.shards().length);
+
+        assertSame(executors.shards()[1], executors.forFight(1));
+        assertSame(executors.shards()[2], executors.forFight(2));
+        assertSame(executors.shards()[0], executors.forFight(3));
+        assertSame(executors.shards()[1], executors.forFight(4));
+        assertSame(executors.shards()[2], executors.forFight(-1));
+        assertSame(executors.forFight(42), executors.forFight(42));
+        assertNotSame(executors.forFight(42), executors.forFight(43));
+    }
+
+    @Test
+    void executeShouldUpdateMetrics() {
+        FightExecutors.Shard shard = executors.forFight(1);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        assertEquals(0, shard.executed());
+        assertEquals(0, shard.averageLag());
+
+        shard.execute(() -> executed.set(true));
+
+        assertTrue(executed.get());
+        assertEquals(1, shard.executed());
+        assertEquals(0, shard.pending());
+        assertTrue(shard.maxLag() >= shard.lastLag());
+    }
+
+    @RepeatedIfExceptionsTest
+    void pending() throws InterruptedException {
+        ExecutorFactory.disableDirectExecution();
+
+        FightExecutors.Shard shard = executors.forFight(1);
+
+        shard.execute(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        });
+        shard.execute(() -> {});
+
+        Thread.sleep(10);
+        assertEquals(1, shard.pending());
+
+        Thread.sleep(100);
+        assertEquals(0, shard.pending());
+        assertEquals(2, shard.executed());
+        assertTrue(shard.maxLag() >= 30000);
+    }
+
+    @RepeatedIfExceptionsTest
+    void schedule() throws InterruptedException {
+        FightExecutors.Shard shard = executors.forFight(1);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        shard.schedule(() -> executed.set(true), 10, TimeUnit.MILLISECONDS);
+
+        assertFalse(executed.get());
+        assertEquals(0, shard.pending());
+
+        Thread.sleep(50);
+
+        assertTrue(executed.get());
+        assertEquals(1, shard.executed());
+    }
+
+    @Test
+    void shutdownNow() {
+        executors.shutdownNow();
+
+        for (FightExecutors.Shard shard : executors.shards()) {
+            assertTrue(shard.isShutdown());
+        }
+    }
+}
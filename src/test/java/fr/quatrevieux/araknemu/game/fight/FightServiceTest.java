@@ -58,6 +58,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -247,4 +248,11 @@ class FightServiceTest extends FightBaseCase {
         assertEquals(10340, fight.map().id());
         assertInstanceOf(FightActionsFactoryRegistry.class, fight.actions());
     }
+
+    @Test
+    void executors() {
+        assertEquals(4, service.executors().shards().length);
+        assertSame(service.executors().forFight(1), service.executors().forFight(5));
+        assertNotSame(service.executors().forFight(1), service.executors().forFight(2));
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2019 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai;
+
+import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
+import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.GameConfiguration;
+import fr.quatrevieux.araknemu.game.GameService;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiPlannerTest extends GameBaseCase {
+    @Test
+    void disabled() {
+        AiPlanner planner = new AiPlanner(null, Duration.ofSeconds(2), container.get(Logger.class));
+
+        assertFalse(planner.enabled());
+        assertEquals(Duration.ofSeconds(2), planner.budget());
+        assertThrows(IllegalStateException.class, () -> planner.submit(() -> {}));
+    }
+
+    @Test
+    void submit() {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(2), container.get(Logger.class));
+        Runnable task = () -> {};
+
+        assertTrue(planner.enabled());
+        planner.submit(task);
+
+        Mockito.verify(executor).execute(task);
+    }
+
+    @Test
+    void fromConfiguration() {
+        assertFalse(new AiPlanner(container.get(GameConfiguration.class).fight(), container.get(Logger.class)).enabled());
+
+        setConfigValue("fight.ai.threadsCount", "2");
+        setConfigValue("fight.ai.timeBudget", "0.5s");
+
+        AiPlanner planner = new AiPlanner(container.get(GameConfiguration.class).fight(), container.get(Logger.class));
+
+        assertTrue(planner.enabled());
+        assertEquals(Duration.ofMillis(500), planner.budget());
+    }
+
+    @Test
+    void metrics() {
+        AiPlanner planner = new AiPlanner(null, Duration.ofSeconds(2), container.get(Logger.class));
+
+        assertEquals(0, planner.metrics().turns());
+        assertEquals(Duration.ZERO, planner.metrics().averageTime());
+        assertEquals(Duration.ZERO, planner.metrics().maxTime());
+
+        planner.record(Duration.ofMillis(10).toNanos());
+        planner.record(Duration.ofMillis(30).toNanos());
+
+        assertEquals(2, planner.metrics().turns());
+        assertEquals(Duration.ofMillis(20), planner.metrics().averageTime());
+        assertEquals(Duration.ofMillis(30), planner.metrics().maxTime());
+    }
+
+    @Test
+    void onGameStoppedShouldShutdownExecutor() {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(2), container.get(Logger.class));
+        ListenerAggregate dispatcher = new DefaultListenerAggregate();
+
+        dispatcher.register(planner);
+        dispatcher.dispatch(new GameStopped(container.get(GameService.class)));
+
+        Mockito.verify(executor).shutdownNow();
+    }
+
+    @Test
+    void onGameStoppedDisabled() {
+        AiPlanner planner = new AiPlanner(null, Duration.ofSeconds(2), container.get(Logger.class));
+        ListenerAggregate dispatcher = new DefaultListenerAggregate();
+
+        dispatcher.register(planner);
+        dispatcher.dispatch(new GameStopped(container.get(GameService.class)));
+    }
+}
@@ -25,6 +25,7 @@ import fr.quatrevieux.araknemu.game.fight.ai.action.ActionGenerator;
 import fr.quatrevieux.araknemu.game.fight.ai.action.AiActionFactory;
 import fr.quatrevieux.araknemu.game.fight.ai.action.logic.GeneratorAggregate;
 import fr.quatrevieux.araknemu.game.fight.ai.action.logic.NullGenerator;
+import fr.quatrevieux.araknemu.game.fight.ai.proxy.SnapshotAI;
 import fr.quatrevieux.araknemu.game.fight.ai.util.AIHelper;
 import fr.quatrevieux.araknemu.game.fight.fighter.Fighter;
 import fr.quatrevieux.araknemu.game.fight.fighter.PlayableFighter;
@@ -33,11 +34,16 @@ import fr.quatrevieux.araknemu.game.fight.state.PlacementState;
 import fr.quatrevieux.araknemu.game.fight.turn.FightTurn;
 import fr.quatrevieux.araknemu.game.fight.turn.action.Action;
 import io.github.artsok.RepeatedIfExceptionsTest;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -172,6 +178,260 @@ class FighterAITest extends FightBaseCase {
         Mockito.verify(generator2, Mockito.never()).generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class));
     }
 
+    @RepeatedIfExceptionsTest
+    void startWithDisabledPlannerShouldComputeOnFightExecutor() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        AiPlanner planner = new AiPlanner(null, Duration.ofSeconds(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class))).thenReturn(Optional.empty());
+
+        ai.start(turn, planner);
+
+        Mockito.verify(generator).generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class));
+        assertFalse(turn.active());
+        assertEquals(0, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerShouldComputeOnPlannerExecutor() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenReturn(Optional.empty());
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+        Mockito.verify(generator, Mockito.never()).generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class));
+        assertTrue(turn.active());
+
+        task.getValue().run();
+
+        Mockito.verify(generator).generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class));
+        assertFalse(turn.active());
+        assertEquals(1, planner.metrics().turns());
+        assertTrue(planner.metrics().maxTime().toNanos() > 0);
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerShouldPerformComputedAction() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenReturn(Optional.of(Mockito.mock(Action.class)));
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+        task.getValue().run();
+
+        Mockito.verify(generator).generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class));
+        assertSame(turn, ai.turn());
+        assertTrue(turn.active());
+        assertEquals(0, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerBudgetExhaustedShouldStopTurn() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ZERO, container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        ai.start(turn, planner);
+
+        Mockito.verify(executor, Mockito.never()).execute(Mockito.any());
+        Mockito.verify(generator, Mockito.never()).generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class));
+        assertFalse(turn.active());
+        assertEquals(1, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerTimeoutShouldStopTurnAndIgnoreResult() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofMillis(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Action action = Mockito.mock(Action.class);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenReturn(Optional.of(action));
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+
+        Thread.sleep(100);
+
+        assertFalse(turn.active());
+        assertEquals(1, planner.metrics().turns());
+        assertEquals(Duration.ofMillis(20), planner.metrics().maxTime());
+
+        task.getValue().run();
+
+        Mockito.verify(generator).generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class));
+        Mockito.verifyNoInteractions(action);
+        assertEquals(1, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPreviousComputationStillRunningShouldSkipTurn() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofMillis(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        ai.start(turn, planner);
+
+        // The computation task is never executed
+        Mockito.verify(executor).execute(Mockito.any(Runnable.class));
+        Thread.sleep(100);
+        assertFalse(turn.active());
+
+        FightTurn nextTurn = new FightTurn(fighter, fight, Duration.ofSeconds(10));
+        nextTurn.start();
+        ai.start(nextTurn, planner);
+
+        Thread.sleep(100);
+
+        assertFalse(nextTurn.active());
+        assertEquals(1, planner.metrics().skippedTurns());
+        Mockito.verify(executor).execute(Mockito.any(Runnable.class));
+        Mockito.verify(generator).initialize(ai);
+        Mockito.verifyNoMoreInteractions(generator);
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerShouldComputeOnSnapshot() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenReturn(Optional.empty());
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+
+        // Changes after the snapshot creation are not visible by the computation
+        int cell = enemy.cell().id();
+        fight.map().get(cell).removeFighter();
+
+        task.getValue().run();
+
+        ArgumentCaptor<AI> snapshot = ArgumentCaptor.forClass(AI.class);
+        Mockito.verify(generator).generate(snapshot.capture(), Mockito.any(AiActionFactory.class));
+
+        assertEquals(fighter, snapshot.getValue().fighter());
+        assertEquals(enemy, snapshot.getValue().map().get(cell).fighter());
+        assertEquals(3, snapshot.getValue().fighters().count());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerDeadlineReachedShouldPerformBestAction() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofMillis(100), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenAnswer(invocation -> {
+            AI snapshot = invocation.getArgument(0);
+            Thread.sleep(120);
+
+            // Time budget reached : the generator must return the best action found so far
+            assertTrue(snapshot.helper().expired());
+
+            return Optional.of(Mockito.mock(Action.class));
+        });
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+        task.getValue().run();
+
+        assertSame(turn, ai.turn());
+        assertTrue(turn.active());
+        assertEquals(0, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithPlannerErrorShouldStopTurn() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.any(SnapshotAI.class), Mockito.any(AiActionFactory.class))).thenThrow(new IllegalStateException("my error"));
+
+        ai.start(turn, planner);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(task.capture());
+        task.getValue().run();
+
+        assertFalse(turn.active());
+        assertThrows(IllegalStateException.class, ai::turn);
+        assertEquals(1, planner.metrics().turns());
+    }
+
+    @RepeatedIfExceptionsTest
+    void startWithStoppedPlannerShouldComputeOnFightExecutor() throws InterruptedException {
+        ActionGenerator generator = Mockito.mock(ActionGenerator.class);
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        Mockito.doThrow(RejectedExecutionException.class).when(executor).execute(Mockito.any());
+
+        fight.turnList().start();
+        FightTurn turn = fight.turnList().current().get();
+
+        FighterAI ai = new FighterAI(fighter, fight, generator);
+        Mockito.when(generator.generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class))).thenReturn(Optional.empty());
+
+        ai.start(turn, planner);
+
+        Mockito.verify(generator).generate(Mockito.eq(ai), Mockito.any(AiActionFactory.class));
+        assertFalse(turn.active());
+        assertEquals(1, planner.metrics().turns());
+    }
+
     @Test
     void runWithoutStart() {
         FighterAI ai = new FighterAI(fighter, fight, NullGenerator.get());
@@ -137,6 +137,33 @@ class ProxyBattlefieldTest extends AiBaseCase {
         assertTrue(battlefield.get(167).sightBlocking());
     }
 
+    @Test
+    void isFreeSight() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+            .addAlly(builder -> builder.cell(166))
+        );
+
+        ProxyBattlefield battlefield = new ProxyBattlefield(ai.map());
+        assertSameSight(battlefield);
+
+        battlefield = battlefield.modify(modifier -> modifier.free(152).free(166).setFighter(153, Mockito.mock(FighterData.class)).setFighter(210, Mockito.mock(FighterData.class)));
+        assertSameSight(battlefield);
+    }
+
+    private void assertSameSight(ProxyBattlefield battlefield) {
+        for (int source = 0; source < battlefield.size(); source += 11) {
+            for (int target = 0; target < battlefield.size(); ++target) {
+                assertEquals(
+                    battlefield.get(source).sight().isFree(battlefield.get(target)),
+                    battlefield.isFreeSight(battlefield.get(source), battlefield.get(target)),
+                    "Line of sight from " + source + " to " + target
+                );
+            }
+        }
+    }
+
     @Test
     void cellWalkable() {
         configureFight(fb -> fb
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.proxy;
+
+import fr.quatrevieux.araknemu.data.constant.Characteristic;
+import fr.quatrevieux.araknemu.game.fight.ai.AiBaseCase;
+import fr.quatrevieux.araknemu.game.fight.castable.spell.LaunchedSpells;
+import fr.quatrevieux.araknemu.game.fight.fighter.FighterData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotAITest extends AiBaseCase {
+    @Test
+    void snapshot() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+            .addAlly(builder -> builder.cell(166))
+        );
+
+        SnapshotAI snapshot = new SnapshotAI(ai);
+
+        assertNotSame(snapshot.fighter(), ai.fighter());
+        assertEquals(snapshot.fighter(), ai.fighter());
+        assertEquals(152, snapshot.fighter().cell().id());
+        assertSame(snapshot.fighter(), snapshot.map().get(152).fighter());
+        assertSame(snapshot.map(), snapshot.fighter().cell().map());
+
+        List<FighterData> fighters = snapshot.fighters().collect(Collectors.toList());
+
+        assertEquals(3, fighters.size());
+        assertSame(snapshot.fighter(), fighters.get(0));
+        assertEquals(getAlly(1), fighters.get(1));
+        assertEquals(getEnemy(0), fighters.get(2));
+        assertSame(fighters.get(1), snapshot.map().get(166).fighter());
+        assertSame(fighters.get(2), snapshot.map().get(167).fighter());
+        assertSame(snapshot.map().get(167), fighters.get(2).cell());
+
+        assertEquals(getEnemy(0), snapshot.enemy().get());
+        assertEquals(fighters.get(2), snapshot.enemy().get());
+        assertSame(snapshot.helper(), snapshot.helper());
+
+        assertEquals(6, snapshot.turn().points().actionPoints());
+        assertEquals(3, snapshot.turn().points().movementPoints());
+        assertTrue(snapshot.turn().active());
+    }
+
+    @Test
+    void changesOnFightShouldNotBeVisible() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+        );
+
+        SnapshotAI snapshot = new SnapshotAI(ai);
+        FighterData enemy = snapshot.map().get(167).fighter();
+        int life = enemy.life().current();
+
+        setAP(3);
+        setMP(2);
+        getEnemy(0).life().alter(getEnemy(0), -10);
+        fight.map().get(167).removeFighter();
+
+        assertEquals(6, snapshot.turn().points().actionPoints());
+        assertEquals(3, snapshot.turn().points().movementPoints());
+        assertEquals(life, enemy.life().current());
+        assertSame(enemy, snapshot.map().get(167).fighter());
+        assertFalse(snapshot.map().get(167).walkable());
+        assertNull(fight.map().get(167).fighter());
+
+        turn.stop();
+        assertFalse(snapshot.turn().active());
+    }
+
+    @Test
+    void changesOnFightersPropertiesShouldNotBeVisible() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+        );
+
+        fighter.attach(new LaunchedSpells());
+
+        SnapshotAI snapshot = new SnapshotAI(ai);
+        FighterData enemy = snapshot.map().get(167).fighter();
+        int strength = enemy.characteristics().get(Characteristic.STRENGTH);
+        int selfStrength = snapshot.fighter().characteristics().get(Characteristic.STRENGTH);
+        int spellsCount = (int) StreamSupport.stream(snapshot.fighter().spells().spliterator(), false).count();
+
+        getEnemy(0).characteristics().alter(Characteristic.STRENGTH, 100);
+        getEnemy(0).states().push(5);
+        fighter.characteristics().alter(Characteristic.STRENGTH, 100);
+        fighter.states().push(5);
+        fighter.attachment(LaunchedSpells.class).push(fighter.spells().get(3), fight.map().get(167));
+
+        assertEquals(strength, enemy.characteristics().get(Characteristic.STRENGTH));
+        assertEquals(selfStrength, snapshot.fighter().characteristics().get(Characteristic.STRENGTH));
+        assertFalse(enemy.states().has(5));
+        assertFalse(snapshot.fighter().states().has(5));
+        assertNotSame(fighter.attachment(LaunchedSpells.class), snapshot.fighter().attachment(LaunchedSpells.class));
+        assertEquals(spellsCount, StreamSupport.stream(snapshot.fighter().spells().spliterator(), false).count());
+    }
+
+    @Test
+    void fightersPropertiesCannotBeModified() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+        );
+
+        SnapshotAI snapshot = new SnapshotAI(ai);
+        FighterData enemy = snapshot.map().get(167).fighter();
+
+        assertThrows(UnsupportedOperationException.class, () -> enemy.characteristics().alter(Characteristic.STRENGTH, 10));
+        assertThrows(UnsupportedOperationException.class, () -> enemy.states().push(5));
+        assertThrows(UnsupportedOperationException.class, () -> enemy.buffs().refresh());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.fighter().states().remove(5));
+    }
+
+    @Test
+    void turnCannotBeModified() {
+        configureFight(fb -> fb
+            .addSelf(builder -> builder.cell(152))
+            .addEnemy(builder -> builder.cell(167))
+        );
+
+        SnapshotAI snapshot = new SnapshotAI(ai);
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.turn().stop());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.turn().later(() -> {}));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.turn().points().removeActionPoints(1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.turn().points().addMovementPoints(1));
+    }
+}
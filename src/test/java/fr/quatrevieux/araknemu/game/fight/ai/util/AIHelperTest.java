@@ -23,6 +23,8 @@ import fr.arakne.utils.maps.MapCell;
 import fr.quatrevieux.araknemu.game.fight.ai.AiBaseCase;
 import fr.quatrevieux.araknemu.game.fight.ai.simulation.CastSimulation;
 import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.spell.Spell;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -198,4 +200,63 @@ class AIHelperTest extends AiBaseCase {
         assertEquals(2, ai.helper().enemies().count());
         assertArrayEquals(new int [] {125, 132}, ai.helper().enemies().cells().mapToInt(MapCell::id).toArray());
     }
+
+    @Test
+    void memoize() {
+        configureFight(fb -> fb
+            .addSelf(b -> b.cell(123))
+            .addEnemy(b -> b.cell(125))
+        );
+
+        Simulator simulator = container.get(Simulator.class);
+        BattlefieldCell target = fight.map().get(125);
+        Spell spell = fighter.spells().get(3);
+
+        assertNotSame(ai.helper().simulate(simulator, spell, target), ai.helper().simulate(simulator, spell, target));
+
+        ai.helper().memoize(() -> {
+            CastSimulation simulation = ai.helper().simulate(simulator, spell, target);
+
+            assertSame(simulation, ai.helper().simulate(simulator, spell, target));
+            assertSame(simulation, ai.helper().memoize(() -> ai.helper().simulate(simulator, spell, target)));
+
+            // Positioned helpers do not share simulations with the real position
+            AIHelper positioned = ai.helper().withPosition(fighter.cell());
+            CastSimulation positionedSimulation = positioned.simulate(simulator, spell, positioned.cells().stream().filter(cell -> cell.id() == 125).findFirst().get());
+
+            assertNotSame(simulation, positionedSimulation);
+            assertSame(positionedSimulation, ai.helper().withPosition(fighter.cell()).simulate(simulator, spell, target));
+            assertNotSame(positionedSimulation, ai.helper().withPosition(fight.map().get(124)).simulate(simulator, spell, target));
+
+            return null;
+        });
+
+        assertNotSame(ai.helper().simulate(simulator, spell, target), ai.helper().simulate(simulator, spell, target));
+    }
+
+    @Test
+    void memoizeWithDeadline() {
+        configureFight(fb -> fb
+            .addSelf(b -> b.cell(123))
+            .addEnemy(b -> b.cell(125))
+        );
+
+        assertFalse(ai.helper().expired());
+
+        ai.helper().memoize(() -> {
+            assertFalse(ai.helper().expired());
+            assertFalse(ai.helper().withPosition(fight.map().get(124)).expired());
+
+            return null;
+        }, System.nanoTime() + 10_000_000_000L);
+
+        ai.helper().memoize(() -> {
+            assertTrue(ai.helper().expired());
+            assertTrue(ai.helper().withPosition(fight.map().get(124)).expired());
+
+            return null;
+        }, System.nanoTime());
+
+        assertFalse(ai.helper().expired());
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2021 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.ai.util;
+
+import fr.quatrevieux.araknemu.game.fight.ai.AiBaseCase;
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.CastSimulation;
+import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
+import fr.quatrevieux.araknemu.game.fight.turn.action.util.BaseCriticalityStrategy;
+import fr.quatrevieux.araknemu.game.spell.Spell;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimulationCacheTest extends AiBaseCase {
+    private SimulationCache cache;
+    private Simulator simulator;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        configureFight(fb -> fb
+            .addSelf(b -> b.cell(123))
+            .addEnemy(b -> b.cell(125))
+        );
+
+        cache = new SimulationCache();
+        simulator = container.get(Simulator.class);
+    }
+
+    @Test
+    void simulateDisabled() {
+        Spell spell = fighter.spells().get(3);
+        BattlefieldCell target = fight.map().get(125);
+
+        CastSimulation simulation = cache.simulate(simulator, spell, fighter, target, false);
+
+        assertSame(spell, simulation.spell());
+        assertSame(target, simulation.target());
+        assertNotSame(simulation, cache.simulate(simulator, spell, fighter, target, false));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void memoize() {
+        Spell spell = fighter.spells().get(3);
+        BattlefieldCell target = fight.map().get(125);
+
+        assertEquals("foo", cache.memoize(() -> {
+            CastSimulation simulation = cache.simulate(simulator, spell, fighter, target, false);
+
+            assertSame(simulation, cache.simulate(simulator, spell, fighter, target, false));
+            assertNotSame(simulation, cache.simulate(simulator, spell, fighter, target, true));
+            assertNotSame(simulation, cache.simulate(simulator, fighter.spells().get(6), fighter, target, false));
+            assertNotSame(simulation, cache.simulate(simulator, spell, fighter, fight.map().get(124), false));
+            assertNotSame(simulation, cache.simulate(new Simulator(new BaseCriticalityStrategy()), spell, fighter, target, false));
+            assertEquals(5, cache.size());
+
+            return "foo";
+        }));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void memoizeShouldClearOnException() {
+        Spell spell = fighter.spells().get(3);
+        BattlefieldCell target = fight.map().get(125);
+
+        assertThrows(IllegalStateException.class, () -> cache.memoize(() -> {
+            cache.simulate(simulator, spell, fighter, target, false);
+
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(0, cache.size());
+        assertNotSame(cache.simulate(simulator, spell, fighter, target, false), cache.simulate(simulator, spell, fighter, target, false));
+    }
+
+    @Test
+    void nestedMemoizeShouldNotClear() {
+        Spell spell = fighter.spells().get(3);
+        BattlefieldCell target = fight.map().get(125);
+
+        cache.memoize(() -> {
+            CastSimulation simulation = cache.simulate(simulator, spell, fighter, target, false);
+
+            assertSame(simulation, cache.memoize(() -> cache.simulate(simulator, spell, fighter, target, false)));
+            assertSame(simulation, cache.simulate(simulator, spell, fighter, target, false));
+
+            return null;
+        });
+    }
+}
@@ -19,6 +19,7 @@
 
 package fr.quatrevieux.araknemu.game.fight.ai.util;
 
+import fr.quatrevieux.araknemu.data.constant.Characteristic;
 import fr.quatrevieux.araknemu.game.fight.Fight;
 import fr.quatrevieux.araknemu.game.fight.ai.AiBaseCase;
 import fr.quatrevieux.araknemu.game.fight.ai.FighterAI;
@@ -26,10 +27,16 @@ import fr.quatrevieux.araknemu.game.fight.ai.action.DummyGenerator;
 import fr.quatrevieux.araknemu.game.fight.ai.simulation.Simulator;
 import fr.quatrevieux.araknemu.game.fight.castable.spell.SpellConstraintsValidator;
 import fr.quatrevieux.araknemu.game.fight.fighter.player.PlayerFighter;
+import fr.quatrevieux.araknemu.game.fight.map.BattlefieldCell;
 import fr.quatrevieux.araknemu.game.spell.Spell;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -75,6 +82,38 @@ class SpellCasterTest extends AiBaseCase {
         assertFalse(caster.simulate(container.get(Simulator.class)).anyMatch(simulation -> simulation.spell().id() == 3));
     }
 
+    @Test
+    void simulateDeadlineReached() {
+        configureFight(fb -> fb
+            .addSelf(b -> b.cell(123))
+            .addEnemy(b -> b.cell(125))
+        );
+
+        caster = new SpellCaster(ai, ai.helper(), new SpellConstraintsValidator(fight));
+
+        assertEquals(0L, (long) ai.helper().memoize(() -> caster.simulate(container.get(Simulator.class)).count(), System.nanoTime()));
+        assertTrue(ai.helper().memoize(() -> caster.simulate(container.get(Simulator.class)).count(), System.nanoTime() + 10_000_000_000L) > 0);
+    }
+
+    @Test
+    void simulateShouldReturnAllValidCasts() {
+        configureFight(fb -> fb
+            .addSelf(b -> b.cell(123))
+            .addEnemy(b -> b.cell(125))
+            .addEnemy(b -> b.cell(325))
+        );
+
+        caster = new SpellCaster(ai, ai.helper(), new SpellConstraintsValidator(fight));
+
+        assertEquals(expectedCasts(), actualCasts());
+
+        ai.fighter().characteristics().alter(Characteristic.SIGHT_BOOST, 5);
+        assertEquals(expectedCasts(), actualCasts());
+
+        ai.fighter().characteristics().alter(Characteristic.SIGHT_BOOST, -10);
+        assertEquals(expectedCasts(), actualCasts());
+    }
+
     @Test
     void validate() {
         Spell spell = fighter.spells().get(3);
@@ -83,4 +122,25 @@ class SpellCasterTest extends AiBaseCase {
         assertFalse(caster.validate(spell, fight.map().get(30)));
         assertTrue(caster.validate(spell, fight.map().get(210)));
     }
+
+    private Set<String> expectedCasts() {
+        Set<String> casts = new HashSet<>();
+
+        for (Spell spell : ai.fighter().spells()) {
+            for (BattlefieldCell cell : ai.map()) {
+                if (caster.validate(spell, cell)) {
+                    casts.add(spell.id() + ":" + cell.id());
+                }
+            }
+        }
+
+        return casts;
+    }
+
+    private Set<String> actualCasts() {
+        return caster.simulate(container.get(Simulator.class))
+            .map(simulation -> simulation.spell().id() + ":" + simulation.target().id())
+            .collect(Collectors.toSet())
+        ;
+    }
 }
@@ -83,6 +83,29 @@ class LaunchedSpellsTest extends FightBaseCase {
         assertFalse(launchedSpells.valid(spell, fight.map().get(123)));
     }
 
+    @Test
+    void copy() {
+        Spell spell = Mockito.mock(Spell.class);
+        SpellConstraints constraints = Mockito.mock(SpellConstraints.class);
+
+        Mockito.when(spell.constraints()).thenReturn(constraints);
+        Mockito.when(constraints.launchDelay()).thenReturn(0);
+        Mockito.when(constraints.launchPerTarget()).thenReturn(0);
+        Mockito.when(constraints.launchPerTurn()).thenReturn(2);
+
+        launchedSpells.push(spell, fight.map().get(123));
+
+        LaunchedSpells copy = launchedSpells.copy();
+        assertTrue(copy.valid(spell, fight.map().get(123)));
+
+        launchedSpells.push(spell, fight.map().get(123));
+        assertFalse(launchedSpells.valid(spell, fight.map().get(123)));
+        assertTrue(copy.valid(spell, fight.map().get(123)));
+
+        copy.push(spell, fight.map().get(123));
+        assertFalse(copy.valid(spell, fight.map().get(123)));
+    }
+
     @Test
     void validWithMaxPerTurn() {
         Spell spell = Mockito.mock(Spell.class);
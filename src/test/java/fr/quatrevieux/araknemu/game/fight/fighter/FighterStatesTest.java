@@ -27,6 +27,10 @@ import fr.quatrevieux.araknemu.network.game.out.fight.action.ActionEffect;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -138,6 +142,23 @@ class FighterStatesTest extends FightBaseCase {
         assertFalse(states.hasOne(new int[] {8}));
     }
 
+    @Test
+    void all() {
+        assertEquals(Collections.emptySet(), states.all());
+
+        states.push(5);
+        states.push(3, 2);
+
+        Set<Integer> all = states.all();
+
+        assertEquals(new HashSet<>(Arrays.asList(3, 5)), all);
+
+        states.remove(5);
+
+        assertEquals(new HashSet<>(Arrays.asList(3, 5)), all);
+        assertEquals(Collections.singleton(3), states.all());
+    }
+
     @Test
     void refresh() {
         AtomicReference<FighterStateChanged> ref = new AtomicReference<>();
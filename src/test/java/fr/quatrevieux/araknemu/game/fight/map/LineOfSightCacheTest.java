@@ -0,0 +1,137 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.fight.map;
+
+import fr.quatrevieux.araknemu.data.world.entity.environment.MapTemplate;
+import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.fight.fighter.Fighter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineOfSightCacheTest extends GameBaseCase {
+    private MapTemplate template;
+    private LineOfSightCache cache;
+    private FightMap map;
+    private int start;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        dataSet.pushMaps().pushSubAreas().pushAreas();
+
+        template = container.get(MapTemplateRepository.class).get(10340);
+        cache = new LineOfSightCache(template);
+        map = new FightMap(template, cache);
+
+        // Find three free aligned cells : start, start + 1, start + 2
+        for (start = 0; start < map.size() - 2; ++start) {
+            if (
+                map.get(start).walkable() && !map.get(start).sightBlocking()
+                && map.get(start + 1).walkable() && !map.get(start + 1).sightBlocking()
+                && map.get(start + 2).walkable() && !map.get(start + 2).sightBlocking()
+                && map.get(start).coordinate().x() + 2 == map.get(start + 2).coordinate().x()
+            ) {
+                break;
+            }
+        }
+    }
+
+    @Test
+    void isFreeWithoutFighters() {
+        for (int source = 0; source < map.size(); source += 7) {
+            for (int target = 0; target < map.size(); ++target) {
+                assertEquals(
+                    map.get(source).sight().isFree(map.get(target)),
+                    cache.isFree(map.get(source), map.get(target), Collections.emptyList()),
+                    "Line of sight from " + source + " to " + target
+                );
+            }
+        }
+    }
+
+    @Test
+    void isFreeWithFighters() {
+        for (int cellId = 20; cellId < map.size(); cellId += 37) {
+            if (map.get(cellId).walkable()) {
+                map.get(cellId).set(Mockito.mock(Fighter.class));
+            }
+        }
+
+        for (int source = 0; source < map.size(); source += 7) {
+            for (int target = 0; target < map.size(); ++target) {
+                assertEquals(
+                    map.get(source).sight().isFree(map.get(target)),
+                    map.isFreeSight(map.get(source), map.get(target)),
+                    "Line of sight from " + source + " to " + target
+                );
+            }
+        }
+    }
+
+    @Test
+    void isFreeShouldIgnoreFighterOnSourceAndTarget() {
+        map.get(start).set(Mockito.mock(Fighter.class));
+        map.get(start + 2).set(Mockito.mock(Fighter.class));
+
+        assertTrue(map.isFreeSight(map.get(start), map.get(start + 2)));
+        assertEquals(map.get(start).sight().isFree(map.get(start + 2)), map.isFreeSight(map.get(start), map.get(start + 2)));
+    }
+
+    @Test
+    void isFreeWithFighterBetween() {
+        map.get(start + 1).set(Mockito.mock(Fighter.class));
+
+        assertFalse(map.isFreeSight(map.get(start), map.get(start + 2)));
+        assertFalse(cache.isFree(map.get(start), map.get(start + 2), Arrays.asList(map.get(start + 1))));
+        assertTrue(cache.isFree(map.get(start), map.get(start + 2), Collections.emptyList()));
+
+        map.get(start + 1).removeFighter();
+        assertTrue(map.isFreeSight(map.get(start), map.get(start + 2)));
+    }
+
+    @Test
+    void sharedBetweenMaps() {
+        FightMap other = new FightMap(template, cache);
+
+        map.get(start + 1).set(Mockito.mock(Fighter.class));
+
+        assertFalse(map.isFreeSight(map.get(start), map.get(start + 2)));
+        assertTrue(other.isFreeSight(other.get(start), other.get(start + 2)));
+    }
+
+    @Test
+    void between() {
+        assertTrue(LineOfSightCache.between(map.get(start), map.get(start + 2), map.get(start + 1)));
+        assertTrue(LineOfSightCache.between(map.get(start + 2), map.get(start), map.get(start + 1)));
+        assertTrue(LineOfSightCache.between(map.get(start), map.get(start + 2), map.get(start)));
+        assertFalse(LineOfSightCache.between(map.get(start), map.get(start + 2), map.get(start + 3)));
+    }
+}
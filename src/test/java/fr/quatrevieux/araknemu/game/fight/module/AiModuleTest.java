@@ -21,14 +21,20 @@ package fr.quatrevieux.araknemu.game.fight.module;
 
 import fr.quatrevieux.araknemu.game.fight.Fight;
 import fr.quatrevieux.araknemu.game.fight.FightBaseCase;
+import fr.quatrevieux.araknemu.game.fight.ai.AiPlanner;
 import fr.quatrevieux.araknemu.game.fight.ai.FighterAI;
 import fr.quatrevieux.araknemu.game.fight.ai.factory.AiFactory;
 import fr.quatrevieux.araknemu.game.fight.fighter.Fighter;
 import fr.quatrevieux.araknemu.game.fight.turn.FightTurn;
 import io.github.artsok.RepeatedIfExceptionsTest;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -83,4 +89,28 @@ class AiModuleTest extends FightBaseCase {
         // Move action started
         requestStack.assertOne("GA0;1;-2;ab-fbG");
     }
+
+    @RepeatedIfExceptionsTest
+    void turnStartedWithAiPlanner() throws Exception {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        AiPlanner planner = new AiPlanner(executor, Duration.ofSeconds(10), container.get(Logger.class));
+
+        Fight fight = createPvmFight();
+        fight.register(new AiModule(container.get(AiFactory.class), planner));
+        fight.nextState();
+        fight.turnList().start();
+        requestStack.clear();
+        fight.turnList().current().get().stop();
+
+        FightTurn turn = fight.turnList().current().get();
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        // Action is computed by the planner
+        Mockito.verify(executor).execute(task.capture());
+        assertTrue(turn.active());
+        requestStack.clear();
+
+        task.getValue().run();
+        requestStack.assertOne("GA0;1;-2;ab-fbG");
+    }
 }
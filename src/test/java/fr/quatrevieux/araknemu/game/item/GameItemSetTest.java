@@ -25,6 +25,7 @@ import fr.quatrevieux.araknemu.data.constant.Effect;
 import fr.quatrevieux.araknemu.data.value.ItemTemplateEffectEntry;
 import fr.quatrevieux.araknemu.data.world.entity.item.ItemSet;
 import fr.quatrevieux.araknemu.game.item.effect.CharacteristicEffect;
+import fr.quatrevieux.araknemu.game.world.creature.characteristics.DefaultCharacteristics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -68,6 +69,7 @@ class GameItemSetTest extends TestCase {
         assertCount(0, bonus.effects());
         assertCount(0, bonus.characteristics());
         assertCount(0, bonus.specials());
+        assertEquals(new DefaultCharacteristics(), bonus.boost());
     }
 
     @Test
@@ -82,6 +84,8 @@ class GameItemSetTest extends TestCase {
             Arrays.asList(new CharacteristicEffect(Effect.ADD_AGILITY, 15, 1, Characteristic.AGILITY)),
             bonus.characteristics()
         );
+        assertEquals(15, bonus.boost().get(Characteristic.AGILITY));
+        assertEquals(0, bonus.boost().get(Characteristic.STRENGTH));
     }
 
     @Test
@@ -97,4 +101,20 @@ class GameItemSetTest extends TestCase {
             bonus.characteristics()
         );
     }
+
+    @Test
+    void bonusBoostShouldSumCharacteristics() {
+        GameItemSet.Bonus bonus = new GameItemSet.Bonus(
+            new ArrayList<>(),
+            Arrays.asList(
+                new CharacteristicEffect(Effect.ADD_AGILITY, 15, 1, Characteristic.AGILITY),
+                new CharacteristicEffect(Effect.ADD_AGILITY, 10, 1, Characteristic.AGILITY),
+                new CharacteristicEffect(Effect.SUB_VITALITY, 20, -1, Characteristic.VITALITY)
+            ),
+            new ArrayList<>()
+        );
+
+        assertEquals(25, bonus.boost().get(Characteristic.AGILITY));
+        assertEquals(-20, bonus.boost().get(Characteristic.VITALITY));
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.item.factory;
+
+import fr.quatrevieux.araknemu.data.constant.Effect;
+import fr.quatrevieux.araknemu.data.value.ItemTemplateEffectEntry;
+import fr.quatrevieux.araknemu.data.world.entity.item.ItemTemplate;
+import fr.quatrevieux.araknemu.data.world.entity.item.ItemType;
+import fr.quatrevieux.araknemu.data.world.transformer.ItemEffectsTransformer;
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.item.Item;
+import fr.quatrevieux.araknemu.game.item.SuperType;
+import fr.quatrevieux.araknemu.game.item.effect.mapping.EffectToSpecialMapping;
+import fr.quatrevieux.araknemu.game.item.type.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class InternedItemFactoryTest extends GameBaseCase {
+    private InternedItemFactory factory;
+    private ItemTemplate template;
+    private ItemType type;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        factory = new InternedItemFactory(
+            new ResourceFactory(container.get(EffectToSpecialMapping.class)),
+            new ItemEffectsTransformer(),
+            2
+        );
+
+        template = new ItemTemplate(284, 48, "Sel", 1, new ArrayList<>(), 1, "", 0, "", 10);
+        type = new ItemType(48, "Poudre", SuperType.RESOURCE, null);
+    }
+
+    @Test
+    void type() {
+        assertEquals(SuperType.RESOURCE, factory.type());
+    }
+
+    @Test
+    void retrieveSameItemShouldReturnSameInstance() {
+        Item item = factory.retrieve(template, type, null, new ArrayList<>());
+
+        assertInstanceOf(Resource.class, item);
+        assertSame(item, factory.retrieve(template, type, null, new ArrayList<>()));
+        assertEquals(1, factory.size());
+    }
+
+    @Test
+    void retrieveWithDifferentEffects() {
+        Item item = factory.retrieve(template, type, null, new ArrayList<>());
+        Item withEffect = factory.retrieve(template, type, null, Arrays.asList(new ItemTemplateEffectEntry(Effect.NULL1, 0, 0, 0, "test")));
+
+        assertNotSame(item, withEffect);
+        assertEquals(1, withEffect.specials().size());
+        assertSame(withEffect, factory.retrieve(template, type, null, Arrays.asList(new ItemTemplateEffectEntry(Effect.NULL1, 0, 0, 0, "test"))));
+        assertEquals(2, factory.size());
+    }
+
+    @Test
+    void retrieveWithDifferentTemplate() {
+        ItemTemplate other = new ItemTemplate(285, 48, "Poivre", 1, new ArrayList<>(), 1, "", 0, "", 10);
+
+        Item item = factory.retrieve(template, type, null, new ArrayList<>());
+        Item otherItem = factory.retrieve(other, type, null, new ArrayList<>());
+
+        assertNotSame(item, otherItem);
+        assertSame(other, otherItem.template());
+    }
+
+    @Test
+    void retrieveShouldRemoveLeastRecentlyUsedItemWhenFull() {
+        ItemTemplate other = new ItemTemplate(285, 48, "Poivre", 1, new ArrayList<>(), 1, "", 0, "", 10);
+        ItemTemplate third = new ItemTemplate(286, 48, "Farine", 1, new ArrayList<>(), 1, "", 0, "", 10);
+
+        Item item = factory.retrieve(template, type, null, new ArrayList<>());
+        Item otherItem = factory.retrieve(other, type, null, new ArrayList<>());
+
+        assertSame(item, factory.retrieve(template, type, null, new ArrayList<>()));
+        factory.retrieve(third, type, null, new ArrayList<>());
+
+        assertEquals(2, factory.size());
+        assertSame(item, factory.retrieve(template, type, null, new ArrayList<>()));
+        assertNotSame(otherItem, factory.retrieve(other, type, null, new ArrayList<>()));
+    }
+
+    @Test
+    void createShouldNotIntern() {
+        Item item = factory.create(template, type, null, false);
+
+        assertNotSame(item, factory.create(template, type, null, false));
+        assertNotSame(item, factory.retrieve(template, type, null, new ArrayList<>()));
+        assertEquals(1, factory.size());
+    }
+}
@@ -26,6 +26,8 @@ import fr.quatrevieux.araknemu.network.game.out.info.Error;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 class SendSaveTerminatedTest extends GameBaseCase {
     private SendSaveTerminated listener;
 
@@ -40,7 +42,7 @@ class SendSaveTerminatedTest extends GameBaseCase {
 
     @Test
     void onGameSaved() {
-        listener.on(new GameSaved());
+        listener.on(new GameSaved(1, Duration.ofMillis(10)));
 
         requestStack.assertLast(Error.saveTerminated());
     }
@@ -20,6 +20,7 @@
 package fr.quatrevieux.araknemu.game.listener.player.chat;
 
 import fr.quatrevieux.araknemu.core.di.ContainerException;
+import fr.quatrevieux.araknemu.core.network.EncodedPacket;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
 import fr.quatrevieux.araknemu.game.chat.ChannelType;
 import fr.quatrevieux.araknemu.game.chat.event.BroadcastedMessage;
@@ -30,6 +31,8 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.SQLException;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 class MessageReceivedTest extends GameBaseCase {
     private MessageReceived listener;
     private GamePlayer other;
@@ -67,6 +70,23 @@ class MessageReceivedTest extends GameBaseCase {
         );
     }
 
+    @Test
+    void onBroadcastedMessageWithEncodedPacket() throws SQLException, ContainerException {
+        try (EncodedPacket packet = EncodedPacket.encode(new MessageSent(other, ChannelType.INFO, "Hello World !", ""))) {
+            listener.on(
+                new BroadcastedMessage(
+                    ChannelType.INFO,
+                    other,
+                    "Hello World !",
+                    "",
+                    packet
+                )
+            );
+
+            assertSame(packet, requestStack.channel.getMessages().peek());
+        }
+    }
+
     @Test
     void channelNotSubscribedFromMe() throws SQLException, ContainerException {
         gamePlayer().subscriptions().remove(ChannelType.MESSAGES);
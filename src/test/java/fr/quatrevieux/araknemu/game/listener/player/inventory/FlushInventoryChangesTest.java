@@ -0,0 +1,67 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.listener.player.inventory;
+
+import fr.quatrevieux.araknemu.data.living.entity.player.PlayerItem;
+import fr.quatrevieux.araknemu.data.living.repository.player.PlayerItemRepository;
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.handler.event.Disconnected;
+import fr.quatrevieux.araknemu.game.player.inventory.WriteBehindPlayerItemRepository;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlushInventoryChangesTest extends GameBaseCase {
+    private WriteBehindPlayerItemRepository repository;
+    private FlushInventoryChanges listener;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        dataSet.use(PlayerItem.class);
+
+        repository = new WriteBehindPlayerItemRepository(container.get(PlayerItemRepository.class), container.get(Logger.class));
+        listener = new FlushInventoryChanges(repository);
+    }
+
+    @Test
+    void onDisconnected() {
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        repository.add(item);
+
+        // Direct execution is enabled : flush is performed immediately
+        listener.on(new Disconnected());
+
+        assertEquals(0, repository.queueDepth());
+        assertTrue(container.get(PlayerItemRepository.class).has(item));
+    }
+
+    @Test
+    void event() {
+        assertEquals(Disconnected.class, listener.event());
+    }
+}
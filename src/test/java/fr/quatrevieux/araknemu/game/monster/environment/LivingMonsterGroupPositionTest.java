@@ -47,6 +47,8 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -90,6 +92,14 @@ class LivingMonsterGroupPositionTest extends GameBaseCase {
         assertCount(2, map.creatures());
     }
 
+    @Test
+    void map() {
+        assertNull(monsterGroupPosition.map());
+
+        monsterGroupPosition.populate(map);
+        assertSame(map, monsterGroupPosition.map());
+    }
+
     @Test
     void available() {
         monsterGroupPosition.populate(map);
@@ -251,6 +251,20 @@ class MonsterEnvironmentServiceTest extends GameBaseCase {
         assertTrue(service.groups().skip(2).findFirst().get().fixed());
     }
 
+    @Test
+    void groupsByMap() throws SQLException {
+        assertEquals(0, service.groupsByMap().size());
+
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 1));
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10300, 123, 2));
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10300, 125, 2));
+
+        service.preload(container.get(Logger.class));
+
+        assertEquals(2, service.groupsByMap().size());
+        assertEquals(3, service.groupsByMap().stream().mapToInt(Collection::size).sum());
+    }
+
     @Test
     void name() {
         assertEquals("monster.environment", service.name());
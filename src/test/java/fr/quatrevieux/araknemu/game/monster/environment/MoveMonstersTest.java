@@ -22,7 +22,9 @@ package fr.quatrevieux.araknemu.game.monster.environment;
 import fr.arakne.utils.maps.constant.Direction;
 import fr.quatrevieux.araknemu.data.world.entity.monster.MonsterGroupPosition;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.GameService;
 import fr.quatrevieux.araknemu.game.activity.ActivityService;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
 import fr.quatrevieux.araknemu.game.exploration.creature.ExplorationCreature;
 import fr.quatrevieux.araknemu.game.exploration.creature.Operation;
 import fr.quatrevieux.araknemu.game.exploration.interaction.action.ActionType;
@@ -32,6 +34,7 @@ import fr.quatrevieux.araknemu.game.exploration.map.cell.ExplorationMapCell;
 import fr.quatrevieux.araknemu.game.monster.group.MonsterGroup;
 import fr.quatrevieux.araknemu.game.world.creature.Sprite;
 import fr.quatrevieux.araknemu.network.game.out.game.action.GameActionResponse;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -64,6 +67,7 @@ class MoveMonstersTest extends GameBaseCase {
 
         task = new MoveMonsters(
             container.get(MonsterEnvironmentService.class),
+            container.get(ActivityService.class),
             Duration.ofSeconds(10),
             100,
             5
@@ -136,10 +140,10 @@ class MoveMonstersTest extends GameBaseCase {
 
     @Test
     void moveChance() throws SQLException {
-        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), Duration.ofSeconds(10), 25, 5);
+        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), container.get(ActivityService.class), Duration.ofSeconds(10), 25, 5);
 
         dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
-        container.get(ExplorationMapService.class).load(10340);
+        explorationPlayer().changeMap(container.get(ExplorationMapService.class).load(10340), 123);
 
         MonsterGroup group = container.get(MonsterEnvironmentService.class).byMap(10340).stream().findFirst().get().available().get(0);
 
@@ -162,10 +166,10 @@ class MoveMonstersTest extends GameBaseCase {
 
     @Test
     void moveDistance() throws SQLException {
-        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), Duration.ofSeconds(10), 100, 20);
+        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), container.get(ActivityService.class), Duration.ofSeconds(10), 100, 20);
 
         dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
-        container.get(ExplorationMapService.class).load(10340);
+        explorationPlayer().changeMap(container.get(ExplorationMapService.class).load(10340), 300);
 
         MonsterGroup group = container.get(MonsterEnvironmentService.class).byMap(10340).stream().findFirst().get().available().get(0);
 
@@ -188,7 +192,7 @@ class MoveMonstersTest extends GameBaseCase {
 
     @Test
     void moveWithoutFreeCellShouldNotMove() throws SQLException {
-        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), Duration.ofSeconds(10), 100, 5);
+        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), container.get(ActivityService.class), Duration.ofSeconds(10), 100, 5);
 
         dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
         ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
@@ -205,6 +209,78 @@ class MoveMonstersTest extends GameBaseCase {
         assertEquals(lastCell, group.cell());
     }
 
+    @Test
+    void mapWithoutPlayerShouldNotMove() throws SQLException {
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
+        container.get(ExplorationMapService.class).load(10340);
+
+        MonsterGroup group = container.get(MonsterEnvironmentService.class).byMap(10340).stream().findFirst().get().available().get(0);
+        ExplorationMapCell lastCell = group.cell();
+
+        task.execute(container.get(Logger.class));
+
+        assertEquals(lastCell, group.cell());
+        assertEquals(0, task.metrics().lastProcessedMaps());
+        assertEquals(0, task.metrics().lastMovedGroups());
+        assertEquals(1, task.metrics().executions());
+    }
+
+    @Test
+    void metrics() throws SQLException {
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, 123, 2));
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+
+        explorationPlayer().changeMap(map, 123);
+
+        assertEquals(0, task.metrics().executions());
+        assertEquals(0, task.metrics().movedGroups());
+
+        task.execute(container.get(Logger.class));
+
+        assertEquals(1, task.metrics().executions());
+        assertEquals(0, task.metrics().skippedExecutions());
+        assertEquals(1, task.metrics().lastProcessedMaps());
+        assertEquals(1, task.metrics().lastMovedGroups());
+        assertEquals(1, task.metrics().movedGroups());
+        assertBetween(0L, 1000L, task.metrics().lastDuration());
+
+        task.execute(container.get(Logger.class));
+
+        assertEquals(2, task.metrics().executions());
+        assertEquals(2, task.metrics().movedGroups());
+    }
+
+    @Test
+    void executeWithRejectedSubmitShouldReleaseTheTask() throws SQLException {
+        ActivityService activityService = new ActivityService(configuration.activity(), container.get(Logger.class));
+        activityService.listeners()[0].on(new GameStopped(container.get(GameService.class)));
+
+        task = new MoveMonsters(container.get(MonsterEnvironmentService.class), activityService, Duration.ofSeconds(10), 100, 5);
+
+        dataSet.pushMonsterGroupPosition(new MonsterGroupPosition(10340, -1, 3));
+        ExplorationMap map = container.get(ExplorationMapService.class).load(10340);
+
+        explorationPlayer().changeMap(map, 123);
+
+        MonsterGroup group = container.get(MonsterEnvironmentService.class).byMap(10340).stream().findFirst().get().available().get(0);
+        ExplorationMapCell lastCell = group.cell();
+
+        // Direct execution ignores the shutdown of the executor
+        ExecutorFactory.disableDirectExecution();
+        task.execute(container.get(Logger.class));
+
+        assertEquals(lastCell, group.cell());
+        assertEquals(1, task.metrics().executions());
+        assertEquals(0, task.metrics().lastProcessedMaps());
+        assertEquals(0, task.metrics().lastMovedGroups());
+
+        task.execute(container.get(Logger.class));
+
+        assertEquals(2, task.metrics().executions());
+        assertEquals(0, task.metrics().skippedExecutions());
+    }
+
     class FakeCreature implements ExplorationCreature {
         final private ExplorationMapCell cell;
 
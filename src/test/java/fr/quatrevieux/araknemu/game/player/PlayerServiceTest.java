@@ -26,6 +26,7 @@ import fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException;
 import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.core.event.DefaultListenerAggregate;
 import fr.quatrevieux.araknemu.core.event.Dispatcher;
+import fr.quatrevieux.araknemu.core.event.EventDispatchProfiler;
 import fr.quatrevieux.araknemu.core.event.Listener;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.core.network.session.SessionFactory;
@@ -34,6 +35,7 @@ import fr.quatrevieux.araknemu.data.living.entity.account.Account;
 import fr.quatrevieux.araknemu.data.living.entity.player.Player;
 import fr.quatrevieux.araknemu.data.living.entity.player.PlayerItem;
 import fr.quatrevieux.araknemu.data.living.entity.player.PlayerSpell;
+import fr.quatrevieux.araknemu.data.living.repository.player.PlayerItemRepository;
 import fr.quatrevieux.araknemu.data.living.repository.player.PlayerRepository;
 import fr.quatrevieux.araknemu.data.value.Position;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
@@ -44,6 +46,7 @@ import fr.quatrevieux.araknemu.game.event.GameSaved;
 import fr.quatrevieux.araknemu.game.event.SavingGame;
 import fr.quatrevieux.araknemu.game.event.ShutdownScheduled;
 import fr.quatrevieux.araknemu.game.handler.event.Disconnected;
+import fr.quatrevieux.araknemu.game.item.ItemService;
 import fr.quatrevieux.araknemu.game.listener.player.ComputeLifePoints;
 import fr.quatrevieux.araknemu.game.listener.player.InitializeRestrictions;
 import fr.quatrevieux.araknemu.game.listener.player.RestoreLifePointsOnLevelUp;
@@ -60,12 +63,16 @@ import fr.quatrevieux.araknemu.game.player.spell.SpellBookService;
 import fr.quatrevieux.araknemu.game.world.creature.characteristics.DefaultCharacteristics;
 import fr.quatrevieux.araknemu.network.game.GameSession;
 import fr.quatrevieux.araknemu.network.game.out.info.Error;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -90,7 +97,8 @@ class PlayerServiceTest extends GameBaseCase {
             container.get(InventoryService.class),
             container.get(PlayerRaceService.class),
             container.get(SpellBookService.class),
-            container.get(PlayerExperienceService.class)
+            container.get(PlayerExperienceService.class),
+            container.get(Logger.class)
         );
 
         login();
@@ -139,6 +147,95 @@ class PlayerServiceTest extends GameBaseCase {
         assertFalse(player.dispatcher().has(RestoreLifePointsOnLevelUp.class));
     }
 
+    @Test
+    void loadWithItemsAndSpells() throws ContainerException, SQLException {
+        dataSet.pushItemTemplates();
+        int id = dataSet.push(new Player(-1, 1, 2, "Bob", Race.FECA, Gender.MALE, new Colors(123, 456, 789), 23, new DefaultCharacteristics())).id();
+        dataSet.push(new PlayerItem(id, 3, 284, new ArrayList<>(), 10, -1));
+        dataSet.push(new PlayerSpell(id, 3, true, 5, 1));
+
+        GamePlayer player = service.load(session, id);
+
+        assertEquals(284, player.inventory().get(3).templateId());
+        assertEquals(10, player.inventory().get(3).quantity());
+        assertEquals(5, player.properties().spells().get(3).level());
+    }
+
+    @Test
+    void loadInvalidServerWithoutLoaderThreadsShouldNotFetchItems() throws ContainerException, SQLException {
+        setConfigValue("player.loadThreads", "0");
+
+        PlayerItemRepository itemRepository = Mockito.mock(PlayerItemRepository.class);
+
+        service = new PlayerService(
+            container.get(PlayerRepository.class),
+            container.get(GameConfiguration.class),
+            container.get(Dispatcher.class),
+            new InventoryService(itemRepository, container.get(ItemService.class)),
+            container.get(PlayerRaceService.class),
+            container.get(SpellBookService.class),
+            container.get(PlayerExperienceService.class),
+            container.get(Logger.class)
+        );
+
+        int id = dataSet.push(new Player(-1, 1, 3, "Bob", Race.FECA, Gender.MALE, new Colors(123, 456, 789), 23, new DefaultCharacteristics())).id();
+
+        assertThrows(EntityNotFoundException.class, () -> service.load(session, id));
+        Mockito.verify(itemRepository, Mockito.never()).byPlayer(Mockito.any());
+    }
+
+    @Test
+    void loadWithoutLoaderThreads() throws ContainerException, SQLException {
+        setConfigValue("player.loadThreads", "0");
+
+        service = new PlayerService(
+            container.get(PlayerRepository.class),
+            container.get(GameConfiguration.class),
+            container.get(Dispatcher.class),
+            container.get(InventoryService.class),
+            container.get(PlayerRaceService.class),
+            container.get(SpellBookService.class),
+            container.get(PlayerExperienceService.class),
+            container.get(Logger.class)
+        );
+
+        dataSet.pushItemTemplates();
+        int id = dataSet.push(new Player(-1, 1, 2, "Bob", Race.FECA, Gender.MALE, new Colors(123, 456, 789), 23, new DefaultCharacteristics())).id();
+        dataSet.push(new PlayerItem(id, 3, 284, new ArrayList<>(), 10, -1));
+
+        GamePlayer player = service.load(session, id);
+
+        assertEquals(id, player.id());
+        assertEquals(284, player.inventory().get(3).templateId());
+    }
+
+    @Test
+    void loadWithEventProfiler() throws ContainerException, SQLException {
+        EventDispatchProfiler profiler = new EventDispatchProfiler();
+
+        service = new PlayerService(
+            container.get(PlayerRepository.class),
+            container.get(GameConfiguration.class),
+            container.get(Dispatcher.class),
+            container.get(InventoryService.class),
+            container.get(PlayerRaceService.class),
+            container.get(SpellBookService.class),
+            container.get(PlayerExperienceService.class),
+            container.get(Logger.class),
+            profiler
+        );
+
+        int id = dataSet.push(new Player(-1, 1, 2, "Bob", Race.FECA, Gender.MALE, new Colors(123, 456, 789), 23, new DefaultCharacteristics())).id();
+
+        GamePlayer player = service.load(session, id);
+
+        player.dispatcher().add(String.class, event -> {});
+        player.dispatcher().dispatch("foo");
+        player.dispatcher().dispatch("bar");
+
+        assertEquals(2, profiler.get(String.class).count());
+    }
+
     @Test
     void loadWillDispatchPlayerLoaded() throws ContainerException {
         AtomicReference<PlayerLoaded> ref = new AtomicReference<>();
@@ -196,6 +293,19 @@ class PlayerServiceTest extends GameBaseCase {
         assertFalse(service.online().contains(player));
     }
 
+    @Test
+    void loadedPlayerOnDisconnectShouldBeUnloadedFromRepository() throws ContainerException {
+        Player entity = dataSet.pushPlayer("Bob", 1, 2);
+
+        GamePlayer player = service.load(session, entity.id());
+        session.setPlayer(player);
+
+        player.dispatch(new Disconnected());
+
+        // The player is saved on disconnect, but not tracked anymore : saveAll will write it
+        assertEquals(1, container.get(PlayerRepository.class).saveAll(Collections.singleton(dataSet.refresh(entity))));
+    }
+
     @Test
     void filter() throws ContainerException {
         GameSession session1 = (GameSession) container.get(SessionFactory.class).create(new DummyChannel());
@@ -265,6 +375,26 @@ class PlayerServiceTest extends GameBaseCase {
         assertEquals(new Position(963, 258), dataSet.refresh(entity).position());
     }
 
+    @Test
+    void saveOnline() throws ContainerException {
+        Player entity = dataSet.pushPlayer("Bob", 1, 2);
+        GamePlayer player = service.load(session, entity.id());
+
+        GameSession otherSession = (GameSession) container.get(SessionFactory.class).create(new DummyChannel());
+        otherSession.attach(new GameAccount(new Account(2), container.get(AccountService.class), 2));
+        service.load(otherSession, dataSet.pushPlayer("John", 2, 2).id());
+
+        // Life points are computed on load
+        assertEquals(2, service.saveOnline());
+        assertEquals(0, service.saveOnline());
+
+        player.setPosition(new Position(963, 258));
+
+        assertEquals(1, service.saveOnline());
+        assertEquals(new Position(963, 258), dataSet.refresh(entity).position());
+        assertEquals(0, service.saveOnline());
+    }
+
     @Test
     void shutdownScheduled() {
         int id = dataSet.push(new Player(-1, 1, 2, "Bob", Race.FECA, Gender.MALE, new Colors(123, 456, 789), 23, new DefaultCharacteristics())).id();
@@ -288,7 +418,7 @@ class PlayerServiceTest extends GameBaseCase {
         dispatcher.dispatch(new SavingGame());
         requestStack.assertLast(Error.saveInProgress());
 
-        dispatcher.dispatch(new GameSaved());
+        dispatcher.dispatch(new GameSaved(1, Duration.ofMillis(10)));
         requestStack.assertLast(Error.saveTerminated());
     }
 
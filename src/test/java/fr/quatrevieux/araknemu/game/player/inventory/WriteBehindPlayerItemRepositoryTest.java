@@ -0,0 +1,387 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.game.player.inventory;
+
+import fr.quatrevieux.araknemu.core.dbal.repository.EntityNotFoundException;
+import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
+import fr.quatrevieux.araknemu.data.living.entity.player.Player;
+import fr.quatrevieux.araknemu.data.living.entity.player.PlayerItem;
+import fr.quatrevieux.araknemu.data.living.repository.player.PlayerItemRepository;
+import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.GameService;
+import fr.quatrevieux.araknemu.game.event.GameStopped;
+import fr.quatrevieux.araknemu.game.event.SavingGame;
+import fr.quatrevieux.araknemu.game.listener.player.inventory.FlushInventoryChanges;
+import fr.quatrevieux.araknemu.game.player.GamePlayer;
+import fr.quatrevieux.araknemu.game.player.event.PlayerLoaded;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindPlayerItemRepositoryTest extends GameBaseCase {
+    private PlayerItemRepository baseRepository;
+    private WriteBehindPlayerItemRepository repository;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        dataSet.use(PlayerItem.class);
+
+        baseRepository = container.get(PlayerItemRepository.class);
+        // Scheduled flush are never executed : writes are only performed on explicit flush
+        repository = new WriteBehindPlayerItemRepository(baseRepository, Mockito.mock(ScheduledExecutorService.class), container.get(Logger.class));
+    }
+
+    @Test
+    void addShouldBeDelayed() {
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+
+        assertSame(item, repository.add(item));
+        assertEquals(1, repository.queueDepth());
+        assertFalse(baseRepository.has(item));
+
+        repository.flush();
+
+        assertEquals(0, repository.queueDepth());
+        assertEquals(1, repository.lastFlushSize());
+        assertTrue(baseRepository.has(item));
+    }
+
+    @Test
+    void scheduledFlush() throws InterruptedException {
+        repository = new WriteBehindPlayerItemRepository(baseRepository, container.get(Logger.class));
+        ExecutorFactory.disableDirectExecution();
+
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+
+        repository.add(item);
+        Thread.sleep(100);
+
+        assertEquals(0, repository.queueDepth());
+        assertTrue(baseRepository.has(item));
+    }
+
+    @Test
+    void addThenUpdateShouldBeMerged() {
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+
+        repository.add(item);
+        item.setQuantity(10);
+        repository.update(item);
+        item.setPosition(1);
+        repository.update(item);
+
+        assertEquals(1, repository.queueDepth());
+
+        repository.flush();
+
+        PlayerItem saved = baseRepository.get(item);
+        assertEquals(10, saved.quantity());
+        assertEquals(1, saved.position());
+    }
+
+    @Test
+    void addThenDeleteShouldCancelOperations() {
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+
+        repository.add(item);
+        repository.delete(item);
+
+        assertEquals(0, repository.queueDepth());
+
+        repository.flush();
+
+        assertFalse(baseRepository.has(item));
+    }
+
+    @Test
+    void updateThenDelete() {
+        PlayerItem item = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+
+        item.setQuantity(10);
+        repository.update(item);
+        repository.delete(item);
+
+        assertEquals(1, repository.queueDepth());
+        assertTrue(baseRepository.has(item));
+
+        repository.flush();
+
+        assertFalse(baseRepository.has(item));
+    }
+
+    @Test
+    void deleteThenAddShouldReplace() {
+        PlayerItem item = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        PlayerItem newItem = new PlayerItem(1, 1, 39, new ArrayList<>(), 1, 2);
+
+        repository.delete(item);
+        repository.add(newItem);
+        newItem.setQuantity(3);
+        repository.update(newItem);
+
+        assertEquals(1, repository.queueDepth());
+
+        repository.flush();
+
+        PlayerItem saved = baseRepository.get(item);
+        assertEquals(39, saved.itemTemplateId());
+        assertEquals(3, saved.quantity());
+        assertEquals(2, saved.position());
+    }
+
+    @Test
+    void saveChanges() {
+        PlayerItem item1 = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        PlayerItem item2 = new PlayerItem(1, 2, 284, new ArrayList<>(), 5, -1);
+
+        repository.saveChanges(Collections.emptyList(), Arrays.asList(item1, item2), Collections.emptyList());
+        assertEquals(2, repository.queueDepth());
+
+        item1.setQuantity(2);
+        repository.saveChanges(Arrays.asList(item2), Collections.emptyList(), Arrays.asList(item1));
+        assertEquals(1, repository.queueDepth());
+
+        repository.flush();
+
+        assertEquals(2, baseRepository.get(item1).quantity());
+        assertFalse(baseRepository.has(item2));
+    }
+
+    @Test
+    void readShouldFlushPlayerOperations() {
+        PlayerItem item1 = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        PlayerItem item2 = new PlayerItem(2, 1, 284, new ArrayList<>(), 5, -1);
+
+        repository.add(item1);
+        repository.add(item2);
+
+        assertTrue(repository.has(item1));
+        assertEquals(1, repository.queueDepth());
+        assertFalse(baseRepository.has(item2));
+
+        assertEquals(5, repository.get(item2).quantity());
+        assertEquals(0, repository.queueDepth());
+    }
+
+    @Test
+    void byPlayerShouldFlushPlayerOperations() {
+        repository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        repository.add(new PlayerItem(1, 2, 284, new ArrayList<>(), 5, -1));
+        repository.add(new PlayerItem(2, 1, 284, new ArrayList<>(), 5, -1));
+
+        assertEquals(2, repository.byPlayer(new Player(1)).size());
+        assertEquals(1, repository.queueDepth());
+    }
+
+    @Test
+    void forCharacterListShouldFlushAll() throws Exception {
+        GamePlayer player = gamePlayer();
+        PlayerItem item = new PlayerItem(player.id(), 1, 284, new ArrayList<>(), 1, 1);
+
+        repository.add(item);
+        repository.add(new PlayerItem(5, 1, 284, new ArrayList<>(), 1, 1));
+
+        assertEquals(1, repository.forCharacterList(2, player.account().id(), new int[] {1}).get(player.id()).size());
+        assertEquals(0, repository.queueDepth());
+    }
+
+    @Test
+    void flushErrorShouldWriteOtherChangesAndRetryFailedOne() {
+        Logger logger = Mockito.mock(Logger.class);
+        repository = new WriteBehindPlayerItemRepository(baseRepository, Mockito.mock(ScheduledExecutorService.class), logger);
+
+        PlayerItem duplicate = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        PlayerItem other = new PlayerItem(1, 2, 284, new ArrayList<>(), 5, -1);
+
+        repository.add(duplicate);
+        repository.add(other);
+        repository.flush();
+
+        Mockito.verify(logger).warn(Mockito.eq("Cannot write 2 inventory changes in a single transaction. Write them one by one"), Mockito.any(RuntimeException.class));
+        Mockito.verify(logger).error(Mockito.eq("Cannot write inventory change of item 1 of player 1. It will be retried"), Mockito.any(RuntimeException.class));
+        assertTrue(baseRepository.has(other));
+        assertEquals(1, repository.queueDepth());
+
+        // The item is removed : the insert can be retried
+        baseRepository.delete(duplicate);
+        repository.flush();
+
+        assertEquals(0, repository.queueDepth());
+        assertTrue(baseRepository.has(duplicate));
+    }
+
+    @Test
+    void failedWriteShouldScheduleRetryWithBackoff() {
+        ScheduledExecutorService executor = Mockito.mock(ScheduledExecutorService.class);
+        repository = new WriteBehindPlayerItemRepository(baseRepository, executor, container.get(Logger.class));
+
+        PlayerItem item = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        repository.add(item);
+
+        repository.flush();
+        Mockito.verify(executor).schedule(Mockito.any(Runnable.class), Mockito.eq(1000L), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        repository.flush();
+        Mockito.verify(executor).schedule(Mockito.any(Runnable.class), Mockito.eq(2000L), Mockito.eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void flushShouldLogMetrics() {
+        Logger logger = Mockito.mock(Logger.class);
+        repository = new WriteBehindPlayerItemRepository(baseRepository, Mockito.mock(ScheduledExecutorService.class), logger);
+
+        repository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        repository.flush();
+
+        Mockito.verify(logger).debug(Mockito.eq("Inventory changes flushed : {} writes in {}ms ({} pending)"), Mockito.eq(1), Mockito.anyLong(), Mockito.eq(0));
+    }
+
+    @Test
+    void failedWriteShouldBeMergedWithNewerChanges() {
+        PlayerItem item = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+
+        // Insert fails because of duplicate key
+        repository.add(new PlayerItem(1, 1, 39, new ArrayList<>(), 1, -1));
+        repository.flush();
+        assertEquals(1, repository.queueDepth());
+
+        baseRepository.delete(item);
+
+        PlayerItem newer = new PlayerItem(1, 1, 39, new ArrayList<>(), 3, 2);
+        repository.update(newer);
+        assertEquals(1, repository.queueDepth());
+
+        // Insert + update are merged into an insert of the newer state
+        repository.flush();
+
+        PlayerItem saved = baseRepository.get(item);
+        assertEquals(39, saved.itemTemplateId());
+        assertEquals(3, saved.quantity());
+        assertEquals(2, saved.position());
+        assertEquals(0, repository.queueDepth());
+    }
+
+    @Test
+    void failedWriteShouldBeDiscardedAfterMaxAttempts() {
+        Logger logger = Mockito.mock(Logger.class);
+        repository = new WriteBehindPlayerItemRepository(baseRepository, Mockito.mock(ScheduledExecutorService.class), logger);
+
+        PlayerItem item = baseRepository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        repository.add(item);
+
+        for (int i = 1; i < WriteBehindPlayerItemRepository.MAX_ATTEMPTS; ++i) {
+            repository.flush();
+            assertEquals(1, repository.queueDepth());
+        }
+
+        repository.flush();
+
+        assertEquals(0, repository.queueDepth());
+        Mockito.verify(logger).error("Cannot write inventory change of item 1 of player 1 after 5 attempts. The change is lost");
+    }
+
+    @Test
+    void missingItemShouldBeDiscarded() {
+        Logger logger = Mockito.mock(Logger.class);
+        repository = new WriteBehindPlayerItemRepository(baseRepository, Mockito.mock(ScheduledExecutorService.class), logger);
+
+        PlayerItem missing = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        PlayerItem other = new PlayerItem(1, 2, 284, new ArrayList<>(), 5, -1);
+
+        repository.update(missing);
+        repository.add(other);
+        repository.flush();
+
+        Mockito.verify(logger).error(Mockito.eq("Cannot write inventory change of item 1 of player 1 : the item is not found"), Mockito.any(EntityNotFoundException.class));
+        assertEquals(0, repository.queueDepth());
+        assertTrue(baseRepository.has(other));
+        assertFalse(baseRepository.has(missing));
+    }
+
+    @Test
+    void lastFlushDuration() {
+        assertEquals(Duration.ZERO, repository.lastFlushDuration());
+
+        repository.add(new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1));
+        repository.flush();
+
+        assertTrue(repository.lastFlushDuration().toNanos() > 0);
+    }
+
+    @Test
+    void onSavingGame() {
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        ListenerAggregate dispatcher = container.get(ListenerAggregate.class);
+
+        dispatcher.register(repository);
+        repository.add(item);
+        dispatcher.dispatch(new SavingGame());
+
+        assertTrue(baseRepository.has(item));
+    }
+
+    @Test
+    void onGameStopped() {
+        repository = new WriteBehindPlayerItemRepository(baseRepository, container.get(Logger.class));
+        ExecutorFactory.disableDirectExecution();
+
+        PlayerItem item = new PlayerItem(1, 1, 284, new ArrayList<>(), 5, -1);
+        ListenerAggregate dispatcher = container.get(ListenerAggregate.class);
+
+        dispatcher.register(repository);
+        repository.add(item);
+        dispatcher.dispatch(new GameStopped(container.get(GameService.class)));
+
+        assertTrue(baseRepository.has(item));
+
+        // Executor is stopped : write immediately
+        PlayerItem other = new PlayerItem(1, 2, 284, new ArrayList<>(), 5, -1);
+        repository.add(other);
+        assertTrue(baseRepository.has(other));
+    }
+
+    @Test
+    void onPlayerLoaded() throws Exception {
+        ListenerAggregate dispatcher = container.get(ListenerAggregate.class);
+        GamePlayer player = gamePlayer();
+
+        dispatcher.register(repository);
+        dispatcher.dispatch(new PlayerLoaded(player));
+
+        assertTrue(player.dispatcher().has(FlushInventoryChanges.class));
+    }
+}
@@ -22,11 +22,14 @@ package fr.quatrevieux.araknemu.game.spell.effect.area;
 import fr.quatrevieux.araknemu.data.value.EffectArea;
 import fr.quatrevieux.araknemu.data.world.repository.environment.MapTemplateRepository;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
+import fr.quatrevieux.araknemu.game.fight.map.FightCell;
 import fr.quatrevieux.araknemu.game.fight.map.FightMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -80,4 +83,23 @@ class CircleAreaTest extends GameBaseCase {
             map.get(94)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void resolveShouldContainsAllCellsInRangeOnAllMap() {
+        for (int size = 0; size <= 5; ++size) {
+            CircleArea area = new CircleArea(new EffectArea(EffectArea.Type.CIRCLE, size));
+
+            for (int center = 0; center < map.size(); ++center) {
+                Set<FightCell> expected = new HashSet<>();
+
+                for (int id = 0; id < map.size(); ++id) {
+                    if (map.get(center).coordinate().distance(map.get(id)) <= size) {
+                        expected.add(map.get(id));
+                    }
+                }
+
+                assertEquals(expected, area.resolve(map.get(center), map.get(center)));
+            }
+        }
+    }
+}
@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DefaultCharacteristicsTest {
     @Test
@@ -160,4 +162,62 @@ class DefaultCharacteristicsTest {
 
         assertEquals(70, c.get(Characteristic.INTELLIGENCE));
     }
+
+    @Test
+    void copy() {
+        DefaultCharacteristics c = new DefaultCharacteristics();
+        c.set(Characteristic.INTELLIGENCE, 50);
+
+        DefaultCharacteristics copy = c.copy();
+
+        assertEquals(c, copy);
+        assertNotSame(c, copy);
+
+        copy.add(Characteristic.INTELLIGENCE, 20);
+        c.add(Characteristic.STRENGTH, 10);
+
+        assertEquals(50, c.get(Characteristic.INTELLIGENCE));
+        assertEquals(10, c.get(Characteristic.STRENGTH));
+        assertEquals(70, copy.get(Characteristic.INTELLIGENCE));
+        assertEquals(0, copy.get(Characteristic.STRENGTH));
+    }
+
+    @Test
+    void mergeWithDefaultCharacteristics() {
+        DefaultCharacteristics c = new DefaultCharacteristics();
+        c.set(Characteristic.INTELLIGENCE, 50);
+        c.set(Characteristic.STRENGTH, 10);
+
+        DefaultCharacteristics other = new DefaultCharacteristics();
+        other.set(Characteristic.INTELLIGENCE, 20);
+        other.set(Characteristic.AGILITY, -5);
+
+        c.merge(other);
+
+        assertEquals(70, c.get(Characteristic.INTELLIGENCE));
+        assertEquals(10, c.get(Characteristic.STRENGTH));
+        assertEquals(-5, c.get(Characteristic.AGILITY));
+        assertEquals(20, other.get(Characteristic.INTELLIGENCE));
+    }
+
+    @Test
+    void mergeWithOtherImplementation() {
+        DefaultCharacteristics c = new DefaultCharacteristics();
+        c.set(Characteristic.INTELLIGENCE, 50);
+
+        c.merge(characteristic -> characteristic == Characteristic.INTELLIGENCE || characteristic == Characteristic.LUCK ? 15 : 0);
+
+        assertEquals(65, c.get(Characteristic.INTELLIGENCE));
+        assertEquals(15, c.get(Characteristic.LUCK));
+        assertEquals(0, c.get(Characteristic.STRENGTH));
+    }
+
+    @Test
+    void equalsWithOtherImplementation() {
+        DefaultCharacteristics c = new DefaultCharacteristics();
+        c.set(Characteristic.INTELLIGENCE, 15);
+
+        assertTrue(c.equals((Characteristics) characteristic -> characteristic == Characteristic.INTELLIGENCE ? 15 : 0));
+        assertFalse(c.equals((Characteristics) characteristic -> 0));
+    }
 }
@@ -24,10 +24,13 @@ import fr.quatrevieux.araknemu.core.network.SessionCreated;
 import fr.quatrevieux.araknemu.core.network.parser.Dispatcher;
 import fr.quatrevieux.araknemu.core.network.parser.PacketParser;
 import fr.quatrevieux.araknemu.core.network.session.ConfigurableSession;
+import fr.quatrevieux.araknemu.core.network.session.extension.PacketExecutor;
 import fr.quatrevieux.araknemu.data.living.entity.account.Account;
 import fr.quatrevieux.araknemu.data.living.entity.account.ConnectionLog;
 import fr.quatrevieux.araknemu.game.GameBaseCase;
 import fr.quatrevieux.araknemu.game.account.TokenService;
+import fr.quatrevieux.araknemu.network.game.in.account.LoginToken;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -82,4 +85,29 @@ class GamePacketConfiguratorTest extends GameBaseCase {
         assertTrue(gameSession.isLogged());
         assertEquals(1, gameSession.account().id());
     }
+
+    @Test
+    void withExecutor() throws Exception {
+        PacketExecutor executor = new PacketExecutor(1, container.get(Logger.class));
+        configurator = new GamePacketConfigurator(
+            container.get(Dispatcher.class),
+            container.get(PacketParser.class),
+            executor
+        );
+        ConfigurableSession session = new ConfigurableSession(channel);
+        gameSession = new GameSession(session);
+
+        configurator.configure(session, gameSession);
+
+        Account account = new Account(1, "", "", "");
+        dataSet.push(account);
+        dataSet.push(new ConnectionLog(account.id(), Instant.now(), "127.0.0.1"));
+
+        String token = container.get(TokenService.class).generate(account);
+
+        gameSession.receive("AT" + token);
+
+        assertTrue(gameSession.isLogged());
+        assertEquals(1, executor.metrics().get(LoginToken.class).count());
+    }
 }
@@ -37,11 +37,32 @@ class GameActionRequestTest {
         assertArrayEquals(new String[] {"dfi"}, ga.arguments());
     }
 
+    @Test
+    void parseWithMultipleArguments() {
+        GameActionRequest.Parser parser = new GameActionRequest.Parser();
+
+        GameActionRequest ga = parser.parse("300123;;456;");
+
+        assertEquals(300, ga.type());
+        assertArrayEquals(new String[] {"123", "456"}, ga.arguments());
+    }
+
+    @Test
+    void parseWithoutArguments() {
+        GameActionRequest.Parser parser = new GameActionRequest.Parser();
+
+        GameActionRequest ga = parser.parse("500");
+
+        assertEquals(500, ga.type());
+        assertArrayEquals(new String[0], ga.arguments());
+    }
+
     @Test
     void parseInvalid() {
         GameActionRequest.Parser parser = new GameActionRequest.Parser();
 
         assertThrows(ParsePacketException.class, () -> parser.parse("02"));
+        assertThrows(NumberFormatException.class, () -> parser.parse("a01"));
 
     }
 }
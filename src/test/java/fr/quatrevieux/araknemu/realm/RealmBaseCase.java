@@ -48,6 +48,7 @@ import fr.quatrevieux.araknemu.realm.authentication.AuthenticationAccount;
 import fr.quatrevieux.araknemu.realm.host.GameConnector;
 import fr.quatrevieux.araknemu.realm.host.GameHost;
 import fr.quatrevieux.araknemu.realm.host.HostService;
+import fr.quatrevieux.araknemu.util.ExecutorFactory;
 import org.apache.logging.log4j.LogManager;
 import org.ini4j.Ini;
 import org.junit.jupiter.api.AfterEach;
@@ -123,6 +124,8 @@ public class RealmBaseCase extends DatabaseTestCase {
     public void setUp() throws Exception {
         super.setUp();
 
+        ExecutorFactory.enableTestingMode();
+
         Configuration conf = new DefaultConfiguration(
             new IniDriver(new Ini(new File("src/test/test_config.ini")))
         );
@@ -174,6 +177,7 @@ public class RealmBaseCase extends DatabaseTestCase {
 
     @AfterEach
     void tearDown() throws ContainerException {
+        ExecutorFactory.resetTestingExecutor();
         dataSet.destroy();
     }
 
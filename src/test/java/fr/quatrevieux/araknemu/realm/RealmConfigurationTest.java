@@ -72,6 +72,16 @@ class RealmConfigurationTest {
         assertEquals(Duration.ofSeconds(30), configuration.banIpRefresh());
     }
 
+    @Test
+    void authenticationWorkers() {
+        assertEquals(4, configuration.authenticationWorkers());
+    }
+
+    @Test
+    void authenticationQueueSize() {
+        assertEquals(1000, configuration.authenticationQueueSize());
+    }
+
     @Test
     void argon2() {
         assertEquals(4, configuration.argon2().iterations());
@@ -50,7 +50,8 @@ class AuthenticationAccountTest extends RealmBaseCase {
             container.get(AccountRepository.class),
             container.get(HostService.class),
             container.get(PasswordManager.class),
-            container.get(BanishmentService.class)
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
         );
     }
 
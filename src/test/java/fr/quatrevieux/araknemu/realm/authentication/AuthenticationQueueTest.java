@@ -0,0 +1,192 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.realm.authentication;
+
+import fr.quatrevieux.araknemu.realm.event.AuthStopped;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthenticationQueueTest {
+    private StackExecutor executor;
+    private Logger logger;
+    private AuthenticationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        executor = new StackExecutor();
+        logger = Mockito.mock(Logger.class);
+        queue = new AuthenticationQueue(executor, 3, logger);
+    }
+
+    @Test
+    void pushShouldExecuteTask() {
+        AtomicBoolean executed = new AtomicBoolean();
+
+        AuthenticationQueue.Ticket ticket = queue.push(() -> executed.set(true));
+
+        assertFalse(executed.get());
+        assertFalse(ticket.started());
+        assertEquals(1, queue.size());
+
+        executor.runNext();
+
+        assertTrue(executed.get());
+        assertTrue(ticket.started());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void position() {
+        AuthenticationQueue.Ticket t1 = queue.push(() -> {});
+        AuthenticationQueue.Ticket t2 = queue.push(() -> {});
+        AuthenticationQueue.Ticket t3 = queue.push(() -> {});
+
+        assertEquals(1, t1.position());
+        assertEquals(2, t2.position());
+        assertEquals(3, t3.position());
+
+        executor.runNext();
+
+        assertEquals(1, t1.position());
+        assertEquals(1, t2.position());
+        assertEquals(2, t3.position());
+
+        executor.runNext();
+        executor.runNext();
+
+        assertEquals(1, t1.position());
+        assertEquals(1, t2.position());
+        assertEquals(1, t3.position());
+    }
+
+    @Test
+    void pushFull() {
+        queue.push(() -> {});
+        queue.push(() -> {});
+        queue.push(() -> {});
+
+        assertNull(queue.push(() -> {}));
+        assertEquals(3, queue.size());
+
+        executor.runNext();
+
+        assertEquals(3, queue.push(() -> {}).position());
+    }
+
+    @Test
+    void pushRejected() {
+        executor.shutdown();
+
+        assertNull(queue.push(() -> {}));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void taskErrorShouldBeLogged() {
+        RuntimeException error = new RuntimeException("my error");
+
+        queue.push(() -> { throw error; });
+        executor.runNext();
+
+        Mockito.verify(logger).error("Error during authentication process", error);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void shutdownOnAuthStopped() {
+        queue.listeners()[0].on(new AuthStopped());
+
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    void withWorkersShouldExecuteTasks() throws InterruptedException {
+        queue = new AuthenticationQueue(2, 10, logger);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        queue.push(() -> executed.set(true));
+        Thread.sleep(100);
+
+        assertTrue(executed.get());
+        queue.shutdown();
+    }
+
+    /**
+     * Executor which keep tasks until {@link StackExecutor#runNext()} is called
+     */
+    static class StackExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private boolean shutdown = false;
+
+        void runNext() {
+            tasks.remove(0).run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+
+            return tasks;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+
+            tasks.add(command);
+        }
+    }
+}
@@ -21,15 +21,19 @@ package fr.quatrevieux.araknemu.realm.authentication;
 
 import fr.quatrevieux.araknemu.common.account.banishment.BanishmentService;
 import fr.quatrevieux.araknemu.core.di.ContainerException;
+import fr.quatrevieux.araknemu.core.event.Dispatcher;
 import fr.quatrevieux.araknemu.core.event.ListenerAggregate;
 import fr.quatrevieux.araknemu.data.living.entity.account.Account;
 import fr.quatrevieux.araknemu.data.living.entity.account.Banishment;
 import fr.quatrevieux.araknemu.data.living.repository.account.AccountRepository;
+import fr.quatrevieux.araknemu.data.living.repository.player.PlayerRepository;
 import fr.quatrevieux.araknemu.realm.RealmBaseCase;
 import fr.quatrevieux.araknemu.realm.authentication.password.PasswordManager;
 import fr.quatrevieux.araknemu.realm.authentication.password.PlainTextHash;
+import fr.quatrevieux.araknemu.realm.host.GameConnector;
 import fr.quatrevieux.araknemu.realm.host.GameHost;
 import fr.quatrevieux.araknemu.realm.host.HostService;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -38,6 +42,7 @@ import java.time.temporal.ChronoUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AuthenticationServiceTest extends RealmBaseCase {
@@ -54,7 +59,8 @@ class AuthenticationServiceTest extends RealmBaseCase {
             container.get(AccountRepository.class),
             container.get(HostService.class),
             container.get(PasswordManager.class),
-            container.get(BanishmentService.class)
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
         );
 
         dataSet.use(Account.class, Banishment.class);
@@ -162,6 +168,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
 
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("invalidCredentials", response);
@@ -206,6 +222,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
 
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("invalidCredentials", response);
@@ -259,6 +285,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
 
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("alreadyConnected", response);
@@ -312,6 +348,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
                 response = "banned";
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("isPlaying", response);
@@ -366,6 +412,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
                 response = "banned";
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("banned", response);
@@ -413,6 +469,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
                 response = "banned";
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("success", response);
@@ -461,6 +527,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
                 response = "banned";
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("success", response);
@@ -510,6 +586,16 @@ class AuthenticationServiceTest extends RealmBaseCase {
             public void banned() {
                 response = "banned";
             }
+
+            @Override
+            public void queued(AuthenticationQueue.Ticket ticket) {
+
+            }
+
+            @Override
+            public void serverFull() {
+
+            }
         });
 
         assertEquals("success", response);
@@ -534,4 +620,266 @@ class AuthenticationServiceTest extends RealmBaseCase {
         container.get(HostService.class).updateHost(2, GameHost.State.ONLINE, true);
         requestStack.assertLast("AH1;1;110;1|2;1;110;1");
     }
+
+    @Test
+    void authenticateShouldBeQueued() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        RequestStub request = new RequestStub("test", "pass");
+        service.authenticate(request);
+
+        assertEquals("success", request.response);
+        assertEquals(1, request.ticket.position());
+        assertTrue(request.ticket.started());
+    }
+
+    @Test
+    void authenticateQueueFull() {
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            container.get(HostService.class),
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            new AuthenticationQueue(1, 0, container.get(Logger.class))
+        );
+
+        RequestStub request = new RequestStub("test", "pass");
+        service.authenticate(request);
+
+        assertEquals("serverFull", request.response);
+        assertNull(request.ticket);
+    }
+
+    @Test
+    void authenticateSameAccountWhileLoginIsPending() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        HostService hosts = new HostService(container.get(PlayerRepository.class), container.get(Dispatcher.class));
+        hosts.declare(new GameHost(new GameConnector() {
+            @Override
+            public void checkLogin(AuthenticationAccount account, HostResponse<Boolean> response) {
+                // Never respond
+            }
+
+            @Override
+            public void token(AuthenticationAccount account, HostResponse<String> response) {}
+        }, 1, 1234, "127.0.0.1"));
+
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            hosts,
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
+        );
+
+        RequestStub first = new RequestStub("test", "pass");
+        RequestStub second = new RequestStub("test", "pass");
+
+        service.authenticate(first);
+        service.authenticate(second);
+
+        assertNull(first.response);
+        assertEquals("alreadyConnected", second.response);
+    }
+
+    @Test
+    void authenticateErrorShouldReleaseAccount() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        HostService hosts = new HostService(container.get(PlayerRepository.class), container.get(Dispatcher.class));
+        hosts.declare(new GameHost(new GameConnector() {
+            @Override
+            public void checkLogin(AuthenticationAccount account, HostResponse<Boolean> response) {
+                throw new RuntimeException("my error");
+            }
+
+            @Override
+            public void token(AuthenticationAccount account, HostResponse<String> response) {}
+        }, 1, 1234, "127.0.0.1"));
+
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            hosts,
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
+        );
+
+        RequestStub first = new RequestStub("test", "pass");
+        service.authenticate(first);
+        assertEquals("invalidCredentials", first.response);
+
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            container.get(HostService.class),
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
+        );
+
+        RequestStub second = new RequestStub("test", "pass");
+        service.authenticate(second);
+        assertEquals("success", second.response);
+    }
+
+    @Test
+    void authenticateSameAccountWithInvalidPasswordWhileLoginIsPending() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        HostService hosts = new HostService(container.get(PlayerRepository.class), container.get(Dispatcher.class));
+        hosts.declare(new GameHost(new GameConnector() {
+            @Override
+            public void checkLogin(AuthenticationAccount account, HostResponse<Boolean> response) {
+                // Never respond
+            }
+
+            @Override
+            public void token(AuthenticationAccount account, HostResponse<String> response) {}
+        }, 1, 1234, "127.0.0.1"));
+
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            hosts,
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
+        );
+
+        RequestStub first = new RequestStub("test", "pass");
+        RequestStub second = new RequestStub("test", "invalid");
+
+        service.authenticate(first);
+        service.authenticate(second);
+
+        assertNull(first.response);
+        assertEquals("invalidCredentials", second.response);
+    }
+
+    @Test
+    void authenticateSameAccountWithValidPasswordWhileLoginIsPending() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        HostService hosts = new HostService(container.get(PlayerRepository.class), container.get(Dispatcher.class));
+        hosts.declare(new GameHost(new GameConnector() {
+            @Override
+            public void checkLogin(AuthenticationAccount account, HostResponse<Boolean> response) {
+                // Never respond
+            }
+
+            @Override
+            public void token(AuthenticationAccount account, HostResponse<String> response) {}
+        }, 1, 1234, "127.0.0.1"));
+
+        service = new AuthenticationService(
+            container.get(AccountRepository.class),
+            hosts,
+            container.get(PasswordManager.class),
+            container.get(BanishmentService.class),
+            container.get(AuthenticationQueue.class)
+        );
+
+        RequestStub first = new RequestStub("test", "pass");
+        RequestStub second = new RequestStub("test", "pass");
+
+        service.authenticate(first);
+        service.authenticate(second);
+
+        assertNull(first.response);
+        assertEquals("alreadyConnected", second.response);
+    }
+
+    @Test
+    void authenticateInvalidPasswordShouldReleaseAccount() throws ContainerException {
+        dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        RequestStub first = new RequestStub("test", "invalid");
+        service.authenticate(first);
+        assertEquals("invalidCredentials", first.response);
+
+        RequestStub second = new RequestStub("test", "pass");
+        service.authenticate(second);
+        assertEquals("success", second.response);
+    }
+
+    @Test
+    void authenticateAlreadyConnectedShouldReleaseAccount() throws ContainerException {
+        Account account = dataSet.push(new Account(-1, "test", "pass", "pseudo"));
+
+        AuthenticationAccount authenticationAccount = new AuthenticationAccount(
+            account,
+            new PlainTextHash().parse("pass"),
+            service
+        );
+
+        authenticationAccount.attach(session);
+        service.login(authenticationAccount);
+
+        RequestStub first = new RequestStub("test", "pass");
+        service.authenticate(first);
+        assertEquals("alreadyConnected", first.response);
+
+        service.logout(authenticationAccount);
+
+        RequestStub second = new RequestStub("test", "pass");
+        service.authenticate(second);
+        assertEquals("success", second.response);
+    }
+
+    static class RequestStub implements AuthenticationRequest {
+        private final String username;
+        private final String password;
+        private String response;
+        private AuthenticationQueue.Ticket ticket;
+
+        RequestStub(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        public String username() {
+            return username;
+        }
+
+        @Override
+        public String password() {
+            return password;
+        }
+
+        @Override
+        public void success(AuthenticationAccount account) {
+            response = "success";
+        }
+
+        @Override
+        public void invalidCredentials() {
+            response = "invalidCredentials";
+        }
+
+        @Override
+        public void alreadyConnected() {
+            response = "alreadyConnected";
+        }
+
+        @Override
+        public void isPlaying() {
+            response = "isPlaying";
+        }
+
+        @Override
+        public void banned() {
+            response = "banned";
+        }
+
+        @Override
+        public void queued(AuthenticationQueue.Ticket ticket) {
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void serverFull() {
+            response = "serverFull";
+        }
+    }
 }
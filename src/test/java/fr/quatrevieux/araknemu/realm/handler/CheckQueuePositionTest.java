@@ -0,0 +1,82 @@
+/*
+ * This file is part of Araknemu.
+ *
+ * Araknemu is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Araknemu is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Araknemu.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (c) 2017-2023 Vincent Quatrevieux
+ */
+
+package fr.quatrevieux.araknemu.realm.handler;
+
+import fr.quatrevieux.araknemu.network.in.AskQueuePosition;
+import fr.quatrevieux.araknemu.network.out.QueuePosition;
+import fr.quatrevieux.araknemu.realm.RealmBaseCase;
+import fr.quatrevieux.araknemu.realm.authentication.AuthenticationQueue;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class CheckQueuePositionTest extends RealmBaseCase {
+    private CheckQueuePosition handler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+
+        handler = new CheckQueuePosition();
+    }
+
+    @Test
+    void handleNotQueued() {
+        handler.handle(session, new AskQueuePosition());
+
+        requestStack.assertLast(new QueuePosition(1));
+    }
+
+    @Test
+    void handleQueued() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AuthenticationQueue queue = new AuthenticationQueue(executor, 10, container.get(Logger.class));
+        CountDownLatch latch = new CountDownLatch(1);
+
+        AuthenticationQueue.Ticket first = queue.push(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        queue.push(() -> {});
+        session.setQueueTicket(queue.push(() -> {}));
+
+        while (!first.started()) {
+            Thread.yield();
+        }
+
+        handler.handle(session, new AskQueuePosition());
+        requestStack.assertLast(new QueuePosition(2));
+
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        handler.handle(session, new AskQueuePosition());
+        requestStack.assertLast(new QueuePosition(1));
+    }
+}
@@ -20,12 +20,14 @@
 package fr.quatrevieux.araknemu.realm.handler.account;
 
 import fr.quatrevieux.araknemu.common.account.Permission;
+import fr.quatrevieux.araknemu.common.account.banishment.BanishmentService;
 import fr.quatrevieux.araknemu.common.session.SessionLogService;
 import fr.quatrevieux.araknemu.core.di.ContainerException;
 import fr.quatrevieux.araknemu.core.network.util.DummyChannel;
 import fr.quatrevieux.araknemu.data.living.entity.account.Account;
 import fr.quatrevieux.araknemu.data.living.entity.account.Banishment;
 import fr.quatrevieux.araknemu.data.living.entity.account.ConnectionLog;
+import fr.quatrevieux.araknemu.data.living.repository.account.AccountRepository;
 import fr.quatrevieux.araknemu.data.living.repository.account.ConnectionLogRepository;
 import fr.quatrevieux.araknemu.network.realm.in.Credentials;
 import fr.quatrevieux.araknemu.network.realm.out.Community;
@@ -36,9 +38,12 @@ import fr.quatrevieux.araknemu.network.realm.out.Question;
 import fr.quatrevieux.araknemu.realm.ConnectionKeyTest;
 import fr.quatrevieux.araknemu.realm.RealmBaseCase;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationAccount;
+import fr.quatrevieux.araknemu.realm.authentication.AuthenticationQueue;
 import fr.quatrevieux.araknemu.realm.authentication.AuthenticationService;
+import fr.quatrevieux.araknemu.realm.authentication.password.PasswordManager;
 import fr.quatrevieux.araknemu.realm.authentication.password.PlainTextHash;
 import fr.quatrevieux.araknemu.realm.host.HostService;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -118,6 +123,32 @@ class AuthenticateTest extends RealmBaseCase {
         );
     }
 
+    @Test
+    void handleServerFull() {
+        handler = new Authenticate(
+            new AuthenticationService(
+                container.get(AccountRepository.class),
+                container.get(HostService.class),
+                container.get(PasswordManager.class),
+                container.get(BanishmentService.class),
+                new AuthenticationQueue(1, 0, container.get(Logger.class))
+            ),
+            container.get(HostService.class),
+            container.get(SessionLogService.class)
+        );
+
+        handler.handle(session, new Credentials(
+            "login",
+            ConnectionKeyTest.cryptPassword("password", session.key().key()),
+            Credentials.Method.VIGENERE_BASE_64
+        ));
+
+        assertFalse(session.isLogged());
+        assertClosed();
+
+        requestStack.assertLast(new LoginError(LoginError.SERVER_FULL));
+    }
+
     @Test
     void handleInvalidCredentials() {
         handler.handle(session, new Credentials(
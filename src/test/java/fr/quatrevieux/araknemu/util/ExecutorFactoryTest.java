@@ -4,11 +4,15 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -77,6 +81,8 @@ class ExecutorFactoryTest {
         assertNotSame(ExecutorFactory.createSingleThread(), e);
         assertEquals("TestingExecutor", e.getClass().getSimpleName());
         assertEquals("TestingExecutor", ExecutorFactory.create(5).getClass().getSimpleName());
+        assertEquals("TestingExecutor", ExecutorFactory.createWorkers(5).getClass().getSimpleName());
+        assertEquals("TestingExecutor", ExecutorFactory.createForkJoinPool(5).getClass().getSimpleName());
     }
 
     @Test
@@ -92,4 +98,37 @@ class ExecutorFactoryTest {
         e1.shutdown();
         e2.shutdown();
     }
+
+    @Test
+    void createWorkersWithoutTestingMode() throws InterruptedException {
+        ExecutorFactory.disableTestingMode();
+
+        ExecutorService executor = ExecutorFactory.createWorkers(2);
+        AtomicBoolean b = new AtomicBoolean();
+
+        assertNotEquals("TestingExecutor", executor.getClass().getSimpleName());
+
+        executor.execute(() -> b.set(true));
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(b.get());
+    }
+
+    @Test
+    void createForkJoinPoolWithoutTestingMode() throws InterruptedException {
+        ExecutorFactory.disableTestingMode();
+
+        ExecutorService executor = ExecutorFactory.createForkJoinPool(2);
+        AtomicBoolean b = new AtomicBoolean();
+
+        assertInstanceOf(ForkJoinPool.class, executor);
+        assertEquals(2, ((ForkJoinPool) executor).getParallelism());
+
+        executor.execute(() -> b.set(true));
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(b.get());
+    }
 }